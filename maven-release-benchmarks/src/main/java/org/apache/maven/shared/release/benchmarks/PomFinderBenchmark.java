@@ -0,0 +1,89 @@
+package org.apache.maven.shared.release.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.release.util.PomFinder;
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures searching a checked out reactor for the POM of the last module, as release:perform does when the
+ * released project is not at the root of the checkout.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class PomFinderBenchmark
+{
+    @Param( { "10", "100", "1000", "5000" } )
+    private int modules;
+
+    private SyntheticReactor reactor;
+
+    private File pomFile;
+
+    private Logger logger;
+
+    @Setup( Level.Trial )
+    public void setUp()
+        throws Exception
+    {
+        reactor = SyntheticReactor.create( modules );
+        List<MavenProject> reactorProjects = reactor.getReactorProjects();
+        pomFile = reactorProjects.get( reactorProjects.size() - 1 ).getFile();
+        logger = new ConsoleLogger( Logger.LEVEL_WARN, "pom-finder" );
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown()
+        throws Exception
+    {
+        reactor.delete();
+    }
+
+    @Benchmark
+    public File find()
+    {
+        PomFinder finder = new PomFinder( logger );
+        finder.parsePom( pomFile );
+        return finder.findMatchingPom( reactor.getBasedir() );
+    }
+}
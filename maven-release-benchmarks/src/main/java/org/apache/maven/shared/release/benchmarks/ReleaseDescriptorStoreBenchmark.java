@@ -0,0 +1,114 @@
+package org.apache.maven.shared.release.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.shared.release.config.ReleaseDescriptor;
+import org.apache.maven.shared.release.config.ReleaseDescriptorStore;
+import org.codehaus.plexus.PlexusContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures storing the release configuration the way release:prepare does, once after each phase, and reading it
+ * back the way a resumed release or release:perform does.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class ReleaseDescriptorStoreBenchmark
+{
+    static final String[] PREPARE_PHASES = { "check-poms", "scm-check-modifications", "check-dependency-snapshots",
+        "create-backup-poms", "map-release-versions", "input-variables", "map-development-versions",
+        "rewrite-poms-for-release", "generate-release-poms", "run-preparation-goals", "scm-commit-release",
+        "scm-tag", "rewrite-poms-for-development", "remove-release-poms", "run-completion-goals",
+        "scm-commit-development", "end-release" };
+
+    @Param( { "10", "100", "1000", "5000" } )
+    private int modules;
+
+    @Param( { "properties", "journaled" } )
+    private String storeId;
+
+    private SyntheticReactor reactor;
+
+    private PlexusContainer container;
+
+    private ReleaseDescriptorStore store;
+
+    private ReleaseDescriptor releaseDescriptor;
+
+    @Setup( Level.Trial )
+    public void setUp()
+        throws Exception
+    {
+        reactor = SyntheticReactor.create( modules );
+        releaseDescriptor = reactor.createReleaseDescriptor();
+
+        container = BenchmarkContainer.start();
+        store = (ReleaseDescriptorStore) container.lookup( ReleaseDescriptorStore.ROLE, storeId );
+
+        write();
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown()
+        throws Exception
+    {
+        container.dispose();
+        reactor.delete();
+    }
+
+    @Benchmark
+    public File write()
+        throws Exception
+    {
+        store.delete( releaseDescriptor );
+        for ( int i = 0; i < PREPARE_PHASES.length; i++ )
+        {
+            releaseDescriptor.setCompletedPhase( PREPARE_PHASES[i] );
+            store.write( releaseDescriptor );
+        }
+        return reactor.getBasedir();
+    }
+
+    @Benchmark
+    public ReleaseDescriptor read()
+        throws Exception
+    {
+        return store.read( releaseDescriptor );
+    }
+}
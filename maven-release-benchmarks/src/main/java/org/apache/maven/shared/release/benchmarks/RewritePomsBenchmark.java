@@ -0,0 +1,104 @@
+package org.apache.maven.shared.release.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.release.ReleaseResult;
+import org.apache.maven.shared.release.config.ReleaseDescriptor;
+import org.apache.maven.shared.release.env.DefaultReleaseEnvironment;
+import org.apache.maven.shared.release.env.ReleaseEnvironment;
+import org.apache.maven.shared.release.phase.ReleasePhase;
+import org.codehaus.plexus.PlexusContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time to transform all POMs of a reactor. The phases are simulated, which runs the same
+ * transformation but writes the result next to the original POMs, so that every invocation starts from the same
+ * POMs.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class RewritePomsBenchmark
+{
+    @Param( { "10", "100", "1000", "5000" } )
+    private int modules;
+
+    @Param( { "rewrite-poms-for-release", "rewrite-poms-for-development" } )
+    private String phaseName;
+
+    private SyntheticReactor reactor;
+
+    private PlexusContainer container;
+
+    private ReleasePhase phase;
+
+    private ReleaseDescriptor releaseDescriptor;
+
+    private ReleaseEnvironment releaseEnvironment;
+
+    private List<MavenProject> reactorProjects;
+
+    @Setup( Level.Trial )
+    public void setUp()
+        throws Exception
+    {
+        reactor = SyntheticReactor.create( modules );
+        reactorProjects = reactor.getReactorProjects();
+        releaseDescriptor = reactor.createReleaseDescriptor();
+        releaseEnvironment = new DefaultReleaseEnvironment();
+
+        container = BenchmarkContainer.start();
+        phase = (ReleasePhase) container.lookup( ReleasePhase.ROLE, phaseName );
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown()
+        throws Exception
+    {
+        container.dispose();
+        reactor.delete();
+    }
+
+    @Benchmark
+    public ReleaseResult transform()
+        throws Exception
+    {
+        return phase.simulate( releaseDescriptor, releaseEnvironment, reactorProjects );
+    }
+}
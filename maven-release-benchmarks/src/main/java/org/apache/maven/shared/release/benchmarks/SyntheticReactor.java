@@ -0,0 +1,267 @@
+package org.apache.maven.shared.release.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.release.config.ReleaseDescriptor;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * Generates a multi-module project on disk, with the reactor projects Maven would build for it. The root POM manages
+ * a few external dependencies and holds the SCM information, and every module inherits from it and depends on the
+ * module before it, so that the release phases have parents, reactor dependencies and external dependencies to
+ * process.
+ */
+public class SyntheticReactor
+{
+    public static final String GROUP_ID = "org.apache.maven.release.benchmarks";
+
+    public static final String VERSION = "1.0-SNAPSHOT";
+
+    public static final String RELEASE_VERSION = "1.0";
+
+    public static final String DEVELOPMENT_VERSION = "1.1-SNAPSHOT";
+
+    public static final String SCM_URL = "scm:svn:file://localhost/tmp/scm-repo/trunk";
+
+    private static final String[][] EXTERNAL_DEPENDENCIES = { { "junit", "junit", "3.8.2" },
+        { "commons-lang", "commons-lang", "2.4" }, { "org.codehaus.plexus", "plexus-utils", "1.5.6" } };
+
+    private final File basedir;
+
+    private final List<MavenProject> reactorProjects;
+
+    private SyntheticReactor( File basedir, List<MavenProject> reactorProjects )
+    {
+        this.basedir = basedir;
+        this.reactorProjects = reactorProjects;
+    }
+
+    /**
+     * Generate a reactor in a new temporary directory.
+     *
+     * @param modules the number of modules besides the root project
+     * @return the reactor
+     */
+    public static SyntheticReactor create( int modules )
+        throws IOException, XmlPullParserException
+    {
+        return create( modules, 0 );
+    }
+
+    /**
+     * Generate a reactor in a new temporary directory, with more managed dependencies in the root POM. The first
+     * ones manage the modules of the reactor, referring to their group through <code>${project.groupId}</code>, and
+     * the others are external.
+     *
+     * @param modules             the number of modules besides the root project
+     * @param managedDependencies the number of managed dependencies to add to the root POM
+     * @return the reactor
+     */
+    public static SyntheticReactor create( int modules, int managedDependencies )
+        throws IOException, XmlPullParserException
+    {
+        File basedir = File.createTempFile( "reactor-" + modules + "-", "" );
+        basedir.delete();
+        basedir.mkdirs();
+
+        List<MavenProject> reactorProjects = new ArrayList<MavenProject>( modules + 1 );
+
+        MavenProject root = createProject( new File( basedir, "pom.xml" ), createRootPom( modules, managedDependencies ), null );
+        reactorProjects.add( root );
+
+        for ( int i = 1; i <= modules; i++ )
+        {
+            File pomFile = new File( new File( basedir, getModuleName( i ) ), "pom.xml" );
+            reactorProjects.add( createProject( pomFile, createModulePom( i ), root ) );
+        }
+
+        return new SyntheticReactor( basedir, Collections.unmodifiableList( reactorProjects ) );
+    }
+
+    public File getBasedir()
+    {
+        return basedir;
+    }
+
+    public List<MavenProject> getReactorProjects()
+    {
+        return reactorProjects;
+    }
+
+    /**
+     * Create a release descriptor for the reactor, with release and development versions mapped for every project.
+     *
+     * @return the release descriptor
+     */
+    public ReleaseDescriptor createReleaseDescriptor()
+    {
+        ReleaseDescriptor descriptor = new ReleaseDescriptor();
+        descriptor.setWorkingDirectory( basedir.getAbsolutePath() );
+        descriptor.setScmSourceUrl( SCM_URL );
+        descriptor.setScmReleaseLabel( "release-label" );
+        descriptor.setCompletedPhase( "map-development-versions" );
+
+        for ( MavenProject project : reactorProjects )
+        {
+            String key = project.getGroupId() + ":" + project.getArtifactId();
+            descriptor.mapReleaseVersion( key, RELEASE_VERSION );
+            descriptor.mapDevelopmentVersion( key, DEVELOPMENT_VERSION );
+            descriptor.mapOriginalScmInfo( key, project.getScm() );
+        }
+        return descriptor;
+    }
+
+    public void delete()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( basedir );
+    }
+
+    private static String getModuleName( int index )
+    {
+        return "module-" + index;
+    }
+
+    private static MavenProject createProject( File pomFile, String pom, MavenProject parent )
+        throws IOException, XmlPullParserException
+    {
+        pomFile.getParentFile().mkdirs();
+
+        Writer writer = new FileWriter( pomFile );
+        try
+        {
+            writer.write( pom );
+        }
+        finally
+        {
+            writer.close();
+        }
+
+        Model model = new MavenXpp3Reader().read( new StringReader( pom ) );
+        if ( parent != null )
+        {
+            // what inheritance would give the module
+            model.setGroupId( parent.getGroupId() );
+            model.setVersion( parent.getVersion() );
+            model.setDependencyManagement( parent.getDependencyManagement() );
+        }
+
+        MavenProject project = new MavenProject( model );
+        project.setOriginalModel( new MavenXpp3Reader().read( new StringReader( pom ) ) );
+        project.setFile( pomFile );
+        project.setParent( parent );
+        return project;
+    }
+
+    private static String createRootPom( int modules, int managedDependencies )
+    {
+        StringBuffer pom = new StringBuffer();
+        pom.append( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" );
+        pom.append( "<project>\n" );
+        pom.append( "  <modelVersion>4.0.0</modelVersion>\n" );
+        pom.append( "  <groupId>" ).append( GROUP_ID ).append( "</groupId>\n" );
+        pom.append( "  <artifactId>root</artifactId>\n" );
+        pom.append( "  <version>" ).append( VERSION ).append( "</version>\n" );
+        pom.append( "  <packaging>pom</packaging>\n" );
+        pom.append( "  <scm>\n" );
+        pom.append( "    <connection>" ).append( SCM_URL ).append( "</connection>\n" );
+        pom.append( "    <developerConnection>" ).append( SCM_URL ).append( "</developerConnection>\n" );
+        pom.append( "    <url>file://localhost/tmp/scm-repo/trunk</url>\n" );
+        pom.append( "  </scm>\n" );
+        pom.append( "  <modules>\n" );
+        for ( int i = 1; i <= modules; i++ )
+        {
+            pom.append( "    <module>" ).append( getModuleName( i ) ).append( "</module>\n" );
+        }
+        pom.append( "  </modules>\n" );
+        pom.append( "  <dependencyManagement>\n" );
+        pom.append( "    <dependencies>\n" );
+        for ( int i = 0; i < EXTERNAL_DEPENDENCIES.length; i++ )
+        {
+            appendDependency( pom, "      ", EXTERNAL_DEPENDENCIES[i][0], EXTERNAL_DEPENDENCIES[i][1],
+                              EXTERNAL_DEPENDENCIES[i][2] );
+        }
+        for ( int i = 1; i <= managedDependencies; i++ )
+        {
+            if ( i <= modules )
+            {
+                appendDependency( pom, "      ", "${project.groupId}", getModuleName( i ), VERSION );
+            }
+            else
+            {
+                appendDependency( pom, "      ", "org.example.external", "external-" + i, "1." + i );
+            }
+        }
+        pom.append( "    </dependencies>\n" );
+        pom.append( "  </dependencyManagement>\n" );
+        pom.append( "</project>\n" );
+        return pom.toString();
+    }
+
+    private static String createModulePom( int index )
+    {
+        StringBuffer pom = new StringBuffer();
+        pom.append( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" );
+        pom.append( "<project>\n" );
+        pom.append( "  <modelVersion>4.0.0</modelVersion>\n" );
+        pom.append( "  <parent>\n" );
+        pom.append( "    <groupId>" ).append( GROUP_ID ).append( "</groupId>\n" );
+        pom.append( "    <artifactId>root</artifactId>\n" );
+        pom.append( "    <version>" ).append( VERSION ).append( "</version>\n" );
+        pom.append( "  </parent>\n" );
+        pom.append( "  <artifactId>" ).append( getModuleName( index ) ).append( "</artifactId>\n" );
+        pom.append( "  <dependencies>\n" );
+        if ( index > 1 )
+        {
+            appendDependency( pom, "    ", GROUP_ID, getModuleName( index - 1 ), VERSION );
+        }
+        String[] external = EXTERNAL_DEPENDENCIES[index % EXTERNAL_DEPENDENCIES.length];
+        appendDependency( pom, "    ", external[0], external[1], null );
+        pom.append( "  </dependencies>\n" );
+        pom.append( "</project>\n" );
+        return pom.toString();
+    }
+
+    private static void appendDependency( StringBuffer pom, String indent, String groupId, String artifactId,
+                                          String version )
+    {
+        pom.append( indent ).append( "<dependency>\n" );
+        pom.append( indent ).append( "  <groupId>" ).append( groupId ).append( "</groupId>\n" );
+        pom.append( indent ).append( "  <artifactId>" ).append( artifactId ).append( "</artifactId>\n" );
+        if ( version != null )
+        {
+            pom.append( indent ).append( "  <version>" ).append( version ).append( "</version>\n" );
+        }
+        pom.append( indent ).append( "</dependency>\n" );
+    }
+}
@@ -0,0 +1,127 @@
+package org.apache.maven.shared.release.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.shared.release.exec.TeeOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of teeing the output of a forked build. Each operation pushes 1 MB of build output through
+ * a new stream, in chunks of the given size, and then reads back the kept content the way the executor does, so the
+ * score in operations per second is the throughput in MB/s.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class TeeOutputStreamBenchmark
+{
+    private static final int OUTPUT_SIZE = 1024 * 1024;
+
+    private static final OutputStream NULL_OUTPUT = new OutputStream()
+    {
+        public void write( int b )
+        {
+        }
+
+        public void write( byte[] b, int off, int len )
+        {
+        }
+    };
+
+    /**
+     * The size of the reads from the forked process, 256 bytes being what the stream pumper uses.
+     */
+    @Param( { "256", "8192" } )
+    private int chunkSize;
+
+    private byte[] output;
+
+    @Setup
+    public void setUp()
+    {
+        output = new byte[OUTPUT_SIZE];
+
+        String[] lines = { "[INFO] Scanning for projects...", "[INFO] ------------------------------------------------",
+            "[INFO] Building module", "", "[INFO] [compiler:compile {execution: default-compile}]",
+            "Downloading: http://repo1.maven.org/maven2/org/apache/maven/maven-project/2.0.9/maven-project-2.0.9.pom" };
+
+        int pos = 0;
+        for ( int i = 0; pos < OUTPUT_SIZE; i++ )
+        {
+            byte[] line = ( lines[i % lines.length] + "\n" ).getBytes();
+            int len = Math.min( line.length, OUTPUT_SIZE - pos );
+            System.arraycopy( line, 0, output, pos, len );
+            pos += len;
+        }
+    }
+
+    @Benchmark
+    public String legacy()
+        throws IOException
+    {
+        LegacyTeeOutputStream stream = new LegacyTeeOutputStream( NULL_OUTPUT );
+        write( stream );
+        return stream.toString();
+    }
+
+    @Benchmark
+    public String unbounded()
+        throws IOException
+    {
+        TeeOutputStream stream = new TeeOutputStream( NULL_OUTPUT );
+        write( stream );
+        return stream.toString();
+    }
+
+    @Benchmark
+    public String tail()
+        throws IOException
+    {
+        TeeOutputStream stream = new TeeOutputStream( NULL_OUTPUT, "    ", 256 * 1024 );
+        write( stream );
+        return stream.toString();
+    }
+
+    private void write( OutputStream stream )
+        throws IOException
+    {
+        for ( int off = 0; off < OUTPUT_SIZE; off += chunkSize )
+        {
+            stream.write( output, off, Math.min( chunkSize, OUTPUT_SIZE - off ) );
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.apache.maven.shared.release.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.shared.release.versions.DefaultVersionInfo;
+import org.apache.maven.shared.release.versions.VersionParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures parsing versions and computing the next development version, for a mix of the version formats found in
+ * real projects. The <code>legacy</code> benchmarks parse with the regular expressions of {@link LegacyVersionInfo},
+ * and the <code>cached</code> ones get the versions from {@link DefaultVersionInfo#valueOf(String)}, as the release
+ * phases do.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class VersionInfoBenchmark
+{
+    static final String[] VERSIONS = { "1.0-SNAPSHOT", "2.2.2-SNAPSHOT", "1.0", "1.2.3", "1.0-beta-4-SNAPSHOT",
+        "1.0-alpha-1", "3.0.0-RC1-SNAPSHOT", "2.0-M3", "1.2.3-SNAPSHOT", "5", "1.0.0.Final", "1.0-20060101.123456-7",
+        "1.0-jdk14-SNAPSHOT", "10.11.12.13-SNAPSHOT", "0.9.0-incubating" };
+
+    @Benchmark
+    public void legacyParse( Blackhole blackhole )
+        throws VersionParseException
+    {
+        for ( int i = 0; i < VERSIONS.length; i++ )
+        {
+            blackhole.consume( new LegacyVersionInfo( VERSIONS[i] ) );
+        }
+    }
+
+    @Benchmark
+    public void parse( Blackhole blackhole )
+        throws VersionParseException
+    {
+        for ( int i = 0; i < VERSIONS.length; i++ )
+        {
+            blackhole.consume( new DefaultVersionInfo( VERSIONS[i] ) );
+        }
+    }
+
+    @Benchmark
+    public void cachedParse( Blackhole blackhole )
+        throws VersionParseException
+    {
+        for ( int i = 0; i < VERSIONS.length; i++ )
+        {
+            blackhole.consume( DefaultVersionInfo.valueOf( VERSIONS[i] ) );
+        }
+    }
+
+    @Benchmark
+    public void legacyNextVersion( Blackhole blackhole )
+        throws VersionParseException
+    {
+        for ( int i = 0; i < VERSIONS.length; i++ )
+        {
+            blackhole.consume( new LegacyVersionInfo( VERSIONS[i] ).getNextVersion().getSnapshotVersionString() );
+        }
+    }
+
+    @Benchmark
+    public void nextVersion( Blackhole blackhole )
+        throws VersionParseException
+    {
+        for ( int i = 0; i < VERSIONS.length; i++ )
+        {
+            blackhole.consume( new DefaultVersionInfo( VERSIONS[i] ).getNextVersion().getSnapshotVersionString() );
+        }
+    }
+
+    @Benchmark
+    public void legacyReleaseVersion( Blackhole blackhole )
+        throws VersionParseException
+    {
+        for ( int i = 0; i < VERSIONS.length; i++ )
+        {
+            blackhole.consume( new LegacyVersionInfo( VERSIONS[i] ).getReleaseVersionString() );
+        }
+    }
+
+    @Benchmark
+    public void releaseVersion( Blackhole blackhole )
+        throws VersionParseException
+    {
+        for ( int i = 0; i < VERSIONS.length; i++ )
+        {
+            blackhole.consume( new DefaultVersionInfo( VERSIONS[i] ).getReleaseVersionString() );
+        }
+    }
+
+    @Benchmark
+    public int legacyCompare()
+        throws VersionParseException
+    {
+        LegacyVersionInfo previous = new LegacyVersionInfo( VERSIONS[VERSIONS.length - 1] );
+        int sum = 0;
+        for ( int i = 0; i < VERSIONS.length; i++ )
+        {
+            LegacyVersionInfo version = new LegacyVersionInfo( VERSIONS[i] );
+            sum += version.compareTo( previous );
+            previous = version;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int cachedCompare()
+        throws VersionParseException
+    {
+        DefaultVersionInfo previous = DefaultVersionInfo.valueOf( VERSIONS[VERSIONS.length - 1] );
+        int sum = 0;
+        for ( int i = 0; i < VERSIONS.length; i++ )
+        {
+            DefaultVersionInfo version = DefaultVersionInfo.valueOf( VERSIONS[i] );
+            sum += version.compareTo( previous );
+            previous = version;
+        }
+        return sum;
+    }
+}
@@ -20,12 +20,25 @@ package org.apache.maven.shared.release;
  */
 
 import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.settings.Settings;
@@ -35,7 +48,12 @@ import org.apache.maven.shared.release.config.ReleaseDescriptorStoreException;
 import org.apache.maven.shared.release.env.DefaultReleaseEnvironment;
 import org.apache.maven.shared.release.env.ReleaseEnvironment;
 import org.apache.maven.shared.release.phase.ReleasePhase;
+import org.apache.maven.shared.release.phase.ResourceAwareReleasePhase;
+import org.apache.maven.shared.release.scm.CachingScmRepositoryConfigurator;
 import org.apache.maven.shared.release.scm.ScmRepositoryConfigurator;
+import org.apache.maven.shared.release.transform.PomCache;
+import org.apache.maven.shared.release.transform.UnchangedPoms;
+import org.apache.maven.shared.release.util.DaemonThreadFactory;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
 import org.codehaus.plexus.util.StringUtils;
 
@@ -88,6 +106,43 @@ public class DefaultReleaseManager
      */
     private ScmRepositoryConfigurator scmRepositoryConfigurator;
 
+    /**
+     * The POMs of the release, parsed.
+     */
+    private PomCache pomCache;
+
+    /**
+     * The POMs the last POM rewriting phase left unchanged.
+     */
+    private UnchangedPoms unchangedPoms;
+
+    /**
+     * The maximum number of prepare phases to run at the same time. Only phases that declare their resources through
+     * {@link ResourceAwareReleasePhase} and don't conflict with each other are run concurrently. The default of
+     * <code>1</code> runs the phases one after the other.
+     */
+    private int preparePhaseThreads = 1;
+
+    /**
+     * The number of characters of output to keep in memory for a release goal. Output beyond that is written to a file
+     * in the <code>target</code> directory of the working directory. The default of <code>0</code> keeps all the
+     * output in memory.
+     */
+    private int outputTailSize;
+
+    /**
+     * Whether to write the metrics of each phase of a goal to <code>target/release-metrics.json</code> in the working
+     * directory. Off by default, as it is only meant for diagnosing slow releases.
+     */
+    private boolean metricsReport;
+
+    /**
+     * The resources of the release descriptor, which is written by the release manager as the phases complete.
+     */
+    private static final Set<String> DESCRIPTOR_RESOURCES =
+        Collections.unmodifiableSet( new HashSet<String>( Arrays.asList( new String[] {
+            ResourceAwareReleasePhase.SCM_SOURCE_URL, ResourceAwareReleasePhase.RESOLVED_SNAPSHOT_DEPENDENCIES } ) ) );
+
     private static final int PHASE_SKIP = 0, PHASE_START = 1, PHASE_END = 2, GOAL_START = 11, GOAL_END = 12, ERROR = 99;
 
     public void prepare( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
@@ -147,8 +202,12 @@ public class DefaultReleaseManager
                           ReleaseManagerListener listener, ReleaseResult result )
         throws ReleaseExecutionException, ReleaseFailureException
     {
+        listener = reportMetrics( listener, releaseDescriptor );
+
         updateListener( listener, "prepare", GOAL_START );
 
+        clearCaches();
+
         ReleaseDescriptor config;
         if ( resume )
         {
@@ -159,6 +218,8 @@ public class DefaultReleaseManager
             config = releaseDescriptor;
         }
 
+        limitOutput( result, config, "prepare" );
+
         // Later, it would be a good idea to introduce a proper workflow tool so that the release can be made up of a
         // more flexible set of steps.
 
@@ -180,6 +241,17 @@ public class DefaultReleaseManager
             logInfo( result, "Resuming release from phase '" + preparePhases.get( index + 1 ) + "'" );
         }
 
+        if ( preparePhaseThreads > 1 )
+        {
+            prepareConcurrently( config, releaseEnvironment, reactorProjects, dryRun, listener, result, index + 1 );
+
+            logCacheStatistics();
+
+            updateListener( listener, "prepare", GOAL_END );
+
+            return;
+        }
+
         // start from next phase
         for ( int i = index + 1; i < preparePhases.size(); i++ )
         {
@@ -197,38 +269,311 @@ public class DefaultReleaseManager
             ReleaseResult phaseResult = null;
             try
             {
-                if ( dryRun )
-                {
-                    phaseResult = phase.simulate( config, releaseEnvironment, reactorProjects );
-                }
-                else
-                {
-                    phaseResult = phase.execute( config, releaseEnvironment, reactorProjects );
-                }
+                phaseResult = runPhase( phase, config, releaseEnvironment, reactorProjects, dryRun );
             }
             finally
             {
                 if ( result != null && phaseResult != null )
                 {
-                    result.getOutputBuffer().append( phaseResult.getOutput() );
+                    result.appendOutput( phaseResult );
                 }
             }
 
-            config.setCompletedPhase( name );
-            try
+            completePhase( config, name );
+
+            updatePhaseMetrics( listener, name, result, phaseResult );
+            updateListener( listener, name, PHASE_END );
+        }
+
+        logCacheStatistics();
+
+        updateListener( listener, "prepare", GOAL_END );
+    }
+
+    /**
+     * Run the prepare phases from the given index on, starting each phase as soon as the earlier phases it conflicts
+     * with have finished. The completed phase is only ever advanced over an unbroken run of successful phases, so that
+     * resuming behaves exactly as it does when the phases are run one after the other, and it is only written while
+     * no running phase writes to the release descriptor. A phase is reported to the listener as started when it is
+     * submitted, and its end, output and metrics are reported in the order the phases were started. As when the
+     * phases are run one after the other, a phase that fails is not ended, and its failure is left to the caller to
+     * report once every phase that was started has finished.
+     */
+    private void prepareConcurrently( final ReleaseDescriptor config, final ReleaseEnvironment releaseEnvironment,
+                                      final List<MavenProject> reactorProjects, final boolean dryRun,
+                                      ReleaseManagerListener listener, ReleaseResult result, int startIndex )
+        throws ReleaseExecutionException, ReleaseFailureException
+    {
+        List<String> names = preparePhases.subList( startIndex, preparePhases.size() );
+        if ( names.isEmpty() )
+        {
+            return;
+        }
+
+        List<ReleasePhase> phases = new ArrayList<ReleasePhase>( names.size() );
+        for ( String name : names )
+        {
+            ReleasePhase phase = releasePhases.get( name );
+
+            if ( phase == null )
+            {
+                throw new ReleaseExecutionException( "Unable to find phase '" + name + "' to execute" );
+            }
+
+            phases.add( phase );
+        }
+
+        List<Set<Integer>> dependencies = getPhaseDependencies( phases );
+
+        int count = phases.size();
+        ReleaseResult[] phaseResults = new ReleaseResult[count];
+        Throwable[] failures = new Throwable[count];
+        boolean[] started = new boolean[count];
+        boolean[] finished = new boolean[count];
+        List<Integer> startOrder = new ArrayList<Integer>( count );
+        int completed = 0;
+        int reported = 0;
+        boolean failed = false;
+        boolean unsaved = false;
+
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( preparePhaseThreads, count ),
+                                                                 new DaemonThreadFactory( "release-phase" ) );
+        CompletionService<ReleaseResult> completionService = new ExecutorCompletionService<ReleaseResult>( executor );
+        Map<Future<ReleaseResult>, Integer> running = new HashMap<Future<ReleaseResult>, Integer>();
+        try
+        {
+            while ( true )
+            {
+                if ( !failed )
+                {
+                    for ( int i = 0; i < count; i++ )
+                    {
+                        if ( !started[i] && isReady( dependencies.get( i ), finished, failures ) )
+                        {
+                            final ReleasePhase phase = phases.get( i );
+                            Future<ReleaseResult> future = completionService.submit( new Callable<ReleaseResult>()
+                            {
+                                public ReleaseResult call()
+                                    throws Exception
+                                {
+                                    return runPhase( phase, config, releaseEnvironment, reactorProjects, dryRun );
+                                }
+                            } );
+                            running.put( future, Integer.valueOf( i ) );
+                            started[i] = true;
+                            startOrder.add( Integer.valueOf( i ) );
+
+                            updateListener( listener, names.get( i ), PHASE_START );
+                        }
+                    }
+                }
+
+                if ( running.isEmpty() )
+                {
+                    break;
+                }
+
+                Future<ReleaseResult> future;
+                try
+                {
+                    future = completionService.take();
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new ReleaseExecutionException( "Interrupted while waiting for release phases", e );
+                }
+
+                int i = running.remove( future ).intValue();
+                try
+                {
+                    phaseResults[i] = future.get();
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new ReleaseExecutionException( "Interrupted while waiting for release phases", e );
+                }
+                catch ( ExecutionException e )
+                {
+                    failures[i] = e.getCause();
+                    failed = true;
+                }
+                finished[i] = true;
+
+                while ( completed < count && finished[completed] && failures[completed] == null )
+                {
+                    config.setCompletedPhase( names.get( completed ) );
+
+                    completed++;
+                    unsaved = true;
+                }
+
+                // the descriptor is written from this thread, so not while a running phase changes it
+                if ( unsaved && !isWritingDescriptor( phases, running.values() ) )
+                {
+                    writeReleaseDescriptor( config );
+
+                    unsaved = false;
+                }
+
+                while ( reported < startOrder.size() && finished[startOrder.get( reported ).intValue()] )
+                {
+                    int index = startOrder.get( reported ).intValue();
+                    String name = names.get( index );
+
+                    if ( failures[index] == null )
+                    {
+                        if ( result != null && phaseResults[index] != null )
+                        {
+                            result.appendOutput( phaseResults[index] );
+                        }
+
+                        updatePhaseMetrics( listener, name, result, phaseResults[index] );
+                        updateListener( listener, name, PHASE_END );
+                    }
+
+                    reported++;
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        int first = -1;
+        for ( int i = 0; i < count; i++ )
+        {
+            if ( failures[i] == null )
+            {
+                continue;
+            }
+            else if ( first < 0 )
             {
-                configStore.write( config );
+                first = i;
             }
-            catch ( ReleaseDescriptorStoreException e )
+            else if ( result != null )
             {
-                // TODO: rollback?
-                throw new ReleaseExecutionException( "Error writing release properties after completing phase", e );
+                // only the first failure is rethrown, and reported by the caller
+                result.appendError( "Phase '" + names.get( i ) + "' also failed: " + failures[i].getMessage() );
             }
+        }
 
-            updateListener( listener, name, PHASE_END );
+        if ( first >= 0 )
+        {
+            Throwable failure = failures[first];
+            if ( failure instanceof ReleaseExecutionException )
+            {
+                throw (ReleaseExecutionException) failure;
+            }
+            else if ( failure instanceof ReleaseFailureException )
+            {
+                throw (ReleaseFailureException) failure;
+            }
+            else if ( failure instanceof RuntimeException )
+            {
+                throw (RuntimeException) failure;
+            }
+            else if ( failure instanceof Error )
+            {
+                throw (Error) failure;
+            }
+            else
+            {
+                throw new ReleaseExecutionException( "Error executing phase '" + names.get( first ) + "'", failure );
+            }
         }
+    }
 
-        updateListener( listener, "prepare", GOAL_END );
+    /**
+     * See whether any of the running phases writes to the release descriptor.
+     */
+    private static boolean isWritingDescriptor( List<ReleasePhase> phases, Collection<Integer> running )
+    {
+        for ( Integer index : running )
+        {
+            ReleasePhase phase = phases.get( index.intValue() );
+            if ( !( phase instanceof ResourceAwareReleasePhase ) || !Collections.disjoint(
+                ( (ResourceAwareReleasePhase) phase ).getWriteResources(), DESCRIPTOR_RESOURCES ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * For each phase, determine the indexes of the earlier phases that have to finish before it can start.
+     */
+    static List<Set<Integer>> getPhaseDependencies( List<ReleasePhase> phases )
+    {
+        List<Set<Integer>> dependencies = new ArrayList<Set<Integer>>( phases.size() );
+
+        for ( int i = 0; i < phases.size(); i++ )
+        {
+            Set<Integer> phaseDependencies = new HashSet<Integer>();
+            for ( int j = 0; j < i; j++ )
+            {
+                if ( isConflicting( phases.get( j ), phases.get( i ) ) )
+                {
+                    phaseDependencies.add( Integer.valueOf( j ) );
+                }
+            }
+            dependencies.add( phaseDependencies );
+        }
+
+        return dependencies;
+    }
+
+    private static boolean isConflicting( ReleasePhase first, ReleasePhase second )
+    {
+        if ( !( first instanceof ResourceAwareReleasePhase ) || !( second instanceof ResourceAwareReleasePhase ) )
+        {
+            return true;
+        }
+
+        ResourceAwareReleasePhase a = (ResourceAwareReleasePhase) first;
+        ResourceAwareReleasePhase b = (ResourceAwareReleasePhase) second;
+
+        return !Collections.disjoint( a.getWriteResources(), b.getReadResources() )
+            || !Collections.disjoint( a.getWriteResources(), b.getWriteResources() )
+            || !Collections.disjoint( a.getReadResources(), b.getWriteResources() );
+    }
+
+    private static boolean isReady( Set<Integer> dependencies, boolean[] finished, Throwable[] failures )
+    {
+        for ( Integer dependency : dependencies )
+        {
+            int index = dependency.intValue();
+            if ( !finished[index] || failures[index] != null )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void completePhase( ReleaseDescriptor config, String name )
+        throws ReleaseExecutionException
+    {
+        config.setCompletedPhase( name );
+
+        writeReleaseDescriptor( config );
+    }
+
+    private void writeReleaseDescriptor( ReleaseDescriptor config )
+        throws ReleaseExecutionException
+    {
+        try
+        {
+            configStore.write( config );
+        }
+        catch ( ReleaseDescriptorStoreException e )
+        {
+            // TODO: rollback?
+            throw new ReleaseExecutionException( "Error writing release properties after completing phase", e );
+        }
     }
 
     public void rollback( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
@@ -242,8 +587,12 @@ public class DefaultReleaseManager
                           List<MavenProject> reactorProjects, ReleaseManagerListener listener )
         throws ReleaseExecutionException, ReleaseFailureException
     {
+        listener = reportMetrics( listener, releaseDescriptor );
+
         updateListener( listener, "rollback", GOAL_START );
 
+        clearCaches();
+
         releaseDescriptor = loadReleaseDescriptor( releaseDescriptor, null );
 
         for ( String name : rollbackPhases )
@@ -256,12 +605,15 @@ public class DefaultReleaseManager
             }
 
             updateListener( listener, name, PHASE_START );
-            phase.execute( releaseDescriptor, releaseEnvironment, reactorProjects );
+            ReleaseResult phaseResult =
+                runPhase( phase, releaseDescriptor, releaseEnvironment, reactorProjects, false );
+            updatePhaseMetrics( listener, name, null, phaseResult );
             updateListener( listener, name, PHASE_END );
         }
 
         //call release:clean so that resume will not be possible anymore after a rollback
         clean( releaseDescriptor, listener, reactorProjects );
+        logCacheStatistics();
         updateListener( listener, "prepare", GOAL_END );
     }
 
@@ -327,10 +679,16 @@ public class DefaultReleaseManager
                           boolean clean )
         throws ReleaseExecutionException, ReleaseFailureException
     {
+        listener = reportMetrics( listener, releaseDescriptor );
+
         updateListener( listener, "perform", GOAL_START );
 
+        clearCaches();
+
         releaseDescriptor = loadReleaseDescriptor( releaseDescriptor, listener );
-        
+
+        limitOutput( result, releaseDescriptor, "perform" );
+
         ReleaseResult phaseResult = null;
 
         for ( String name : performPhases )
@@ -343,8 +701,9 @@ public class DefaultReleaseManager
             }
 
             updateListener( listener, name, PHASE_START );
-            phaseResult = phase.execute( releaseDescriptor, releaseEnvironment, reactorProjects );
-            result.getOutputBuffer().append( phaseResult.getOutput() );
+            phaseResult = runPhase( phase, releaseDescriptor, releaseEnvironment, reactorProjects, false );
+            result.appendOutput( phaseResult );
+            updatePhaseMetrics( listener, name, result, phaseResult );
             updateListener( listener, name, PHASE_END );
         }
 
@@ -354,6 +713,8 @@ public class DefaultReleaseManager
             clean( releaseDescriptor, listener, reactorProjects );
         }
 
+        logCacheStatistics();
+
         updateListener( listener, "perform", GOAL_END );
     }
 
@@ -368,8 +729,12 @@ public class DefaultReleaseManager
                         List<MavenProject> reactorProjects, boolean dryRun, ReleaseManagerListener listener )
         throws ReleaseExecutionException, ReleaseFailureException
     {
+        listener = reportMetrics( listener, releaseDescriptor );
+
         updateListener( listener, "branch", GOAL_START );
 
+        clearCaches();
+
         releaseDescriptor = loadReleaseDescriptor( releaseDescriptor, listener );
 
         for ( String name : branchPhases )
@@ -382,14 +747,9 @@ public class DefaultReleaseManager
             }
 
             updateListener( listener, name, PHASE_START );
-            if ( dryRun )
-            {
-                phase.simulate( releaseDescriptor, releaseEnvironment, reactorProjects );
-            }
-            else
-            {
-                phase.execute( releaseDescriptor, releaseEnvironment, reactorProjects );
-            }
+            ReleaseResult phaseResult =
+                runPhase( phase, releaseDescriptor, releaseEnvironment, reactorProjects, dryRun );
+            updatePhaseMetrics( listener, name, null, phaseResult );
             updateListener( listener, name, PHASE_END );
         }
 
@@ -398,6 +758,8 @@ public class DefaultReleaseManager
             clean( releaseDescriptor, listener, reactorProjects );
         }
 
+        logCacheStatistics();
+
         updateListener( listener, "branch", GOAL_END );
     }
 
@@ -405,10 +767,12 @@ public class DefaultReleaseManager
                                 List<MavenProject> reactorProjects )
         throws ReleaseExecutionException, ReleaseFailureException
     {
-        ReleaseManagerListener listener = null;
-        
+        ReleaseManagerListener listener = reportMetrics( null, releaseDescriptor );
+
         updateListener( listener, "updateVersions", GOAL_START );
 
+        clearCaches();
+
         releaseDescriptor = loadReleaseDescriptor( releaseDescriptor, listener );
 
         for ( String name : updateVersionsPhases )
@@ -421,12 +785,16 @@ public class DefaultReleaseManager
             }
 
             updateListener( listener, name, PHASE_START );
-            phase.execute( releaseDescriptor, releaseEnvironment, reactorProjects );
+            ReleaseResult phaseResult =
+                runPhase( phase, releaseDescriptor, releaseEnvironment, reactorProjects, false );
+            updatePhaseMetrics( listener, name, null, phaseResult );
             updateListener( listener, name, PHASE_END );
         }
 
         clean( releaseDescriptor, listener, reactorProjects );
 
+        logCacheStatistics();
+
         updateListener( listener, "updateVersions", GOAL_END );
     }
 
@@ -497,6 +865,21 @@ public class DefaultReleaseManager
         this.configStore = configStore;
     }
 
+    void setPreparePhaseThreads( int preparePhaseThreads )
+    {
+        this.preparePhaseThreads = preparePhaseThreads;
+    }
+
+    void setOutputTailSize( int outputTailSize )
+    {
+        this.outputTailSize = outputTailSize;
+    }
+
+    void setMetricsReport( boolean metricsReport )
+    {
+        this.metricsReport = metricsReport;
+    }
+
     void updateListener( ReleaseManagerListener listener, String name, int state )
     {
         if ( listener != null )
@@ -552,6 +935,122 @@ public class DefaultReleaseManager
         return Collections.unmodifiableList( phases );
     }
 
+    private void limitOutput( ReleaseResult result, ReleaseDescriptor releaseDescriptor, String goal )
+    {
+        if ( result != null && outputTailSize > 0 && releaseDescriptor.getWorkingDirectory() != null )
+        {
+            File outputFile =
+                new File( releaseDescriptor.getWorkingDirectory(), "target/release-" + goal + "-output.log" );
+
+            result.setOutputLimit( outputTailSize, outputFile );
+        }
+    }
+
+    /**
+     * Run a phase, recording the wall time it takes and the CPU time of the calling thread in the metrics of its
+     * result. The CPU time of the worker threads of a phase is not included.
+     */
+    private static ReleaseResult runPhase( ReleasePhase phase, ReleaseDescriptor releaseDescriptor,
+                                           ReleaseEnvironment releaseEnvironment, List<MavenProject> reactorProjects,
+                                           boolean dryRun )
+        throws ReleaseExecutionException, ReleaseFailureException
+    {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        boolean cpuTimeSupported = threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled();
+
+        long startTime = System.currentTimeMillis();
+        long startCpuTime = cpuTimeSupported ? threads.getCurrentThreadCpuTime() : 0;
+
+        ReleaseResult phaseResult;
+        if ( dryRun )
+        {
+            phaseResult = phase.simulate( releaseDescriptor, releaseEnvironment, reactorProjects );
+        }
+        else
+        {
+            phaseResult = phase.execute( releaseDescriptor, releaseEnvironment, reactorProjects );
+        }
+
+        if ( phaseResult != null )
+        {
+            long cpuTime = cpuTimeSupported ? ( threads.getCurrentThreadCpuTime() - startCpuTime ) / 1000000 : 0;
+            phaseResult.getMetrics().addTime( System.currentTimeMillis() - startTime, cpuTime );
+        }
+
+        return phaseResult;
+    }
+
+    private static void updatePhaseMetrics( ReleaseManagerListener listener, String name, ReleaseResult result,
+                                            ReleaseResult phaseResult )
+    {
+        if ( phaseResult == null )
+        {
+            return;
+        }
+
+        if ( result != null )
+        {
+            result.getMetrics().add( phaseResult.getMetrics() );
+        }
+
+        if ( listener instanceof ReleaseMetricsListener )
+        {
+            ( (ReleaseMetricsListener) listener ).phaseMetrics( name, phaseResult.getMetrics() );
+        }
+    }
+
+    /**
+     * Wrap the listener of a goal so that the metrics of its phases are written to a report in the working directory.
+     */
+    private ReleaseManagerListener reportMetrics( ReleaseManagerListener listener, ReleaseDescriptor releaseDescriptor )
+    {
+        if ( !metricsReport || releaseDescriptor.getWorkingDirectory() == null )
+        {
+            return listener;
+        }
+
+        File reportFile = new File( releaseDescriptor.getWorkingDirectory(), "target/release-metrics.json" );
+
+        return new MetricsReportListener( reportFile, listener, getLogger() );
+    }
+
+    /**
+     * Start each goal with empty caches, so that SCM repositories and parsed POMs are only reused within a release.
+     */
+    private void clearCaches()
+    {
+        if ( scmRepositoryConfigurator instanceof CachingScmRepositoryConfigurator )
+        {
+            ( (CachingScmRepositoryConfigurator) scmRepositoryConfigurator ).clearCache();
+        }
+        if ( pomCache != null )
+        {
+            pomCache.clear();
+        }
+        if ( unchangedPoms != null )
+        {
+            unchangedPoms.clear();
+        }
+    }
+
+    private void logCacheStatistics()
+    {
+        if ( pomCache != null && getLogger().isDebugEnabled() )
+        {
+            getLogger().debug( "POM cache: " + pomCache.getCacheHits() + " hits, " + pomCache.getCacheMisses()
+                + " misses" );
+        }
+
+        if ( scmRepositoryConfigurator instanceof CachingScmRepositoryConfigurator && getLogger().isDebugEnabled() )
+        {
+            CachingScmRepositoryConfigurator configurator =
+                (CachingScmRepositoryConfigurator) scmRepositoryConfigurator;
+
+            getLogger().debug( "SCM repository cache: " + configurator.getCacheHits() + " hits, "
+                + configurator.getCacheMisses() + " misses" );
+        }
+    }
+
     private void logInfo( ReleaseResult result, String message )
     {
         if ( result != null )
@@ -0,0 +1,312 @@
+package org.apache.maven.shared.release;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.WriterFactory;
+
+/**
+ * Writes the metrics of each phase of a goal to a JSON report, passing all events on to another listener. The report
+ * is rewritten after every phase, so that it is available even if the goal is aborted. Phases run concurrently may
+ * be started before the earlier ones end: they are then ended, and their errors reported, in the order they started.
+ */
+public class MetricsReportListener
+    implements ReleaseMetricsListener
+{
+    private final File reportFile;
+
+    private final ReleaseManagerListener listener;
+
+    private final Logger logger;
+
+    private final List<PhaseEntry> phases = new ArrayList<PhaseEntry>();
+
+    private final ReleaseMetrics totals = new ReleaseMetrics();
+
+    private String goal;
+
+    private long goalStartTime;
+
+    private final LinkedList<PhaseEntry> runningPhases = new LinkedList<PhaseEntry>();
+
+    /**
+     * @param reportFile the file to write the report to
+     * @param listener   the listener to pass the events on to, may be <code>null</code>
+     * @param logger     the logger to report a failure to write the report to
+     */
+    public MetricsReportListener( File reportFile, ReleaseManagerListener listener, Logger logger )
+    {
+        this.reportFile = reportFile;
+        this.listener = listener;
+        this.logger = logger;
+    }
+
+    public File getReportFile()
+    {
+        return reportFile;
+    }
+
+    public void goalStart( String goal, List<String> phases )
+    {
+        this.goal = goal;
+        this.goalStartTime = System.currentTimeMillis();
+
+        if ( listener != null )
+        {
+            listener.goalStart( goal, phases );
+        }
+    }
+
+    public void phaseStart( String name )
+    {
+        PhaseEntry phase = new PhaseEntry( name, "running" );
+        phases.add( phase );
+        runningPhases.add( phase );
+
+        if ( listener != null )
+        {
+            listener.phaseStart( name );
+        }
+    }
+
+    public void phaseMetrics( String name, ReleaseMetrics metrics )
+    {
+        for ( PhaseEntry phase : runningPhases )
+        {
+            if ( phase.name.equals( name ) )
+            {
+                phase.metrics = metrics;
+                break;
+            }
+        }
+        totals.add( metrics );
+
+        if ( listener instanceof ReleaseMetricsListener )
+        {
+            ( (ReleaseMetricsListener) listener ).phaseMetrics( name, metrics );
+        }
+    }
+
+    public void phaseEnd()
+    {
+        if ( !runningPhases.isEmpty() )
+        {
+            // a phase that failed is never ended, so the phase ending is the first one with its metrics, if any
+            PhaseEntry phase = runningPhases.getFirst();
+            for ( PhaseEntry runningPhase : runningPhases )
+            {
+                if ( runningPhase.metrics != null )
+                {
+                    phase = runningPhase;
+                    break;
+                }
+            }
+            runningPhases.remove( phase );
+
+            if ( phase.metrics == null )
+            {
+                // steps of the release manager itself, such as reading the release configuration
+                phase.metrics = new ReleaseMetrics();
+                phase.metrics.addTime( System.currentTimeMillis() - phase.startTime, 0 );
+            }
+            if ( !"failed".equals( phase.status ) )
+            {
+                phase.status = "completed";
+            }
+        }
+
+        writeReport( "running", null );
+
+        if ( listener != null )
+        {
+            listener.phaseEnd();
+        }
+    }
+
+    public void phaseSkip( String name )
+    {
+        phases.add( new PhaseEntry( name, "skipped" ) );
+
+        if ( listener != null )
+        {
+            listener.phaseSkip( name );
+        }
+    }
+
+    public void goalEnd()
+    {
+        writeReport( "success", null );
+
+        if ( listener != null )
+        {
+            listener.goalEnd();
+        }
+    }
+
+    public void error( String reason )
+    {
+        // the phases left running are those that failed, as the others have all ended by the time of the error
+        for ( PhaseEntry phase : runningPhases )
+        {
+            phase.status = "failed";
+        }
+        writeReport( "error", reason );
+
+        if ( listener != null )
+        {
+            listener.error( reason );
+        }
+    }
+
+    private void writeReport( String status, String reason )
+    {
+        StringBuffer json = new StringBuffer();
+        json.append( "{\n" );
+        json.append( "  \"goal\": " ).append( quote( goal ) ).append( ",\n" );
+        json.append( "  \"status\": " ).append( quote( status ) ).append( ",\n" );
+        if ( reason != null )
+        {
+            json.append( "  \"error\": " ).append( quote( reason ) ).append( ",\n" );
+        }
+        json.append( "  \"wallTime\": " ).append( System.currentTimeMillis() - goalStartTime ).append( ",\n" );
+        json.append( "  \"totals\": " );
+        appendMetrics( json, totals );
+        json.append( ",\n" );
+        json.append( "  \"phases\": [" );
+        for ( int i = 0; i < phases.size(); i++ )
+        {
+            PhaseEntry phase = phases.get( i );
+            json.append( i == 0 ? "\n" : ",\n" );
+            json.append( "    { \"name\": " ).append( quote( phase.name ) );
+            json.append( ", \"status\": " ).append( quote( phase.status ) );
+            if ( phase.metrics != null )
+            {
+                json.append( ", \"metrics\": " );
+                appendMetrics( json, phase.metrics );
+            }
+            json.append( " }" );
+        }
+        json.append( phases.isEmpty() ? "]\n" : "\n  ]\n" );
+        json.append( "}\n" );
+
+        Writer writer = null;
+        try
+        {
+            reportFile.getParentFile().mkdirs();
+
+            writer = WriterFactory.newWriter( reportFile, "UTF-8" );
+            writer.write( json.toString() );
+        }
+        catch ( IOException e )
+        {
+            logger.warn( "Unable to write the release metrics to " + reportFile + ": " + e.getMessage() );
+        }
+        finally
+        {
+            IOUtil.close( writer );
+        }
+    }
+
+    private static void appendMetrics( StringBuffer json, ReleaseMetrics metrics )
+    {
+        json.append( "{ \"wallTime\": " ).append( metrics.getWallTime() );
+        json.append( ", \"callingThreadCpuTime\": " ).append( metrics.getCpuTime() );
+        json.append( ", \"modules\": " ).append( metrics.getModules() );
+        json.append( ", \"scmCommands\": " ).append( metrics.getScmCommands() );
+        json.append( ", \"scmTime\": " ).append( metrics.getScmTime() );
+        json.append( ", \"forkedBuilds\": " ).append( metrics.getForkedBuilds() );
+        json.append( ", \"forkedBuildTime\": " ).append( metrics.getForkedBuildTime() );
+        json.append( ", \"pomBytesRead\": " ).append( metrics.getPomBytesRead() );
+        json.append( ", \"pomBytesWritten\": " ).append( metrics.getPomBytesWritten() );
+        json.append( ", \"cacheHits\": " ).append( metrics.getCacheHits() );
+        json.append( ", \"cacheMisses\": " ).append( metrics.getCacheMisses() );
+        json.append( " }" );
+    }
+
+    static String quote( String value )
+    {
+        if ( value == null )
+        {
+            return "null";
+        }
+
+        StringBuffer quoted = new StringBuffer( value.length() + 2 );
+        quoted.append( '"' );
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+            switch ( c )
+            {
+                case '"':
+                    quoted.append( "\\\"" );
+                    break;
+                case '\\':
+                    quoted.append( "\\\\" );
+                    break;
+                case '\n':
+                    quoted.append( "\\n" );
+                    break;
+                case '\r':
+                    quoted.append( "\\r" );
+                    break;
+                case '\t':
+                    quoted.append( "\\t" );
+                    break;
+                default:
+                    if ( c < ' ' )
+                    {
+                        String hex = Integer.toHexString( c );
+                        quoted.append( "\\u" ).append( "0000".substring( hex.length() ) ).append( hex );
+                    }
+                    else
+                    {
+                        quoted.append( c );
+                    }
+            }
+        }
+        quoted.append( '"' );
+        return quoted.toString();
+    }
+
+    private static class PhaseEntry
+    {
+        private final String name;
+
+        private final long startTime = System.currentTimeMillis();
+
+        private String status;
+
+        private ReleaseMetrics metrics;
+
+        PhaseEntry( String name, String status )
+        {
+            this.name = name;
+            this.status = status;
+        }
+    }
+}
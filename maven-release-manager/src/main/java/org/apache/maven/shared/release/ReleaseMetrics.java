@@ -0,0 +1,243 @@
+package org.apache.maven.shared.release;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.apache.maven.scm.ScmResult;
+import org.apache.maven.scm.provider.ScmProvider;
+
+/**
+ * Counts the work done by a release phase, or by a whole goal once the metrics of its phases have been added up.
+ * All times are in milliseconds. Phases record what they do in the metrics of the result they return, while the
+ * release manager records the time each phase takes.
+ */
+public class ReleaseMetrics
+{
+    private long wallTime;
+
+    private long cpuTime;
+
+    private int modules;
+
+    private int scmCommands;
+
+    private long scmTime;
+
+    private int forkedBuilds;
+
+    private long forkedBuildTime;
+
+    private long pomBytesRead;
+
+    private long pomBytesWritten;
+
+    private int cacheHits;
+
+    private int cacheMisses;
+
+    public synchronized long getWallTime()
+    {
+        return wallTime;
+    }
+
+    /**
+     * @return the CPU time used by the thread that ran the phase, excluding the forked builds and the worker threads
+     *         the phase handed its work to, so it understates the CPU time of phases that work in parallel
+     */
+    public synchronized long getCpuTime()
+    {
+        return cpuTime;
+    }
+
+    public synchronized void addTime( long wallTime, long cpuTime )
+    {
+        this.wallTime += wallTime;
+        this.cpuTime += cpuTime;
+    }
+
+    /**
+     * @return the number of modules whose POMs were processed
+     */
+    public synchronized int getModules()
+    {
+        return modules;
+    }
+
+    public synchronized void addModules( int modules )
+    {
+        this.modules += modules;
+    }
+
+    public synchronized int getScmCommands()
+    {
+        return scmCommands;
+    }
+
+    public synchronized long getScmTime()
+    {
+        return scmTime;
+    }
+
+    public synchronized void addScmCommand( long time )
+    {
+        scmCommands++;
+        scmTime += time;
+    }
+
+    public synchronized int getForkedBuilds()
+    {
+        return forkedBuilds;
+    }
+
+    public synchronized long getForkedBuildTime()
+    {
+        return forkedBuildTime;
+    }
+
+    public synchronized void addForkedBuild( long time )
+    {
+        forkedBuilds++;
+        forkedBuildTime += time;
+    }
+
+    public synchronized long getPomBytesRead()
+    {
+        return pomBytesRead;
+    }
+
+    public synchronized void addPomBytesRead( long bytes )
+    {
+        pomBytesRead += bytes;
+    }
+
+    public synchronized long getPomBytesWritten()
+    {
+        return pomBytesWritten;
+    }
+
+    public synchronized void addPomBytesWritten( long bytes )
+    {
+        pomBytesWritten += bytes;
+    }
+
+    /**
+     * @return the number of times the result of earlier work could be reused
+     */
+    public synchronized int getCacheHits()
+    {
+        return cacheHits;
+    }
+
+    public synchronized void addCacheHits( int hits )
+    {
+        cacheHits += hits;
+    }
+
+    /**
+     * @return the number of times work had to be done as no earlier result could be reused
+     */
+    public synchronized int getCacheMisses()
+    {
+        return cacheMisses;
+    }
+
+    public synchronized void addCacheMisses( int misses )
+    {
+        cacheMisses += misses;
+    }
+
+    /**
+     * Add the metrics of other work to these.
+     *
+     * @param other the metrics to add
+     */
+    public void add( ReleaseMetrics other )
+    {
+        long otherWallTime, otherCpuTime, otherScmTime, otherForkedBuildTime, otherPomBytesRead, otherPomBytesWritten;
+        int otherModules, otherScmCommands, otherForkedBuilds, otherCacheHits, otherCacheMisses;
+        synchronized ( other )
+        {
+            otherWallTime = other.wallTime;
+            otherCpuTime = other.cpuTime;
+            otherModules = other.modules;
+            otherScmCommands = other.scmCommands;
+            otherScmTime = other.scmTime;
+            otherForkedBuilds = other.forkedBuilds;
+            otherForkedBuildTime = other.forkedBuildTime;
+            otherPomBytesRead = other.pomBytesRead;
+            otherPomBytesWritten = other.pomBytesWritten;
+            otherCacheHits = other.cacheHits;
+            otherCacheMisses = other.cacheMisses;
+        }
+        synchronized ( this )
+        {
+            wallTime += otherWallTime;
+            cpuTime += otherCpuTime;
+            modules += otherModules;
+            scmCommands += otherScmCommands;
+            scmTime += otherScmTime;
+            forkedBuilds += otherForkedBuilds;
+            forkedBuildTime += otherForkedBuildTime;
+            pomBytesRead += otherPomBytesRead;
+            pomBytesWritten += otherPomBytesWritten;
+            cacheHits += otherCacheHits;
+            cacheMisses += otherCacheMisses;
+        }
+    }
+
+    /**
+     * Wrap an SCM provider so that every command it runs is counted in these metrics.
+     *
+     * @param provider the provider
+     * @return the wrapped provider
+     */
+    public ScmProvider meter( final ScmProvider provider )
+    {
+        return (ScmProvider) Proxy.newProxyInstance( ScmProvider.class.getClassLoader(),
+                                                     new Class[] { ScmProvider.class }, new InvocationHandler()
+        {
+            public Object invoke( Object proxy, Method method, Object[] args )
+                throws Throwable
+            {
+                boolean command = ScmResult.class.isAssignableFrom( method.getReturnType() );
+                long start = System.currentTimeMillis();
+                try
+                {
+                    return method.invoke( provider, args );
+                }
+                catch ( InvocationTargetException e )
+                {
+                    throw e.getCause();
+                }
+                finally
+                {
+                    if ( command )
+                    {
+                        addScmCommand( System.currentTimeMillis() - start );
+                    }
+                }
+            }
+        } );
+    }
+}
@@ -20,7 +20,17 @@ package org.apache.maven.shared.release;
  */
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+
+import org.codehaus.plexus.util.IOUtil;
 
 /**
  * @author Edwin Punzalan
@@ -31,39 +41,56 @@ public class ReleaseResult
 
     private StringBuffer stdOut = new StringBuffer();
 
+    /**
+     * The number of characters of output to keep in memory, or <code>0</code> to keep all of it.
+     */
+    private int outputTailSize;
+
+    /**
+     * The file that output beyond the in-memory tail is written to.
+     */
+    private File outputFile;
+
+    /**
+     * The number of characters written to the output file.
+     */
+    private long outputFileLength;
+
     private int resultCode = UNDEFINED;
 
     private long startTime;
 
     private long endTime;
 
+    private final ReleaseMetrics metrics = new ReleaseMetrics();
+
     private final static String LS = System.getProperty( "line.separator" );
 
     public void appendInfo( String message )
     {
-        stdOut.append( "[INFO] " ).append( message ).append( LS );
+        write( "[INFO] " + message + LS );
     }
 
     public void appendWarn( String message )
     {
-        stdOut.append( "[WARN] " ).append( message ).append( LS );
+        write( "[WARN] " + message + LS );
     }
 
     public void appendDebug( String message )
     {
-        stdOut.append( "[DEBUG] " ).append( message ).append( LS );
+        write( "[DEBUG] " + message + LS );
     }
 
     public void appendDebug( String message, Exception e )
     {
         appendDebug( message );
 
-        stdOut.append( getStackTrace( e ) ).append( LS );
+        write( getStackTrace( e ) + LS );
     }
 
     public void appendError( String message )
     {
-        stdOut.append( "[ERROR] " ).append( message ).append( LS );
+        write( "[ERROR] " + message + LS );
 
         setResultCode( ERROR );
     }
@@ -77,17 +104,161 @@ public class ReleaseResult
     {
         appendError( message );
 
-        stdOut.append( getStackTrace( e ) ).append( LS );
+        write( getStackTrace( e ) + LS );
     }
 
     public void appendOutput( String message )
     {
-        stdOut.append( message );
+        write( message );
+    }
+
+    /**
+     * Append all the output of another result, including any output it has written to its output file.
+     *
+     * @param result the result to copy the output from
+     */
+    public void appendOutput( ReleaseResult result )
+    {
+        File file = result.getOutputFile();
+        if ( file != null && !file.equals( outputFile ) )
+        {
+            Reader reader = null;
+            try
+            {
+                reader = new InputStreamReader( new FileInputStream( file ), "UTF-8" );
+                char[] buffer = new char[8192];
+                int n;
+                while ( ( n = reader.read( buffer ) ) >= 0 )
+                {
+                    write( new String( buffer, 0, n ) );
+                }
+            }
+            catch ( IOException e )
+            {
+                appendWarn( "Unable to read output from " + file + ": " + e.getMessage() );
+            }
+            finally
+            {
+                IOUtil.close( reader );
+            }
+        }
+
+        write( result.stdOut.toString() );
+    }
+
+    /**
+     * Keep only the last characters of the output in memory, and write the rest to a file. Any existing content of
+     * the file is replaced.
+     *
+     * @param tailSize the number of characters to keep in memory, or <code>0</code> to keep all the output in memory
+     * @param file     the file to write the rest of the output to
+     */
+    public synchronized void setOutputLimit( int tailSize, File file )
+    {
+        this.outputTailSize = tailSize;
+        this.outputFile = file;
+        this.outputFileLength = 0;
+
+        if ( file.exists() )
+        {
+            file.delete();
+        }
+
+        spill();
+    }
+
+    /**
+     * Get the output. When some of the output has been written to the output file, only the in-memory tail is
+     * returned, preceded by a note pointing to the file. Use {@link #writeOutput(Writer)} to get all of it.
+     *
+     * @return the output
+     */
+    public synchronized String getOutput()
+    {
+        if ( outputFileLength == 0 )
+        {
+            return stdOut.toString();
+        }
+
+        return "[INFO] The first " + outputFileLength + " characters of output were written to " + outputFile + LS
+            + stdOut.toString();
+    }
+
+    /**
+     * Write all the output, including the part written to the output file.
+     *
+     * @param writer the writer to write the output to
+     * @throws IOException if the output file can't be read
+     */
+    public synchronized void writeOutput( Writer writer )
+        throws IOException
+    {
+        if ( outputFileLength > 0 )
+        {
+            Reader reader = new InputStreamReader( new FileInputStream( outputFile ), "UTF-8" );
+            try
+            {
+                IOUtil.copy( reader, writer );
+            }
+            finally
+            {
+                IOUtil.close( reader );
+            }
+        }
+
+        writer.write( stdOut.toString() );
     }
 
-    public String getOutput()
+    /**
+     * @return the file that output beyond the in-memory tail is written to, or <code>null</code> if nothing has been
+     *         written to a file
+     */
+    public synchronized File getOutputFile()
     {
-        return stdOut.toString();
+        return outputFileLength > 0 ? outputFile : null;
+    }
+
+    private synchronized void write( String output )
+    {
+        stdOut.append( output );
+
+        // spill in large chunks rather than on every append
+        if ( outputTailSize > 0 && stdOut.length() > 2 * outputTailSize )
+        {
+            spill();
+        }
+    }
+
+    private void spill()
+    {
+        int length = stdOut.length() - outputTailSize;
+        if ( outputTailSize <= 0 || length <= 0 )
+        {
+            return;
+        }
+
+        Writer writer = null;
+        try
+        {
+            outputFile.getParentFile().mkdirs();
+
+            // don't keep the file open, so that a forked 'clean' can still remove the directory
+            writer = new OutputStreamWriter( new FileOutputStream( outputFile, true ), "UTF-8" );
+            writer.write( stdOut.substring( 0, length ) );
+            writer.flush();
+
+            stdOut.delete( 0, length );
+            outputFileLength += length;
+        }
+        catch ( IOException e )
+        {
+            // keep everything in memory rather than lose output
+            outputTailSize = 0;
+        }
+        finally
+        {
+            IOUtil.close( writer );
+        }
     }
 
     public int getResultCode()
@@ -120,6 +291,14 @@ public class ReleaseResult
         this.endTime = endTime;
     }
 
+    /**
+     * @return the metrics of the work this result is for
+     */
+    public ReleaseMetrics getMetrics()
+    {
+        return metrics;
+    }
+
     private String getStackTrace( Exception e )
     {
         ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
@@ -133,6 +312,11 @@ public class ReleaseResult
         return byteStream.toString();
     }
 
+    /**
+     * @return the in-memory output
+     * @deprecated Use {@link #appendOutput(String)} or {@link #appendOutput(ReleaseResult)} to add output, so that
+     *             the output limit is applied.
+     */
     public StringBuffer getOutputBuffer()
     {
         return stdOut;
@@ -0,0 +1,279 @@
+package org.apache.maven.shared.release.config;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.codehaus.plexus.util.IOUtil;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Stores the release configuration like {@link PropertiesReleaseDescriptorStore}, but instead of rewriting
+ * <code>release.properties</code> after every phase, appends the properties that changed to a journal next to it.
+ * Each change is synced to disk before the next phase starts. The journal is compacted into
+ * <code>release.properties</code> once the compaction phase has completed, and replayed on top of it when reading an
+ * unfinished release.
+ * <p/>
+ * The journal is a sequence of blocks in properties file format, each one ended by an {@link #END_OF_BLOCK} line. A
+ * block that was not completely written is ignored when replaying.
+ *
+ * @plexus.component role="org.apache.maven.shared.release.config.ReleaseDescriptorStore" role-hint="journaled"
+ */
+public class JournaledReleaseDescriptorStore
+    extends PropertiesReleaseDescriptorStore
+{
+    static final String END_OF_BLOCK = "#end";
+
+    private static final String SET_PREFIX = "set.";
+
+    private static final String REMOVE_PREFIX = "remove.";
+
+    /**
+     * The phase after which the journal is compacted into the properties file.
+     */
+    private String compactionPhase = "end-release";
+
+    /**
+     * The last stored properties, with the state of the files after storing them, by properties file.
+     */
+    private final Map<File, Checkpoint> checkpoints = new HashMap<File, Checkpoint>();
+
+    public void setCompactionPhase( String compactionPhase )
+    {
+        this.compactionPhase = compactionPhase;
+    }
+
+    protected Properties readProperties( File file )
+        throws ReleaseDescriptorStoreException
+    {
+        Properties properties = super.readProperties( file );
+
+        replay( properties, getJournalFile( file ) );
+
+        return properties;
+    }
+
+    public synchronized void write( ReleaseDescriptor config, File file )
+        throws ReleaseDescriptorStoreException
+    {
+        // the descriptor doesn't track which of its fields changed, so the properties are built again to find out;
+        // that is cheap next to syncing them to disk, which is only done for the properties that changed
+        Properties properties = toProperties( config );
+
+        if ( compactionPhase.equals( config.getCompletedPhase() ) )
+        {
+            compact( properties, file );
+            return;
+        }
+
+        File journal = getJournalFile( file );
+
+        Checkpoint checkpoint = checkpoints.get( file );
+        if ( checkpoint == null || checkpoint.journalLength != journal.length()
+            || checkpoint.lastModified != file.lastModified() )
+        {
+            // the files were changed by someone else, so the current state has to be read again
+            checkpoint = new Checkpoint( readProperties( file ) );
+        }
+
+        Properties delta = new Properties();
+        for ( Iterator i = properties.entrySet().iterator(); i.hasNext(); )
+        {
+            Map.Entry entry = (Map.Entry) i.next();
+            if ( !entry.getValue().equals( checkpoint.properties.get( entry.getKey() ) ) )
+            {
+                delta.setProperty( SET_PREFIX + entry.getKey(), (String) entry.getValue() );
+            }
+        }
+        for ( Iterator i = checkpoint.properties.keySet().iterator(); i.hasNext(); )
+        {
+            String key = (String) i.next();
+            if ( !properties.containsKey( key ) )
+            {
+                delta.setProperty( REMOVE_PREFIX + key, "" );
+            }
+        }
+
+        if ( !delta.isEmpty() )
+        {
+            append( delta, journal );
+        }
+
+        checkpoint.properties = properties;
+        checkpoint.journalLength = journal.length();
+        checkpoint.lastModified = file.lastModified();
+        checkpoints.put( file, checkpoint );
+    }
+
+    public synchronized void delete( ReleaseDescriptor config )
+    {
+        super.delete( config );
+
+        File file = getDefaultReleasePropertiesFile( config );
+        checkpoints.remove( file );
+
+        File journal = getJournalFile( file );
+        if ( journal.exists() )
+        {
+            journal.delete();
+        }
+    }
+
+    /**
+     * Write the complete configuration to the properties file, and remove the journal.
+     */
+    private void compact( Properties properties, File file )
+        throws ReleaseDescriptorStoreException
+    {
+        // replaying the journal on top of the compacted properties yields the same properties, so it doesn't matter
+        // if the journal can't be removed
+        writeProperties( properties, file );
+
+        File journal = getJournalFile( file );
+        if ( journal.exists() && !journal.delete() )
+        {
+            getLogger().warn( "Unable to delete the release journal " + journal );
+        }
+
+        checkpoints.remove( file );
+    }
+
+    private void append( Properties delta, File journal )
+        throws ReleaseDescriptorStoreException
+    {
+        ByteArrayOutputStream block = new ByteArrayOutputStream();
+        try
+        {
+            delta.store( block, null );
+            block.write( ( END_OF_BLOCK + "\n" ).getBytes( "ISO-8859-1" ) );
+        }
+        catch ( IOException e )
+        {
+            throw new ReleaseDescriptorStoreException( "Error writing release journal: " + e.getMessage(), e );
+        }
+
+        FileOutputStream outStream = null;
+        try
+        {
+            outStream = new FileOutputStream( journal, true );
+
+            block.writeTo( outStream );
+
+            outStream.getFD().sync();
+        }
+        catch ( IOException e )
+        {
+            throw new ReleaseDescriptorStoreException(
+                "Error writing release journal '" + journal.getName() + "': " + e.getMessage(), e );
+        }
+        finally
+        {
+            IOUtil.close( outStream );
+        }
+    }
+
+    private void replay( Properties properties, File journal )
+        throws ReleaseDescriptorStoreException
+    {
+        BufferedReader reader = null;
+        try
+        {
+            reader = new BufferedReader( new InputStreamReader( new FileInputStream( journal ), "ISO-8859-1" ) );
+
+            StringBuffer block = new StringBuffer();
+            for ( String line = reader.readLine(); line != null; line = reader.readLine() )
+            {
+                if ( END_OF_BLOCK.equals( line ) )
+                {
+                    apply( properties, block.toString() );
+                    block.setLength( 0 );
+                }
+                else
+                {
+                    block.append( line ).append( '\n' );
+                }
+            }
+        }
+        catch ( FileNotFoundException e )
+        {
+            // nothing has been journaled
+        }
+        catch ( IOException e )
+        {
+            throw new ReleaseDescriptorStoreException(
+                "Error reading release journal '" + journal.getName() + "': " + e.getMessage(), e );
+        }
+        finally
+        {
+            IOUtil.close( reader );
+        }
+    }
+
+    private static void apply( Properties properties, String block )
+        throws IOException
+    {
+        Properties delta = new Properties();
+        delta.load( new ByteArrayInputStream( block.getBytes( "ISO-8859-1" ) ) );
+
+        for ( Iterator i = delta.entrySet().iterator(); i.hasNext(); )
+        {
+            Map.Entry entry = (Map.Entry) i.next();
+            String key = (String) entry.getKey();
+            if ( key.startsWith( SET_PREFIX ) )
+            {
+                properties.setProperty( key.substring( SET_PREFIX.length() ), (String) entry.getValue() );
+            }
+            else if ( key.startsWith( REMOVE_PREFIX ) )
+            {
+                properties.remove( key.substring( REMOVE_PREFIX.length() ) );
+            }
+        }
+    }
+
+    static File getJournalFile( File file )
+    {
+        return new File( file.getPath() + ".journal" );
+    }
+
+    private static class Checkpoint
+    {
+        private Properties properties;
+
+        private long journalLength;
+
+        private long lastModified;
+
+        Checkpoint( Properties properties )
+        {
+            this.properties = properties;
+        }
+    }
+}
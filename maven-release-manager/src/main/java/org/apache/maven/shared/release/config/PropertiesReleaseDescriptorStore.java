@@ -60,6 +60,27 @@ public class PropertiesReleaseDescriptorStore
 
     public ReleaseDescriptor read( ReleaseDescriptor mergeDescriptor, File file )
         throws ReleaseDescriptorStoreException
+    {
+        Properties properties = readProperties( file );
+
+        ReleaseDescriptor releaseDescriptor = ReleaseUtils.copyPropertiesToReleaseDescriptor( properties );
+
+        if ( mergeDescriptor != null )
+        {
+            releaseDescriptor = ReleaseUtils.merge( releaseDescriptor, mergeDescriptor );
+        }
+
+        return releaseDescriptor;
+    }
+
+    /**
+     * Read the stored release configuration.
+     *
+     * @param file the properties file
+     * @return the properties, empty if the file doesn't exist
+     */
+    protected Properties readProperties( File file )
+        throws ReleaseDescriptorStoreException
     {
         Properties properties = new Properties();
 
@@ -84,14 +105,7 @@ public class PropertiesReleaseDescriptorStore
             IOUtil.close( inStream );
         }
 
-        ReleaseDescriptor releaseDescriptor = ReleaseUtils.copyPropertiesToReleaseDescriptor( properties );
-
-        if ( mergeDescriptor != null )
-        {
-            releaseDescriptor = ReleaseUtils.merge( releaseDescriptor, mergeDescriptor );
-        }
-
-        return releaseDescriptor;
+        return properties;
     }
 
     public void write( ReleaseDescriptor config )
@@ -111,6 +125,17 @@ public class PropertiesReleaseDescriptorStore
 
     public void write( ReleaseDescriptor config, File file )
         throws ReleaseDescriptorStoreException
+    {
+        writeProperties( toProperties( config ), file );
+    }
+
+    /**
+     * Convert a release configuration to the properties it is stored as.
+     *
+     * @param config the configuration
+     * @return the properties
+     */
+    protected Properties toProperties( ReleaseDescriptor config )
     {
         Properties properties = new Properties();
         properties.setProperty( "completedPhase", config.getCompletedPhase() );
@@ -226,6 +251,18 @@ public class PropertiesReleaseDescriptorStore
             processResolvedDependencies( properties, config.getResolvedSnapshotDependencies() );
         }
 
+        return properties;
+    }
+
+    /**
+     * Replace the stored release configuration.
+     *
+     * @param properties the properties
+     * @param file       the properties file
+     */
+    protected void writeProperties( Properties properties, File file )
+        throws ReleaseDescriptorStoreException
+    {
         OutputStream outStream = null;
         //noinspection OverlyBroadCatchBlock
         try
@@ -243,7 +280,6 @@ public class PropertiesReleaseDescriptorStore
         {
             IOUtil.close( outStream );
         }
-
     }
 
     private void processResolvedDependencies( Properties prop, Map resolvedDependencies )
@@ -265,7 +301,7 @@ public class PropertiesReleaseDescriptorStore
         }
     }
 
-    private static File getDefaultReleasePropertiesFile( ReleaseDescriptor mergeDescriptor )
+    static File getDefaultReleasePropertiesFile( ReleaseDescriptor mergeDescriptor )
     {
         return new File( mergeDescriptor.getWorkingDirectory(), "release.properties" );
     }
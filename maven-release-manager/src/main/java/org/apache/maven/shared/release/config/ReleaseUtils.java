@@ -75,6 +75,8 @@ public class ReleaseUtils
         mergeInto.setPerformGoals( mergeOverride( mergeInto.getPerformGoals(), toBeMerged.getPerformGoals() ) );
         mergeInto.setPomFileName( mergeOverride( mergeInto.getPomFileName(), toBeMerged.getPomFileName() ) );
         mergeInto.setCheckModificationExcludes( toBeMerged.getCheckModificationExcludes() );
+        mergeInto.setCheckModificationIncludes( toBeMerged.getCheckModificationIncludes() );
+        mergeInto.setCheckModificationsInModules( toBeMerged.isCheckModificationsInModules() );
         mergeInto.setScmUseEditMode( toBeMerged.isScmUseEditMode() );
         mergeInto.setAddSchema( toBeMerged.isAddSchema() );
         mergeInto.setGenerateReleasePoms( toBeMerged.isGenerateReleasePoms() );
@@ -98,6 +100,11 @@ public class ReleaseUtils
         mergeInto.setLocalCheckout( toBeMerged.isLocalCheckout() );
         mergeInto.setPushChanges( toBeMerged.isPushChanges() );
         mergeInto.setWaitBeforeTagging( toBeMerged.getWaitBeforeTagging() );
+        mergeInto.setDryRunDiff( toBeMerged.isDryRunDiff() );
+        mergeInto.setAutoResolveSnapshots( toBeMerged.isAutoResolveSnapshots() );
+        mergeInto.setGroupVersionMapping( toBeMerged.isGroupVersionMapping() );
+        mergeInto.setVersionRulesFile( mergeOverride( mergeInto.getVersionRulesFile(),
+                                                      toBeMerged.getVersionRulesFile() ) );
 
         // If the user specifies versions, these should be override the existing versions
         if ( toBeMerged.getScmReleaseLabels() != null )
@@ -0,0 +1,89 @@
+package org.apache.maven.shared.release.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copies a stream to another one with blocking reads until the end of the input is reached. Unlike
+ * {@link RawStreamPumper} it is not a thread of its own, so that it can be run by a shared executor.
+ */
+public class BlockingStreamPumper
+    implements Runnable
+{
+    private static final int BUFFER_SIZE = 1024 * 8;
+
+    private final InputStream in;
+
+    private final OutputStream out;
+
+    private final CountDownLatch finished = new CountDownLatch( 1 );
+
+    public BlockingStreamPumper( InputStream in, OutputStream out )
+    {
+        this.in = in;
+        this.out = out;
+    }
+
+    public void run()
+    {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try
+        {
+            for ( int i = in.read( buffer ); i != -1; i = in.read( buffer ) )
+            {
+                out.write( buffer, 0, i );
+                out.flush();
+            }
+        }
+        catch ( IOException e )
+        {
+            // the input was closed or the output can't be written, either way there is nothing more to copy
+        }
+        finally
+        {
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Wait until the whole input has been copied.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return <code>true</code> if the input was copied, <code>false</code> if the timeout elapsed first
+     * @throws InterruptedException if the current thread was interrupted while waiting
+     */
+    public boolean waitFor( long timeout, TimeUnit unit )
+        throws InterruptedException
+    {
+        return finished.await( timeout, unit );
+    }
+
+    public void closeInput()
+        throws IOException
+    {
+        in.close();
+    }
+}
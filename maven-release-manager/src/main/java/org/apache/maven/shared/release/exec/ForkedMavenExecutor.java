@@ -21,6 +21,7 @@ package org.apache.maven.shared.release.exec;
 
 import org.apache.maven.shared.release.ReleaseResult;
 import org.apache.maven.shared.release.env.ReleaseEnvironment;
+import org.apache.maven.shared.release.util.DaemonThreadFactory;
 import org.codehaus.plexus.util.StringUtils;
 import org.codehaus.plexus.util.cli.CommandLineException;
 import org.codehaus.plexus.util.cli.Commandline;
@@ -29,6 +30,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Fork Maven to executed a series of goals.
@@ -39,6 +44,18 @@ import java.io.OutputStream;
 public class ForkedMavenExecutor
     extends AbstractMavenExecutor
 {
+    /**
+     * Runs the stream pumpers of all forked builds, reusing the threads of earlier builds.
+     */
+    private static final ExecutorService STREAM_PUMPERS =
+        Executors.newCachedThreadPool( new DaemonThreadFactory( "release-stream-pumper" ) );
+
+    /**
+     * How long to wait for the output of a process after it has exited, in case a process it started keeps the
+     * output open.
+     */
+    private static final long DRAIN_TIMEOUT_SECONDS = 30;
+
     /**
      * Command line factory.
      *
@@ -46,6 +63,12 @@ public class ForkedMavenExecutor
      */
     private CommandLineFactory commandLineFactory;
 
+    /**
+     * The number of bytes of each output stream of the forked build to keep for the release result and error
+     * messages, or <code>0</code> to keep all of it. The complete output is still echoed to the console.
+     */
+    private int outputTailSize = 256 * 1024;
+
     /**
      * @noinspection UseOfSystemOutOrSystemErr
      */
@@ -108,16 +131,17 @@ public class ForkedMavenExecutor
             cl.createArg().setLine( additionalArguments );
         }
 
-        TeeOutputStream stdOut = new TeeOutputStream( System.out );
+        TeeOutputStream stdOut = new TeeOutputStream( System.out, "    ", outputTailSize );
 
-        TeeOutputStream stdErr = new TeeOutputStream( System.err );
+        TeeOutputStream stdErr = new TeeOutputStream( System.err, "    ", outputTailSize );
 
         try
         {
             relResult.appendInfo( "Executing: " + cl.toString() );
             getLogger().info( "Executing: " + cl.toString() );
 
-            int result = executeCommandLine( cl, System.in, stdOut, stdErr );
+            // in batch mode the build never prompts, so there is no need to feed it the console
+            int result = executeCommandLine( cl, interactive ? System.in : null, stdOut, stdErr );
 
             if ( result != 0 )
             {
@@ -131,6 +155,10 @@ public class ForkedMavenExecutor
         }
         finally
         {
+            if ( stdOut.getDiscarded() > 0 )
+            {
+                relResult.appendInfo( "Omitted the first " + stdOut.getDiscarded() + " bytes of the build output" );
+            }
             relResult.appendOutput( stdOut.toString() );
         }
     }
@@ -151,12 +179,32 @@ public class ForkedMavenExecutor
         this.commandLineFactory = commandLineFactory;
     }
 
-
-
+    public void setOutputTailSize( int outputTailSize )
+    {
+        this.outputTailSize = outputTailSize;
+    }
 
     public static int executeCommandLine( Commandline cl, InputStream systemIn,
                                           OutputStream systemOut, OutputStream systemErr )
         throws CommandLineException
+    {
+        return executeCommandLine( cl, systemIn, systemOut, systemErr, STREAM_PUMPERS );
+    }
+
+    /**
+     * Execute a command line, copying its output with blocking reads on the given executor.
+     *
+     * @param cl        the command line to execute
+     * @param systemIn  the input to feed to the process, or <code>null</code> to close its input straight away
+     * @param systemOut the stream to copy the output of the process to
+     * @param systemErr the stream to copy the error output of the process to
+     * @param pumpers   the executor to copy the output of the process on, it must be able to run two tasks at once
+     * @return the exit code of the process
+     * @throws CommandLineException if the process can't be started or the current thread is interrupted
+     */
+    public static int executeCommandLine( Commandline cl, InputStream systemIn, OutputStream systemOut,
+                                          OutputStream systemErr, Executor pumpers )
+        throws CommandLineException
     {
         if ( cl == null )
         {
@@ -165,26 +213,25 @@ public class ForkedMavenExecutor
 
         Process p = cl.execute();
 
-        //processes.put( new Long( cl.getPid() ), p );
-
+        // the console can't be read without blocking, so it is polled to avoid consuming input after the process
+        // has exited
         RawStreamPumper inputFeeder = null;
 
         if ( systemIn != null )
         {
             inputFeeder = new RawStreamPumper( systemIn, p.getOutputStream(), true );
+            inputFeeder.start();
         }
-
-        RawStreamPumper outputPumper = new RawStreamPumper( p.getInputStream(), systemOut );
-        RawStreamPumper errorPumper = new RawStreamPumper( p.getErrorStream(), systemErr );
-
-        if ( inputFeeder != null )
+        else
         {
-            inputFeeder.start();
+            close( p.getOutputStream() );
         }
 
-        outputPumper.start();
+        BlockingStreamPumper outputPumper = new BlockingStreamPumper( p.getInputStream(), systemOut );
+        BlockingStreamPumper errorPumper = new BlockingStreamPumper( p.getErrorStream(), systemErr );
 
-        errorPumper.start();
+        pumpers.execute( outputPumper );
+        pumpers.execute( errorPumper );
 
         try
         {
@@ -194,16 +241,16 @@ public class ForkedMavenExecutor
             {
                 inputFeeder.setDone();
             }
-            outputPumper.setDone();
-            errorPumper.setDone();
 
-            //processes.remove( new Long( cl.getPid() ) );
+            if ( outputPumper.waitFor( DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS ) )
+            {
+                errorPumper.waitFor( DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS );
+            }
 
             return returnValue;
         }
         catch ( InterruptedException ex )
         {
-            //killProcess( cl.getPid() );
             throw new CommandLineException( "Error while executing external command, process killed.", ex );
         }
         finally
@@ -238,5 +285,18 @@ public class ForkedMavenExecutor
         }
     }
 
-
+    private static void close( OutputStream out )
+    {
+        if ( out != null )
+        {
+            try
+            {
+                out.close();
+            }
+            catch ( IOException e )
+            {
+                //ignore
+            }
+        }
+    }
 }
@@ -0,0 +1,277 @@
+package org.apache.maven.shared.release.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Runs Maven builds one after the other in a single JVM, so that they don't each pay for starting the JVM and loading
+ * the Maven core. It is started by {@link PersistentMavenExecutor} with the Maven home as its only argument, and
+ * must not depend on anything but the JDK, since it is run with nothing but this class on its class path.
+ * <p/>
+ * Each line read from the standard input is a request, made of URL encoded fields separated by spaces: a token
+ * identifying the request, the working directory and the command line arguments for Maven. The output of the build
+ * is written to the standard output, followed by the token and the exit code of the build on a line of their own.
+ * The server exits when the standard input is closed.
+ * <p/>
+ * Maven is loaded through the classworlds launcher and configuration of the Maven home, which requires Maven 3.0 or
+ * later.
+ */
+public class MavenServer
+{
+    private static final String ENCODING = "UTF-8";
+
+    private final Object classWorld;
+
+    private final Class<?> cliClass;
+
+    private final Method doMain;
+
+    public MavenServer( File mavenHome )
+        throws Exception
+    {
+        System.setProperty( "maven.home", mavenHome.getAbsolutePath() );
+        File configFile = new File( mavenHome, "bin/m2.conf" );
+        System.setProperty( "classworlds.conf", configFile.getAbsolutePath() );
+
+        File[] bootJars = new File( mavenHome, "boot" ).listFiles();
+        if ( bootJars == null )
+        {
+            throw new IOException( "No boot directory in Maven home " + mavenHome + ", Maven 3.0 or later is required" );
+        }
+        List<URL> urls = new ArrayList<URL>();
+        for ( File jar : bootJars )
+        {
+            if ( jar.getName().endsWith( ".jar" ) )
+            {
+                urls.add( jar.toURI().toURL() );
+            }
+        }
+
+        // keep this class out of sight of the builds
+        ClassLoader bootLoader =
+            new URLClassLoader( urls.toArray( new URL[urls.size()] ), ClassLoader.getSystemClassLoader().getParent() );
+
+        Class<?> launcherClass = bootLoader.loadClass( "org.codehaus.plexus.classworlds.launcher.Launcher" );
+        Object launcher = launcherClass.newInstance();
+        launcherClass.getMethod( "setSystemClassLoader", ClassLoader.class ).invoke( launcher, bootLoader );
+
+        InputStream config = new FileInputStream( configFile );
+        try
+        {
+            launcherClass.getMethod( "configure", InputStream.class ).invoke( launcher, config );
+        }
+        finally
+        {
+            config.close();
+        }
+
+        classWorld = launcherClass.getMethod( "getWorld" ).invoke( launcher );
+        cliClass = (Class<?>) launcherClass.getMethod( "getMainClass" ).invoke( launcher );
+        doMain = cliClass.getMethod( "doMain", String[].class, String.class, PrintStream.class, PrintStream.class );
+    }
+
+    /**
+     * Run a build.
+     *
+     * @param args             the command line arguments
+     * @param workingDirectory the directory to run the build in
+     * @param out              the stream to write the output of the build to
+     * @return the exit code of the build
+     */
+    public int execute( String[] args, String workingDirectory, PrintStream out )
+        throws Exception
+    {
+        // builds set the user properties as system properties, which must not leak into the next build
+        Properties systemProperties = (Properties) System.getProperties().clone();
+        System.setProperty( "maven.multiModuleProjectDirectory", getProjectDirectory( workingDirectory ) );
+
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader( cliClass.getClassLoader() );
+        try
+        {
+            Object cli = newCli();
+            return ( (Integer) doMain.invoke( cli, args, workingDirectory, out, out ) ).intValue();
+        }
+        catch ( InvocationTargetException e )
+        {
+            if ( e.getCause() instanceof Error )
+            {
+                throw (Error) e.getCause();
+            }
+            throw (Exception) e.getCause();
+        }
+        finally
+        {
+            thread.setContextClassLoader( contextClassLoader );
+            System.setProperties( systemProperties );
+        }
+    }
+
+    private Object newCli()
+        throws Exception
+    {
+        Constructor<?> constructor;
+        try
+        {
+            constructor = cliClass.getConstructor( classWorld.getClass() );
+        }
+        catch ( NoSuchMethodException e )
+        {
+            return cliClass.newInstance();
+        }
+        return constructor.newInstance( classWorld );
+    }
+
+    /**
+     * The top directory of the project, found the same way the <code>mvn</code> script does.
+     */
+    private static String getProjectDirectory( String workingDirectory )
+    {
+        for ( File dir = new File( workingDirectory ).getAbsoluteFile(); dir != null; dir = dir.getParentFile() )
+        {
+            if ( new File( dir, ".mvn" ).isDirectory() )
+            {
+                return dir.getPath();
+            }
+        }
+        return workingDirectory;
+    }
+
+    /**
+     * Encode the fields of a request.
+     *
+     * @param fields the token, the working directory and the arguments of the request
+     * @return the request line, without a line separator
+     */
+    public static String encodeRequest( List<String> fields )
+    {
+        StringBuffer request = new StringBuffer();
+        try
+        {
+            for ( String field : fields )
+            {
+                if ( request.length() > 0 )
+                {
+                    request.append( ' ' );
+                }
+                request.append( URLEncoder.encode( field, ENCODING ) );
+            }
+        }
+        catch ( UnsupportedEncodingException e )
+        {
+            throw new IllegalStateException( e.getMessage() );
+        }
+        return request.toString();
+    }
+
+    /**
+     * Decode the fields of a request.
+     *
+     * @param request the request line
+     * @return the token, the working directory and the arguments of the request
+     */
+    public static String[] decodeRequest( String request )
+    {
+        String[] fields = request.split( " " );
+        try
+        {
+            for ( int i = 0; i < fields.length; i++ )
+            {
+                fields[i] = URLDecoder.decode( fields[i], ENCODING );
+            }
+        }
+        catch ( UnsupportedEncodingException e )
+        {
+            throw new IllegalStateException( e.getMessage() );
+        }
+        return fields;
+    }
+
+    /**
+     * @noinspection UseOfSystemOutOrSystemErr
+     */
+    public static void main( String[] args )
+        throws IOException
+    {
+        InputStream requests = System.in;
+        PrintStream out = System.out;
+
+        // the standard input carries the requests, so the builds must not read from it
+        System.setIn( new ByteArrayInputStream( new byte[0] ) );
+
+        MavenServer server;
+        try
+        {
+            server = new MavenServer( new File( args[0] ) );
+        }
+        catch ( Exception e )
+        {
+            System.err.println( "Unable to load Maven from " + args[0] + ": " + e );
+            e.printStackTrace();
+            System.exit( 1 );
+            return;
+        }
+
+        BufferedReader reader = new BufferedReader( new InputStreamReader( requests, ENCODING ) );
+        for ( String line = reader.readLine(); line != null; line = reader.readLine() )
+        {
+            String[] fields = decodeRequest( line );
+            String[] mavenArgs = new String[fields.length - 2];
+            System.arraycopy( fields, 2, mavenArgs, 0, mavenArgs.length );
+
+            int exitCode;
+            try
+            {
+                exitCode = server.execute( mavenArgs, fields[1], out );
+            }
+            catch ( Throwable t )
+            {
+                t.printStackTrace( out );
+                exitCode = 1;
+            }
+
+            out.println( fields[0] + " " + exitCode );
+            out.flush();
+        }
+
+        // don't wait for threads left behind by the builds
+        System.exit( 0 );
+    }
+}
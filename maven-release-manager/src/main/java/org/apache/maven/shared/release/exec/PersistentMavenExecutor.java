@@ -0,0 +1,373 @@
+package org.apache.maven.shared.release.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.shared.release.ReleaseResult;
+import org.apache.maven.shared.release.env.ReleaseEnvironment;
+import org.apache.maven.shared.release.util.DaemonThreadFactory;
+import org.codehaus.plexus.personality.plexus.lifecycle.phase.Disposable;
+import org.codehaus.plexus.util.StringUtils;
+import org.codehaus.plexus.util.cli.CommandLineException;
+import org.codehaus.plexus.util.cli.CommandLineUtils;
+import org.codehaus.plexus.util.cli.Commandline;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Run Maven in a JVM that is kept running for the whole release, so that the goals of every phase are run by a JVM
+ * that has already loaded and compiled the Maven core. The JVM runs a {@link MavenServer}, and is started again if it
+ * dies. Since the standard input of the JVM carries the requests, the goals are always run in batch mode. Requires
+ * Maven 3.0 or later.
+ *
+ * @plexus.component role="org.apache.maven.shared.release.exec.MavenExecutor" role-hint="persistent"
+ */
+public class PersistentMavenExecutor
+    extends AbstractMavenExecutor
+    implements Disposable
+{
+    /**
+     * Command line factory.
+     *
+     * @plexus.requirement
+     */
+    private CommandLineFactory commandLineFactory;
+
+    /**
+     * The number of bytes of the output of each build to keep for the release result and error messages, or
+     * <code>0</code> to keep all of it. The complete output is still echoed to the console.
+     */
+    private int outputTailSize = 256 * 1024;
+
+    /**
+     * The class to run in the JVM, which must speak the protocol of {@link MavenServer}.
+     */
+    private Class<?> serverClass = MavenServer.class;
+
+    /**
+     * The running servers, by Java and Maven home.
+     */
+    private final Map<String, Server> servers = new HashMap<String, Server>();
+
+    public synchronized void executeGoals( File workingDirectory,
+                                           String goals,
+                                           ReleaseEnvironment releaseEnvironment,
+                                           boolean interactive,
+                                           String additionalArguments,
+                                           String pomFileName,
+                                           ReleaseResult relResult )
+        throws MavenExecutorException
+    {
+        List<String> args = new ArrayList<String>();
+
+        if ( pomFileName != null )
+        {
+            args.add( "-f" );
+            args.add( pomFileName );
+        }
+
+        if ( goals != null )
+        {
+            args.addAll( Arrays.asList( StringUtils.split( goals, ", \n\r" ) ) );
+        }
+
+        args.add( "--batch-mode" );
+
+        if ( releaseEnvironment.getSettings() != null )
+        {
+            File settingsFile = releaseEnvironment.getSettings().getRuntimeInfo().getFile();
+            if ( settingsFile != null && settingsFile.isFile() )
+            {
+                args.add( "-s" );
+                args.add( settingsFile.getAbsolutePath() );
+            }
+        }
+
+        if ( releaseEnvironment.getLocalRepositoryDirectory() != null )
+        {
+            args.add( "-Dmaven.repo.local=" + releaseEnvironment.getLocalRepositoryDirectory().getAbsolutePath() );
+        }
+
+        if ( !StringUtils.isEmpty( additionalArguments ) )
+        {
+            try
+            {
+                args.addAll( Arrays.asList( CommandLineUtils.translateCommandline( additionalArguments ) ) );
+            }
+            catch ( Exception e )
+            {
+                throw new MavenExecutorException( "Failed to parse additional arguments for Maven invocation.", e );
+            }
+        }
+
+        if ( interactive )
+        {
+            getLogger().warn( "The persistent Maven executor always runs in batch mode" );
+        }
+
+        String key = getJavaHome( releaseEnvironment ) + File.pathSeparator + getMavenHome( releaseEnvironment );
+        Server server = servers.get( key );
+        if ( server == null || !server.isAlive() )
+        {
+            server = startServer( workingDirectory, releaseEnvironment );
+            servers.put( key, server );
+        }
+
+        TeeOutputStream stdOut = new TeeOutputStream( System.out, "    ", outputTailSize );
+
+        try
+        {
+            relResult.appendInfo( "Executing in persistent Maven: " + StringUtils.join( args.iterator(), " " ) );
+            getLogger().info( "Executing in persistent Maven: " + StringUtils.join( args.iterator(), " " ) );
+
+            int result = server.execute( workingDirectory, args, stdOut );
+
+            if ( result != 0 )
+            {
+                throw new MavenExecutorException( "Maven execution failed, exit code: \'" + result + "\'", result,
+                                                  stdOut.toString(), "" );
+            }
+        }
+        catch ( IOException e )
+        {
+            servers.remove( key );
+            server.destroy();
+
+            throw new MavenExecutorException( "Can't run goal " + goals, stdOut.toString(), "", e );
+        }
+        finally
+        {
+            if ( stdOut.getDiscarded() > 0 )
+            {
+                relResult.appendInfo( "Omitted the first " + stdOut.getDiscarded() + " bytes of the build output" );
+            }
+            relResult.appendOutput( stdOut.toString() );
+        }
+    }
+
+    public void executeGoals( File workingDirectory,
+                              String goals,
+                              ReleaseEnvironment releaseEnvironment,
+                              boolean interactive,
+                              String additionalArguments,
+                              ReleaseResult result )
+        throws MavenExecutorException
+    {
+        executeGoals( workingDirectory, goals, releaseEnvironment, interactive, additionalArguments, null, result );
+    }
+
+    private Server startServer( File workingDirectory, ReleaseEnvironment releaseEnvironment )
+        throws MavenExecutorException
+    {
+        Commandline cl = commandLineFactory.createCommandLine( getJavaHome( releaseEnvironment ) + File.separator
+            + "bin" + File.separator + "java" );
+
+        cl.setWorkingDirectory( workingDirectory.getAbsolutePath() );
+
+        String mavenOpts = System.getenv( "MAVEN_OPTS" );
+        if ( !StringUtils.isEmpty( mavenOpts ) )
+        {
+            cl.createArg().setLine( mavenOpts );
+        }
+
+        cl.createArg().setValue( "-classpath" );
+        cl.createArg().setValue( getClassPath() );
+        cl.createArg().setValue( serverClass.getName() );
+        cl.createArg().setValue( getMavenHome( releaseEnvironment ) );
+
+        getLogger().info( "Starting persistent Maven: " + cl.toString() );
+
+        try
+        {
+            return new Server( cl.execute() );
+        }
+        catch ( CommandLineException e )
+        {
+            throw new MavenExecutorException( "Can't start persistent Maven", e );
+        }
+    }
+
+    private String getClassPath()
+        throws MavenExecutorException
+    {
+        try
+        {
+            return new File( serverClass.getProtectionDomain().getCodeSource().getLocation().toURI() ).getPath();
+        }
+        catch ( URISyntaxException e )
+        {
+            throw new MavenExecutorException( "Can't locate " + serverClass.getName(), e );
+        }
+    }
+
+    private static String getJavaHome( ReleaseEnvironment releaseEnvironment )
+    {
+        if ( releaseEnvironment.getJavaHome() != null )
+        {
+            return releaseEnvironment.getJavaHome().getAbsolutePath();
+        }
+        return System.getProperty( "java.home" );
+    }
+
+    private static String getMavenHome( ReleaseEnvironment releaseEnvironment )
+    {
+        if ( releaseEnvironment.getMavenHome() != null )
+        {
+            return releaseEnvironment.getMavenHome().getAbsolutePath();
+        }
+        return System.getProperty( "maven.home" );
+    }
+
+    /**
+     * Stop the servers, which finish the build they are running, if any, and exit.
+     */
+    public synchronized void dispose()
+    {
+        for ( Server server : servers.values() )
+        {
+            server.stop();
+        }
+        servers.clear();
+    }
+
+    public void setCommandLineFactory( CommandLineFactory commandLineFactory )
+    {
+        this.commandLineFactory = commandLineFactory;
+    }
+
+    public void setOutputTailSize( int outputTailSize )
+    {
+        this.outputTailSize = outputTailSize;
+    }
+
+    void setServerClass( Class<?> serverClass )
+    {
+        this.serverClass = serverClass;
+    }
+
+    /**
+     * A running server process.
+     */
+    private static final class Server
+    {
+        private static final DaemonThreadFactory ERROR_PUMPERS = new DaemonThreadFactory( "release-maven-server" );
+
+        private final Process process;
+
+        private final OutputStream requests;
+
+        private final InputStream responses;
+
+        Server( Process process )
+        {
+            this.process = process;
+            this.requests = process.getOutputStream();
+            this.responses = new BufferedInputStream( process.getInputStream() );
+
+            // the builds write their errors to the standard output, so this is only for the JVM itself
+            ERROR_PUMPERS.newThread( new BlockingStreamPumper( process.getErrorStream(), System.err ) ).start();
+        }
+
+        /**
+         * Run a build, copying its output until the line that ends the response.
+         */
+        int execute( File workingDirectory, List<String> args, OutputStream out )
+            throws IOException
+        {
+            String token = "maven-server-" + UUID.randomUUID();
+
+            List<String> fields = new ArrayList<String>( args.size() + 2 );
+            fields.add( token );
+            fields.add( workingDirectory.getAbsolutePath() );
+            fields.addAll( args );
+
+            requests.write( ( MavenServer.encodeRequest( fields ) + "\n" ).getBytes( "UTF-8" ) );
+            requests.flush();
+
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            for ( int b = responses.read(); b != -1; b = responses.read() )
+            {
+                line.write( b );
+                if ( b == '\n' )
+                {
+                    // the token is plain ASCII, and a single byte encoding keeps the offsets of the bytes
+                    String text = line.toString( "ISO-8859-1" );
+                    int index = text.indexOf( token );
+                    if ( index >= 0 )
+                    {
+                        // the build may not have ended its last line
+                        out.write( line.toByteArray(), 0, index );
+                        out.flush();
+                        return Integer.parseInt( text.substring( index + token.length() ).trim() );
+                    }
+                    line.writeTo( out );
+                    line.reset();
+                }
+            }
+            line.writeTo( out );
+            out.flush();
+
+            throw new EOFException( "Persistent Maven exited unexpectedly" );
+        }
+
+        boolean isAlive()
+        {
+            try
+            {
+                process.exitValue();
+                return false;
+            }
+            catch ( IllegalThreadStateException e )
+            {
+                return true;
+            }
+        }
+
+        void stop()
+        {
+            try
+            {
+                // the server exits at the end of its input
+                requests.close();
+            }
+            catch ( IOException e )
+            {
+                destroy();
+            }
+        }
+
+        void destroy()
+        {
+            process.destroy();
+        }
+    }
+}
@@ -19,16 +19,38 @@ package org.apache.maven.shared.release.exec;
  * under the License.
  */
 
-import java.io.ByteArrayOutputStream;
 import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
+/**
+ * Copies output to another stream, indenting every line, and keeps the output for later. Lines are written to the
+ * other stream as whole runs of bytes, and the kept output can be limited to a fixed-size tail, so that large
+ * outputs don't have to be held in memory.
+ */
 public class TeeOutputStream 
     extends FilterOutputStream 
 {
-    private ByteArrayOutputStream bout = new ByteArrayOutputStream( 1024 * 8 );
-    private byte indent[];
+    private static final int INITIAL_CAPACITY = 1024 * 8;
+
+    private final byte[] indent;
+
+    /**
+     * The maximum number of bytes to keep, or <code>0</code> to keep everything.
+     */
+    private final int tailSize;
+
+    /**
+     * The kept output, used as a ring buffer once it has reached the tail size.
+     */
+    private byte[] buffer = new byte[0];
+
+    private int start;
+
+    private int size;
+
+    private long discarded;
+
     private int last = '\n';
 
     public TeeOutputStream( OutputStream out )
@@ -37,30 +59,53 @@ public class TeeOutputStream
     }
     
     public TeeOutputStream( OutputStream out, String i )
+    {
+        this( out, i, 0 );
+    }
+
+    /**
+     * @param out      the stream to copy the output to
+     * @param i        the indent to add to every line
+     * @param tailSize the number of bytes of output to keep, or <code>0</code> to keep all of it
+     */
+    public TeeOutputStream( OutputStream out, String i, int tailSize )
     {
         super( out );
-        indent = i.getBytes();
+        this.indent = i.getBytes();
+        this.tailSize = Math.max( tailSize, 0 );
     }
 
     public void write( byte[] b, int off, int len )
         throws IOException
     {
-        for ( int x = 0; x < len; x++ )
+        int end = off + len;
+        int from = off;
+        int l = last;
+
+        for ( int x = off; x < end; x++ )
         {
-            int c = b[off + x];
-            if ( last == '\n' || ( last == '\r' && c != '\n' ) )
+            int c = b[x];
+            // write the previous line as a single run before starting the next one with the indent
+            if ( l == '\n' || ( l == '\r' && c != '\n' ) )
             {
-                out.write( b, off, x );
-                bout.write( b, off, x );
+                if ( x > from )
+                {
+                    out.write( b, from, x - from );
+                }
                 out.write( indent );
-                off += x;
-                len -= x;
-                x = 0;
+                from = x;
             }
-            last = c;
+            l = c;
+        }
+
+        if ( end > from )
+        {
+            out.write( b, from, end - from );
         }
-        out.write( b, off, len );
-        bout.write( b, off, len );
+
+        last = l;
+
+        keep( b, off, len );
     }
 
     public void write( int b )
@@ -71,18 +116,86 @@ public class TeeOutputStream
             out.write( indent );
         }
         out.write( b );
-        bout.write( b );
+        keep( new byte[] { (byte) b }, 0, 1 );
         last = b;
     }
-    
-    public String toString() 
+
+    private synchronized void keep( byte[] b, int off, int len )
+    {
+        if ( tailSize > 0 && len >= tailSize )
+        {
+            ensureCapacity( tailSize );
+            discarded += size + len - tailSize;
+            System.arraycopy( b, off + len - tailSize, buffer, 0, tailSize );
+            start = 0;
+            size = tailSize;
+            return;
+        }
+
+        ensureCapacity( size + len );
+
+        int capacity = buffer.length;
+        int pos = ( start + size ) % capacity;
+        int first = Math.min( len, capacity - pos );
+        System.arraycopy( b, off, buffer, pos, first );
+        System.arraycopy( b, off + first, buffer, 0, len - first );
+
+        size += len;
+        if ( size > capacity )
+        {
+            discarded += size - capacity;
+            start = ( start + size - capacity ) % capacity;
+            size = capacity;
+        }
+    }
+
+    /**
+     * Grow the buffer towards the required size, without exceeding the tail size.
+     */
+    private void ensureCapacity( int required )
+    {
+        if ( required <= buffer.length || ( tailSize > 0 && buffer.length == tailSize ) )
+        {
+            return;
+        }
+
+        int capacity = Math.max( Math.max( buffer.length * 2, INITIAL_CAPACITY ), required );
+        if ( tailSize > 0 )
+        {
+            capacity = Math.min( capacity, tailSize );
+        }
+
+        byte[] grown = new byte[capacity];
+        copyTo( grown );
+        buffer = grown;
+        start = 0;
+    }
+
+    private void copyTo( byte[] target )
+    {
+        int first = Math.min( size, buffer.length - start );
+        System.arraycopy( buffer, start, target, 0, first );
+        System.arraycopy( buffer, 0, target, first, size - first );
+    }
+
+    /**
+     * @return the number of bytes of output that were dropped because they didn't fit into the tail
+     */
+    public synchronized long getDiscarded()
+    {
+        return discarded;
+    }
+
+    public synchronized String toString() 
     {
-        return bout.toString();
+        byte[] content = new byte[size];
+        copyTo( content );
+        return new String( content );
     }
 
     public String getContent()
     {
-        return bout.toString();
+        return toString();
     }
 
 }
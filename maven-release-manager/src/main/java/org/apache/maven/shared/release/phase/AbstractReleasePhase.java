@@ -20,15 +20,26 @@ package org.apache.maven.shared.release.phase;
  */
 
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.scm.ScmException;
+import org.apache.maven.scm.ScmFile;
+import org.apache.maven.scm.ScmFileSet;
+import org.apache.maven.scm.command.edit.EditScmResult;
+import org.apache.maven.scm.provider.ScmProvider;
+import org.apache.maven.scm.repository.ScmRepository;
 import org.apache.maven.settings.Settings;
 import org.apache.maven.shared.release.ReleaseExecutionException;
 import org.apache.maven.shared.release.ReleaseFailureException;
 import org.apache.maven.shared.release.ReleaseResult;
 import org.apache.maven.shared.release.config.ReleaseDescriptor;
 import org.apache.maven.shared.release.env.DefaultReleaseEnvironment;
+import org.apache.maven.shared.release.scm.ReleaseScmCommandException;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Base class for all phases.
@@ -80,12 +91,102 @@ public abstract class AbstractReleasePhase
         getLogger().error( message );
     }
 
+    protected void logDebug( ReleaseResult result, String message )
+    {
+        result.appendDebug( message );
+        getLogger().debug( message );
+    }
+
     protected void logDebug( ReleaseResult result, String message, Exception e )
     {
         result.appendDebug( message, e );
         getLogger().debug( message, e );
     }
 
+    /**
+     * Open files for editing, for an SCM that needs it. All files are opened with a single command, and if that
+     * fails, the files it didn't open are opened one at a time, so that the error is about a single file.
+     *
+     * @param provider   the SCM provider
+     * @param repository the SCM repository
+     * @param basedir    the working directory of the files
+     * @param files      the files to open for editing
+     * @param result     the result to log to
+     * @throws ReleaseExecutionException  if the SCM fails to open a file
+     * @throws ReleaseScmCommandException if the SCM refuses to open a file
+     */
+    protected void editFiles( ScmProvider provider, ScmRepository repository, File basedir, List<File> files,
+                              ReleaseResult result )
+        throws ReleaseExecutionException, ReleaseScmCommandException
+    {
+        List<File> remaining = files;
+        if ( files.size() > 1 )
+        {
+            try
+            {
+                EditScmResult editResult = provider.edit( repository, new ScmFileSet( basedir, files ) );
+                if ( editResult.isSuccess() )
+                {
+                    return;
+                }
+
+                remaining = getFilesNotEdited( basedir, files, editResult );
+                logWarn( result, "Unable to enable editing on all POMs at once, enabling editing on "
+                    + remaining.size() + " of them one at a time." );
+            }
+            catch ( ScmException e )
+            {
+                logWarn( result, "Unable to enable editing on all POMs at once, enabling editing on them one at a "
+                    + "time: " + e.getMessage() );
+            }
+        }
+
+        for ( File file : remaining )
+        {
+            EditScmResult editResult;
+            try
+            {
+                editResult = provider.edit( repository, new ScmFileSet( basedir, file ) );
+            }
+            catch ( ScmException e )
+            {
+                throw new ReleaseExecutionException( "An error occurred enabling edit mode: " + e.getMessage(), e );
+            }
+
+            if ( !editResult.isSuccess() )
+            {
+                throw new ReleaseScmCommandException( "Unable to enable editing on the POM", editResult );
+            }
+        }
+    }
+
+    private static List<File> getFilesNotEdited( File basedir, List<File> files, EditScmResult editResult )
+    {
+        Set<File> edited = new HashSet<File>();
+        if ( editResult.getEditFiles() != null )
+        {
+            for ( ScmFile scmFile : editResult.getEditFiles() )
+            {
+                File file = new File( scmFile.getPath() );
+                if ( !file.isAbsolute() )
+                {
+                    file = new File( basedir, scmFile.getPath() );
+                }
+                edited.add( file.getAbsoluteFile() );
+            }
+        }
+
+        List<File> notEdited = new ArrayList<File>();
+        for ( File file : files )
+        {
+            if ( !edited.contains( file.getAbsoluteFile() ) )
+            {
+                notEdited.add( file );
+            }
+        }
+        return notEdited;
+    }
+
     protected ReleaseResult getReleaseResultSuccess()
     {
         ReleaseResult result = new ReleaseResult();
@@ -21,25 +21,28 @@ package org.apache.maven.shared.release.phase;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.maven.artifact.ArtifactUtils;
 import org.apache.maven.model.Model;
 import org.apache.maven.project.MavenProject;
-import org.apache.maven.scm.ScmException;
-import org.apache.maven.scm.ScmFileSet;
-import org.apache.maven.scm.command.edit.EditScmResult;
 import org.apache.maven.scm.manager.NoSuchScmProviderException;
 import org.apache.maven.scm.provider.ScmProvider;
 import org.apache.maven.scm.repository.ScmRepository;
@@ -52,6 +55,11 @@ import org.apache.maven.shared.release.env.ReleaseEnvironment;
 import org.apache.maven.shared.release.scm.ReleaseScmCommandException;
 import org.apache.maven.shared.release.scm.ReleaseScmRepositoryException;
 import org.apache.maven.shared.release.scm.ScmRepositoryConfigurator;
+import org.apache.maven.shared.release.transform.PomCache;
+import org.apache.maven.shared.release.transform.UnchangedPoms;
+import org.apache.maven.shared.release.transform.PomDocument;
+import org.apache.maven.shared.release.transform.PomElement;
+import org.apache.maven.shared.release.util.DaemonThreadFactory;
 import org.apache.maven.shared.release.util.ReleaseUtil;
 import org.codehaus.plexus.interpolation.InterpolationException;
 import org.codehaus.plexus.interpolation.MapBasedValueSource;
@@ -61,18 +69,6 @@ import org.codehaus.plexus.interpolation.PrefixedObjectValueSource;
 import org.codehaus.plexus.interpolation.StringSearchInterpolator;
 import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.WriterFactory;
-import org.jdom.CDATA;
-import org.jdom.Comment;
-import org.jdom.Document;
-import org.jdom.Element;
-import org.jdom.JDOMException;
-import org.jdom.Namespace;
-import org.jdom.Text;
-import org.jdom.filter.ContentFilter;
-import org.jdom.filter.ElementFilter;
-import org.jdom.input.SAXBuilder;
-import org.jdom.output.Format;
-import org.jdom.output.XMLOutputter;
 
 /**
  * Base class for rewriting phases.
@@ -87,11 +83,27 @@ public abstract class AbstractRewritePomsPhase
      */
     private ScmRepositoryConfigurator scmRepositoryConfigurator;
 
+    /**
+     * The POMs of the release, parsed.
+     */
+    private PomCache pomCache;
+
+    /**
+     * The POMs this phase leaves unchanged, for the commit phases.
+     */
+    private UnchangedPoms unchangedPoms;
+
     /**
      * Configuration item for the suffix to add to rewritten POMs when simulating.
      */
     private String pomSuffix;
 
+    /**
+     * The maximum number of POMs to transform at the same time. The default of <code>1</code> transforms them one
+     * after the other.
+     */
+    private int transformThreads = 1;
+
     private String ls = ReleaseUtil.LS;
 
     public void setLs( String ls )
@@ -99,6 +111,11 @@ public abstract class AbstractRewritePomsPhase
         this.ls = ls;
     }
 
+    public void setTransformThreads( int transformThreads )
+    {
+        this.transformThreads = transformThreads;
+    }
+
     public ReleaseResult execute( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
                                   List<MavenProject> reactorProjects )
         throws ReleaseExecutionException, ReleaseFailureException
@@ -116,189 +133,369 @@ public abstract class AbstractRewritePomsPhase
                             List<MavenProject> reactorProjects, boolean simulate, ReleaseResult result )
         throws ReleaseExecutionException, ReleaseFailureException
     {
-        for ( MavenProject project : reactorProjects )
+        VersionRewriteIndex index = createVersionRewriteIndex( releaseDescriptor, reactorProjects, simulate );
+
+        unchangedPoms.clear();
+
+        DryRunReport report = null;
+        if ( simulate && releaseDescriptor.isDryRunDiff() )
         {
-            logInfo( result, "Transforming '" + project.getName() + "'..." );
+            File basedir = ReleaseUtil.getRootProject( reactorProjects ).getBasedir();
+            if ( basedir == null )
+            {
+                basedir = new File( releaseDescriptor.getWorkingDirectory() );
+            }
+            report = new DryRunReport( getDryRunReportFile( basedir ), basedir );
 
-            transformProject( project, releaseDescriptor, releaseEnvironment, reactorProjects, simulate, result );
+            logInfo( result, "Writing the changes to the POMs to " + report.getFile() + "..." );
         }
-    }
 
-    private void transformProject( MavenProject project, ReleaseDescriptor releaseDescriptor,
-                                   ReleaseEnvironment releaseEnvironment, List<MavenProject> reactorProjects,
-                                   boolean simulate, ReleaseResult result )
-        throws ReleaseExecutionException, ReleaseFailureException
-    {
-        Document document;
-        String intro = null;
-        String outtro = null;
         try
         {
-            String content = ReleaseUtil.readXmlFile( ReleaseUtil.getStandardPom( project ), ls );
-            // we need to eliminate any extra whitespace inside elements, as JDOM will nuke it
-            content = content.replaceAll( "<([^!][^>]*?)\\s{2,}([^>]*?)>", "<$1 $2>" );
-            content = content.replaceAll( "(\\s{2,}|[^\\s])/>", "$1 />" );
-
-            SAXBuilder builder = new SAXBuilder();
-            document = builder.build( new StringReader( content ) );
+            ScmRepository scmRepository;
+            ScmProvider provider;
+            try
+            {
+                scmRepository = scmRepositoryConfigurator.getConfiguredRepository( releaseDescriptor,
+                                                                                   releaseEnvironment.getSettings() );
 
-            // Normalize line endings to platform's style (XML processors like JDOM normalize line endings to "\n" as
-            // per section 2.11 of the XML spec)
-            normaliseLineEndings( document );
+                provider = scmRepositoryConfigurator.getRepositoryProvider( scmRepository );
+            }
+            catch ( ScmRepositoryException e )
+            {
+                throw new ReleaseScmRepositoryException( e.getMessage(), e.getValidationMessages() );
+            }
+            catch ( NoSuchScmProviderException e )
+            {
+                throw new ReleaseExecutionException( "Unable to configure SCM repository: " + e.getMessage(), e );
+            }
 
-            // rewrite DOM as a string to find differences, since text outside the root element is not tracked
-            StringWriter w = new StringWriter();
-            Format format = Format.getRawFormat();
-            format.setLineSeparator( ls );
-            XMLOutputter out = new XMLOutputter( format );
-            out.output( document.getRootElement(), w );
+            // with an SCM that needs files opened for editing, the changed POMs are opened all at once at the end
+            Map<File, String> pendingWrites = null;
+            if ( !simulate && ( releaseDescriptor.isScmUseEditMode() || provider.requiresEditMode() ) )
+            {
+                pendingWrites = Collections.synchronizedMap( new HashMap<File, String>() );
+            }
 
-            int index = content.indexOf( w.toString() );
-            if ( index >= 0 )
+            if ( transformThreads > 1 && reactorProjects.size() > 1 )
             {
-                intro = content.substring( 0, index );
-                outtro = content.substring( index + w.toString().length() );
+                transformConcurrently( releaseDescriptor, scmRepository, reactorProjects, index, simulate, report,
+                                       pendingWrites, result );
             }
             else
             {
-                /*
-                 * NOTE: Due to whitespace, attribute reordering or entity expansion the above indexOf test can easily
-                 * fail. So let's try harder. Maybe some day, when JDOM offers a StaxBuilder and this builder employes
-                 * XMLInputFactory2.P_REPORT_PROLOG_WHITESPACE, this whole mess can be avoided.
-                 */
-                final String SPACE = "\\s++";
-                final String XML = "<\\?(?:(?:[^\"'>]++)|(?:\"[^\"]*+\")|(?:'[^\']*+'))*+>";
-                final String INTSUB = "\\[(?:(?:[^\"'\\]]++)|(?:\"[^\"]*+\")|(?:'[^\']*+'))*+\\]";
-                final String DOCTYPE =
-                    "<!DOCTYPE(?:(?:[^\"'\\[>]++)|(?:\"[^\"]*+\")|(?:'[^\']*+')|(?:" + INTSUB + "))*+>";
-                final String PI = XML;
-                final String COMMENT = "<!--(?:[^-]|(?:-[^-]))*+-->";
-
-                final String INTRO =
-                    "(?:(?:" + SPACE + ")|(?:" + XML + ")|(?:" + DOCTYPE + ")|(?:" + COMMENT + ")|(?:" + PI + "))*";
-                final String OUTRO = "(?:(?:" + SPACE + ")|(?:" + COMMENT + ")|(?:" + PI + "))*";
-                final String POM = "(?s)(" + INTRO + ")(.*?)(" + OUTRO + ")";
-
-                Matcher matcher = Pattern.compile( POM ).matcher( content );
-                if ( matcher.matches() )
+                for ( MavenProject project : reactorProjects )
                 {
-                    intro = matcher.group( 1 );
-                    outtro = matcher.group( matcher.groupCount() );
+                    logInfo( result, "Transforming '" + project.getName() + "'..." );
+
+                    String diff = transformProject( project, releaseDescriptor, scmRepository, reactorProjects,
+                                                    index, simulate, report, pendingWrites, result );
+                    if ( report != null )
+                    {
+                        report.write( diff );
+                    }
                 }
             }
+
+            if ( pendingWrites != null )
+            {
+                writePendingPoms( releaseDescriptor, reactorProjects, scmRepository, provider, pendingWrites,
+                                  result );
+            }
         }
-        catch ( JDOMException e )
+        finally
         {
-            throw new ReleaseExecutionException( "Error reading POM: " + e.getMessage(), e );
+            if ( report != null )
+            {
+                report.close();
+            }
         }
-        catch ( IOException e )
+    }
+
+    private VersionRewriteIndex createVersionRewriteIndex( ReleaseDescriptor releaseDescriptor,
+                                                           List<MavenProject> reactorProjects, boolean simulate )
+    {
+        Map<String, String> mappedVersions = getNextVersionMap( releaseDescriptor );
+        Map<String, String> originalVersions = getOriginalVersionMap( releaseDescriptor, reactorProjects, simulate );
+        Map resolvedSnapshotDependencies = releaseDescriptor.getResolvedSnapshotDependencies();
+
+        VersionRewriteIndex index =
+            new VersionRewriteIndex( mappedVersions, originalVersions, resolvedSnapshotDependencies );
+
+        Set<String> keys = new HashSet<String>( mappedVersions.keySet() );
+        keys.addAll( resolvedSnapshotDependencies.keySet() );
+        for ( String key : keys )
         {
-            throw new ReleaseExecutionException( "Error reading POM: " + e.getMessage(), e );
+            String mappedVersion = mappedVersions.get( key );
+            String resolvedSnapshotVersion = getResolvedSnapshotVersion( key, resolvedSnapshotDependencies );
+            if ( mappedVersion == null && resolvedSnapshotVersion == null )
+            {
+                continue;
+            }
+
+            String originalVersion = originalVersions.get( key );
+            if ( originalVersion == null )
+            {
+                originalVersion = getOriginalResolvedSnapshotVersion( key, resolvedSnapshotDependencies );
+            }
+
+            index.put( key, mappedVersion, originalVersion, resolvedSnapshotVersion );
+        }
+        return index;
+    }
+
+    /**
+     * Transform the POMs on several threads. Each project collects its output separately, and the output is appended
+     * to the result in reactor order. A project whose parent comes earlier in the reactor waits for the parent to be
+     * transformed first, as the SCM rewriting of the child can depend on what was recorded for the parent.
+     */
+    private void transformConcurrently( final ReleaseDescriptor releaseDescriptor,
+                                        final ScmRepository scmRepository,
+                                        final List<MavenProject> reactorProjects,
+                                        final VersionRewriteIndex index, final boolean simulate,
+                                        final DryRunReport report, final Map<File, String> pendingWrites,
+                                        ReleaseResult result )
+        throws ReleaseExecutionException, ReleaseFailureException
+    {
+        int count = reactorProjects.size();
+
+        final Map<String, CountDownLatch> transformed = new HashMap<String, CountDownLatch>();
+        for ( MavenProject project : reactorProjects )
+        {
+            transformed.put( ArtifactUtils.versionlessKey( project.getGroupId(), project.getArtifactId() ),
+                             new CountDownLatch( 1 ) );
         }
 
-        ScmRepository scmRepository;
-        ScmProvider provider;
+        final AtomicBoolean failed = new AtomicBoolean();
+        final ReleaseResult[] projectResults = new ReleaseResult[count];
+        List<Future<String>> futures = new ArrayList<Future<String>>( count );
+        Set<String> preceding = new HashSet<String>();
+
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( transformThreads, count ),
+                                                                 new DaemonThreadFactory( "rewrite-poms" ) );
         try
         {
-            scmRepository = scmRepositoryConfigurator.getConfiguredRepository( releaseDescriptor,
-                                                                               releaseEnvironment.getSettings() );
+            for ( int i = 0; i < count; i++ )
+            {
+                final MavenProject project = reactorProjects.get( i );
+                final ReleaseResult projectResult = new ReleaseResult();
+                projectResults[i] = projectResult;
+
+                final CountDownLatch done =
+                    transformed.get( ArtifactUtils.versionlessKey( project.getGroupId(), project.getArtifactId() ) );
+
+                // tasks are queued in reactor order, so a parent from earlier in the reactor is always started first
+                MavenProject parent = project.getParent();
+                String parentId =
+                    parent != null ? ArtifactUtils.versionlessKey( parent.getGroupId(), parent.getArtifactId() ) : null;
+                final CountDownLatch parentDone = preceding.contains( parentId ) ? transformed.get( parentId ) : null;
+
+                preceding.add( ArtifactUtils.versionlessKey( project.getGroupId(), project.getArtifactId() ) );
+
+                futures.add( executor.submit( new Callable<String>()
+                {
+                    public String call()
+                        throws Exception
+                    {
+                        try
+                        {
+                            if ( parentDone != null )
+                            {
+                                parentDone.await();
+                            }
+
+                            if ( failed.get() )
+                            {
+                                return null;
+                            }
+
+                            logInfo( projectResult, "Transforming '" + project.getName() + "'..." );
 
-            provider = scmRepositoryConfigurator.getRepositoryProvider( scmRepository );
+                            return transformProject( project, releaseDescriptor, scmRepository, reactorProjects,
+                                                     index, simulate, report, pendingWrites, projectResult );
+                        }
+                        catch ( Exception e )
+                        {
+                            failed.set( true );
+                            throw e;
+                        }
+                        finally
+                        {
+                            done.countDown();
+                        }
+                    }
+                } ) );
+            }
+
+            Throwable failure = null;
+            for ( int i = 0; i < count; i++ )
+            {
+                try
+                {
+                    String diff = futures.get( i ).get();
+
+                    // the changes are reported in reactor order, whichever order the POMs were transformed in
+                    if ( report != null && failure == null )
+                    {
+                        report.write( diff );
+                    }
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new ReleaseExecutionException( "Interrupted while transforming POMs", e );
+                }
+                catch ( ExecutionException e )
+                {
+                    if ( failure == null )
+                    {
+                        failure = e.getCause();
+                    }
+                }
+
+                result.appendOutput( projectResults[i] );
+                result.getMetrics().add( projectResults[i].getMetrics() );
+            }
+
+            if ( failure instanceof ReleaseExecutionException )
+            {
+                throw (ReleaseExecutionException) failure;
+            }
+            else if ( failure instanceof ReleaseFailureException )
+            {
+                throw (ReleaseFailureException) failure;
+            }
+            else if ( failure instanceof RuntimeException )
+            {
+                throw (RuntimeException) failure;
+            }
+            else if ( failure instanceof Error )
+            {
+                throw (Error) failure;
+            }
+            else if ( failure != null )
+            {
+                throw new ReleaseExecutionException( "Error transforming POMs: " + failure.getMessage(), failure );
+            }
         }
-        catch ( ScmRepositoryException e )
+        finally
         {
-            throw new ReleaseScmRepositoryException( e.getMessage(), e.getValidationMessages() );
+            executor.shutdownNow();
         }
-        catch ( NoSuchScmProviderException e )
+    }
+
+    /**
+     * Transform the POM of a project.
+     *
+     * @param pendingWrites where to leave the changed POM to be written later, or <code>null</code> to write it now
+     * @return the changes to the POM as a unified diff if there is a dry run report, <code>null</code> otherwise
+     */
+    private String transformProject( MavenProject project, ReleaseDescriptor releaseDescriptor,
+                                     ScmRepository scmRepository, List<MavenProject> reactorProjects,
+                                     VersionRewriteIndex index, boolean simulate, DryRunReport report,
+                                     Map<File, String> pendingWrites, ReleaseResult result )
+        throws ReleaseExecutionException, ReleaseFailureException
+    {
+        PomDocument document;
+        try
+        {
+            File pomFile = ReleaseUtil.getStandardPom( project );
+            result.getMetrics().addModules( 1 );
+            result.getMetrics().addPomBytesRead( pomFile.length() );
+
+            document = pomCache.getDocument( pomFile, ls );
+        }
+        catch ( IOException e )
         {
-            throw new ReleaseExecutionException( "Unable to configure SCM repository: " + e.getMessage(), e );
+            throw new ReleaseExecutionException( "Error reading POM: " + e.getMessage(), e );
         }
 
-        transformDocument( project, document.getRootElement(), releaseDescriptor, reactorProjects, scmRepository,
-                           result, simulate );
+        transformDocument( project, document.getRootElement(), releaseDescriptor, reactorProjects, index,
+                           scmRepository, result );
 
         File pomFile = ReleaseUtil.getStandardPom( project );
 
-        if ( simulate )
+        addSchema( document, releaseDescriptor, project.getModelVersion() );
+
+        String content = document.isModified() ? document.toString() : null;
+        boolean changed = content != null && !content.equals( document.getOriginalContent() );
+        if ( !changed )
+        {
+            unchangedPoms.add( pomFile );
+        }
+
+        if ( report != null )
+        {
+            return changed ? document.toUnifiedDiff( report.getPath( pomFile ) ) : null;
+        }
+        else if ( simulate )
         {
             File outputFile = new File( pomFile.getParentFile(), pomFile.getName() + "." + pomSuffix );
-            writePom( outputFile, document, releaseDescriptor, project.getModelVersion(), intro, outtro );
+            writePom( outputFile, document.toString() );
+            result.getMetrics().addPomBytesWritten( outputFile.length() );
         }
-        else
+        else if ( changed && pendingWrites != null )
         {
-            writePom( pomFile, document, releaseDescriptor, project.getModelVersion(), intro, outtro, scmRepository,
-                      provider );
+            pendingWrites.put( pomFile, content );
         }
-    }
-
-    private void normaliseLineEndings( Document document )
-    {
-        for ( Iterator i = document.getDescendants( new ContentFilter( ContentFilter.COMMENT ) ); i.hasNext(); )
+        else if ( changed )
         {
-            Comment c = (Comment) i.next();
-            c.setText( ReleaseUtil.normalizeLineEndings( c.getText(), ls ) );
+            writePom( pomFile, content );
+            result.getMetrics().addPomBytesWritten( pomFile.length() );
         }
-        for ( Iterator i = document.getDescendants( new ContentFilter( ContentFilter.CDATA ) ); i.hasNext(); )
+        else
         {
-            CDATA c = (CDATA) i.next();
-            c.setText( ReleaseUtil.normalizeLineEndings( c.getText(), ls ) );
+            // neither written nor opened for editing, and left out of the checkin
+            logDebug( result, "POM of '" + project.getName() + "' is unchanged, not writing it" );
         }
+        return null;
     }
 
-    private void transformDocument( MavenProject project, Element rootElement, ReleaseDescriptor releaseDescriptor,
-                                    List<MavenProject> reactorProjects, ScmRepository scmRepository, ReleaseResult result,
-                                    boolean simulate )
+    private void transformDocument( MavenProject project, PomElement rootElement, ReleaseDescriptor releaseDescriptor,
+                                    List<MavenProject> reactorProjects, VersionRewriteIndex index,
+                                    ScmRepository scmRepository, ReleaseResult result )
         throws ReleaseExecutionException, ReleaseFailureException
     {
-        Namespace namespace = rootElement.getNamespace();
-        Map<String, String> mappedVersions = getNextVersionMap( releaseDescriptor );
-        Map<String, String> originalVersions = getOriginalVersionMap( releaseDescriptor, reactorProjects, simulate );
-        Map resolvedSnapshotDependencies = releaseDescriptor.getResolvedSnapshotDependencies();
-        Model model = project.getModel();
-        Element properties = rootElement.getChild( "properties", namespace );
+        Map<String, String> mappedVersions = index.getMappedVersions();
+        ModelInterpolator interpolator = new ModelInterpolator( project.getModel() );
+        PomElement properties = rootElement.getChild( "properties" );
 
-        String parentVersion = rewriteParent( project, rootElement, namespace, mappedVersions,
-                                              resolvedSnapshotDependencies, originalVersions );
+        String parentVersion = rewriteParent( project, rootElement, mappedVersions,
+                                              index.getResolvedSnapshotDependencies(), index.getOriginalVersions() );
 
         String projectId = ArtifactUtils.versionlessKey( project.getGroupId(), project.getArtifactId() );
 
-        rewriteVersion( rootElement, namespace, mappedVersions, projectId, project, parentVersion );
+        rewriteVersion( rootElement, mappedVersions, projectId, project, parentVersion );
 
-        List<Element> roots = new ArrayList<Element>();
+        List<PomElement> roots = new ArrayList<PomElement>();
         roots.add( rootElement );
         roots.addAll( getChildren( rootElement, "profiles", "profile" ) );
 
-        for ( Element root : roots )
+        for ( PomElement root : roots )
         {
-            rewriteArtifactVersions( getChildren( root, "dependencies", "dependency" ), mappedVersions,
-                                    resolvedSnapshotDependencies, originalVersions, model, properties, result,
-                                    releaseDescriptor );
+            rewriteArtifactVersions( getChildren( root, "dependencies", "dependency" ), index, interpolator,
+                                     properties, result, releaseDescriptor );
 
-            rewriteArtifactVersions( getChildren( root, "dependencyManagement", "dependencies", "dependency" ),
-                                    mappedVersions, resolvedSnapshotDependencies, originalVersions, model, properties,
-                                    result, releaseDescriptor );
+            rewriteArtifactVersions( getChildren( root, "dependencyManagement", "dependencies", "dependency" ), index,
+                                     interpolator, properties, result, releaseDescriptor );
 
-            rewriteArtifactVersions( getChildren( root, "build", "extensions", "extension" ), mappedVersions,
-                                    resolvedSnapshotDependencies, originalVersions, model, properties, result,
-                                    releaseDescriptor );
+            rewriteArtifactVersions( getChildren( root, "build", "extensions", "extension" ), index, interpolator,
+                                     properties, result, releaseDescriptor );
 
-            List<Element> pluginElements = new ArrayList<Element>();
+            List<PomElement> pluginElements = new ArrayList<PomElement>();
             pluginElements.addAll( getChildren( root, "build", "plugins", "plugin" ) );
             pluginElements.addAll( getChildren( root, "build", "pluginManagement", "plugins", "plugin" ) );
 
-            rewriteArtifactVersions( pluginElements, mappedVersions, resolvedSnapshotDependencies, originalVersions,
-                                    model, properties, result, releaseDescriptor );
+            rewriteArtifactVersions( pluginElements, index, interpolator, properties, result, releaseDescriptor );
 
-            for ( Element pluginElement : pluginElements )
+            for ( PomElement pluginElement : pluginElements )
             {
-                rewriteArtifactVersions( getChildren( pluginElement, "dependencies", "dependency" ), mappedVersions,
-                                        resolvedSnapshotDependencies, originalVersions, model, properties, result,
-                                        releaseDescriptor );
+                rewriteArtifactVersions( getChildren( pluginElement, "dependencies", "dependency" ), index,
+                                         interpolator, properties, result, releaseDescriptor );
             }
 
-            rewriteArtifactVersions( getChildren( root, "reporting", "plugins", "plugin" ), mappedVersions,
-                                    resolvedSnapshotDependencies, originalVersions, model, properties, result,
-                                    releaseDescriptor );
+            rewriteArtifactVersions( getChildren( root, "reporting", "plugins", "plugin" ), index, interpolator,
+                                     properties, result, releaseDescriptor );
         }
 
         String commonBasedir;
@@ -319,80 +516,32 @@ public abstract class AbstractRewritePomsPhase
             throw new ReleaseExecutionException( "Exception occurred while calculating common basedir: "
                 + e.getMessage(), e );
         }
-        transformScm( project, rootElement, namespace, releaseDescriptor, projectId, scmRepository, result,
-                      commonBasedir );
+        // the SCM information of the release descriptor is shared between the projects
+        synchronized ( releaseDescriptor )
+        {
+            transformScm( project, rootElement, releaseDescriptor, projectId, scmRepository, result, commonBasedir );
+        }
     }
 
-    @SuppressWarnings( "unchecked" )
-    private List<Element> getChildren( Element root, String... names )
+    private List<PomElement> getChildren( PomElement root, String... names )
     {
-        Element parent = root;
+        PomElement parent = root;
         for ( int i = 0; i < names.length - 1 && parent != null; i++ )
         {
-            parent = parent.getChild( names[i], parent.getNamespace() );
+            parent = parent.getChild( names[i] );
         }
         if ( parent == null )
         {
             return Collections.emptyList();
         }
-        return parent.getChildren( names[names.length - 1], parent.getNamespace() );
-    }
-
-    /**
-     * Updates the text value of the given element. The primary purpose of this method is to preserve any whitespace and
-     * comments around the original text value.
-     *
-     * @param element The element to update, must not be <code>null</code>.
-     * @param value   The text string to set, must not be <code>null</code>.
-     */
-    private void rewriteValue( Element element, String value )
-    {
-        Text text = null;
-        if ( element.getContent() != null )
-        {
-            for ( Iterator it = element.getContent().iterator(); it.hasNext(); )
-            {
-                Object content = it.next();
-                if ( ( content instanceof Text ) && ( (Text) content ).getTextTrim().length() > 0 )
-                {
-                    text = (Text) content;
-                    while ( it.hasNext() )
-                    {
-                        content = it.next();
-                        if ( content instanceof Text )
-                        {
-                            text.append( (Text) content );
-                            it.remove();
-                        }
-                        else
-                        {
-                            break;
-                        }
-                    }
-                    break;
-                }
-            }
-        }
-        if ( text == null )
-        {
-            element.addContent( value );
-        }
-        else
-        {
-            String chars = text.getText();
-            String trimmed = text.getTextTrim();
-            int idx = chars.indexOf( trimmed );
-            String leadingWhitespace = chars.substring( 0, idx );
-            String trailingWhitespace = chars.substring( idx + trimmed.length() );
-            text.setText( leadingWhitespace + value + trailingWhitespace );
-        }
+        return parent.getChildren( names[names.length - 1] );
     }
 
-    private void rewriteVersion( Element rootElement, Namespace namespace, Map mappedVersions, String projectId,
-                                 MavenProject project, String parentVersion )
+    private void rewriteVersion( PomElement rootElement, Map mappedVersions, String projectId, MavenProject project,
+                                 String parentVersion )
         throws ReleaseFailureException
     {
-        Element versionElement = rootElement.getChild( "version", namespace );
+        PomElement versionElement = rootElement.getChild( "version" );
         String version = (String) mappedVersions.get( projectId );
         if ( version == null )
         {
@@ -404,30 +553,28 @@ public abstract class AbstractRewritePomsPhase
             if ( !version.equals( parentVersion ) )
             {
                 // we will add this after artifactId, since it was missing but different from the inherited version
-                Element artifactIdElement = rootElement.getChild( "artifactId", namespace );
-                int index = rootElement.indexOf( artifactIdElement );
+                PomElement artifactIdElement = rootElement.getChild( "artifactId" );
 
-                versionElement = new Element( "version", namespace );
+                versionElement = new PomElement( "version" );
                 versionElement.setText( version );
-                rootElement.addContent( index + 1, new Text( "\n  " ) );
-                rootElement.addContent( index + 2, versionElement );
+                rootElement.addContentAfter( artifactIdElement, "\n  ", versionElement );
             }
         }
         else
         {
-            rewriteValue( versionElement, version );
+            versionElement.setText( version );
         }
     }
 
-    private String rewriteParent( MavenProject project, Element rootElement, Namespace namespace, Map mappedVersions,
+    private String rewriteParent( MavenProject project, PomElement rootElement, Map mappedVersions,
                                   Map resolvedSnapshotDependencies, Map originalVersions )
         throws ReleaseFailureException
     {
         String parentVersion = null;
         if ( project.hasParent() )
         {
-            Element parentElement = rootElement.getChild( "parent", namespace );
-            Element versionElement = parentElement.getChild( "version", namespace );
+            PomElement parentElement = rootElement.getChild( "parent" );
+            PomElement versionElement = parentElement.getChild( "version" );
             MavenProject parent = project.getParent();
             String key = ArtifactUtils.versionlessKey( parent.getGroupId(), parent.getArtifactId() );
             parentVersion = (String) mappedVersions.get( key );
@@ -445,15 +592,14 @@ public abstract class AbstractRewritePomsPhase
             }
             else
             {
-                rewriteValue( versionElement, parentVersion );
+                versionElement.setText( parentVersion );
             }
         }
         return parentVersion;
     }
 
-    private void rewriteArtifactVersions( Collection<Element> elements, Map<String, String> mappedVersions,
-                                          Map resolvedSnapshotDependencies, Map<String, String> originalVersions,
-                                          Model projectModel, Element properties, ReleaseResult result,
+    private void rewriteArtifactVersions( Collection<PomElement> elements, VersionRewriteIndex index,
+                                          ModelInterpolator interpolator, PomElement properties, ReleaseResult result,
                                           ReleaseDescriptor releaseDescriptor )
         throws ReleaseExecutionException, ReleaseFailureException
     {
@@ -461,10 +607,11 @@ public abstract class AbstractRewritePomsPhase
         {
             return;
         }
+        Model projectModel = interpolator.getModel();
         String projectId = ArtifactUtils.versionlessKey( projectModel.getGroupId(), projectModel.getArtifactId() );
-        for ( Element element : elements )
+        for ( PomElement element : elements )
         {
-            Element versionElement = element.getChild( "version", element.getNamespace() );
+            PomElement versionElement = element.getChild( "version" );
             if ( versionElement == null )
             {
                 // managed dependency or unversioned plugin
@@ -472,41 +619,43 @@ public abstract class AbstractRewritePomsPhase
             }
             String rawVersion = versionElement.getTextTrim();
 
-            Element groupIdElement = element.getChild( "groupId", element.getNamespace() );
-            if ( groupIdElement == null )
+            String groupId;
+            PomElement groupIdElement = element.getChild( "groupId" );
+            if ( groupIdElement != null )
             {
-                if ( "plugin".equals( element.getName() ) )
-                {
-                    groupIdElement = new Element( "groupId", element.getNamespace() );
-                    groupIdElement.setText( "org.apache.maven.plugins" );
-                }
-                else
-                {
-                    // incomplete dependency
-                    continue;
-                }
+                groupId = interpolator.interpolate( groupIdElement.getTextTrim() );
+            }
+            else if ( "plugin".equals( element.getName() ) )
+            {
+                groupId = "org.apache.maven.plugins";
+            }
+            else
+            {
+                // incomplete dependency
+                continue;
             }
-            String groupId = interpolate( groupIdElement.getTextTrim(), projectModel );
 
-            Element artifactIdElement = element.getChild( "artifactId", element.getNamespace() );
+            PomElement artifactIdElement = element.getChild( "artifactId" );
             if ( artifactIdElement == null )
             {
                 // incomplete element
                 continue;
             }
-            String artifactId = interpolate( artifactIdElement.getTextTrim(), projectModel);
+            String artifactId = interpolator.interpolate( artifactIdElement.getTextTrim() );
 
             String key = ArtifactUtils.versionlessKey( groupId, artifactId );
-            String resolvedSnapshotVersion = getResolvedSnapshotVersion( key, resolvedSnapshotDependencies );
-            String mappedVersion = mappedVersions.get( key );
-            String originalVersion = originalVersions.get( key );
-            if ( originalVersion == null )
+            VersionRewriteIndex.Entry versions = index.get( key );
+            if ( versions == null )
             {
-                originalVersion = getOriginalResolvedSnapshotVersion( key, resolvedSnapshotDependencies );
+                // artifact not related to current release
+                continue;
             }
+            String mappedVersion = versions.getMappedVersion();
+            String originalVersion = versions.getOriginalVersion();
+            String resolvedSnapshotVersion = versions.getResolvedSnapshotVersion();
 
             // MRELEASE-220
-            if ( mappedVersion != null && mappedVersion.endsWith( "SNAPSHOT" ) && !rawVersion.endsWith( "SNAPSHOT" )
+            if ( versions.isMappedToSnapshot() && !rawVersion.endsWith( "SNAPSHOT" )
                 && !releaseDescriptor.isUpdateDependencies() )
             {
                 continue;
@@ -517,19 +666,19 @@ public abstract class AbstractRewritePomsPhase
                 if ( rawVersion.equals( originalVersion ) )
                 {
                     logInfo( result, "  Updating " + artifactId + " to " + mappedVersion );
-                    rewriteValue( versionElement, mappedVersion );
+                    versionElement.setText( mappedVersion );
                 }
-                else if ( rawVersion.matches( "\\$\\{.+\\}" ) )
+                else if ( VersionRewriteIndex.isExpression( rawVersion ) )
                 {
                     String expression = rawVersion.substring( 2, rawVersion.length() - 1 );
 
                     if ( expression.startsWith( "project." ) || expression.startsWith( "pom." )
                         || "version".equals( expression ) )
                     {
-                        if ( !mappedVersion.equals( mappedVersions.get( projectId ) ) )
+                        if ( !mappedVersion.equals( index.getMappedVersions().get( projectId ) ) )
                         {
                             logInfo( result, "  Updating " + artifactId + " to " + mappedVersion );
-                            rewriteValue( versionElement, mappedVersion );
+                            versionElement.setText( mappedVersion );
                         }
                         else
                         {
@@ -539,7 +688,7 @@ public abstract class AbstractRewritePomsPhase
                     else if ( properties != null )
                     {
                         // version is an expression, check for properties to update instead
-                        Element property = properties.getChild( expression, properties.getNamespace() );
+                        PomElement property = properties.getChild( expression );
                         if ( property != null )
                         {
                             String propertyValue = property.getTextTrim();
@@ -548,7 +697,7 @@ public abstract class AbstractRewritePomsPhase
                             {
                                 logInfo( result, "  Updating " + rawVersion + " to " + mappedVersion );
                                 // change the property only if the property is the same as what's in the reactor
-                                rewriteValue( property, mappedVersion );
+                                property.setText( mappedVersion );
                             }
                             else if ( mappedVersion.equals( propertyValue ) )
                             {
@@ -558,8 +707,7 @@ public abstract class AbstractRewritePomsPhase
                             }
                             else if ( !mappedVersion.equals( rawVersion ) )
                             {
-                                if ( mappedVersion.matches( "\\$\\{project.+\\}" )
-                                    || mappedVersion.matches( "\\$\\{pom.+\\}" ) || "${version}".equals( mappedVersion ) )
+                                if ( versions.isMappedToProjectExpression() )
                                 {
                                     logInfo( result, "  Ignoring artifact version update for expression "
                                         + mappedVersion );
@@ -592,7 +740,7 @@ public abstract class AbstractRewritePomsPhase
             {
                 logInfo( result, "  Updating " + artifactId + " to " + resolvedSnapshotVersion );
 
-                rewriteValue( versionElement, resolvedSnapshotVersion );
+                versionElement.setText( resolvedSnapshotVersion );
             }
             else
             {
@@ -601,102 +749,45 @@ public abstract class AbstractRewritePomsPhase
         }
     }
 
-    private String interpolate( String value, Model model )
-        throws ReleaseExecutionException
+    /**
+     * Open the changed POMs for editing with a single SCM command, and write them.
+     */
+    private void writePendingPoms( ReleaseDescriptor releaseDescriptor, List<MavenProject> reactorProjects,
+                                   ScmRepository scmRepository, ScmProvider provider, Map<File, String> pendingWrites,
+                                   ReleaseResult result )
+        throws ReleaseExecutionException, ReleaseScmCommandException
     {
-        if ( value != null && value.contains( "${" ) )
+        List<File> pomFiles = new ArrayList<File>( pendingWrites.size() );
+        for ( MavenProject project : reactorProjects )
         {
-            StringSearchInterpolator interpolator = new StringSearchInterpolator();
-            List<String> pomPrefixes = Arrays.asList( "pom.", "project." );
-            interpolator.addValueSource( new PrefixedObjectValueSource( pomPrefixes, model, false ) );
-            interpolator.addValueSource( new MapBasedValueSource( model.getProperties() ) );
-            interpolator.addValueSource( new ObjectBasedValueSource( model ) );
-            try
+            File pomFile = ReleaseUtil.getStandardPom( project );
+            if ( pendingWrites.containsKey( pomFile ) )
             {
-                value = interpolator.interpolate( value, new PrefixAwareRecursionInterceptor( pomPrefixes ) );
-            }
-            catch ( InterpolationException e )
-            {
-                throw new ReleaseExecutionException(
-                                                     "Failed to interpolate " + value + " for project " + model.getId(),
-                                                     e );
+                pomFiles.add( pomFile );
             }
         }
-        return value;
-    }
 
-    private void writePom( File pomFile, Document document, ReleaseDescriptor releaseDescriptor, String modelVersion,
-                           String intro, String outtro, ScmRepository repository, ScmProvider provider )
-        throws ReleaseExecutionException, ReleaseScmCommandException
-    {
-        try
-        {
-            if ( releaseDescriptor.isScmUseEditMode() || provider.requiresEditMode() )
-            {
-                EditScmResult result = provider.edit( repository, new ScmFileSet(
-                    new File( releaseDescriptor.getWorkingDirectory() ), pomFile ) );
+        editFiles( result.getMetrics().meter( provider ), scmRepository,
+                   new File( releaseDescriptor.getWorkingDirectory() ), pomFiles, result );
 
-                if ( !result.isSuccess() )
-                {
-                    throw new ReleaseScmCommandException( "Unable to enable editing on the POM", result );
-                }
-            }
-        }
-        catch ( ScmException e )
+        for ( File pomFile : pomFiles )
         {
-            throw new ReleaseExecutionException( "An error occurred enabling edit mode: " + e.getMessage(), e );
+            writePom( pomFile, pendingWrites.get( pomFile ) );
+            result.getMetrics().addPomBytesWritten( pomFile.length() );
         }
-
-        writePom( pomFile, document, releaseDescriptor, modelVersion, intro, outtro );
     }
 
-    private void writePom( File pomFile, Document document, ReleaseDescriptor releaseDescriptor, String modelVersion,
-                           String intro, String outtro )
+    private void writePom( File pomFile, String content )
         throws ReleaseExecutionException
     {
-        Element rootElement = document.getRootElement();
-
-        if ( releaseDescriptor.isAddSchema() )
-        {
-            Namespace pomNamespace = Namespace.getNamespace( "", "http://maven.apache.org/POM/" + modelVersion );
-            rootElement.setNamespace( pomNamespace );
-            Namespace xsiNamespace = Namespace.getNamespace( "xsi", "http://www.w3.org/2001/XMLSchema-instance" );
-            rootElement.addNamespaceDeclaration( xsiNamespace );
-
-            if ( rootElement.getAttribute( "schemaLocation", xsiNamespace ) == null )
-            {
-                rootElement.setAttribute( "schemaLocation", "http://maven.apache.org/POM/" + modelVersion
-                    + " http://maven.apache.org/maven-v" + modelVersion.replace( '.', '_' ) + ".xsd", xsiNamespace );
-            }
-
-            // the empty namespace is considered equal to the POM namespace, so match them up to avoid extra xmlns=""
-            ElementFilter elementFilter = new ElementFilter( Namespace.getNamespace( "" ) );
-            for ( Iterator i = rootElement.getDescendants( elementFilter ); i.hasNext(); )
-            {
-                Element e = (Element) i.next();
-                e.setNamespace( pomNamespace );
-            }
-        }
+        pomCache.invalidate( pomFile );
 
         Writer writer = null;
         try
         {
             writer = WriterFactory.newXmlWriter( pomFile );
 
-            if ( intro != null )
-            {
-                writer.write( intro );
-            }
-
-            Format format = Format.getRawFormat();
-            format.setLineSeparator( ls );
-            XMLOutputter out = new XMLOutputter( format );
-            out.output( document.getRootElement(), writer );
-
-            if ( outtro != null )
-            {
-                writer.write( outtro );
-            }
+            writer.write( content );
         }
         catch ( IOException e )
         {
@@ -706,6 +797,29 @@ public abstract class AbstractRewritePomsPhase
         {
             IOUtil.close( writer );
         }
+
+        pomCache.put( pomFile, content, ls );
+    }
+
+    private void addSchema( PomDocument document, ReleaseDescriptor releaseDescriptor, String modelVersion )
+    {
+        PomElement rootElement = document.getRootElement();
+
+        if ( releaseDescriptor.isAddSchema() )
+        {
+            rootElement.setAttribute( "xmlns", "http://maven.apache.org/POM/" + modelVersion );
+
+            if ( rootElement.getAttribute( "xmlns:xsi" ) == null )
+            {
+                rootElement.setAttribute( "xmlns:xsi", "http://www.w3.org/2001/XMLSchema-instance" );
+            }
+
+            if ( rootElement.getAttribute( "xsi:schemaLocation" ) == null )
+            {
+                rootElement.setAttribute( "xsi:schemaLocation", "http://maven.apache.org/POM/" + modelVersion
+                    + " http://maven.apache.org/maven-v" + modelVersion.replace( '.', '_' ) + ".xsd" );
+            }
+        }
     }
 
     public ReleaseResult simulate( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
@@ -727,8 +841,18 @@ public abstract class AbstractRewritePomsPhase
 
         super.clean( reactorProjects );
 
-        if ( reactorProjects != null )
+        if ( reactorProjects != null && !reactorProjects.isEmpty() )
         {
+            File basedir = ReleaseUtil.getRootProject( reactorProjects ).getBasedir();
+            if ( basedir != null )
+            {
+                File reportFile = getDryRunReportFile( basedir );
+                if ( reportFile.exists() )
+                {
+                    reportFile.delete();
+                }
+            }
+
             for ( Iterator<MavenProject> i = reactorProjects.iterator(); i.hasNext(); )
             {
                 MavenProject project = i.next();
@@ -751,6 +875,15 @@ public abstract class AbstractRewritePomsPhase
         return result;
     }
 
+    /**
+     * @param basedir the base directory of the root project
+     * @return the file a dry run reports the changes of this phase to
+     */
+    private File getDryRunReportFile( File basedir )
+    {
+        return new File( basedir, "target/release-poms-" + pomSuffix + ".diff" );
+    }
+
     protected abstract String getResolvedSnapshotVersion( String artifactVersionlessKey, Map resolvedSnapshots );
 
     protected abstract Map getOriginalVersionMap( ReleaseDescriptor releaseDescriptor, List<MavenProject> reactorProjects,
@@ -758,7 +891,7 @@ public abstract class AbstractRewritePomsPhase
 
     protected abstract Map getNextVersionMap( ReleaseDescriptor releaseDescriptor );
 
-    protected abstract void transformScm( MavenProject project, Element rootElement, Namespace namespace,
+    protected abstract void transformScm( MavenProject project, PomElement rootElement,
                                           ReleaseDescriptor releaseDescriptor, String projectId,
                                           ScmRepository scmRepository, ReleaseResult result, String commonBasedir )
         throws ReleaseExecutionException;
@@ -777,37 +910,25 @@ public abstract class AbstractRewritePomsPhase
         }
     }
 
-    protected Element rewriteElement( String name, String value, Element root, Namespace namespace )
+    protected PomElement rewriteElement( String name, String value, PomElement root )
     {
-        Element tagElement = root.getChild( name, namespace );
+        PomElement tagElement = root.getChild( name );
         if ( tagElement != null )
         {
             if ( value != null )
             {
-                rewriteValue( tagElement, value );
+                tagElement.setText( value );
             }
             else
             {
-                int index = root.indexOf( tagElement );
-                root.removeContent( index );
-                for ( int i = index - 1; i >= 0; i-- )
-                {
-                    if ( root.getContent( i ) instanceof Text )
-                    {
-                        root.removeContent( i );
-                    }
-                    else
-                    {
-                        break;
-                    }
-                }
+                tagElement.detach();
             }
         }
         else
         {
             if ( value != null )
             {
-                Element element = new Element( name, namespace );
+                PomElement element = new PomElement( name );
                 element.setText( value );
                 root.addContent( "  " ).addContent( element ).addContent( "\n  " );
                 tagElement = element;
@@ -815,4 +936,130 @@ public abstract class AbstractRewritePomsPhase
         }
         return tagElement;
     }
+
+    /**
+     * Interpolates the expressions of one model. The interpolator is only built once for the model, and every
+     * expression is only resolved once, as the same few expressions, such as <code>${project.groupId}</code>, tend to
+     * be used by many elements of a POM.
+     */
+    private static final class ModelInterpolator
+    {
+        private static final List<String> POM_PREFIXES = Arrays.asList( "pom.", "project." );
+
+        private final Model model;
+
+        private StringSearchInterpolator interpolator;
+
+        private final Map<String, String> resolved = new HashMap<String, String>();
+
+        ModelInterpolator( Model model )
+        {
+            this.model = model;
+        }
+
+        Model getModel()
+        {
+            return model;
+        }
+
+        String interpolate( String value )
+            throws ReleaseExecutionException
+        {
+            if ( value == null || !value.contains( "${" ) )
+            {
+                return value;
+            }
+
+            String result = resolved.get( value );
+            if ( result == null )
+            {
+                if ( interpolator == null )
+                {
+                    interpolator = new StringSearchInterpolator();
+                    interpolator.addValueSource( new PrefixedObjectValueSource( POM_PREFIXES, model, false ) );
+                    interpolator.addValueSource( new MapBasedValueSource( model.getProperties() ) );
+                    interpolator.addValueSource( new ObjectBasedValueSource( model ) );
+                }
+
+                try
+                {
+                    result = interpolator.interpolate( value, new PrefixAwareRecursionInterceptor( POM_PREFIXES ) );
+                }
+                catch ( InterpolationException e )
+                {
+                    throw new ReleaseExecutionException( "Failed to interpolate " + value + " for project "
+                        + model.getId(), e );
+                }
+                resolved.put( value, result );
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The changes a dry run makes to the POMs, written as one unified diff instead of a rewritten copy of each POM.
+     * The paths in the diff are relative to the root project, so that the report can be applied there as a patch.
+     */
+    private static final class DryRunReport
+    {
+        private final File file;
+
+        private final String basePath;
+
+        private final Writer writer;
+
+        DryRunReport( File file, File basedir )
+            throws ReleaseExecutionException
+        {
+            this.file = file;
+            this.basePath = basedir.getAbsolutePath() + File.separator;
+
+            file.getParentFile().mkdirs();
+            try
+            {
+                writer = WriterFactory.newWriter( file, "UTF-8" );
+            }
+            catch ( IOException e )
+            {
+                throw new ReleaseExecutionException( "Error writing dry run report: " + e.getMessage(), e );
+            }
+        }
+
+        File getFile()
+        {
+            return file;
+        }
+
+        String getPath( File pomFile )
+        {
+            String path = pomFile.getAbsolutePath();
+            if ( path.startsWith( basePath ) )
+            {
+                path = path.substring( basePath.length() );
+            }
+            return path.replace( File.separatorChar, '/' );
+        }
+
+        void write( String diff )
+            throws ReleaseExecutionException
+        {
+            if ( diff == null || diff.length() == 0 )
+            {
+                return;
+            }
+            try
+            {
+                writer.write( diff );
+            }
+            catch ( IOException e )
+            {
+                throw new ReleaseExecutionException( "Error writing dry run report: " + e.getMessage(), e );
+            }
+        }
+
+        void close()
+        {
+            IOUtil.close( writer );
+        }
+    }
 }
@@ -84,9 +84,17 @@ public abstract class AbstractRunGoalsPhase
                 //                             goals, releaseEnvironment, releaseDescriptor.isInteractive(),
                 //                             additionalArguments, result );
                 
-                mavenExecutor.executeGoals( workingDirectory,
-                                            goals, releaseEnvironment, releaseDescriptor.isInteractive(),
-                                            additionalArguments, result );
+                long start = System.currentTimeMillis();
+                try
+                {
+                    mavenExecutor.executeGoals( workingDirectory,
+                                                goals, releaseEnvironment, releaseDescriptor.isInteractive(),
+                                                additionalArguments, result );
+                }
+                finally
+                {
+                    result.getMetrics().addForkedBuild( System.currentTimeMillis() - start );
+                }
             }
         }
         catch ( MavenExecutorException e )
@@ -37,6 +37,7 @@ import org.apache.maven.shared.release.env.ReleaseEnvironment;
 import org.apache.maven.shared.release.scm.ReleaseScmCommandException;
 import org.apache.maven.shared.release.scm.ReleaseScmRepositoryException;
 import org.apache.maven.shared.release.scm.ScmRepositoryConfigurator;
+import org.apache.maven.shared.release.transform.UnchangedPoms;
 import org.apache.maven.shared.release.util.ReleaseUtil;
 
 import java.io.File;
@@ -64,6 +65,11 @@ public abstract class AbstractScmCommitPhase
      */
     protected ScmRepositoryConfigurator scmRepositoryConfigurator;
 
+    /**
+     * The POMs the last POM rewriting phase left unchanged, which don't need to be checked in.
+     */
+    protected UnchangedPoms unchangedPoms;
+
     /**
      * The format for the commit message.
      */
@@ -102,10 +108,21 @@ public abstract class AbstractScmCommitPhase
                                       List<MavenProject> reactorProjects, ReleaseResult result, boolean simulating )
         throws ReleaseScmCommandException, ReleaseExecutionException, ReleaseScmRepositoryException;
 
+    /**
+     * @deprecated use {@link #performCheckins(ReleaseDescriptor, ReleaseEnvironment, List, List, ReleaseResult)}, which
+     *             meters the SCM calls in the result
+     */
     protected void performCheckins( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
                                     List<MavenProject> reactorProjects, List<String> messages )
         throws ReleaseScmRepositoryException, ReleaseExecutionException, ReleaseScmCommandException
     {
+        performCheckins( releaseDescriptor, releaseEnvironment, reactorProjects, messages, new ReleaseResult() );
+    }
+
+    protected void performCheckins( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
+                                    List<MavenProject> reactorProjects, List<String> messages, ReleaseResult result )
+        throws ReleaseScmRepositoryException, ReleaseExecutionException, ReleaseScmCommandException
+    {
 
         getLogger().info( "Checking in modified POMs..." );
 
@@ -118,7 +135,7 @@ public abstract class AbstractScmCommitPhase
 
             repository.getProviderRepository().setPushChanges( releaseDescriptor.isPushChanges() );
 
-            provider = scmRepositoryConfigurator.getRepositoryProvider( repository );
+            provider = result.getMetrics().meter( scmRepositoryConfigurator.getRepositoryProvider( repository ) );
         }
         catch ( ScmRepositoryException e )
         {
@@ -129,6 +146,10 @@ public abstract class AbstractScmCommitPhase
             throw new ReleaseExecutionException( "Unable to configure SCM repository: " + e.getMessage(), e );
         }
 
+        // remote tagging tags the revision of the checkin, so there has to be one even when no POM was changed
+        boolean checkinAll = releaseDescriptor.isRemoteTagging()
+            && createModifiedPomFiles( releaseDescriptor, reactorProjects ).isEmpty();
+
         if ( releaseDescriptor.isCommitByProject() )
         {
             for ( int i = 0; i < reactorProjects.size(); i++ )
@@ -136,7 +157,13 @@ public abstract class AbstractScmCommitPhase
                 MavenProject project = reactorProjects.get(i);
                 String message = messages.get(i);
 
-                List<File> pomFiles = createPomFiles( releaseDescriptor, project );
+                List<File> pomFiles = checkinAll ? createPomFiles( releaseDescriptor, project )
+                                : createModifiedPomFiles( releaseDescriptor, project );
+                if ( pomFiles.isEmpty() )
+                {
+                    getLogger().debug( "No modified POMs to check in for '" + project.getName() + "'" );
+                    continue;
+                }
                 ScmFileSet fileSet = new ScmFileSet( project.getFile().getParentFile(), pomFiles );
 
                 checkin( provider, repository, fileSet, releaseDescriptor, message );
@@ -144,7 +171,14 @@ public abstract class AbstractScmCommitPhase
         }
         else
         {
-            List<File> pomFiles = createPomFiles( releaseDescriptor, reactorProjects );
+            List<File> pomFiles = checkinAll ? createPomFiles( releaseDescriptor, reactorProjects )
+                            : createModifiedPomFiles( releaseDescriptor, reactorProjects );
+            if ( pomFiles.isEmpty() )
+            {
+                // an empty file set would check in the whole working copy
+                getLogger().info( "No modified POMs to check in." );
+                return;
+            }
             ScmFileSet fileSet = new ScmFileSet( new File( releaseDescriptor.getWorkingDirectory() ), pomFiles );
 
             checkin( provider, repository, fileSet, releaseDescriptor, messages.get(0) );
@@ -178,7 +212,7 @@ public abstract class AbstractScmCommitPhase
     protected void simulateCheckins( ReleaseDescriptor releaseDescriptor, List<MavenProject> reactorProjects, ReleaseResult result,
             List<String> messages )
     {
-        Collection<File> pomFiles = createPomFiles( releaseDescriptor, reactorProjects );
+        Collection<File> pomFiles = createModifiedPomFiles( releaseDescriptor, reactorProjects );
         logInfo( result, "Full run would be commit " + pomFiles.size() + " files with message: ");
         for (String message : messages)
         {
@@ -226,4 +260,30 @@ public abstract class AbstractScmCommitPhase
         }
         return pomFiles;
     }
+
+    /**
+     * Like {@link #createPomFiles(ReleaseDescriptor, MavenProject)}, leaving out the POM if the rewriting left it as it
+     * was. Without a record of the unchanged POMs, all of them are included.
+     */
+    protected List<File> createModifiedPomFiles( ReleaseDescriptor releaseDescriptor, MavenProject project )
+    {
+        List<File> pomFiles = createPomFiles( releaseDescriptor, project );
+        if ( unchangedPoms != null && unchangedPoms.contains( ReleaseUtil.getStandardPom( project ) ) )
+        {
+            pomFiles.remove( ReleaseUtil.getStandardPom( project ) );
+        }
+        return pomFiles;
+    }
+
+    protected List<File> createModifiedPomFiles( ReleaseDescriptor releaseDescriptor,
+                                                 List<MavenProject> reactorProjects )
+    {
+        List<File> pomFiles = new ArrayList<File>();
+        for ( Iterator<MavenProject> i = reactorProjects.iterator(); i.hasNext(); )
+        {
+            MavenProject project = i.next();
+            pomFiles.addAll( createModifiedPomFiles( releaseDescriptor, project ) );
+        }
+        return pomFiles;
+    }
 }
@@ -29,22 +29,35 @@ import org.apache.maven.shared.release.ReleaseFailureException;
 import org.apache.maven.shared.release.ReleaseResult;
 import org.apache.maven.shared.release.config.ReleaseDescriptor;
 import org.apache.maven.shared.release.env.ReleaseEnvironment;
+import org.apache.maven.shared.release.util.DaemonThreadFactory;
+import org.apache.maven.shared.release.util.ReleaseUtil;
 import org.apache.maven.shared.release.versions.DefaultVersionInfo;
 import org.apache.maven.shared.release.versions.VersionInfo;
 import org.apache.maven.shared.release.versions.VersionParseException;
 import org.codehaus.plexus.components.interactivity.Prompter;
 import org.codehaus.plexus.components.interactivity.PrompterException;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Check the dependencies of all projects being released to see if there are any unreleased snapshots.
@@ -52,10 +65,10 @@ import java.util.Set;
  * @author <a href="mailto:brett@apache.org">Brett Porter</a>
  * @todo plugins with no version will be resolved to RELEASE which is not a snapshot, but remains unresolved to this point. This is a potential hole in the check, and should be revisited after the release pom writing is done and resolving versions to verify whether it is.
  * @todo plugins injected by the lifecycle are not tested here. They will be injected with a RELEASE version so are covered under the above point.
- * @plexus.component role="org.apache.maven.shared.release.phase.ReleasePhase" role-hint="check-dependency-snapshots"
  */
 public class CheckDependencySnapshotsPhase
     extends AbstractReleasePhase
+    implements ResourceAwareReleasePhase
 {
     public static final String RESOLVE_SNAPSHOT_MESSAGE = "There are still some remaining snapshot dependencies.\n";
 
@@ -66,22 +79,43 @@ public class CheckDependencySnapshotsPhase
     public static final String RESOLVE_SNAPSHOT_TYPE_PROMPT =
         "specify the selection number ( 0:All 1:Project Dependencies 2:Plugins 3:Reports 4:Extensions ):";
 
+    private static final Set<String> READ_RESOURCES =
+        Collections.unmodifiableSet( new HashSet<String>( Arrays.asList( new String[] { REACTOR_PROJECTS } ) ) );
+
+    private static final Set<String> WRITE_RESOURCES =
+        Collections.unmodifiableSet( new HashSet<String>( Arrays.asList( new String[] {
+            RESOLVED_SNAPSHOT_DEPENDENCIES, PROMPTER } ) ) );
+
     /**
      * Component used to prompt for input.
-     *
-     * @plexus.requirement
      */
     private Prompter prompter;
 
     /**
      * Component used to create artifacts
-     *
-     * @plexus.requirement
      */
     private ArtifactFactory artifactFactory;
 
+    /**
+     * The maximum number of projects to look for snapshots in, and of snapshots to resolve, at the same time. The
+     * default of <code>1</code> checks them one after the other.
+     */
+    private int checkThreads = 1;
+
     public ReleaseResult execute( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment, List<MavenProject> reactorProjects )
         throws ReleaseExecutionException, ReleaseFailureException
+    {
+        return checkDependencySnapshots( releaseDescriptor, releaseEnvironment, reactorProjects, false );
+    }
+
+    /**
+     * @param simulate <code>true</code> to use the modules found free of snapshots by an earlier attempt without
+     *            recording those found by this one
+     */
+    private ReleaseResult checkDependencySnapshots( ReleaseDescriptor releaseDescriptor,
+                                                   ReleaseEnvironment releaseEnvironment,
+                                                   List<MavenProject> reactorProjects, boolean simulate )
+        throws ReleaseExecutionException, ReleaseFailureException
     {
         ReleaseResult result = new ReleaseResult();
 
@@ -91,12 +125,17 @@ public class CheckDependencySnapshotsPhase
 
             Map originalVersions = releaseDescriptor.getOriginalVersions( reactorProjects );
 
-            for ( Iterator i = reactorProjects.iterator(); i.hasNext(); )
-            {
-                MavenProject project = (MavenProject) i.next();
+            SnapshotCheckCache cache = readCache( reactorProjects, result );
+
+            List<ProjectSnapshots> snapshots =
+                findSnapshots( reactorProjects, originalVersions, releaseDescriptor, cache );
 
-                checkProject( project, originalVersions, releaseDescriptor );
+            if ( cache != null )
+            {
+                updateCache( cache, snapshots, simulate, result );
             }
+
+            checkSnapshots( snapshots, releaseDescriptor, releaseEnvironment, result );
         }
         else
         {
@@ -107,161 +146,552 @@ public class CheckDependencySnapshotsPhase
         return result;
     }
 
-    private void checkProject( MavenProject project, Map originalVersions, ReleaseDescriptor releaseDescriptor )
-        throws ReleaseFailureException, ReleaseExecutionException
+    /**
+     * Find the snapshots of all projects. The projects are looked at on several threads, and each artifact is
+     * checked only once for the whole reactor.
+     */
+    private List<ProjectSnapshots> findSnapshots( List<MavenProject> reactorProjects, final Map originalVersions,
+                                                  final ReleaseDescriptor releaseDescriptor,
+                                                  final SnapshotCheckCache cache )
+        throws ReleaseExecutionException, ReleaseFailureException
     {
-        Map artifactMap = ArtifactUtils.artifactMapByVersionlessId( project.getArtifacts() );
+        final Map<String, Boolean> index = new ConcurrentHashMap<String, Boolean>();
+        final String versionsDigest = cache != null ? SnapshotCheckCache.digestVersions( originalVersions ) : null;
 
-        Set snapshotDependencies = new HashSet();
-        Set snapshotReportDependencies = new HashSet();
-        Set snapshotExtensionsDependencies = new HashSet();
-        Set snapshotPluginDependencies = new HashSet();
+        int count = reactorProjects.size();
+        if ( checkThreads <= 1 || count <= 1 )
+        {
+            List<ProjectSnapshots> snapshots = new ArrayList<ProjectSnapshots>( count );
+            for ( MavenProject project : reactorProjects )
+            {
+                snapshots.add( findSnapshots( project, originalVersions, releaseDescriptor, index, cache,
+                                               versionsDigest ) );
+            }
+            return snapshots;
+        }
 
-        if ( project.getParentArtifact() != null )
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( checkThreads, count ),
+                                                                 new DaemonThreadFactory( "check-snapshots" ) );
+        try
         {
-            if ( checkArtifact( project.getParentArtifact(), originalVersions, artifactMap, releaseDescriptor ) )
+            List<Future<ProjectSnapshots>> futures = new ArrayList<Future<ProjectSnapshots>>( count );
+            for ( final MavenProject project : reactorProjects )
             {
-                snapshotDependencies.add( project.getParentArtifact() );
+                futures.add( executor.submit( new Callable<ProjectSnapshots>()
+                {
+                    public ProjectSnapshots call()
+                        throws Exception
+                    {
+                        return findSnapshots( project, originalVersions, releaseDescriptor, index, cache,
+                                               versionsDigest );
+                    }
+                } ) );
             }
+
+            List<ProjectSnapshots> snapshots = new ArrayList<ProjectSnapshots>( count );
+            for ( Future<ProjectSnapshots> future : futures )
+            {
+                snapshots.add( get( future, "checking for snapshots" ) );
+            }
+            return snapshots;
+        }
+        finally
+        {
+            executor.shutdownNow();
         }
+    }
 
+    /**
+     * Wait for the outcome of a task, and rethrow what made it fail.
+     */
+    private static <T> T get( Future<T> future, String task )
+        throws ReleaseExecutionException
+    {
         try
         {
-            Set dependencyArtifacts = project.createArtifacts( artifactFactory, null, null );
+            return future.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ReleaseExecutionException( "Interrupted while " + task, e );
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof ReleaseExecutionException )
+            {
+                throw (ReleaseExecutionException) cause;
+            }
+            else if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            else if ( cause instanceof Error )
+            {
+                throw (Error) cause;
+            }
+            throw new ReleaseExecutionException( "Error " + task + ": " + cause.getMessage(), cause );
+        }
+    }
+
+    private ProjectSnapshots findSnapshots( MavenProject project, Map originalVersions,
+                                            ReleaseDescriptor releaseDescriptor, Map<String, Boolean> index,
+                                            SnapshotCheckCache cache, String versionsDigest )
+        throws ReleaseExecutionException
+    {
+        Map artifactMap = ArtifactUtils.artifactMapByVersionlessId( project.getArtifacts() );
+
+        ProjectSnapshots snapshots = new ProjectSnapshots( project );
+
+        Set dependencyArtifacts = getDependencyArtifacts( project );
 
-            for ( Iterator i = dependencyArtifacts.iterator(); i.hasNext(); )
+        if ( cache != null )
+        {
+            snapshots.digest = getDigest( project, dependencyArtifacts, artifactMap, versionsDigest );
+            if ( cache.isClean( snapshots.getKey(), snapshots.digest ) )
             {
-                Artifact artifact = (Artifact) i.next();
+                snapshots.cached = true;
+                return snapshots;
+            }
+        }
 
-                if ( checkArtifact( artifact, originalVersions, artifactMap, releaseDescriptor ) )
-                {
-                    snapshotDependencies.add( getArtifactFromMap( artifact, artifactMap ) );
-                }
+        if ( project.getParentArtifact() != null )
+        {
+            if ( checkArtifact( project.getParentArtifact(), originalVersions, artifactMap, releaseDescriptor,
+                                index ) )
+            {
+                snapshots.dependencies.add( project.getParentArtifact() );
             }
         }
-        catch ( InvalidDependencyVersionException e )
+
+        for ( Iterator i = dependencyArtifacts.iterator(); i.hasNext(); )
         {
-            throw new ReleaseExecutionException( "Failed to create dependency artifacts", e );
+            Artifact artifact = (Artifact) i.next();
+
+            if ( checkArtifact( artifact, originalVersions, artifactMap, releaseDescriptor, index ) )
+            {
+                snapshots.dependencies.add( getArtifactFromMap( artifact, artifactMap ) );
+            }
         }
 
         for ( Iterator i = project.getPluginArtifacts().iterator(); i.hasNext(); )
         {
             Artifact artifact = (Artifact) i.next();
 
-            if ( checkArtifact( artifact, originalVersions, artifactMap, releaseDescriptor ) )
+            if ( checkArtifact( artifact, originalVersions, artifactMap, releaseDescriptor, index ) )
+            {
+                snapshots.plugins.add( artifact );
+            }
+        }
+
+        for ( Iterator i = project.getReportArtifacts().iterator(); i.hasNext(); )
+        {
+            Artifact artifact = (Artifact) i.next();
+
+            if ( checkArtifact( artifact, originalVersions, artifactMap, releaseDescriptor, index ) )
+            {
+                snapshots.reports.add( artifact );
+            }
+        }
+
+        for ( Iterator i = project.getExtensionArtifacts().iterator(); i.hasNext(); )
+        {
+            Artifact artifact = (Artifact) i.next();
+
+            if ( checkArtifact( artifact, originalVersions, artifactMap, releaseDescriptor, index ) )
             {
-                boolean addToFailures;
+                snapshots.extensions.add( artifact );
+            }
+        }
+
+        return snapshots;
+    }
+
+    private Set getDependencyArtifacts( MavenProject project )
+        throws ReleaseExecutionException
+    {
+        // the dependency artifacts are created when the project is built, so they only need creating without it
+        Set dependencyArtifacts = project.getDependencyArtifacts();
+        if ( dependencyArtifacts == null )
+        {
+            try
+            {
+                dependencyArtifacts = project.createArtifacts( artifactFactory, null, null );
+            }
+            catch ( InvalidDependencyVersionException e )
+            {
+                throw new ReleaseExecutionException( "Failed to create dependency artifacts", e );
+            }
+        }
+        return dependencyArtifacts;
+    }
+
+    /**
+     * Work out the digest of everything the check of a project depends on: the artifacts it checks, as they are
+     * resolved for the project, and the versions of the projects being released.
+     */
+    private static String getDigest( MavenProject project, Set dependencyArtifacts, Map artifactMap,
+                                     String versionsDigest )
+    {
+        List<String> values = new ArrayList<String>();
+        values.add( "versions " + versionsDigest );
+        if ( project.getParentArtifact() != null )
+        {
+            addIds( values, "parent ", Collections.singleton( project.getParentArtifact() ), artifactMap );
+        }
+        addIds( values, "dependency ", dependencyArtifacts, artifactMap );
+        addIds( values, "plugin ", project.getPluginArtifacts(), artifactMap );
+        addIds( values, "report ", project.getReportArtifacts(), artifactMap );
+        addIds( values, "extension ", project.getExtensionArtifacts(), artifactMap );
+        return SnapshotCheckCache.digest( values );
+    }
+
+    private static void addIds( List<String> values, String prefix, Collection artifacts, Map artifactMap )
+    {
+        for ( Iterator i = artifacts.iterator(); i.hasNext(); )
+        {
+            Artifact artifact = getArtifactFromMap( (Artifact) i.next(), artifactMap );
+            values.add( prefix + artifact.getId() + " " + artifact.getVersion() );
+        }
+    }
+
+    /**
+     * @return the modules found free of snapshots by an earlier attempt, or <code>null</code> if they are not known
+     */
+    private SnapshotCheckCache readCache( List<MavenProject> reactorProjects, ReleaseResult result )
+    {
+        File basedir = ReleaseUtil.getRootProject( reactorProjects ).getBasedir();
+        if ( basedir == null )
+        {
+            return null;
+        }
+
+        File file = getCacheFile( basedir );
+        try
+        {
+            return SnapshotCheckCache.read( file );
+        }
+        catch ( IOException e )
+        {
+            logWarn( result, "Unable to read the snapshot check of an earlier attempt from " + file + ": "
+                + e.getMessage() );
+            return null;
+        }
+    }
+
+    private void updateCache( SnapshotCheckCache cache, List<ProjectSnapshots> snapshots, boolean simulate,
+                              ReleaseResult result )
+    {
+        int hits = 0;
+        for ( ProjectSnapshots projectSnapshots : snapshots )
+        {
+            if ( projectSnapshots.cached )
+            {
+                hits++;
+            }
+
+            if ( projectSnapshots.isEmpty() )
+            {
+                cache.setClean( projectSnapshots.getKey(), projectSnapshots.digest );
+            }
+        }
+
+        result.getMetrics().addCacheHits( hits );
+        result.getMetrics().addCacheMisses( snapshots.size() - hits );
+        if ( hits > 0 )
+        {
+            logInfo( result, hits + " of " + snapshots.size()
+                + " modules are unchanged since an earlier check and were not checked again." );
+        }
+
+        if ( simulate )
+        {
+            return;
+        }
+
+        try
+        {
+            cache.write();
+        }
+        catch ( IOException e )
+        {
+            logWarn( result, "Unable to record the snapshot check to " + cache.getFile() + ": " + e.getMessage() );
+        }
+    }
+
+    /**
+     * @param basedir the base directory of the root project
+     * @return the file the modules found free of snapshots are recorded in
+     */
+    private static File getCacheFile( File basedir )
+    {
+        return new File( basedir, "target/release-snapshot-check.properties" );
+    }
+
+    /**
+     * Check the snapshots found in the projects. A snapshot of the release plugin is allowed if the user wants it,
+     * the snapshots can be resolved from the local repository or interactively, and a single failure reports all
+     * projects that still have snapshots.
+     */
+    private void checkSnapshots( List<ProjectSnapshots> snapshots, ReleaseDescriptor releaseDescriptor,
+                                 ReleaseEnvironment releaseEnvironment, ReleaseResult result )
+        throws ReleaseFailureException, ReleaseExecutionException
+    {
+        Set snapshotDependencies = new HashSet();
+        Set snapshotReportDependencies = new HashSet();
+        Set snapshotExtensionsDependencies = new HashSet();
+        Set snapshotPluginDependencies = new HashSet();
+
+        // asked about once for the whole reactor
+        Boolean snapshotReleasePluginAllowed = null;
+
+        for ( ProjectSnapshots projectSnapshots : snapshots )
+        {
+            for ( Iterator i = projectSnapshots.plugins.iterator(); i.hasNext(); )
+            {
+                Artifact artifact = (Artifact) i.next();
 
                 if ( "org.apache.maven.plugins".equals( artifact.getGroupId() ) && "maven-release-plugin".equals(
                     artifact.getArtifactId() ) )
                 {
-                    // It's a snapshot of the release plugin. Maybe just testing - ask
-                    // By default, we fail as for any other plugin
-                    if ( releaseDescriptor.isSnapshotReleasePluginAllowed() )
+                    if ( snapshotReleasePluginAllowed == null )
                     {
-                        addToFailures = false;
+                        snapshotReleasePluginAllowed =
+                            Boolean.valueOf( isSnapshotReleasePluginAllowed( releaseDescriptor ) );
                     }
-                    else if ( releaseDescriptor.isInteractive() )
-                    {
-                        try
-                        {
-                            String result;
-                            if ( !releaseDescriptor.isSnapshotReleasePluginAllowed() )
-                            {
-                                prompter.showMessage( "This project relies on a SNAPSHOT of the release plugin. "
-                                                          + "This may be necessary during testing.\n" );
-                                result = prompter.prompt( "Do you want to continue with the release?",
-                                                          Arrays.asList( new String[]{ "yes", "no" } ), "no" );
-                            }
-                            else
-                            {
-                                result = "yes";
-                            }
-
-                            if ( result.toLowerCase( Locale.ENGLISH ).startsWith( "y" ) )
-                            {
-                                addToFailures = false;
-                                releaseDescriptor.setSnapshotReleasePluginAllowed( true );
-                            }
-                            else
-                            {
-                                addToFailures = true;
-                            }
-                        }
-                        catch ( PrompterException e )
-                        {
-                            throw new ReleaseExecutionException( e.getMessage(), e );
-                        }
-                    }
-                    else
+
+                    if ( snapshotReleasePluginAllowed.booleanValue() )
                     {
-                        addToFailures = true;
+                        i.remove();
                     }
                 }
-                else
-                {
-                    addToFailures = true;
-                }
+            }
 
-                if ( addToFailures )
-                {
-                    snapshotPluginDependencies.add( artifact );
-                }
+            snapshotDependencies.addAll( projectSnapshots.dependencies );
+            snapshotReportDependencies.addAll( projectSnapshots.reports );
+            snapshotExtensionsDependencies.addAll( projectSnapshots.extensions );
+            snapshotPluginDependencies.addAll( projectSnapshots.plugins );
+        }
+
+        Set[] snapshotSets = new Set[] { snapshotDependencies, snapshotPluginDependencies, snapshotReportDependencies,
+            snapshotExtensionsDependencies };
+
+        if ( isEmpty( snapshotSets ) )
+        {
+            return;
+        }
+
+        if ( releaseDescriptor.isAutoResolveSnapshots() )
+        {
+            resolveSnapshotsFromLocalRepository( snapshotSets, releaseDescriptor, releaseEnvironment, result );
+        }
+
+        if ( releaseDescriptor.isInteractive() && !isEmpty( snapshotSets ) )
+        {
+            // each snapshot is resolved once for the whole reactor, and what is left fails the projects using it
+            resolveSnapshots( snapshotDependencies, snapshotReportDependencies, snapshotExtensionsDependencies,
+                              snapshotPluginDependencies, releaseDescriptor );
+        }
+
+        StringBuffer message = new StringBuffer();
+        for ( ProjectSnapshots projectSnapshots : snapshots )
+        {
+            projectSnapshots.dependencies.retainAll( snapshotDependencies );
+            projectSnapshots.reports.retainAll( snapshotReportDependencies );
+            projectSnapshots.extensions.retainAll( snapshotExtensionsDependencies );
+            projectSnapshots.plugins.retainAll( snapshotPluginDependencies );
+
+            if ( !projectSnapshots.isEmpty() )
+            {
+                MavenProject project = projectSnapshots.project;
+
+                printSnapshotDependencies( projectSnapshots.dependencies, message );
+                printSnapshotDependencies( projectSnapshots.reports, message );
+                printSnapshotDependencies( projectSnapshots.extensions, message );
+                printSnapshotDependencies( projectSnapshots.plugins, message );
+                message.append( "in project '" + project.getName() + "' (" + project.getId() + ")\n" );
             }
         }
 
-        for ( Iterator i = project.getReportArtifacts().iterator(); i.hasNext(); )
+        if ( message.length() > 0 )
         {
-            Artifact artifact = (Artifact) i.next();
+            // no line break after the last project
+            message.setLength( message.length() - 1 );
 
-            if ( checkArtifact( artifact, originalVersions, artifactMap, releaseDescriptor ) )
+            throw new ReleaseFailureException(
+                "Can't release project due to non released dependencies :\n" + message );
+        }
+    }
+
+    private static boolean isEmpty( Set[] snapshotSets )
+    {
+        for ( int i = 0; i < snapshotSets.length; i++ )
+        {
+            if ( !snapshotSets[i].isEmpty() )
             {
-                //snapshotDependencies.add( artifact );
-                snapshotReportDependencies.add( artifact );
+                return false;
             }
         }
+        return true;
+    }
 
-        for ( Iterator i = project.getExtensionArtifacts().iterator(); i.hasNext(); )
+    /**
+     * Resolve the snapshots to the timestamped versions last downloaded to the local repository, all at once. The
+     * metadata of the snapshots is read on several threads, and each snapshot is resolved once for the whole reactor.
+     * The resolved snapshots are removed from the sets, so that only those never downloaded are left.
+     */
+    private void resolveSnapshotsFromLocalRepository( Set[] snapshotSets, ReleaseDescriptor releaseDescriptor,
+                                                      ReleaseEnvironment releaseEnvironment, ReleaseResult result )
+        throws ReleaseExecutionException
+    {
+        File localRepository = releaseEnvironment.getLocalRepositoryDirectory();
+        if ( localRepository == null )
         {
-            Artifact artifact = (Artifact) i.next();
+            logWarn( result, "The local repository is unknown, so the snapshots can't be resolved from it." );
+            return;
+        }
 
-            if ( checkArtifact( artifact, originalVersions, artifactMap, releaseDescriptor ) )
+        Map<String, Artifact> artifacts = new LinkedHashMap<String, Artifact>();
+        for ( int i = 0; i < snapshotSets.length; i++ )
+        {
+            for ( Iterator j = snapshotSets[i].iterator(); j.hasNext(); )
             {
-                snapshotExtensionsDependencies.add( artifact );
+                Artifact artifact = (Artifact) j.next();
+                String versionlessKey = ArtifactUtils.versionlessKey( artifact );
+                if ( !artifacts.containsKey( versionlessKey ) )
+                {
+                    artifacts.put( versionlessKey, artifact );
+                }
             }
         }
 
-        if ( !snapshotDependencies.isEmpty() || !snapshotReportDependencies.isEmpty() ||
-            !snapshotExtensionsDependencies.isEmpty() || !snapshotPluginDependencies.isEmpty() )
+        final LocalSnapshotResolver resolver = new LocalSnapshotResolver( localRepository );
+
+        Map<String, Future<String>> futures = new LinkedHashMap<String, Future<String>>();
+        ExecutorService executor = Executors.newFixedThreadPool( Math.max( 1, Math.min( checkThreads,
+                                                                                         artifacts.size() ) ),
+                                                                 new DaemonThreadFactory( "resolve-snapshots" ) );
+        Map resolvedSnapshots = new HashMap();
+        try
         {
-            if ( releaseDescriptor.isInteractive() )
+            for ( Map.Entry<String, Artifact> entry : artifacts.entrySet() )
             {
-                resolveSnapshots( snapshotDependencies, snapshotReportDependencies, snapshotExtensionsDependencies,
-                                  snapshotPluginDependencies, releaseDescriptor );
+                final Artifact artifact = entry.getValue();
+                futures.put( entry.getKey(), executor.submit( new Callable<String>()
+                {
+                    public String call()
+                        throws Exception
+                    {
+                        try
+                        {
+                            return resolver.resolve( artifact );
+                        }
+                        catch ( IOException e )
+                        {
+                            throw new ReleaseExecutionException( "Unable to read the metadata of " + artifact
+                                + " from the local repository: " + e.getMessage(), e );
+                        }
+                        catch ( XmlPullParserException e )
+                        {
+                            throw new ReleaseExecutionException( "Unable to parse the metadata of " + artifact
+                                + " from the local repository: " + e.getMessage(), e );
+                        }
+                    }
+                } ) );
             }
 
-            if ( !snapshotDependencies.isEmpty() || !snapshotReportDependencies.isEmpty() ||
-                !snapshotExtensionsDependencies.isEmpty() || !snapshotPluginDependencies.isEmpty() )
+            for ( Map.Entry<String, Future<String>> entry : futures.entrySet() )
             {
-                StringBuffer message = new StringBuffer();
+                String releaseVersion = get( entry.getValue(), "resolving snapshots" );
+                if ( releaseVersion != null )
+                {
+                    String developmentVersion = artifacts.get( entry.getKey() ).getBaseVersion();
+
+                    Map versionMap = new HashMap();
+                    versionMap.put( ReleaseDescriptor.ORIGINAL_VERSION, developmentVersion );
+                    versionMap.put( ReleaseDescriptor.RELEASE_KEY, releaseVersion );
+                    versionMap.put( ReleaseDescriptor.DEVELOPMENT_KEY, developmentVersion );
+                    resolvedSnapshots.put( entry.getKey(), versionMap );
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        for ( int i = 0; i < snapshotSets.length; i++ )
+        {
+            for ( Iterator j = snapshotSets[i].iterator(); j.hasNext(); )
+            {
+                if ( resolvedSnapshots.containsKey( ArtifactUtils.versionlessKey( (Artifact) j.next() ) ) )
+                {
+                    j.remove();
+                }
+            }
+        }
+
+        if ( releaseDescriptor.getResolvedSnapshotDependencies() != null )
+        {
+            releaseDescriptor.getResolvedSnapshotDependencies().putAll( resolvedSnapshots );
+        }
+        else
+        {
+            releaseDescriptor.setResolvedSnapshotDependencies( resolvedSnapshots );
+        }
 
-                printSnapshotDependencies( snapshotDependencies, message );
-                printSnapshotDependencies( snapshotReportDependencies, message );
-                printSnapshotDependencies( snapshotExtensionsDependencies, message );
-                printSnapshotDependencies( snapshotPluginDependencies, message );
-                message.append( "in project '" + project.getName() + "' (" + project.getId() + ")" );
+        logInfo( result, "Resolved " + resolvedSnapshots.size() + " of " + artifacts.size()
+            + " snapshots from the local repository." );
+    }
 
-                throw new ReleaseFailureException(
-                    "Can't release project due to non released dependencies :\n" + message );
+    private boolean isSnapshotReleasePluginAllowed( ReleaseDescriptor releaseDescriptor )
+        throws ReleaseExecutionException
+    {
+        // It's a snapshot of the release plugin. Maybe just testing - ask
+        // By default, we fail as for any other plugin
+        if ( releaseDescriptor.isSnapshotReleasePluginAllowed() )
+        {
+            return true;
+        }
+        else if ( releaseDescriptor.isInteractive() )
+        {
+            try
+            {
+                prompter.showMessage( "This project relies on a SNAPSHOT of the release plugin. "
+                                          + "This may be necessary during testing.\n" );
+                String result = prompter.prompt( "Do you want to continue with the release?",
+                                                 Arrays.asList( new String[]{ "yes", "no" } ), "no" );
+
+                if ( result.toLowerCase( Locale.ENGLISH ).startsWith( "y" ) )
+                {
+                    releaseDescriptor.setSnapshotReleasePluginAllowed( true );
+                    return true;
+                }
+            }
+            catch ( PrompterException e )
+            {
+                throw new ReleaseExecutionException( e.getMessage(), e );
             }
         }
+
+        return false;
     }
 
-    private static boolean checkArtifact( Artifact artifact, Map originalVersions, Map artifactMapByVersionlessId, ReleaseDescriptor releaseDescriptor )
+    private static boolean checkArtifact( Artifact artifact, Map originalVersions, Map artifactMapByVersionlessId,
+                                          ReleaseDescriptor releaseDescriptor, Map<String, Boolean> index )
     {
         Artifact checkArtifact = getArtifactFromMap( artifact, artifactMapByVersionlessId );
 
-        return checkArtifact( checkArtifact, originalVersions, releaseDescriptor );
+        // the outcome only depends on the coordinates, so it is shared by all projects using the artifact
+        String key = ArtifactUtils.versionlessKey( checkArtifact ) + ":" + checkArtifact.getVersion();
+        Boolean snapshot = index.get( key );
+        if ( snapshot == null )
+        {
+            snapshot = Boolean.valueOf( checkArtifact( checkArtifact, originalVersions, releaseDescriptor ) );
+            index.put( key, snapshot );
+        }
+        return snapshot.booleanValue();
     }
 
     private static Artifact getArtifactFromMap( Artifact artifact, Map artifactMapByVersionlessId )
@@ -298,8 +728,26 @@ public class CheckDependencySnapshotsPhase
     public ReleaseResult simulate( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment, List<MavenProject> reactorProjects )
         throws ReleaseExecutionException, ReleaseFailureException
     {
-        // It makes no modifications, so simulate is the same as execute
-        return execute( releaseDescriptor, releaseEnvironment, reactorProjects );
+        // It makes no modifications other than recording the check, so simulate is the same as execute without it
+        return checkDependencySnapshots( releaseDescriptor, releaseEnvironment, reactorProjects, true );
+    }
+
+    public ReleaseResult clean( List<MavenProject> reactorProjects )
+    {
+        if ( reactorProjects != null && !reactorProjects.isEmpty() )
+        {
+            File basedir = ReleaseUtil.getRootProject( reactorProjects ).getBasedir();
+            if ( basedir != null )
+            {
+                File file = getCacheFile( basedir );
+                if ( file.exists() )
+                {
+                    file.delete();
+                }
+            }
+        }
+
+        return super.clean( reactorProjects );
     }
 
     public void setPrompter( Prompter prompter )
@@ -307,6 +755,11 @@ public class CheckDependencySnapshotsPhase
         this.prompter = prompter;
     }
 
+    public void setCheckThreads( int checkThreads )
+    {
+        this.checkThreads = checkThreads;
+    }
+
     private StringBuffer printSnapshotDependencies( Set snapshotsSet, StringBuffer message )
     {
         List snapshotsList = new ArrayList( snapshotsSet );
@@ -407,7 +860,7 @@ public class CheckDependencySnapshotsPhase
             String versionlessKey = ArtifactUtils.versionlessKey( currentArtifact );
 
             Map versionMap = new HashMap();
-            VersionInfo versionInfo = new DefaultVersionInfo( currentArtifact.getVersion() );
+            VersionInfo versionInfo = DefaultVersionInfo.valueOf( currentArtifact.getVersion() );
             versionMap.put( ReleaseDescriptor.ORIGINAL_VERSION, versionInfo.toString() );
 
             prompter.showMessage(
@@ -420,7 +873,7 @@ public class CheckDependencySnapshotsPhase
 
             // by default, keep the same version for the dependency after release, unless it was previously newer
             // the user may opt to type in something different
-            VersionInfo nextVersionInfo = new DefaultVersionInfo( result );
+            VersionInfo nextVersionInfo = DefaultVersionInfo.valueOf( result );
 
             String nextVersion;
             if ( nextVersionInfo.compareTo( versionInfo ) > 0 )
@@ -440,4 +893,55 @@ public class CheckDependencySnapshotsPhase
 
         return resolvedSnapshots;
     }
+
+    public Set<String> getReadResources()
+    {
+        return READ_RESOURCES;
+    }
+
+    public Set<String> getWriteResources()
+    {
+        return WRITE_RESOURCES;
+    }
+
+    /**
+     * The snapshots a project depends on.
+     */
+    private static final class ProjectSnapshots
+    {
+        private final MavenProject project;
+
+        /**
+         * The digest of what the check of the project depends on, if the outcome is cached.
+         */
+        private String digest;
+
+        /**
+         * Whether the project is known to be free of snapshots from an earlier check.
+         */
+        private boolean cached;
+
+        private final Set dependencies = new HashSet();
+
+        private final Set reports = new HashSet();
+
+        private final Set extensions = new HashSet();
+
+        private final Set plugins = new HashSet();
+
+        ProjectSnapshots( MavenProject project )
+        {
+            this.project = project;
+        }
+
+        String getKey()
+        {
+            return ArtifactUtils.versionlessKey( project.getGroupId(), project.getArtifactId() );
+        }
+
+        boolean isEmpty()
+        {
+            return dependencies.isEmpty() && reports.isEmpty() && extensions.isEmpty() && plugins.isEmpty();
+        }
+    }
 }
@@ -33,8 +33,12 @@ import org.apache.maven.shared.release.scm.ScmRepositoryConfigurator;
 import org.apache.maven.shared.release.util.ReleaseUtil;
 import org.codehaus.plexus.util.StringUtils;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Phase that checks the validity of the POM before release.
@@ -44,7 +48,14 @@ import java.util.List;
  */
 public class CheckPomPhase
     extends AbstractReleasePhase
+    implements ResourceAwareReleasePhase
 {
+    private static final Set<String> READ_RESOURCES =
+        Collections.unmodifiableSet( new HashSet<String>( Arrays.asList( new String[] { REACTOR_PROJECTS } ) ) );
+
+    private static final Set<String> WRITE_RESOURCES =
+        Collections.unmodifiableSet( new HashSet<String>( Arrays.asList( new String[] { SCM_SOURCE_URL } ) ) );
+
     /**
      * Retrieve an SCM repository, useful for validating an URL.
      *
@@ -122,4 +133,14 @@ public class CheckPomPhase
         // It makes no modifications, so simulate is the same as execute
         return execute( releaseDescriptor, releaseEnvironment, reactorProjects );
     }
+
+    public Set<String> getReadResources()
+    {
+        return READ_RESOURCES;
+    }
+
+    public Set<String> getWriteResources()
+    {
+        return WRITE_RESOURCES;
+    }
 }
@@ -157,6 +157,7 @@ public class CheckoutProjectFromScm
                             releaseEnvironment.getSettings());
 
                     provider = scmRepositoryConfigurator.getRepositoryProvider(repository);
+                    provider = result.getMetrics().meter( provider );
                 } catch (ScmRepositoryException e) {
                     result.setResultCode(ReleaseResult.ERROR);
                     logError(result, e.getMessage());
@@ -189,6 +190,7 @@ public class CheckoutProjectFromScm
                                                                                     releaseEnvironment.getSettings() );
 
                     provider = scmRepositoryConfigurator.getRepositoryProvider( repository );
+                    provider = result.getMetrics().meter( provider );
                 }
                 catch ( ScmRepositoryException e )
                 {
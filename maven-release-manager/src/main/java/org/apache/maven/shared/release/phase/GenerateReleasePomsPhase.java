@@ -28,6 +28,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.ArtifactUtils;
@@ -38,6 +43,7 @@ import org.apache.maven.model.Model;
 import org.apache.maven.model.Plugin;
 import org.apache.maven.model.ReportPlugin;
 import org.apache.maven.model.Reporting;
+import org.apache.maven.model.Resource;
 import org.apache.maven.model.Scm;
 import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
 import org.apache.maven.project.MavenProject;
@@ -54,6 +60,8 @@ import org.apache.maven.shared.release.config.ReleaseDescriptor;
 import org.apache.maven.shared.release.env.ReleaseEnvironment;
 import org.apache.maven.shared.release.scm.ReleaseScmCommandException;
 import org.apache.maven.shared.release.scm.ScmTranslator;
+import org.apache.maven.shared.release.transform.PomCache;
+import org.apache.maven.shared.release.util.DaemonThreadFactory;
 import org.apache.maven.shared.release.util.ReleaseUtil;
 import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.WriterFactory;
@@ -63,25 +71,47 @@ import org.codehaus.plexus.util.WriterFactory;
  *
  * @author <a href="mailto:brett@apache.org">Brett Porter</a>
  * @author <a href="mailto:markhobson@gmail.com">Mark Hobson</a>
- * @plexus.component role="org.apache.maven.shared.release.phase.ReleasePhase" role-hint="generate-release-poms"
  */
 public class GenerateReleasePomsPhase
     extends AbstractReleasePomsPhase
 {
     /**
-     *
-     *
-     * @plexus.requirement
+     * POM writers, one for each thread generating release POMs.
+     */
+    private static final ThreadLocal<MavenXpp3Writer> POM_WRITERS = new ThreadLocal<MavenXpp3Writer>()
+    {
+        protected MavenXpp3Writer initialValue()
+        {
+            return new MavenXpp3Writer();
+        }
+    };
+
+    /**
+     * Tool that translates the paths of the project to be relative to its base directory.
      */
     private PathTranslator pathTranslator;
 
     /**
      * SCM URL translators mapped by provider name.
-     *
-     * @plexus.requirement role="org.apache.maven.shared.release.scm.ScmTranslator"
      */
     private Map<String, ScmTranslator> scmTranslators;
 
+    /**
+     * The POMs of the release, parsed.
+     */
+    private PomCache pomCache;
+
+    /**
+     * The maximum number of release POMs to generate at the same time. The default of <code>1</code> generates them
+     * one after the other.
+     */
+    private int generateThreads = 1;
+
+    public void setGenerateThreads( int generateThreads )
+    {
+        this.generateThreads = generateThreads;
+    }
+
     /*
      * @see org.apache.maven.shared.release.phase.ReleasePhase#execute(org.apache.maven.shared.release.config.ReleaseDescriptor,
      *      org.apache.maven.settings.Settings, java.util.List)
@@ -119,31 +149,148 @@ public class GenerateReleasePomsPhase
                                       List<MavenProject> reactorProjects, boolean simulate, ReleaseResult result )
         throws ReleaseExecutionException, ReleaseFailureException
     {
-        List<File> releasePoms = new ArrayList<File>();
+        // the same for all projects, so worked out once
+        Map originalVersions = getOriginalVersionMap( releaseDescriptor, reactorProjects );
+        Map mappedVersions = getNextVersionMap( releaseDescriptor );
 
+        ScmTranslator scmTranslator = null;
         for ( MavenProject project : reactorProjects )
         {
-            logInfo( result, "Generating release POM for '" + project.getName() + "'..." );
+            if ( project.getModel().getScm() != null )
+            {
+                scmTranslator = getScmTranslator( getScmRepository( releaseDescriptor, releaseEnvironment ) );
+                break;
+            }
+        }
 
-            releasePoms.add( generateReleasePom( project, releaseDescriptor, releaseEnvironment, reactorProjects,
-                                                 simulate, result ) );
+        List<File> releasePoms;
+        if ( generateThreads > 1 && reactorProjects.size() > 1 )
+        {
+            releasePoms = generateReleasePomsConcurrently( releaseDescriptor, reactorProjects, originalVersions,
+                                                           mappedVersions, scmTranslator, result );
+        }
+        else
+        {
+            releasePoms = new ArrayList<File>();
+
+            for ( MavenProject project : reactorProjects )
+            {
+                logInfo( result, "Generating release POM for '" + project.getName() + "'..." );
+
+                releasePoms.add( generateReleasePom( project, releaseDescriptor, originalVersions, mappedVersions,
+                                                     scmTranslator, result ) );
+            }
         }
 
         addReleasePomsToScm( releaseDescriptor, releaseEnvironment, reactorProjects, simulate, result, releasePoms );
     }
 
+    /**
+     * Generate the release POMs on several threads. Each project collects its output separately, and the output is
+     * appended to the result in reactor order.
+     */
+    private List<File> generateReleasePomsConcurrently( final ReleaseDescriptor releaseDescriptor,
+                                                        List<MavenProject> reactorProjects,
+                                                        final Map originalVersions, final Map mappedVersions,
+                                                        final ScmTranslator scmTranslator, ReleaseResult result )
+        throws ReleaseExecutionException, ReleaseFailureException
+    {
+        int count = reactorProjects.size();
+
+        final ReleaseResult[] projectResults = new ReleaseResult[count];
+        List<Future<File>> futures = new ArrayList<Future<File>>( count );
+
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( generateThreads, count ),
+                                                                 new DaemonThreadFactory( "generate-release-poms" ) );
+        try
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                final MavenProject project = reactorProjects.get( i );
+                final ReleaseResult projectResult = new ReleaseResult();
+                projectResults[i] = projectResult;
+
+                futures.add( executor.submit( new Callable<File>()
+                {
+                    public File call()
+                        throws Exception
+                    {
+                        logInfo( projectResult, "Generating release POM for '" + project.getName() + "'..." );
+
+                        return generateReleasePom( project, releaseDescriptor, originalVersions, mappedVersions,
+                                                   scmTranslator, projectResult );
+                    }
+                } ) );
+            }
+
+            List<File> releasePoms = new ArrayList<File>( count );
+            Throwable failure = null;
+            for ( int i = 0; i < count; i++ )
+            {
+                try
+                {
+                    releasePoms.add( futures.get( i ).get() );
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new ReleaseExecutionException( "Interrupted while generating release POMs", e );
+                }
+                catch ( ExecutionException e )
+                {
+                    if ( failure == null )
+                    {
+                        failure = e.getCause();
+                    }
+                }
+
+                result.appendOutput( projectResults[i] );
+                result.getMetrics().add( projectResults[i].getMetrics() );
+            }
+
+            if ( failure instanceof ReleaseExecutionException )
+            {
+                throw (ReleaseExecutionException) failure;
+            }
+            else if ( failure instanceof ReleaseFailureException )
+            {
+                throw (ReleaseFailureException) failure;
+            }
+            else if ( failure instanceof RuntimeException )
+            {
+                throw (RuntimeException) failure;
+            }
+            else if ( failure instanceof Error )
+            {
+                throw (Error) failure;
+            }
+            else if ( failure != null )
+            {
+                throw new ReleaseExecutionException( "Error generating release POMs: " + failure.getMessage(),
+                                                     failure );
+            }
+
+            return releasePoms;
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
     private File generateReleasePom( MavenProject project, ReleaseDescriptor releaseDescriptor,
-                                     ReleaseEnvironment releaseEnvironment, List<MavenProject> reactorProjects,
-                                     boolean simulate, ReleaseResult result )
+                                     Map originalVersions, Map mappedVersions, ScmTranslator scmTranslator,
+                                     ReleaseResult result )
         throws ReleaseExecutionException, ReleaseFailureException
     {
         // create release pom
 
-        Model releasePom = createReleaseModel( project, releaseDescriptor, releaseEnvironment, reactorProjects, result );
+        Model releasePom =
+            createReleaseModel( project, releaseDescriptor, originalVersions, mappedVersions, scmTranslator, result );
 
         // write release pom to file
 
-        MavenXpp3Writer pomWriter = new MavenXpp3Writer();
+        MavenXpp3Writer pomWriter = POM_WRITERS.get();
 
         File releasePomFile = ReleaseUtil.getReleasePom( project );
         
@@ -153,6 +300,8 @@ public class GenerateReleasePomsPhase
             throw new ReleaseExecutionException( "Cannot generate release POM : pom file is null" );
         }
 
+        pomCache.invalidate( releasePomFile );
+
         Writer fileWriter = null;
 
         try
@@ -170,6 +319,9 @@ public class GenerateReleasePomsPhase
             IOUtil.close( fileWriter );
         }
 
+        result.getMetrics().addModules( 1 );
+        result.getMetrics().addPomBytesWritten( releasePomFile.length() );
+
         return releasePomFile;
     }
 
@@ -185,7 +337,7 @@ public class GenerateReleasePomsPhase
         else
         {
             ScmRepository scmRepository = getScmRepository( releaseDescriptor, releaseEnvironment );
-            ScmProvider scmProvider = getScmProvider( scmRepository );
+            ScmProvider scmProvider = result.getMetrics().meter( getScmProvider( scmRepository ) );
 
             MavenProject rootProject = ReleaseUtil.getRootProject( reactorProjects );
             ScmFileSet scmFileSet = new ScmFileSet( rootProject.getFile().getParentFile(), releasePoms );
@@ -208,22 +360,18 @@ public class GenerateReleasePomsPhase
     }
 
     private Model createReleaseModel( MavenProject project, ReleaseDescriptor releaseDescriptor,
-                                      ReleaseEnvironment releaseEnvironment, List<MavenProject> reactorProjects,
+                                      Map originalVersions, Map mappedVersions, ScmTranslator scmTranslator,
                                       ReleaseResult result )
         throws ReleaseFailureException, ReleaseExecutionException
     {
-        Map originalVersions = getOriginalVersionMap( releaseDescriptor, reactorProjects );
-        Map mappedVersions = getNextVersionMap( releaseDescriptor );
-
-        MavenProject releaseProject = new MavenProject( project );
-        Model releaseModel = releaseProject.getModel();
+        Model releaseModel = createModelProjection( project.getModel() );
 
         // the release POM should reflect bits of these which were injected at build time...
         // we don't need these polluting the POM.
         releaseModel.setParent( null );
         releaseModel.setProfiles( Collections.EMPTY_LIST );
         releaseModel.setDependencyManagement( null );
-        releaseProject.getBuild().setPluginManagement( null );
+        releaseModel.getBuild().setPluginManagement( null );
 
         // update project version
         String projectVersion = releaseModel.getVersion();
@@ -241,7 +389,7 @@ public class GenerateReleasePomsPhase
         else if ( finalName.indexOf( "SNAPSHOT" ) != -1 )
         {
             throw new ReleaseFailureException( "Cannot reliably adjust the finalName of project: "
-                            + releaseProject.getId() );
+                            + project.getId() );
         }
 
         // update scm
@@ -249,9 +397,6 @@ public class GenerateReleasePomsPhase
 
         if ( scm != null )
         {
-            ScmRepository scmRepository = getScmRepository( releaseDescriptor, releaseEnvironment );
-            ScmTranslator scmTranslator = getScmTranslator( scmRepository );
-
             if ( scmTranslator != null )
             {
                 releaseModel.setScm( createReleaseScm( releaseModel.getScm(), scmTranslator, releaseDescriptor ) );
@@ -267,24 +412,122 @@ public class GenerateReleasePomsPhase
         }
 
         // rewrite dependencies
-        releaseModel.setDependencies( createReleaseDependencies( originalVersions, mappedVersions, releaseProject ) );
+        releaseModel.setDependencies( createReleaseDependencies( originalVersions, mappedVersions, project ) );
 
         // rewrite plugins
-        releaseModel.getBuild().setPlugins( createReleasePlugins( originalVersions, mappedVersions, releaseProject ) );
+        releaseModel.getBuild().setPlugins( createReleasePlugins( originalVersions, mappedVersions, project ) );
 
         // rewrite reports
-        releaseModel.getReporting().setPlugins( createReleaseReportPlugins( originalVersions, mappedVersions,
-                                                                            releaseProject ) );
+        if ( releaseModel.getReporting() != null )
+        {
+            releaseModel.getReporting().setPlugins( createReleaseReportPlugins( originalVersions, mappedVersions,
+                                                                                project ) );
+        }
 
         // rewrite extensions
         releaseModel.getBuild().setExtensions( createReleaseExtensions( originalVersions, mappedVersions,
-                                                                        releaseProject ) );
+                                                                        project ) );
 
-        pathTranslator.unalignFromBaseDirectory( releaseProject.getModel(), project.getFile().getParentFile() );
+        pathTranslator.unalignFromBaseDirectory( releaseModel, project.getFile().getParentFile() );
 
         return releaseModel;
     }
 
+    /**
+     * Copy the effective model of a project, without copying more than the release POM changes. The parts that are
+     * replaced or written as they are stay shared with the project, and only the build, its resources and the
+     * reporting are copied, as the release POM or the path translator change them in place. Like a copy of the
+     * project, the projection is written with the default encoding rather than that of the POM.
+     */
+    private static Model createModelProjection( Model model )
+    {
+        Model projection = new Model();
+        projection.setModelVersion( model.getModelVersion() );
+        projection.setParent( model.getParent() );
+        projection.setGroupId( model.getGroupId() );
+        projection.setArtifactId( model.getArtifactId() );
+        projection.setVersion( model.getVersion() );
+        projection.setPackaging( model.getPackaging() );
+        projection.setName( model.getName() );
+        projection.setDescription( model.getDescription() );
+        projection.setUrl( model.getUrl() );
+        projection.setInceptionYear( model.getInceptionYear() );
+        projection.setOrganization( model.getOrganization() );
+        projection.setLicenses( model.getLicenses() );
+        projection.setMailingLists( model.getMailingLists() );
+        projection.setDevelopers( model.getDevelopers() );
+        projection.setContributors( model.getContributors() );
+        projection.setIssueManagement( model.getIssueManagement() );
+        projection.setScm( model.getScm() );
+        projection.setCiManagement( model.getCiManagement() );
+        projection.setPrerequisites( model.getPrerequisites() );
+        projection.setProfiles( model.getProfiles() );
+        projection.setDistributionManagement( model.getDistributionManagement() );
+        projection.setModules( model.getModules() );
+        projection.setRepositories( model.getRepositories() );
+        projection.setPluginRepositories( model.getPluginRepositories() );
+        projection.setDependencies( model.getDependencies() );
+        projection.setReports( model.getReports() );
+        projection.setDependencyManagement( model.getDependencyManagement() );
+        projection.setProperties( model.getProperties() );
+
+        Build build = model.getBuild();
+        if ( build != null )
+        {
+            Build buildProjection = new Build();
+            buildProjection.setDefaultGoal( build.getDefaultGoal() );
+            buildProjection.setDirectory( build.getDirectory() );
+            buildProjection.setFinalName( build.getFinalName() );
+            buildProjection.setFilters( build.getFilters() );
+            buildProjection.setResources( createResourceProjections( build.getResources() ) );
+            buildProjection.setTestResources( createResourceProjections( build.getTestResources() ) );
+            buildProjection.setPluginManagement( build.getPluginManagement() );
+            buildProjection.setPlugins( build.getPlugins() );
+            buildProjection.setExtensions( build.getExtensions() );
+            buildProjection.setSourceDirectory( build.getSourceDirectory() );
+            buildProjection.setScriptSourceDirectory( build.getScriptSourceDirectory() );
+            buildProjection.setTestSourceDirectory( build.getTestSourceDirectory() );
+            buildProjection.setOutputDirectory( build.getOutputDirectory() );
+            buildProjection.setTestOutputDirectory( build.getTestOutputDirectory() );
+            projection.setBuild( buildProjection );
+        }
+        else
+        {
+            // like the build of a copy of the project, which is created when it is first asked for
+            projection.setBuild( new Build() );
+        }
+
+        Reporting reporting = model.getReporting();
+        if ( reporting != null )
+        {
+            Reporting reportingProjection = new Reporting();
+            reportingProjection.setExcludeDefaults( reporting.isExcludeDefaults() );
+            reportingProjection.setOutputDirectory( reporting.getOutputDirectory() );
+            reportingProjection.setPlugins( reporting.getPlugins() );
+            projection.setReporting( reportingProjection );
+        }
+
+        return projection;
+    }
+
+    private static List<Resource> createResourceProjections( List resources )
+    {
+        List<Resource> projections = new ArrayList<Resource>( resources.size() );
+        for ( Iterator iterator = resources.iterator(); iterator.hasNext(); )
+        {
+            Resource resource = (Resource) iterator.next();
+
+            Resource projection = new Resource();
+            projection.setDirectory( resource.getDirectory() );
+            projection.setTargetPath( resource.getTargetPath() );
+            projection.setFiltering( resource.isFiltering() );
+            projection.setIncludes( resource.getIncludes() );
+            projection.setExcludes( resource.getExcludes() );
+            projections.add( projection );
+        }
+        return projections;
+    }
+
     public ReleaseResult simulate( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
                                    List<MavenProject> reactorProjects )
         throws ReleaseExecutionException, ReleaseFailureException
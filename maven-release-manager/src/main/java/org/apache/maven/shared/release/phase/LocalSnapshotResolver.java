@@ -0,0 +1,130 @@
+package org.apache.maven.shared.release.phase;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.Reader;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.Snapshot;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Reader;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.ReaderFactory;
+import org.codehaus.plexus.util.StringUtils;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * Resolves a SNAPSHOT artifact to the timestamped version last downloaded to the local repository. Only the
+ * <code>maven-metadata-*.xml</code> files kept next to the artifact in the local repository are read, so no remote
+ * repository is accessed.
+ */
+final class LocalSnapshotResolver
+{
+    private static final FilenameFilter METADATA_FILTER = new FilenameFilter()
+    {
+        public boolean accept( File dir, String name )
+        {
+            return name.startsWith( "maven-metadata-" ) && name.endsWith( ".xml" );
+        }
+    };
+
+    private final File localRepository;
+
+    /**
+     * @param localRepository the base directory of the local repository
+     */
+    LocalSnapshotResolver( File localRepository )
+    {
+        this.localRepository = localRepository;
+    }
+
+    /**
+     * Resolve a snapshot. The metadata of every remote repository the snapshot was downloaded from is looked at, and
+     * the most recent snapshot deployed to any of them is used. The metadata of snapshots installed locally has no
+     * timestamp, so it is ignored.
+     *
+     * @param artifact the snapshot
+     * @return the timestamped version, or <code>null</code> if the snapshot was never downloaded
+     * @throws IOException            if the metadata can't be read
+     * @throws XmlPullParserException if the metadata can't be parsed
+     */
+    String resolve( Artifact artifact )
+        throws IOException, XmlPullParserException
+    {
+        if ( artifact.getVersion() == null )
+        {
+            return null;
+        }
+
+        String baseVersion = artifact.getBaseVersion();
+        if ( !baseVersion.equals( artifact.getVersion() ) )
+        {
+            // already resolved to a timestamped version
+            return artifact.getVersion();
+        }
+
+        File directory = new File( localRepository, artifact.getGroupId().replace( '.', '/' ) + "/"
+            + artifact.getArtifactId() + "/" + baseVersion );
+        File[] files = directory.listFiles( METADATA_FILTER );
+        if ( files == null )
+        {
+            return null;
+        }
+
+        Snapshot latest = null;
+        for ( int i = 0; i < files.length; i++ )
+        {
+            Snapshot snapshot = readSnapshot( files[i] );
+            if ( snapshot != null && snapshot.getTimestamp() != null
+                && ( latest == null || snapshot.getTimestamp().compareTo( latest.getTimestamp() ) > 0 ) )
+            {
+                latest = snapshot;
+            }
+        }
+
+        if ( latest == null )
+        {
+            return null;
+        }
+        return StringUtils.replace( baseVersion, Artifact.SNAPSHOT_VERSION,
+                                    latest.getTimestamp() + "-" + latest.getBuildNumber() );
+    }
+
+    private static Snapshot readSnapshot( File file )
+        throws IOException, XmlPullParserException
+    {
+        Reader reader = null;
+        try
+        {
+            reader = ReaderFactory.newXmlReader( file );
+
+            Metadata metadata = new MetadataXpp3Reader().read( reader, false );
+
+            return metadata.getVersioning() != null ? metadata.getVersioning().getSnapshot() : null;
+        }
+        finally
+        {
+            IOUtil.close( reader );
+        }
+    }
+}
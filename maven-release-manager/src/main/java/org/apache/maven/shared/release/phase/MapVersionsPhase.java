@@ -19,8 +19,16 @@ package org.apache.maven.shared.release.phase;
  * under the License.
  */
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 
 import org.apache.maven.artifact.ArtifactUtils;
 import org.apache.maven.project.MavenProject;
@@ -34,6 +42,7 @@ import org.apache.maven.shared.release.versions.VersionInfo;
 import org.apache.maven.shared.release.versions.VersionParseException;
 import org.codehaus.plexus.components.interactivity.Prompter;
 import org.codehaus.plexus.components.interactivity.PrompterException;
+import org.codehaus.plexus.util.IOUtil;
 
 /**
  * Map projects to their new versions after release / into the next development cycle.
@@ -71,6 +80,8 @@ public class MapVersionsPhase
 
         MavenProject rootProject = ReleaseUtil.getRootProject( reactorProjects );
 
+        Properties rules = readVersionRules( releaseDescriptor, rootProject );
+
         if ( releaseDescriptor.isAutoVersionSubmodules() && ArtifactUtils.isSnapshot( rootProject.getVersion() ) )
         {
             // get the root project
@@ -78,23 +89,9 @@ public class MapVersionsPhase
 
             String projectId = ArtifactUtils.versionlessKey( project.getGroupId(), project.getArtifactId() );
 
-            String nextVersion = getNextVersion( project, projectId, releaseDescriptor, result );
+            String nextVersion = getNextVersion( project, projectId, releaseDescriptor, rules, result );
 
-            if ( convertToSnapshot )
-            {
-                if ( releaseDescriptor.isBranchCreation() && convertToBranch )
-                {
-                    releaseDescriptor.mapReleaseVersion( projectId, nextVersion );
-                }
-                else
-                {
-                    releaseDescriptor.mapDevelopmentVersion( projectId, nextVersion );
-                }
-            }
-            else
-            {
-                releaseDescriptor.mapReleaseVersion( projectId, nextVersion );
-            }
+            mapVersion( releaseDescriptor, projectId, nextVersion );
 
             for ( Iterator<MavenProject> i = reactorProjects.iterator(); i.hasNext(); )
             {
@@ -129,6 +126,10 @@ public class MapVersionsPhase
                 }
             }
         }
+        else if ( releaseDescriptor.isGroupVersionMapping() )
+        {
+            mapVersionsByGroup( releaseDescriptor, reactorProjects, rules, result );
+        }
         else
         {
             for ( Iterator<MavenProject> i = reactorProjects.iterator(); i.hasNext(); )
@@ -137,36 +138,184 @@ public class MapVersionsPhase
 
                 String projectId = ArtifactUtils.versionlessKey( project.getGroupId(), project.getArtifactId() );
 
-                String nextVersion = getNextVersion( project, projectId, releaseDescriptor, result );
+                String nextVersion = getNextVersion( project, projectId, releaseDescriptor, rules, result );
 
-                if ( convertToSnapshot )
+                mapVersion( releaseDescriptor, projectId, nextVersion );
+            }
+        }
+
+        result.setResultCode( ReleaseResult.SUCCESS );
+
+        return result;
+    }
+
+    private void mapVersion( ReleaseDescriptor releaseDescriptor, String projectId, String nextVersion )
+    {
+        if ( convertToSnapshot )
+        {
+            if ( releaseDescriptor.isBranchCreation() && convertToBranch )
+            {
+                releaseDescriptor.mapReleaseVersion( projectId, nextVersion );
+            }
+            else
+            {
+                releaseDescriptor.mapDevelopmentVersion( projectId, nextVersion );
+            }
+        }
+        else
+        {
+            releaseDescriptor.mapReleaseVersion( projectId, nextVersion );
+        }
+    }
+
+    /**
+     * Map the versions of all projects at once. The versions proposed for all projects are worked out first, and the
+     * projects that would be asked the same question about the same version are asked it only once.
+     */
+    private void mapVersionsByGroup( ReleaseDescriptor releaseDescriptor, List<MavenProject> reactorProjects,
+                                     Properties rules, ReleaseResult result )
+        throws ReleaseExecutionException
+    {
+        Map<String, VersionGroup> groups = new LinkedHashMap<String, VersionGroup>();
+        for ( Iterator<MavenProject> i = reactorProjects.iterator(); i.hasNext(); )
+        {
+            MavenProject project = i.next();
+
+            String projectId = ArtifactUtils.versionlessKey( project.getGroupId(), project.getArtifactId() );
+
+            VersionProposal proposal = proposeVersion( project, projectId, releaseDescriptor, rules, result );
+
+            if ( proposal.question == null )
+            {
+                mapVersion( releaseDescriptor, projectId, proposal.version );
+            }
+            else
+            {
+                String key = proposal.question + '\n' + project.getVersion() + '\n' + proposal.version;
+                VersionGroup group = groups.get( key );
+                if ( group == null )
                 {
-                    if ( releaseDescriptor.isBranchCreation() && convertToBranch )
-                    {
-                        releaseDescriptor.mapReleaseVersion( projectId, nextVersion );
-                    }
-                    else
-                    {
-                        releaseDescriptor.mapDevelopmentVersion( projectId, nextVersion );
-                    }
+                    group = new VersionGroup( proposal, project.getVersion() );
+                    groups.put( key, group );
                 }
-                else
+                group.projects.add( project );
+            }
+        }
+
+        for ( VersionGroup group : groups.values() )
+        {
+            String question;
+            if ( group.projects.size() == 1 )
+            {
+                MavenProject project = group.projects.get( 0 );
+                question = getQuestion( group.proposal, project,
+                                        ArtifactUtils.versionlessKey( project.getGroupId(), project.getArtifactId() ) );
+            }
+            else
+            {
+                StringBuffer projectIds = new StringBuffer();
+                for ( MavenProject project : group.projects )
                 {
-                    releaseDescriptor.mapReleaseVersion( projectId, nextVersion );
+                    if ( projectIds.length() > 0 )
+                    {
+                        projectIds.append( ", " );
+                    }
+                    projectIds.append( ArtifactUtils.versionlessKey( project.getGroupId(), project.getArtifactId() ) );
                 }
+                question = group.proposal.question + " the " + group.projects.size() + " projects at version "
+                    + group.currentVersion + "? (" + projectIds + ")";
+            }
+
+            String nextVersion = prompt( question, group.proposal.version );
+
+            for ( MavenProject project : group.projects )
+            {
+                mapVersion( releaseDescriptor,
+                            ArtifactUtils.versionlessKey( project.getGroupId(), project.getArtifactId() ), nextVersion );
             }
         }
+    }
 
-        result.setResultCode( ReleaseResult.SUCCESS );
+    /**
+     * Read the rules giving the versions to map the projects at a version to, if there is a file of them. The file has
+     * <code>rel.</code> followed by the current version as the key of each release or branch version, and
+     * <code>dev.</code> followed by the current version as the key of each development version.
+     */
+    private static Properties readVersionRules( ReleaseDescriptor releaseDescriptor, MavenProject rootProject )
+        throws ReleaseExecutionException
+    {
+        Properties rules = new Properties();
+        if ( releaseDescriptor.getVersionRulesFile() == null )
+        {
+            return rules;
+        }
 
-        return result;
+        File file = new File( releaseDescriptor.getVersionRulesFile() );
+        if ( !file.isAbsolute() && rootProject.getBasedir() != null )
+        {
+            file = new File( rootProject.getBasedir(), releaseDescriptor.getVersionRulesFile() );
+        }
+
+        InputStream inStream = null;
+        try
+        {
+            inStream = new FileInputStream( file );
+
+            rules.load( inStream );
+        }
+        catch ( IOException e )
+        {
+            throw new ReleaseExecutionException( "Unable to read the version rules from " + file + ": "
+                + e.getMessage(), e );
+        }
+        finally
+        {
+            IOUtil.close( inStream );
+        }
+        return rules;
     }
 
     private String getNextVersion( MavenProject project, String projectId, ReleaseDescriptor releaseDescriptor,
-                                   ReleaseResult result )
+                                   Properties rules, ReleaseResult result )
+        throws ReleaseExecutionException
+    {
+        VersionProposal proposal = proposeVersion( project, projectId, releaseDescriptor, rules, result );
+
+        if ( proposal.question == null )
+        {
+            return proposal.version;
+        }
+        return prompt( getQuestion( proposal, project, projectId ), proposal.version );
+    }
+
+    private static String getQuestion( VersionProposal proposal, MavenProject project, String projectId )
+    {
+        return proposal.question + " \"" + project.getName() + "\"? (" + projectId + ")";
+    }
+
+    private String prompt( String question, String defaultVersion )
+        throws ReleaseExecutionException
+    {
+        try
+        {
+            return prompter.prompt( question, defaultVersion );
+        }
+        catch ( PrompterException e )
+        {
+            throw new ReleaseExecutionException( "Error reading version from input handler: " + e.getMessage(), e );
+        }
+    }
+
+    /**
+     * Work out the version to propose for a project, and whether the user should be asked for it.
+     */
+    private VersionProposal proposeVersion( MavenProject project, String projectId,
+                                            ReleaseDescriptor releaseDescriptor, Properties rules,
+                                            ReleaseResult result )
         throws ReleaseExecutionException
     {
         String nextVersion = null;
+        String question = null;
 
         VersionInfo currentVersionInfo = null;
         VersionInfo releaseVersionInfo = null;
@@ -177,7 +326,7 @@ public class MapVersionsPhase
 
         try
         {
-            currentVersionInfo = new DefaultVersionInfo( project.getVersion() );
+            currentVersionInfo = DefaultVersionInfo.valueOf( project.getVersion() );
 
             // The release/branch version defaults to currentVersionInfo (snapshot for branch, and release for tag)
             releaseVersionInfo = currentVersionInfo;
@@ -185,7 +334,13 @@ public class MapVersionsPhase
             // Check if the user specified a release version
             if ( releaseDescriptor.getDefaultReleaseVersion() != null )
             {
-                releaseVersionInfo = new DefaultVersionInfo( releaseDescriptor.getDefaultReleaseVersion() );
+                releaseVersionInfo = DefaultVersionInfo.valueOf( releaseDescriptor.getDefaultReleaseVersion() );
+                releaseVersionIsExplicit = true;
+            }
+            String releaseVersionRule = rules.getProperty( "rel." + project.getVersion() );
+            if ( releaseVersionRule != null )
+            {
+                releaseVersionInfo = DefaultVersionInfo.valueOf( releaseVersionRule );
                 releaseVersionIsExplicit = true;
             }
             if ( releaseDescriptor.getReleaseVersions() != null )
@@ -193,7 +348,7 @@ public class MapVersionsPhase
                 String releaseVersion = ( String ) releaseDescriptor.getReleaseVersions().get( projectId );
                 if ( releaseVersion != null )
                 {
-                    releaseVersionInfo = new DefaultVersionInfo( releaseVersion );
+                    releaseVersionInfo = DefaultVersionInfo.valueOf( releaseVersion );
                     releaseVersionIsExplicit = true;
                 }
             }
@@ -204,7 +359,13 @@ public class MapVersionsPhase
             // Check if the user specified a new snapshot version
             if ( releaseDescriptor.getDefaultDevelopmentVersion() != null )
             {
-                nextSnapshotVersionInfo = new DefaultVersionInfo( releaseDescriptor.getDefaultDevelopmentVersion() );
+                nextSnapshotVersionInfo = DefaultVersionInfo.valueOf( releaseDescriptor.getDefaultDevelopmentVersion() );
+                nextSnapshotVersionIsExplicit = true;
+            }
+            String developmentVersionRule = rules.getProperty( "dev." + project.getVersion() );
+            if ( developmentVersionRule != null )
+            {
+                nextSnapshotVersionInfo = DefaultVersionInfo.valueOf( developmentVersionRule );
                 nextSnapshotVersionIsExplicit = true;
             }
             if ( releaseDescriptor.getDevelopmentVersions() != null )
@@ -212,7 +373,7 @@ public class MapVersionsPhase
                 String nextDevVersion = ( String ) releaseDescriptor.getDevelopmentVersions().get( projectId );
                 if ( nextDevVersion != null )
                 {
-                    nextSnapshotVersionInfo = new DefaultVersionInfo( nextDevVersion );
+                    nextSnapshotVersionInfo = DefaultVersionInfo.valueOf( nextDevVersion );
                     nextSnapshotVersionIsExplicit = true;
                 }
             }
@@ -231,7 +392,7 @@ public class MapVersionsPhase
                 {
                     try
                     {
-                        releaseVersionInfo = new DefaultVersionInfo( "1.0" );
+                        releaseVersionInfo = DefaultVersionInfo.valueOf( "1.0" );
                     }
                     catch ( VersionParseException e1 )
                     {
@@ -252,88 +413,73 @@ public class MapVersionsPhase
             }
         }
 
-        try
+        if ( convertToSnapshot )
         {
-            if ( convertToSnapshot )
+            if ( releaseDescriptor.isBranchCreation() )
             {
-                if ( releaseDescriptor.isBranchCreation() )
+                if ( convertToBranch )
                 {
-                    if ( convertToBranch )
+                    // branch modification
+                    if ( releaseDescriptor.isUpdateBranchVersions()
+                        && ( ArtifactUtils.isSnapshot( project.getVersion() ) || releaseDescriptor.isUpdateVersionsToSnapshot() ) )
                     {
-                        // branch modification
-                        if ( releaseDescriptor.isUpdateBranchVersions()
-                            && ( ArtifactUtils.isSnapshot( project.getVersion() ) || releaseDescriptor.isUpdateVersionsToSnapshot() ) )
-                        {
-                            nextVersion = releaseVersionInfo.getSnapshotVersionString();
-                            if ( !releaseVersionIsExplicit && releaseDescriptor.isInteractive() )
-                            {
-                                nextVersion = prompter.prompt(
-                                    "What is the branch version for \"" + project.getName() + "\"? (" + projectId + ")",
-                                    nextVersion );
-                            }
-                        }
-                        else
+                        nextVersion = releaseVersionInfo.getSnapshotVersionString();
+                        if ( !releaseVersionIsExplicit && releaseDescriptor.isInteractive() )
                         {
-                            nextVersion = project.getVersion();
+                            question = "What is the branch version for";
                         }
-
                     }
                     else
                     {
-                        // working copy modification
-                        if ( ArtifactUtils.isSnapshot( project.getVersion() )
-                            && releaseDescriptor.isUpdateWorkingCopyVersions() )
-                        {
-                            nextVersion = nextSnapshotVersionInfo.getSnapshotVersionString();
-                            if ( releaseDescriptor.isInteractive() && !nextSnapshotVersionIsExplicit )
-                            {
-                                nextVersion =
-                                    prompter.prompt( "What is the new working copy version for \"" + project.getName()
-                                        + "\"? (" + projectId + ")", nextVersion );
-                            }
-                        }
-                        else
-                        {
-                            nextVersion = project.getVersion();
-                        }
+                        nextVersion = project.getVersion();
                     }
+
                 }
                 else
                 {
-                    nextVersion = nextSnapshotVersionInfo.getSnapshotVersionString();
-                    if ( releaseDescriptor.isInteractive()  && !nextSnapshotVersionIsExplicit )
+                    // working copy modification
+                    if ( ArtifactUtils.isSnapshot( project.getVersion() )
+                        && releaseDescriptor.isUpdateWorkingCopyVersions() )
+                    {
+                        nextVersion = nextSnapshotVersionInfo.getSnapshotVersionString();
+                        if ( releaseDescriptor.isInteractive() && !nextSnapshotVersionIsExplicit )
+                        {
+                            question = "What is the new working copy version for";
+                        }
+                    }
+                    else
                     {
-                        nextVersion =
-                            prompter.prompt( "What is the new development version for \"" + project.getName() + "\"? ("
-                                + projectId + ")", nextVersion );
+                        nextVersion = project.getVersion();
                     }
                 }
             }
             else
             {
-                if ( ArtifactUtils.isSnapshot( project.getVersion() ) )
+                nextVersion = nextSnapshotVersionInfo.getSnapshotVersionString();
+                if ( releaseDescriptor.isInteractive()  && !nextSnapshotVersionIsExplicit )
                 {
-                    nextVersion = releaseVersionInfo.getReleaseVersionString();
-
-                    if ( releaseDescriptor.isInteractive() && !releaseVersionIsExplicit )
-                    {
-                        nextVersion = prompter.prompt(
-                            "What is the release version for \"" + project.getName() + "\"? (" + projectId + ")",
-                            nextVersion );
-                    }
-                }
-                else
-                {
-                    nextVersion = project.getVersion();
+                    question = "What is the new development version for";
                 }
             }
         }
-        catch ( PrompterException e )
+        else
         {
-            throw new ReleaseExecutionException( "Error reading version from input handler: " + e.getMessage(), e );
+            if ( ArtifactUtils.isSnapshot( project.getVersion() ) )
+            {
+                nextVersion = releaseVersionInfo.getReleaseVersionString();
+
+                if ( releaseDescriptor.isInteractive() && !releaseVersionIsExplicit )
+                {
+                    question = "What is the release version for";
+                }
+            }
+            else
+            {
+                nextVersion = project.getVersion();
+            }
         }
 
-        return nextVersion;
+        return new VersionProposal( nextVersion, question );
     }
 
     public ReleaseResult simulate( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
@@ -349,4 +495,41 @@ public class MapVersionsPhase
 
         return result;
     }
+
+    /**
+     * The version proposed for a project.
+     */
+    private static final class VersionProposal
+    {
+        private final String version;
+
+        /**
+         * The start of the question asking the user for the version, or <code>null</code> if the user isn't asked.
+         */
+        private final String question;
+
+        VersionProposal( String version, String question )
+        {
+            this.version = version;
+            this.question = question;
+        }
+    }
+
+    /**
+     * The projects at the same version that the same version is proposed for.
+     */
+    private static final class VersionGroup
+    {
+        private final VersionProposal proposal;
+
+        private final String currentVersion;
+
+        private final List<MavenProject> projects = new ArrayList<MavenProject>();
+
+        VersionGroup( VersionProposal proposal, String currentVersion )
+        {
+            this.proposal = proposal;
+            this.currentVersion = currentVersion;
+        }
+    }
 }
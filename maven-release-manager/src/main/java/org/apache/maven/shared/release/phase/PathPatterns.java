@@ -0,0 +1,142 @@
+package org.apache.maven.shared.release.phase;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collection;
+import java.util.regex.Pattern;
+
+/**
+ * A set of glob patterns, compiled once into a single regular expression that a path is matched against in one go.
+ * <ul>
+ * <li><code>**</code> matches any number of directories, <code>*</code> matches any characters but <code>/</code> and
+ * <code>?</code> matches one character but <code>/</code>.</li>
+ * <li>A pattern without <code>/</code> matches the file name, whatever the directory: <code>release.properties</code>
+ * matches it in any module.</li>
+ * <li>A pattern with <code>/</code> matches the whole path, relative to the working directory.</li>
+ * </ul>
+ */
+final class PathPatterns
+{
+    private final Pattern pattern;
+
+    private PathPatterns( Pattern pattern )
+    {
+        this.pattern = pattern;
+    }
+
+    /**
+     * @param globs the glob patterns
+     * @return the patterns, which match nothing if there are none
+     */
+    static PathPatterns compile( Collection<String> globs )
+    {
+        StringBuffer regex = new StringBuffer();
+        for ( String glob : globs )
+        {
+            glob = glob.replace( '\\', '/' );
+            if ( glob.length() == 0 )
+            {
+                continue;
+            }
+
+            if ( regex.length() > 0 )
+            {
+                regex.append( '|' );
+            }
+            regex.append( "(?:" );
+            if ( glob.indexOf( '/' ) < 0 )
+            {
+                regex.append( "(?:.*/)?" );
+            }
+            else if ( glob.startsWith( "/" ) )
+            {
+                glob = glob.substring( 1 );
+            }
+            appendGlob( regex, glob );
+            regex.append( ')' );
+        }
+
+        return new PathPatterns( regex.length() > 0 ? Pattern.compile( regex.toString() ) : null );
+    }
+
+    private static void appendGlob( StringBuffer regex, String glob )
+    {
+        int literalStart = 0;
+        for ( int i = 0; i < glob.length(); i++ )
+        {
+            char c = glob.charAt( i );
+            if ( c != '*' && c != '?' )
+            {
+                continue;
+            }
+
+            if ( literalStart < i )
+            {
+                regex.append( Pattern.quote( glob.substring( literalStart, i ) ) );
+            }
+
+            if ( c == '?' )
+            {
+                regex.append( "[^/]" );
+            }
+            else if ( i + 1 < glob.length() && glob.charAt( i + 1 ) == '*' )
+            {
+                i++;
+                if ( i + 1 < glob.length() && glob.charAt( i + 1 ) == '/' )
+                {
+                    // "**/" also matches no directory at all
+                    i++;
+                    regex.append( "(?:.*/)?" );
+                }
+                else
+                {
+                    regex.append( ".*" );
+                }
+            }
+            else
+            {
+                regex.append( "[^/]*" );
+            }
+            literalStart = i + 1;
+        }
+
+        if ( literalStart < glob.length() )
+        {
+            regex.append( Pattern.quote( glob.substring( literalStart ) ) );
+        }
+    }
+
+    /**
+     * @return whether there are no patterns
+     */
+    boolean isEmpty()
+    {
+        return pattern == null;
+    }
+
+    /**
+     * @param path the path, with <code>/</code> as the separator
+     * @return whether any of the patterns matches the path
+     */
+    boolean matches( String path )
+    {
+        return pattern != null && pattern.matcher( path ).matches();
+    }
+}
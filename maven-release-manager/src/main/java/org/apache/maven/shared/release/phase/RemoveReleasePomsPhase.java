@@ -110,7 +110,7 @@ public class RemoveReleasePomsPhase
         else
         {
             ScmRepository scmRepository = getScmRepository( releaseDescriptor, releaseEnvironment );
-            ScmProvider scmProvider = getScmProvider( scmRepository );
+            ScmProvider scmProvider = result.getMetrics().meter( getScmProvider( scmRepository ) );
 
             ScmFileSet scmFileSet = new ScmFileSet( new File( releaseDescriptor.getWorkingDirectory() ), releasePoms );
 
@@ -0,0 +1,76 @@
+package org.apache.maven.shared.release.phase;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Set;
+
+/**
+ * A release phase that declares which shared resources it reads and writes, so that the release manager can run it
+ * at the same time as other phases it does not conflict with. Two phases conflict when one of them writes a resource
+ * that the other reads or writes. Phases that do not implement this interface are assumed to conflict with every
+ * other phase, and are always run on their own.
+ */
+public interface ResourceAwareReleasePhase
+    extends ReleasePhase
+{
+    /**
+     * The in-memory reactor projects.
+     */
+    String REACTOR_PROJECTS = "reactor-projects";
+
+    /**
+     * The POM files on disk.
+     */
+    String POM_FILES = "pom-files";
+
+    /**
+     * The working copy as seen by the SCM, excluding the POM files.
+     */
+    String WORKING_COPY = "working-copy";
+
+    /**
+     * The SCM source URL of the release descriptor.
+     */
+    String SCM_SOURCE_URL = "scm-source-url";
+
+    /**
+     * The resolved snapshot dependencies of the release descriptor.
+     */
+    String RESOLVED_SNAPSHOT_DEPENDENCIES = "resolved-snapshot-dependencies";
+
+    /**
+     * The console, used when prompting the user.
+     */
+    String PROMPTER = "prompter";
+
+    /**
+     * Get the resources this phase reads.
+     *
+     * @return the resource names, never <code>null</code>
+     */
+    Set<String> getReadResources();
+
+    /**
+     * Get the resources this phase writes.
+     *
+     * @return the resource names, never <code>null</code>
+     */
+    Set<String> getWriteResources();
+}
@@ -20,9 +20,6 @@ package org.apache.maven.shared.release.phase;
  */
 
 import org.apache.maven.project.MavenProject;
-import org.apache.maven.scm.ScmException;
-import org.apache.maven.scm.ScmFileSet;
-import org.apache.maven.scm.command.edit.EditScmResult;
 import org.apache.maven.scm.manager.NoSuchScmProviderException;
 import org.apache.maven.scm.provider.ScmProvider;
 import org.apache.maven.scm.repository.ScmRepository;
@@ -32,14 +29,16 @@ import org.apache.maven.shared.release.ReleaseFailureException;
 import org.apache.maven.shared.release.ReleaseResult;
 import org.apache.maven.shared.release.config.ReleaseDescriptor;
 import org.apache.maven.shared.release.env.ReleaseEnvironment;
-import org.apache.maven.shared.release.scm.ReleaseScmCommandException;
 import org.apache.maven.shared.release.scm.ReleaseScmRepositoryException;
 import org.apache.maven.shared.release.scm.ScmRepositoryConfigurator;
+import org.apache.maven.shared.release.transform.PomCache;
 import org.apache.maven.shared.release.util.ReleaseUtil;
 import org.codehaus.plexus.util.FileUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -56,77 +55,107 @@ public class RestoreBackupPomsPhase
      */
     private ScmRepositoryConfigurator scmRepositoryConfigurator;
 
+    /**
+     * The POMs of the release, parsed.
+     *
+     * @plexus.requirement
+     */
+    private PomCache pomCache;
+
     public ReleaseResult execute( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
                                   List<MavenProject> reactorProjects )
         throws ReleaseExecutionException, ReleaseFailureException
     {
         ReleaseResult result = new ReleaseResult();
 
-        for ( MavenProject project : reactorProjects )
-        {
-            restorePomBackup( releaseDescriptor, releaseEnvironment, project );
-        }
+        restorePomBackups( releaseDescriptor, releaseEnvironment, reactorProjects, result );
 
         result.setResultCode( ReleaseResult.SUCCESS );
 
         return result;
     }
 
-    public ReleaseResult simulate( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
-                                   List<MavenProject> reactorProjects )
-        throws ReleaseExecutionException, ReleaseFailureException
-    {
-        return execute( releaseDescriptor, releaseEnvironment, reactorProjects );
-    }
-
-    protected void restorePomBackup( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
-                                     MavenProject project )
+    /**
+     * Restore the POMs of the projects from their backups, enabling editing on all of them at once if the SCM needs
+     * it.
+     */
+    private void restorePomBackups( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
+                                    List<MavenProject> reactorProjects, ReleaseResult result )
         throws ReleaseExecutionException, ReleaseFailureException
     {
-        File pomBackup = getPomBackup( project );
-
-        if ( !pomBackup.exists() )
+        for ( MavenProject project : reactorProjects )
         {
-            throw new ReleaseExecutionException(
-                "Cannot restore from a missing backup POM: " + pomBackup.getAbsolutePath() );
+            File pomBackup = getPomBackup( project );
+
+            if ( !pomBackup.exists() )
+            {
+                throw new ReleaseExecutionException(
+                    "Cannot restore from a missing backup POM: " + pomBackup.getAbsolutePath() );
+            }
         }
 
+        ScmRepository scmRepository;
+        ScmProvider provider;
         try
         {
-            ScmRepository scmRepository;
-            ScmProvider provider;
-            try
-            {
-                scmRepository =
-                    scmRepositoryConfigurator.getConfiguredRepository( releaseDescriptor,
-                                                                       releaseEnvironment.getSettings() );
+            scmRepository =
+                scmRepositoryConfigurator.getConfiguredRepository( releaseDescriptor,
+                                                                   releaseEnvironment.getSettings() );
 
-                provider = scmRepositoryConfigurator.getRepositoryProvider( scmRepository );
-            }
-            catch ( ScmRepositoryException e )
-            {
-                throw new ReleaseScmRepositoryException( e.getMessage(), e.getValidationMessages() );
-            }
-            catch ( NoSuchScmProviderException e )
-            {
-                throw new ReleaseExecutionException( "Unable to configure SCM repository: " + e.getMessage(), e );
-            }
+            provider = scmRepositoryConfigurator.getRepositoryProvider( scmRepository );
+            provider = result.getMetrics().meter( provider );
+        }
+        catch ( ScmRepositoryException e )
+        {
+            throw new ReleaseScmRepositoryException( e.getMessage(), e.getValidationMessages() );
+        }
+        catch ( NoSuchScmProviderException e )
+        {
+            throw new ReleaseExecutionException( "Unable to configure SCM repository: " + e.getMessage(), e );
+        }
 
-            if ( releaseDescriptor.isScmUseEditMode() || provider.requiresEditMode() )
+        if ( releaseDescriptor.isScmUseEditMode() || provider.requiresEditMode() )
+        {
+            List<File> pomFiles = new ArrayList<File>( reactorProjects.size() );
+            for ( MavenProject project : reactorProjects )
             {
-                EditScmResult result = provider.edit( scmRepository, new ScmFileSet(
-                    new File( releaseDescriptor.getWorkingDirectory() ), project.getFile() ) );
-
-                if ( !result.isSuccess() )
-                {
-                    throw new ReleaseScmCommandException( "Unable to enable editing on the POM", result );
-                }
+                pomFiles.add( project.getFile() );
             }
+
+            editFiles( provider, scmRepository, new File( releaseDescriptor.getWorkingDirectory() ), pomFiles,
+                       result );
         }
-        catch ( ScmException e )
+
+        for ( MavenProject project : reactorProjects )
         {
-            throw new ReleaseExecutionException( "An error occurred enabling edit mode: " + e.getMessage(), e );
+            restorePomBackup( project );
         }
+    }
+
+    public ReleaseResult simulate( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
+                                   List<MavenProject> reactorProjects )
+        throws ReleaseExecutionException, ReleaseFailureException
+    {
+        return execute( releaseDescriptor, releaseEnvironment, reactorProjects );
+    }
+
+    /**
+     * @deprecated no longer called by {@link #execute(ReleaseDescriptor, ReleaseEnvironment, List)}, which enables
+     *             editing on all the POMs at once and then restores each of them with
+     *             {@link #restorePomBackup(MavenProject)}
+     */
+    protected void restorePomBackup( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
+                                     MavenProject project )
+        throws ReleaseExecutionException, ReleaseFailureException
+    {
+        restorePomBackups( releaseDescriptor, releaseEnvironment, Collections.singletonList( project ),
+                           new ReleaseResult() );
+    }
+
+    protected void restorePomBackup( MavenProject project )
+        throws ReleaseExecutionException
+    {
+        pomCache.invalidate( ReleaseUtil.getStandardPom( project ) );
 
         try
         {
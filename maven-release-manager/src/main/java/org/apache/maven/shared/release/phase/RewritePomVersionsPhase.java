@@ -27,8 +27,7 @@ import org.apache.maven.scm.repository.ScmRepository;
 import org.apache.maven.shared.release.ReleaseExecutionException;
 import org.apache.maven.shared.release.ReleaseResult;
 import org.apache.maven.shared.release.config.ReleaseDescriptor;
-import org.jdom.Element;
-import org.jdom.Namespace;
+import org.apache.maven.shared.release.transform.PomElement;
 
 /**
  * Rewrite POMs for future development
@@ -39,9 +38,9 @@ public class RewritePomVersionsPhase
     extends AbstractRewritePomsPhase
 {
 
-    protected void transformScm( MavenProject project, Element rootElement, Namespace namespace,
-                                 ReleaseDescriptor releaseDescriptor, String projectId, ScmRepository scmRepository,
-                                 ReleaseResult result, String commonBasedir )
+    protected void transformScm( MavenProject project, PomElement rootElement, ReleaseDescriptor releaseDescriptor,
+                                 String projectId, ScmRepository scmRepository, ReleaseResult result,
+                                 String commonBasedir )
         throws ReleaseExecutionException
     {
         // We are only updating versions no mods to scm needed
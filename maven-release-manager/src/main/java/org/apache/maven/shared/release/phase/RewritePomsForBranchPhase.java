@@ -31,9 +31,8 @@ import org.apache.maven.shared.release.ReleaseExecutionException;
 import org.apache.maven.shared.release.ReleaseResult;
 import org.apache.maven.shared.release.config.ReleaseDescriptor;
 import org.apache.maven.shared.release.scm.ScmTranslator;
+import org.apache.maven.shared.release.transform.PomElement;
 import org.apache.maven.shared.release.util.ReleaseUtil;
-import org.jdom.Element;
-import org.jdom.Namespace;
 
 /**
  * Rewrite POMs for branch.
@@ -49,22 +48,22 @@ public class RewritePomsForBranchPhase
      */
     private Map<String, ScmTranslator> scmTranslators;
 
-    protected void transformScm( MavenProject project, Element rootElement, Namespace namespace,
-                                 ReleaseDescriptor releaseDescriptor, String projectId, ScmRepository scmRepository,
-                                 ReleaseResult result, String commonBasedir ) 
+    protected void transformScm( MavenProject project, PomElement rootElement, ReleaseDescriptor releaseDescriptor,
+                                 String projectId, ScmRepository scmRepository, ReleaseResult result,
+                                 String commonBasedir ) 
     throws ReleaseExecutionException
     {
         // If SCM is null in original model, it is inherited, no mods needed
         if ( project.getScm() != null )
         {
-            Element scmRoot = rootElement.getChild( "scm", namespace );
+            PomElement scmRoot = rootElement.getChild( "scm" );
             if ( scmRoot != null )
             {
                 releaseDescriptor.mapOriginalScmInfo( projectId, project.getScm() );
 
                 try
                 {
-                    translateScm( project, releaseDescriptor, scmRoot, namespace, scmRepository, result, commonBasedir );
+                    translateScm( project, releaseDescriptor, scmRoot, scmRepository, result, commonBasedir );
                 }
                 catch ( IOException e )
                 {
@@ -84,12 +83,12 @@ public class RewritePomsForBranchPhase
                     if ( !releaseDescriptor.getOriginalScmInfo().containsKey( parentId ) )
                     {
                         // we need to add it, since it has changed from the inherited value
-                        scmRoot = new Element( "scm" );
+                        scmRoot = new PomElement( "scm" );
                         scmRoot.addContent( "\n  " );
 
                         try
                         {
-                            if ( translateScm( project, releaseDescriptor, scmRoot, namespace, scmRepository, result,
+                            if ( translateScm( project, releaseDescriptor, scmRoot, scmRepository, result,
                                                commonBasedir ) )
                             {
                                 rootElement.addContent( "\n  " ).addContent( scmRoot ).addContent( "\n" );
@@ -105,8 +104,8 @@ public class RewritePomsForBranchPhase
         }
     }
 
-    private boolean translateScm( MavenProject project, ReleaseDescriptor releaseDescriptor, Element scmRoot,
-                                  Namespace namespace, ScmRepository scmRepository, ReleaseResult relResult,
+    private boolean translateScm( MavenProject project, ReleaseDescriptor releaseDescriptor, PomElement scmRoot,
+                                  ScmRepository scmRepository, ReleaseResult relResult,
                                   String commonBasedir ) 
     throws IOException
     {
@@ -144,7 +143,7 @@ public class RewritePomsForBranchPhase
                     translator.translateBranchUrl( scm.getConnection(), branchName + subDirectoryBranch, branchBase );
                 if ( !value.equals( scm.getConnection() ) )
                 {
-                    rewriteElement( "connection", value, scmRoot, namespace );
+                    rewriteElement( "connection", value, scmRoot );
                     result = true;
                 }
             }
@@ -164,7 +163,7 @@ public class RewritePomsForBranchPhase
                                                    branchBase );
                 if ( !value.equals( scm.getDeveloperConnection() ) )
                 {
-                    rewriteElement( "developerConnection", value, scmRoot, namespace );
+                    rewriteElement( "developerConnection", value, scmRoot );
                     result = true;
                 }
             }
@@ -184,7 +183,7 @@ public class RewritePomsForBranchPhase
                                                               releaseDescriptor.getScmBranchBase() );
                 if ( !value.equals( scm.getUrl() ) )
                 {
-                    rewriteElement( "url", value, scmRoot, namespace );
+                    rewriteElement( "url", value, scmRoot );
                     result = true;
                 }
             }
@@ -194,7 +193,7 @@ public class RewritePomsForBranchPhase
                 String value = translator.resolveTag( branchName );
                 if ( value != null && !value.equals( scm.getTag() ) )
                 {
-                    rewriteElement( "tag", value, scmRoot, namespace );
+                    rewriteElement( "tag", value, scmRoot );
                     result = true;
                 }
             }
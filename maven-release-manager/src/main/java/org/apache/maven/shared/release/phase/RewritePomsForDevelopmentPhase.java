@@ -29,8 +29,7 @@ import org.apache.maven.shared.release.ReleaseExecutionException;
 import org.apache.maven.shared.release.ReleaseResult;
 import org.apache.maven.shared.release.config.ReleaseDescriptor;
 import org.apache.maven.shared.release.scm.ScmTranslator;
-import org.jdom.Element;
-import org.jdom.Namespace;
+import org.apache.maven.shared.release.transform.PomElement;
 
 /**
  * Rewrite POMs for future development
@@ -45,15 +44,15 @@ public class RewritePomsForDevelopmentPhase
      */
     private Map<String, ScmTranslator> scmTranslators;
 
-    protected void transformScm( MavenProject project, Element rootElement, Namespace namespace,
-                                 ReleaseDescriptor releaseDescriptor, String projectId, ScmRepository scmRepository,
-                                 ReleaseResult result, String commonBasedir )
+    protected void transformScm( MavenProject project, PomElement rootElement, ReleaseDescriptor releaseDescriptor,
+                                 String projectId, ScmRepository scmRepository, ReleaseResult result,
+                                 String commonBasedir )
         throws ReleaseExecutionException
     {
         // If SCM is null in original model, it is inherited, no mods needed
         if ( project.getScm() != null )
         {
-            Element scmRoot = rootElement.getChild( "scm", namespace );
+            PomElement scmRoot = rootElement.getChild( "scm" );
             if ( scmRoot != null )
             {
                 Map originalScmInfo = releaseDescriptor.getOriginalScmInfo();
@@ -71,15 +70,15 @@ public class RewritePomsForDevelopmentPhase
 
                     if ( scm != null )
                     {
-                        rewriteElement( "connection", scm.getConnection(), scmRoot, namespace );
-                        rewriteElement( "developerConnection", scm.getDeveloperConnection(), scmRoot, namespace );
-                        rewriteElement( "url", scm.getUrl(), scmRoot, namespace );
-                        rewriteElement( "tag", translator.resolveTag( scm.getTag() ), scmRoot, namespace );
+                        rewriteElement( "connection", scm.getConnection(), scmRoot );
+                        rewriteElement( "developerConnection", scm.getDeveloperConnection(), scmRoot );
+                        rewriteElement( "url", scm.getUrl(), scmRoot );
+                        rewriteElement( "tag", translator.resolveTag( scm.getTag() ), scmRoot );
                     }
                     else
                     {
                         // cleanly remove the SCM element
-                        rewriteElement( "scm", null, rootElement, namespace );
+                        rewriteElement( "scm", null, rootElement );
                     }
                 }
                 else
@@ -108,7 +108,7 @@ public class ScmBranchPhase
                     );
 
                     // Do the tag
-                    result = doBranch(projectReleaseDescriptor, releaseDescriptor, releaseEnvironment, branchName, scmBranchParameters);
+                    result = doBranch(projectReleaseDescriptor, releaseDescriptor, releaseEnvironment, branchName, scmBranchParameters, relResult);
                 }
             } else {
                 logInfo( relResult, "Branching release with the label " + releaseDescriptor.getScmReleaseLabel() + "..." );
@@ -122,7 +122,7 @@ public class ScmBranchPhase
                     ReleaseUtil.createBasedirAlignedReleaseDescriptor( releaseDescriptor, reactorProjects );
 
                 // Do the tag
-                result = doBranch(basedirAlignedReleaseDescriptor, releaseDescriptor, releaseEnvironment, branchName, scmBranchParameters);
+                result = doBranch(basedirAlignedReleaseDescriptor, releaseDescriptor, releaseEnvironment, branchName, scmBranchParameters, relResult);
             }
         }
         catch ( ScmException e )
@@ -157,7 +157,7 @@ public class ScmBranchPhase
         return scmBranchParameters;
     }
 
-    private BranchScmResult doBranch(ReleaseDescriptor basedirAlignedReleaseDescriptor, ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment, String branchName, ScmBranchParameters scmBranchParameters)
+    private BranchScmResult doBranch(ReleaseDescriptor basedirAlignedReleaseDescriptor, ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment, String branchName, ScmBranchParameters scmBranchParameters, ReleaseResult relResult)
             throws ReleaseScmRepositoryException, ReleaseExecutionException, ScmException
     {
         ScmRepository repository;
@@ -168,7 +168,7 @@ public class ScmBranchPhase
 
             repository.getProviderRepository().setPushChanges( releaseDescriptor.isPushChanges() );
 
-            provider = scmRepositoryConfigurator.getRepositoryProvider( repository );
+            provider = relResult.getMetrics().meter( scmRepositoryConfigurator.getRepositoryProvider( repository ) );
         }
         catch ( ScmRepositoryException e )
         {
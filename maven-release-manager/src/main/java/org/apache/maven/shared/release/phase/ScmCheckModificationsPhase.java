@@ -37,12 +37,16 @@ import org.apache.maven.shared.release.env.ReleaseEnvironment;
 import org.apache.maven.shared.release.scm.ReleaseScmCommandException;
 import org.apache.maven.shared.release.scm.ReleaseScmRepositoryException;
 import org.apache.maven.shared.release.scm.ScmRepositoryConfigurator;
+import org.codehaus.plexus.util.FileUtils;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -53,7 +57,14 @@ import java.util.Set;
  */
 public class ScmCheckModificationsPhase
     extends AbstractReleasePhase
+    implements ResourceAwareReleasePhase
 {
+    private static final Set<String> READ_RESOURCES =
+        Collections.unmodifiableSet( new HashSet<String>( Arrays.asList( new String[] { SCM_SOURCE_URL,
+            WORKING_COPY, POM_FILES } ) ) );
+
+    private static final Set<String> WRITE_RESOURCES = Collections.emptySet();
+
     /**
      * Tool that gets a configured SCM repository from release configuration.
      *
@@ -67,7 +78,15 @@ public class ScmCheckModificationsPhase
      * @todo proper construction of filenames, especially release properties
      */
     private Set<String> excludedFiles = new HashSet<String>( Arrays.asList( new String[] { "pom.xml.backup",
-        "pom.xml.tag", "pom.xml.next", "pom.xml.branch", "release.properties", "pom.xml.releaseBackup" } ) );
+        "pom.xml.tag", "pom.xml.next", "pom.xml.branch", "release.properties", "release.properties.journal",
+        "pom.xml.releaseBackup" } ) );
+
+    /**
+     * The SCM providers that check the status of the whole repository whatever directory they are given. The status
+     * of the module directories is checked with a single call over the working directory for them.
+     */
+    private Set<String> unscopedStatusProviders =
+        new HashSet<String>( Arrays.asList( new String[] { "git", "hg" } ) );
 
     public ReleaseResult execute( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
                                   List<MavenProject> reactorProjects )
@@ -75,6 +94,8 @@ public class ScmCheckModificationsPhase
     {
         ReleaseResult relResult = new ReleaseResult();
 
+        // the phase is shared, so the excludes of one release must not stay for the next
+        Set<String> excludedFiles = new HashSet<String>( this.excludedFiles );
         List<String> additionalExcludes = releaseDescriptor.getCheckModificationExcludes();
 
         if ( additionalExcludes != null )
@@ -85,8 +106,30 @@ public class ScmCheckModificationsPhase
             }
         }
 
+        // compiled once, and matched against each changed file in one go
+        PathPatterns excludes = PathPatterns.compile( excludedFiles );
+        List<String> includedFiles = releaseDescriptor.getCheckModificationIncludes();
+        PathPatterns includes =
+            PathPatterns.compile( includedFiles != null ? includedFiles : Collections.<String>emptyList() );
+
+        File workingDirectory = new File( releaseDescriptor.getWorkingDirectory() );
+        Map<String, Boolean> moduleDirectories = null;
+        if ( releaseDescriptor.isCheckModificationsInModules() && reactorProjects != null )
+        {
+            moduleDirectories = getModuleDirectories( reactorProjects, workingDirectory );
+        }
+
         logInfo( relResult, "Verifying that there are no local modifications..." );
         logInfo( relResult, "  ignoring changes on: " + StringUtils.join( excludedFiles, ", " ) );
+        if ( !includes.isEmpty() )
+        {
+            logInfo( relResult, "  only checking changes on: " + StringUtils.join( includedFiles, ", " ) );
+        }
+        if ( moduleDirectories != null )
+        {
+            logInfo( relResult, "  only checking the directories of the " + reactorProjects.size()
+                + " modules being released" );
+        }
 
         ScmRepository repository;
         ScmProvider provider;
@@ -96,6 +139,7 @@ public class ScmCheckModificationsPhase
                 scmRepositoryConfigurator.getConfiguredRepository( releaseDescriptor, releaseEnvironment.getSettings() );
 
             provider = scmRepositoryConfigurator.getRepositoryProvider( repository );
+            provider = relResult.getMetrics().meter( provider );
         }
         catch ( ScmRepositoryException e )
         {
@@ -107,36 +151,47 @@ public class ScmCheckModificationsPhase
             throw new ReleaseExecutionException( "Unable to configure SCM repository: " + e.getMessage(), e );
         }
 
-        StatusScmResult result;
-        try
-        {
-            result =
-                provider.status( repository, new ScmFileSet( new File( releaseDescriptor.getWorkingDirectory() ) ) );
-        }
-        catch ( ScmException e )
+        // the status of a provider that scans the whole repository anyway is checked once, over the working copy
+        List<String> directories;
+        if ( moduleDirectories == null || unscopedStatusProviders.contains( repository.getProvider() ) )
         {
-            throw new ReleaseExecutionException( "An error occurred during the status check process: " + e.getMessage(),
-                                                 e );
+            directories = Collections.singletonList( "" );
         }
-
-        if ( !result.isSuccess() )
+        else
         {
-            throw new ReleaseScmCommandException( "Unable to check for local modifications", result );
+            directories = getStatusDirectories( moduleDirectories );
         }
 
-        List<ScmFile> changedFiles = result.getChangedFiles();
-
-        // TODO: would be nice for SCM status command to do this for me.
-        for ( Iterator<ScmFile> i = changedFiles.iterator(); i.hasNext(); )
+        List<ScmFile> changedFiles = new ArrayList<ScmFile>();
+        for ( String directory : directories )
         {
-            ScmFile f = i.next();
+            StatusScmResult result;
+            try
+            {
+                result = provider.status( repository, new ScmFileSet( new File( workingDirectory, directory ) ) );
+            }
+            catch ( ScmException e )
+            {
+                throw new ReleaseExecutionException( "An error occurred during the status check process: "
+                    + e.getMessage(), e );
+            }
 
-            String fileName = f.getPath().replace( '\\', '/' );
-            fileName = fileName.substring( fileName.lastIndexOf( '/' ) + 1, fileName.length() );
+            if ( !result.isSuccess() )
+            {
+                throw new ReleaseScmCommandException( "Unable to check for local modifications", result );
+            }
 
-            if ( excludedFiles.contains( fileName ) )
+            // TODO: would be nice for SCM status command to do this for me.
+            for ( ScmFile f : result.getChangedFiles() )
             {
-                i.remove();
+                String path = getRelativePath( workingDirectory, directory, f.getPath() );
+
+                // the status of a directory may still include files of the modules left out of the release
+                if ( !excludes.matches( path ) && ( includes.isEmpty() || includes.matches( path ) )
+                    && ( moduleDirectories == null || isInModules( path, moduleDirectories ) ) )
+                {
+                    changedFiles.add( f );
+                }
             }
         }
 
@@ -159,6 +214,145 @@ public class ScmCheckModificationsPhase
         return relResult;
     }
 
+    /**
+     * Work out the directories of the projects known to the reactor, relative to the working directory and ending
+     * with a slash, mapped to whether the project is being released. The modules of the projects being released are
+     * known even when they are left out of the reactor, so that their files are not taken for those of their parent.
+     */
+    private static Map<String, Boolean> getModuleDirectories( List<MavenProject> reactorProjects,
+                                                              File workingDirectory )
+    {
+        Map<String, Boolean> directories = new HashMap<String, Boolean>();
+        for ( MavenProject project : reactorProjects )
+        {
+            File basedir = project.getBasedir();
+            if ( basedir == null )
+            {
+                continue;
+            }
+
+            for ( Object module : project.getModules() )
+            {
+                File moduleDirectory = new File( basedir, (String) module );
+                if ( moduleDirectory.getName().endsWith( ".xml" ) )
+                {
+                    moduleDirectory = moduleDirectory.getParentFile();
+                }
+
+                String path = getRelativeDirectory( workingDirectory, moduleDirectory );
+                if ( path != null && !directories.containsKey( path ) )
+                {
+                    directories.put( path, Boolean.FALSE );
+                }
+            }
+
+            String path = getRelativeDirectory( workingDirectory, basedir );
+            if ( path != null )
+            {
+                directories.put( path, Boolean.TRUE );
+            }
+        }
+        return directories;
+    }
+
+    /**
+     * Work out the directories to check the status of: those of the projects being released, leaving out those within
+     * another of them.
+     */
+    private static List<String> getStatusDirectories( Map<String, Boolean> moduleDirectories )
+    {
+        List<String> released = new ArrayList<String>();
+        for ( Map.Entry<String, Boolean> entry : moduleDirectories.entrySet() )
+        {
+            if ( entry.getValue().booleanValue() )
+            {
+                released.add( entry.getKey() );
+            }
+        }
+
+        // a directory sorts after the directories it is within
+        Collections.sort( released );
+
+        List<String> directories = new ArrayList<String>();
+        for ( String directory : released )
+        {
+            if ( directories.isEmpty() || !directory.startsWith( directories.get( directories.size() - 1 ) ) )
+            {
+                directories.add( directory );
+            }
+        }
+        return directories.isEmpty() ? Collections.singletonList( "" ) : directories;
+    }
+
+    /**
+     * See whether a changed file belongs to a project being released, that is whether the innermost of the project
+     * directories it is within is that of a project being released.
+     */
+    private static boolean isInModules( String path, Map<String, Boolean> moduleDirectories )
+    {
+        String directory = path;
+        int index;
+        while ( ( index = directory.lastIndexOf( '/', directory.length() - 2 ) ) >= 0 )
+        {
+            directory = directory.substring( 0, index + 1 );
+
+            Boolean released = moduleDirectories.get( directory );
+            if ( released != null )
+            {
+                return released.booleanValue();
+            }
+        }
+        return Boolean.TRUE.equals( moduleDirectories.get( "" ) );
+    }
+
+    /**
+     * @return the path of a directory relative to the working directory and ending with a slash, the empty string
+     *         for the working directory itself, or <code>null</code> if it is outside the working directory
+     */
+    private static String getRelativeDirectory( File workingDirectory, File directory )
+    {
+        String base = getDirectoryPath( workingDirectory );
+        String path = getDirectoryPath( directory );
+        return path.startsWith( base ) ? path.substring( base.length() ) : null;
+    }
+
+    /**
+     * Work out the path of a changed file relative to the working directory. The path is given by the SCM relative to
+     * the directory the status was checked in, itself given relative to the working directory. A file outside the
+     * working directory keeps the path given by the SCM.
+     */
+    private static String getRelativePath( File workingDirectory, String directory, String path )
+    {
+        path = path.replace( '\\', '/' );
+        if ( !new File( path ).isAbsolute() )
+        {
+            return directory + path;
+        }
+
+        String base = getDirectoryPath( workingDirectory );
+        String absolutePath = getAbsolutePath( new File( path ) );
+        return absolutePath.startsWith( base ) ? absolutePath.substring( base.length() ) : path;
+    }
+
+    /**
+     * @return the absolute path of a directory with forward slashes, ending with a slash
+     */
+    private static String getDirectoryPath( File directory )
+    {
+        String path = getAbsolutePath( directory );
+        return path.endsWith( "/" ) ? path : path + "/";
+    }
+
+    /**
+     * @return the absolute path of a file with forward slashes, without <code>.</code> and <code>..</code>
+     */
+    private static String getAbsolutePath( File file )
+    {
+        String path = file.getAbsolutePath().replace( '\\', '/' );
+        String normalized = FileUtils.normalize( path );
+        return normalized != null ? normalized : path;
+    }
+
     public ReleaseResult simulate( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
                                    List<MavenProject> reactorProjects )
         throws ReleaseExecutionException, ReleaseFailureException
@@ -166,4 +360,14 @@ public class ScmCheckModificationsPhase
         // It makes no modifications, so simulate is the same as execute
         return execute( releaseDescriptor, releaseEnvironment, reactorProjects );
     }
+
+    public Set<String> getReadResources()
+    {
+        return READ_RESOURCES;
+    }
+
+    public Set<String> getWriteResources()
+    {
+        return WRITE_RESOURCES;
+    }
 }
@@ -106,7 +106,7 @@ public class ScmCommitDevelopmentPhase
             }
             if ( simulating )
             {
-                Collection<File> pomFiles = createPomFiles( releaseDescriptor, reactorProjects );
+                Collection<File> pomFiles = createModifiedPomFiles( releaseDescriptor, reactorProjects );
                 logInfo( result, "Full run would be commit " + pomFiles.size() + " files with message:");
                 for (String message : messages)
                 {
@@ -115,7 +115,7 @@ public class ScmCommitDevelopmentPhase
             }
             else
             {
-                performCheckins( releaseDescriptor, releaseEnvironment, reactorProjects, messages );
+                performCheckins( releaseDescriptor, releaseEnvironment, reactorProjects, messages, result );
             }
         }
     }
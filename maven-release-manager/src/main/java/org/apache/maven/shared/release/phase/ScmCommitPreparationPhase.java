@@ -88,7 +88,7 @@ public class ScmCommitPreparationPhase
             }
             else
             {
-                performCheckins( releaseDescriptor, releaseEnvironment, reactorProjects, messages );
+                performCheckins( releaseDescriptor, releaseEnvironment, reactorProjects, messages, result );
             }
         }
     }
@@ -108,7 +108,7 @@ public class ScmTagPhase
                     );
 
                     // Do the tag
-                    result = doTag(projectReleaseDescriptor, releaseDescriptor, releaseEnvironment, tagName, scmTagParameters);
+                    result = doTag(projectReleaseDescriptor, releaseDescriptor, releaseEnvironment, tagName, scmTagParameters, relResult);
                 }
             } else {
                 logInfo( relResult, "Tagging release with the label " + releaseDescriptor.getScmReleaseLabel() + "..." );
@@ -122,7 +122,7 @@ public class ScmTagPhase
                     ReleaseUtil.createBasedirAlignedReleaseDescriptor( releaseDescriptor, reactorProjects );
 
                 // Do the tag
-                result = doTag(basedirAlignedReleaseDescriptor, releaseDescriptor, releaseEnvironment, tagName, scmTagParameters);
+                result = doTag(basedirAlignedReleaseDescriptor, releaseDescriptor, releaseEnvironment, tagName, scmTagParameters, relResult);
             }
         }
         catch ( ScmException e )
@@ -157,7 +157,7 @@ public class ScmTagPhase
         return scmTagParameters;
     }
 
-    private TagScmResult doTag(ReleaseDescriptor basedirAlignedReleaseDescriptor, ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment, String tagName, ScmTagParameters scmTagParameters)
+    private TagScmResult doTag(ReleaseDescriptor basedirAlignedReleaseDescriptor, ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment, String tagName, ScmTagParameters scmTagParameters, ReleaseResult relResult)
             throws ReleaseScmRepositoryException, ReleaseExecutionException, ScmException
     {
         ScmRepository repository;
@@ -168,7 +168,7 @@ public class ScmTagPhase
 
             repository.getProviderRepository().setPushChanges( releaseDescriptor.isPushChanges() );
 
-            provider = scmRepositoryConfigurator.getRepositoryProvider( repository );
+            provider = relResult.getMetrics().meter( scmRepositoryConfigurator.getRepositoryProvider( repository ) );
         }
         catch ( ScmRepositoryException e )
         {
@@ -0,0 +1,204 @@
+package org.apache.maven.shared.release.phase;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * The modules found free of snapshots by an earlier attempt to prepare the release, so that they don't need checking
+ * again. A module is recorded with a digest of everything its check depends on: the artifacts it uses and the versions
+ * of the projects being released. When any of that changes, the digest no longer matches and the module is checked
+ * again.
+ */
+final class SnapshotCheckCache
+{
+    private final File file;
+
+    private final Properties previous;
+
+    private final Properties current = new Properties();
+
+    private SnapshotCheckCache( File file, Properties previous )
+    {
+        this.file = file;
+        this.previous = previous;
+    }
+
+    /**
+     * Read the modules recorded by an earlier attempt.
+     *
+     * @param file the file the modules are recorded in
+     * @return the cache, empty if the file doesn't exist
+     * @throws IOException if the file can't be read
+     */
+    static SnapshotCheckCache read( File file )
+        throws IOException
+    {
+        Properties properties = new Properties();
+
+        InputStream inStream = null;
+        try
+        {
+            inStream = new FileInputStream( file );
+
+            properties.load( inStream );
+        }
+        catch ( FileNotFoundException e )
+        {
+            // nothing recorded yet
+        }
+        finally
+        {
+            IOUtil.close( inStream );
+        }
+
+        return new SnapshotCheckCache( file, properties );
+    }
+
+    File getFile()
+    {
+        return file;
+    }
+
+    /**
+     * @param module the versionless key of the module
+     * @param digest the digest of what the check of the module depends on
+     * @return whether an earlier attempt found the module free of snapshots with the same digest
+     */
+    boolean isClean( String module, String digest )
+    {
+        return digest.equals( previous.getProperty( module ) );
+    }
+
+    /**
+     * Record that a module is free of snapshots. Only the modules recorded by this attempt are written.
+     *
+     * @param module the versionless key of the module
+     * @param digest the digest of what the check of the module depends on
+     */
+    void setClean( String module, String digest )
+    {
+        current.setProperty( module, digest );
+    }
+
+    /**
+     * Write the modules recorded by this attempt.
+     *
+     * @throws IOException if the file can't be written
+     */
+    void write()
+        throws IOException
+    {
+        file.getParentFile().mkdirs();
+
+        OutputStream outStream = null;
+        try
+        {
+            outStream = new FileOutputStream( file );
+
+            current.store( outStream, "modules found free of snapshots" );
+        }
+        finally
+        {
+            IOUtil.close( outStream );
+        }
+    }
+
+    /**
+     * Work out the digest of the versions of the projects being released, to be included in the digest of each
+     * module.
+     *
+     * @param originalVersions the versions before the release, by versionless key
+     * @return the digest
+     */
+    static String digestVersions( Map originalVersions )
+    {
+        List<String> entries = new ArrayList<String>( originalVersions.size() );
+        for ( Iterator i = new TreeMap( originalVersions ).entrySet().iterator(); i.hasNext(); )
+        {
+            Map.Entry entry = (Map.Entry) i.next();
+            entries.add( entry.getKey() + "=" + entry.getValue() );
+        }
+        return digest( entries );
+    }
+
+    /**
+     * Work out the digest of a list of strings, regardless of their order.
+     *
+     * @param values the strings
+     * @return the digest, as hexadecimal digits
+     */
+    static String digest( Collection<String> values )
+    {
+        List<String> sorted = new ArrayList<String>( values );
+        Collections.sort( sorted );
+
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( "SHA-1 is not available: " + e.getMessage() );
+        }
+
+        try
+        {
+            for ( String value : sorted )
+            {
+                digest.update( value.getBytes( "UTF-8" ) );
+                digest.update( (byte) '\n' );
+            }
+        }
+        catch ( UnsupportedEncodingException e )
+        {
+            throw new IllegalStateException( "UTF-8 is not available: " + e.getMessage() );
+        }
+
+        StringBuffer hex = new StringBuffer();
+        byte[] bytes = digest.digest();
+        for ( int i = 0; i < bytes.length; i++ )
+        {
+            hex.append( Character.forDigit( ( bytes[i] >> 4 ) & 0xf, 16 ) );
+            hex.append( Character.forDigit( bytes[i] & 0xf, 16 ) );
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,182 @@
+package org.apache.maven.shared.release.phase;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The versions a rewrite phase works with, indexed by versionless artifact key. It is built once for all POMs of a
+ * phase, so that the versions of a dependency, plugin or extension are found with a single lookup, and everything
+ * about them that doesn't depend on the element being rewritten is worked out in advance.
+ */
+final class VersionRewriteIndex
+{
+    private final Map<String, String> mappedVersions;
+
+    private final Map<String, String> originalVersions;
+
+    private final Map resolvedSnapshotDependencies;
+
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+    VersionRewriteIndex( Map<String, String> mappedVersions, Map<String, String> originalVersions,
+                         Map resolvedSnapshotDependencies )
+    {
+        this.mappedVersions = mappedVersions;
+        this.originalVersions = originalVersions;
+        this.resolvedSnapshotDependencies = resolvedSnapshotDependencies;
+    }
+
+    Map<String, String> getMappedVersions()
+    {
+        return mappedVersions;
+    }
+
+    Map<String, String> getOriginalVersions()
+    {
+        return originalVersions;
+    }
+
+    Map getResolvedSnapshotDependencies()
+    {
+        return resolvedSnapshotDependencies;
+    }
+
+    /**
+     * Record the versions of an artifact. Artifacts without a mapped version or a resolved snapshot version are
+     * not related to the release and don't need to be recorded.
+     *
+     * @param key                     the versionless key of the artifact
+     * @param mappedVersion           the version the phase maps the artifact to, or <code>null</code>
+     * @param originalVersion         the version of the artifact before the release, or <code>null</code>
+     * @param resolvedSnapshotVersion the version a snapshot dependency was resolved to, or <code>null</code>
+     */
+    void put( String key, String mappedVersion, String originalVersion, String resolvedSnapshotVersion )
+    {
+        entries.put( key, new Entry( mappedVersion, originalVersion, resolvedSnapshotVersion ) );
+    }
+
+    /**
+     * @param key the versionless key of an artifact
+     * @return the versions of the artifact, or <code>null</code> if it is not related to the release
+     */
+    Entry get( String key )
+    {
+        return entries.get( key );
+    }
+
+    /**
+     * Whether a version is a single expression, as matched by <code>\$\{.+\}</code>.
+     *
+     * @param version the version
+     * @return <code>true</code> if the version is an expression
+     */
+    static boolean isExpression( String version )
+    {
+        return isExpression( version, "" );
+    }
+
+    /**
+     * Whether a version is a single expression whose name starts with a prefix, as matched by
+     * <code>\$\{prefix.+\}</code>.
+     */
+    private static boolean isExpression( String version, String prefix )
+    {
+        int length = version.length();
+        int bodyStart = 2 + prefix.length();
+        if ( length < bodyStart + 2 || !version.startsWith( "${" ) || !version.startsWith( prefix, 2 )
+            || version.charAt( length - 1 ) != '}' )
+        {
+            return false;
+        }
+        // '.' doesn't match line terminators
+        for ( int i = bodyStart; i < length - 1; i++ )
+        {
+            switch ( version.charAt( i ) )
+            {
+                case '\n':
+                case '\r':
+                case '\u0085':
+                case '\u2028':
+                case '\u2029':
+                    return false;
+                default:
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The versions of an artifact.
+     */
+    static final class Entry
+    {
+        private final String mappedVersion;
+
+        private final String originalVersion;
+
+        private final String resolvedSnapshotVersion;
+
+        private final boolean mappedToSnapshot;
+
+        private final boolean mappedToProjectExpression;
+
+        Entry( String mappedVersion, String originalVersion, String resolvedSnapshotVersion )
+        {
+            this.mappedVersion = mappedVersion;
+            this.originalVersion = originalVersion;
+            this.resolvedSnapshotVersion = resolvedSnapshotVersion;
+            this.mappedToSnapshot = mappedVersion != null && mappedVersion.endsWith( "SNAPSHOT" );
+            this.mappedToProjectExpression =
+                mappedVersion != null
+                    && ( isExpression( mappedVersion, "project" ) || isExpression( mappedVersion, "pom" )
+                    || "${version}".equals( mappedVersion ) );
+        }
+
+        String getMappedVersion()
+        {
+            return mappedVersion;
+        }
+
+        String getOriginalVersion()
+        {
+            return originalVersion;
+        }
+
+        String getResolvedSnapshotVersion()
+        {
+            return resolvedSnapshotVersion;
+        }
+
+        boolean isMappedToSnapshot()
+        {
+            return mappedToSnapshot;
+        }
+
+        /**
+         * @return whether the mapped version is an expression referring to the project, which can't be rewritten
+         */
+        boolean isMappedToProjectExpression()
+        {
+            return mappedToProjectExpression;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.apache.maven.shared.release.scm;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * An SCM repository configurator that reuses the repositories it has configured. The release manager clears the
+ * cache at the start of every release goal, so that repositories are never shared between two releases.
+ */
+public interface CachingScmRepositoryConfigurator
+    extends ScmRepositoryConfigurator
+{
+    /**
+     * Forget the configured repositories and reset the counters.
+     */
+    void clearCache();
+
+    /**
+     * @return the number of repositories served from the cache since it was last cleared
+     */
+    int getCacheHits();
+
+    /**
+     * @return the number of repositories configured since the cache was last cleared
+     */
+    int getCacheMisses();
+}
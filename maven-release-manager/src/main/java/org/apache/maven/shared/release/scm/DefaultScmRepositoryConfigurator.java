@@ -19,6 +19,11 @@ package org.apache.maven.shared.release.scm;
  * under the License.
  */
 
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.maven.scm.manager.NoSuchScmProviderException;
 import org.apache.maven.scm.manager.ScmManager;
 import org.apache.maven.scm.provider.ScmProvider;
@@ -36,14 +41,15 @@ import org.sonatype.plexus.components.sec.dispatcher.SecDispatcher;
 import org.sonatype.plexus.components.sec.dispatcher.SecDispatcherException;
 
 /**
- * Tool that gets a configured SCM repository from release configuration.
+ * Tool that gets a configured SCM repository from release configuration. Configured repositories are cached by SCM
+ * URL, credentials and settings, as every phase asks for the same repository, often once for each project.
  *
  * @author <a href="mailto:brett@apache.org">Brett Porter</a>
  * @plexus.component role="org.apache.maven.shared.release.scm.ScmRepositoryConfigurator"
  */
 public class DefaultScmRepositoryConfigurator
     extends AbstractLogEnabled
-    implements ScmRepositoryConfigurator
+    implements CachingScmRepositoryConfigurator
 {
     /**
      * The SCM manager.
@@ -60,6 +66,13 @@ public class DefaultScmRepositoryConfigurator
      */
     private SecDispatcher secDispatcher;
 
+    private final ConcurrentMap<RepositoryKey, ScmRepository> repositories =
+        new ConcurrentHashMap<RepositoryKey, ScmRepository>();
+
+    private final AtomicInteger cacheHits = new AtomicInteger();
+
+    private final AtomicInteger cacheMisses = new AtomicInteger();
+
     public ScmRepository getConfiguredRepository( ReleaseDescriptor releaseDescriptor, Settings settings )
         throws ScmRepositoryException, NoSuchScmProviderException
     {
@@ -69,6 +82,26 @@ public class DefaultScmRepositoryConfigurator
 
     public ScmRepository getConfiguredRepository( String url, ReleaseDescriptor releaseDescriptor, Settings settings )
         throws ScmRepositoryException, NoSuchScmProviderException
+    {
+        RepositoryKey key = new RepositoryKey( url, releaseDescriptor, settings );
+
+        ScmRepository repository = repositories.get( key );
+        if ( repository != null )
+        {
+            cacheHits.incrementAndGet();
+            return repository;
+        }
+
+        cacheMisses.incrementAndGet();
+
+        repository = configureRepository( url, releaseDescriptor, settings );
+
+        ScmRepository existing = repositories.putIfAbsent( key, repository );
+        return existing != null ? existing : repository;
+    }
+
+    private ScmRepository configureRepository( String url, ReleaseDescriptor releaseDescriptor, Settings settings )
+        throws ScmRepositoryException, NoSuchScmProviderException
     {
         String username = releaseDescriptor.getScmUsername();
         String password = releaseDescriptor.getScmPassword();
@@ -200,5 +233,63 @@ public class DefaultScmRepositoryConfigurator
     public void setScmManager( ScmManager scmManager )
     {
         this.scmManager = scmManager;
+
+        clearCache();
+    }
+
+    public void clearCache()
+    {
+        repositories.clear();
+        cacheHits.set( 0 );
+        cacheMisses.set( 0 );
+    }
+
+    public int getCacheHits()
+    {
+        return cacheHits.get();
+    }
+
+    public int getCacheMisses()
+    {
+        return cacheMisses.get();
+    }
+
+    /**
+     * Everything that goes into configuring a repository. The settings are compared by identity, as they don't
+     * implement <code>equals</code> and don't change during a release.
+     */
+    private static final class RepositoryKey
+    {
+        private final String[] values;
+
+        private final Settings settings;
+
+        RepositoryKey( String url, ReleaseDescriptor releaseDescriptor, Settings settings )
+        {
+            this.values = new String[] { url, releaseDescriptor.getScmUsername(), releaseDescriptor.getScmPassword(),
+                releaseDescriptor.getScmPrivateKey(), releaseDescriptor.getScmPrivateKeyPassPhrase(),
+                releaseDescriptor.getScmTagBase(), releaseDescriptor.getScmBranchBase() };
+            this.settings = settings;
+        }
+
+        public boolean equals( Object obj )
+        {
+            if ( this == obj )
+            {
+                return true;
+            }
+            if ( !( obj instanceof RepositoryKey ) )
+            {
+                return false;
+            }
+
+            RepositoryKey that = (RepositoryKey) obj;
+            return settings == that.settings && Arrays.equals( values, that.values );
+        }
+
+        public int hashCode()
+        {
+            return 31 * Arrays.hashCode( values ) + System.identityHashCode( settings );
+        }
     }
 }
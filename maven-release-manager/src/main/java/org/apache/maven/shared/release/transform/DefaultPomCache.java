@@ -0,0 +1,231 @@
+package org.apache.maven.shared.release.transform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.maven.shared.release.util.XmlFileReader;
+
+/**
+ * Cache of parsed POMs, keyed by the path of the POM file. A cached POM is used as long as the size and modification
+ * time of its file are unchanged. As file systems record modification times with a coarse granularity, a file that
+ * was modified shortly before it was read could be modified again without a visible change, so for such a file the
+ * hash of its content is compared as well. A POM put in the cache after it was written is compared by its content
+ * instead, as the bytes written were not seen. The least recently used POMs are evicted when the cache is full.
+ *
+ * @plexus.component role="org.apache.maven.shared.release.transform.PomCache"
+ */
+public class DefaultPomCache
+    implements PomCache
+{
+    /**
+     * The time within which two modifications of a file may have the same modification time.
+     */
+    private static final long MODIFICATION_TIME_GRANULARITY = 2000;
+
+    /**
+     * The maximum number of POMs to keep parsed.
+     */
+    private int maxEntries = 1000;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>( 16, 0.75f, true )
+    {
+        protected boolean removeEldestEntry( Map.Entry<String, Entry> eldest )
+        {
+            return size() > maxEntries;
+        }
+    };
+
+    private int cacheHits;
+
+    private int cacheMisses;
+
+    public void setMaxEntries( int maxEntries )
+    {
+        this.maxEntries = maxEntries;
+    }
+
+    public PomDocument getDocument( File pomFile, String ls )
+        throws IOException
+    {
+        String key = pomFile.getAbsolutePath();
+
+        long readTime = System.currentTimeMillis();
+        long length = pomFile.length();
+        long lastModified = pomFile.lastModified();
+
+        Entry entry;
+        synchronized ( this )
+        {
+            entry = entries.get( key );
+        }
+
+        byte[] bytes = null;
+        byte[] hash = null;
+        if ( entry != null && entry.length == length && entry.lastModified == lastModified
+            && entry.ls.equals( ls ) )
+        {
+            if ( !entry.isRacy() )
+            {
+                return hit( entry );
+            }
+
+            bytes = XmlFileReader.readBytes( pomFile );
+            hash = digest( bytes );
+            if ( entry.hash != null ? Arrays.equals( hash, entry.hash )
+                : entry.content.equals( XmlFileReader.decode( bytes, ls ) ) )
+            {
+                entry.readTime = readTime;
+                return hit( entry );
+            }
+        }
+
+        if ( bytes == null )
+        {
+            bytes = XmlFileReader.readBytes( pomFile );
+            hash = digest( bytes );
+        }
+
+        String content = XmlFileReader.decode( bytes, ls );
+
+        entry = new Entry( content, ls, length, lastModified, hash, readTime );
+        PomDocument document = entry.getDocument();
+        synchronized ( this )
+        {
+            entries.put( key, entry );
+            cacheMisses++;
+        }
+
+        return document.copy();
+    }
+
+    private PomDocument hit( Entry entry )
+        throws IOException
+    {
+        PomDocument document = entry.getDocument();
+        synchronized ( this )
+        {
+            cacheHits++;
+        }
+        return document.copy();
+    }
+
+    public void put( File pomFile, String content, String ls )
+    {
+        Entry entry = new Entry( XmlFileReader.normalizeLineEndings( content, ls ), ls, pomFile.length(),
+                                 pomFile.lastModified(), null, System.currentTimeMillis() );
+        synchronized ( this )
+        {
+            entries.put( pomFile.getAbsolutePath(), entry );
+        }
+    }
+
+    public synchronized void invalidate( File pomFile )
+    {
+        entries.remove( pomFile.getAbsolutePath() );
+    }
+
+    public synchronized void clear()
+    {
+        entries.clear();
+        cacheHits = 0;
+        cacheMisses = 0;
+    }
+
+    public synchronized int getCacheHits()
+    {
+        return cacheHits;
+    }
+
+    public synchronized int getCacheMisses()
+    {
+        return cacheMisses;
+    }
+
+    private static byte[] digest( byte[] bytes )
+    {
+        try
+        {
+            return MessageDigest.getInstance( "MD5" ).digest( bytes );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( "MD5 is not available: " + e.getMessage() );
+        }
+    }
+
+    /**
+     * A POM, parsed the first time it is needed and never edited, together with the state of its file when it was
+     * read or written.
+     */
+    private static final class Entry
+    {
+        private final String content;
+
+        private final String ls;
+
+        private PomDocument document;
+
+        private final long length;
+
+        private final long lastModified;
+
+        /**
+         * The hash of the bytes read, or <code>null</code> if the POM was written rather than read.
+         */
+        private final byte[] hash;
+
+        private volatile long readTime;
+
+        Entry( String content, String ls, long length, long lastModified, byte[] hash, long readTime )
+        {
+            this.content = content;
+            this.ls = ls;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.readTime = readTime;
+        }
+
+        synchronized PomDocument getDocument()
+            throws IOException
+        {
+            if ( document == null )
+            {
+                document = new PomDocument( content, ls );
+            }
+            return document;
+        }
+
+        /**
+         * @return whether the file could have been modified after it was read without changing its modification time
+         */
+        boolean isRacy()
+        {
+            return lastModified + MODIFICATION_TIME_GRANULARITY > readTime;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.apache.maven.shared.release.transform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Records the unchanged POMs by their absolute path.
+ *
+ * @plexus.component role="org.apache.maven.shared.release.transform.UnchangedPoms"
+ */
+public class DefaultUnchangedPoms
+    implements UnchangedPoms
+{
+    private final Set<String> paths = new HashSet<String>();
+
+    public synchronized void clear()
+    {
+        paths.clear();
+    }
+
+    public synchronized void add( File pomFile )
+    {
+        paths.add( pomFile.getAbsolutePath() );
+    }
+
+    public synchronized boolean contains( File pomFile )
+    {
+        return paths.contains( pomFile.getAbsolutePath() );
+    }
+}
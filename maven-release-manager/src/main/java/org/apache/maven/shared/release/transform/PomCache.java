@@ -0,0 +1,79 @@
+package org.apache.maven.shared.release.transform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Keeps the POMs of a release parsed, so that the phases that edit them don't parse the same POM over and over. A POM
+ * is parsed again when its file has changed. Phases that write a POM put what they wrote in the cache, so that the next
+ * phase doesn't read it again, and the release manager clears the cache at the start of every release goal.
+ */
+public interface PomCache
+{
+    /**
+     * The Plexus role.
+     */
+    String ROLE = PomCache.class.getName();
+
+    /**
+     * Get a POM, parsing it only if it is not in the cache or its file has changed since it was parsed.
+     *
+     * @param pomFile the POM file
+     * @param ls      the line separator to normalize the line breaks of the POM to
+     * @return a document of its own that the caller may edit, never <code>null</code>
+     * @throws IOException if the POM can't be read or is not well-formed
+     */
+    PomDocument getDocument( File pomFile, String ls )
+        throws IOException;
+
+    /**
+     * Remember a POM that was just written, so that the next phase editing it doesn't have to read it from its file.
+     * The file is fingerprinted as it is now, and the content is only parsed when the POM is next asked for.
+     *
+     * @param pomFile the POM file, just written
+     * @param content the text written to the file
+     * @param ls      the line separator the POM will be asked for with
+     */
+    void put( File pomFile, String content, String ls );
+
+    /**
+     * Forget a POM, typically because it is about to be written.
+     *
+     * @param pomFile the POM file
+     */
+    void invalidate( File pomFile );
+
+    /**
+     * Forget all POMs and reset the counters.
+     */
+    void clear();
+
+    /**
+     * @return the number of POMs served from the cache since it was last cleared
+     */
+    int getCacheHits();
+
+    /**
+     * @return the number of POMs parsed since the cache was last cleared
+     */
+    int getCacheMisses();
+}
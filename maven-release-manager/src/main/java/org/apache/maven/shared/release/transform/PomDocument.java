@@ -0,0 +1,623 @@
+package org.apache.maven.shared.release.transform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A POM that can be edited without changing anything but the edited parts. The document is parsed once into a tree of
+ * {@link PomElement}s that know where they are in the text. Edits to these elements are recorded as replacements of
+ * ranges of the text, and everything else is copied verbatim when the document is written, so that whitespace,
+ * comments, entities and the order of attributes are kept as they are.
+ * <p/>
+ * The parser only checks that the elements are properly nested. It does not resolve entities, except the predefined
+ * ones and character references in the text of an element.
+ */
+public class PomDocument
+{
+    private static final Comparator<Edit> EDIT_ORDER = new Comparator<Edit>()
+    {
+        public int compare( Edit a, Edit b )
+        {
+            if ( a.start != b.start )
+            {
+                return a.start < b.start ? -1 : 1;
+            }
+            // insertions go before a replacement that starts at the same place
+            boolean aInsertion = a.start == a.end;
+            boolean bInsertion = b.start == b.end;
+            return aInsertion == bInsertion ? 0 : ( aInsertion ? -1 : 1 );
+        }
+    };
+
+    private final String content;
+
+    private final String ls;
+
+    private final PomElement rootElement;
+
+    private final List<Edit> edits = new ArrayList<Edit>();
+
+    /**
+     * Parse a POM.
+     *
+     * @param content the text of the POM, with the line separators already normalized
+     * @param ls      the line separator to use for the line breaks of added content
+     * @throws IOException if the POM is not well-formed
+     */
+    public PomDocument( String content, String ls )
+        throws IOException
+    {
+        this.content = content;
+        this.ls = ls;
+        this.rootElement = parse();
+    }
+
+    private PomDocument( PomDocument parsed )
+    {
+        this.content = parsed.content;
+        this.ls = parsed.ls;
+        this.rootElement = parsed.rootElement.copy( this );
+    }
+
+    public PomElement getRootElement()
+    {
+        return rootElement;
+    }
+
+    /**
+     * @return the text the document was parsed from
+     */
+    public String getOriginalContent()
+    {
+        return content;
+    }
+
+    /**
+     * @return whether the document has been edited since it was parsed
+     */
+    public boolean isModified()
+    {
+        return !edits.isEmpty();
+    }
+
+    public void write( Writer writer )
+        throws IOException
+    {
+        writer.write( toString() );
+    }
+
+    /**
+     * @return the text of the document, with the edits applied
+     */
+    public String toString()
+    {
+        if ( edits.isEmpty() )
+        {
+            return content;
+        }
+
+        StringBuffer buffer = new StringBuffer( content.length() + 256 );
+        int position = 0;
+        for ( Edit edit : getAppliedEdits() )
+        {
+            buffer.append( content, position, edit.start );
+            edit.render( buffer );
+            position = edit.end;
+        }
+        buffer.append( content, position, content.length() );
+
+        return buffer.toString();
+    }
+
+    /**
+     * Describe the edits of the document as a unified diff, without writing the document anywhere.
+     *
+     * @param path the path of the POM to use in the header of the diff, relative to where the diff is applied
+     * @return the diff, or an empty string if the document is unchanged
+     */
+    public String toUnifiedDiff( String path )
+    {
+        if ( edits.isEmpty() )
+        {
+            return "";
+        }
+        return UnifiedDiff.diff( content, getAppliedEdits(), path );
+    }
+
+    /**
+     * @return the edits in the order they apply to the text, leaving out those within a range that has been replaced,
+     *         such as a removed element
+     */
+    private List<Edit> getAppliedEdits()
+    {
+        List<Edit> sorted = new ArrayList<Edit>( edits );
+        Collections.sort( sorted, EDIT_ORDER );
+
+        List<Edit> applied = new ArrayList<Edit>( sorted.size() );
+        int position = 0;
+        for ( Edit edit : sorted )
+        {
+            if ( edit.start >= position )
+            {
+                applied.add( edit );
+                position = edit.end;
+            }
+        }
+        return applied;
+    }
+
+    Edit addEdit( int start, int end, String prefix, List<Object> added, String suffix )
+    {
+        Edit edit = new Edit( start, end, prefix, added, suffix );
+        edits.add( edit );
+        return edit;
+    }
+
+    void removeEdit( Edit edit )
+    {
+        edits.remove( edit );
+    }
+
+    String getContent()
+    {
+        return content;
+    }
+
+    String getLineSeparator()
+    {
+        return ls;
+    }
+
+    /**
+     * Copy the parsed document without its edits, which is much cheaper than parsing it again.
+     */
+    PomDocument copy()
+    {
+        return new PomDocument( this );
+    }
+
+    /**
+     * Render content added to the document: text is escaped, and its line breaks are converted to the line separator
+     * of the document, while new elements are rendered with their own content.
+     */
+    void render( List<Object> added, StringBuffer buffer )
+    {
+        for ( Object item : added )
+        {
+            if ( item instanceof PomElement )
+            {
+                ( (PomElement) item ).render( this, buffer );
+            }
+            else
+            {
+                String text = escape( (String) item, false );
+                buffer.append( "\n".equals( ls ) ? text : text.replace( "\n", ls ) );
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Parsing
+    // ----------------------------------------------------------------------
+
+    private PomElement parse()
+        throws IOException
+    {
+        PomElement root = null;
+        LinkedList<PomElement> open = new LinkedList<PomElement>();
+
+        int length = content.length();
+        int i = content.indexOf( '<' );
+        while ( i >= 0 && i < length )
+        {
+            if ( content.startsWith( "<!--", i ) )
+            {
+                i = skipPast( "-->", i + 4, "comment" );
+            }
+            else if ( content.startsWith( "<![CDATA[", i ) )
+            {
+                i = skipPast( "]]>", i + 9, "CDATA section" );
+            }
+            else if ( content.startsWith( "<?", i ) )
+            {
+                i = skipPast( "?>", i + 2, "processing instruction" );
+            }
+            else if ( content.startsWith( "<!", i ) )
+            {
+                i = skipDeclaration( i );
+            }
+            else if ( content.startsWith( "</", i ) )
+            {
+                int close = content.indexOf( '>', i );
+                if ( close < 0 )
+                {
+                    throw error( "Unterminated end tag", i );
+                }
+                String name = content.substring( i + 2, close ).trim();
+                if ( open.isEmpty() || !open.getLast().getName().equals( name ) )
+                {
+                    throw error( "Unexpected end tag </" + name + ">", i );
+                }
+                PomElement element = open.removeLast();
+                element.setEnd( i, close + 1 );
+                i = close + 1;
+            }
+            else
+            {
+                if ( root != null && open.isEmpty() )
+                {
+                    throw error( "Content after the root element", i );
+                }
+                PomElement element = parseStartTag( i );
+                if ( open.isEmpty() )
+                {
+                    root = element;
+                }
+                else
+                {
+                    open.getLast().addParsedChild( element );
+                }
+                if ( !element.isEmpty() )
+                {
+                    open.add( element );
+                }
+                i = element.getContentStart();
+            }
+            i = content.indexOf( '<', i );
+        }
+
+        if ( !open.isEmpty() )
+        {
+            throw error( "Unclosed element <" + open.getLast().getName() + ">", open.getLast().getStart() );
+        }
+        if ( root == null )
+        {
+            throw error( "No root element", 0 );
+        }
+        return root;
+    }
+
+    private PomElement parseStartTag( int start )
+        throws IOException
+    {
+        int length = content.length();
+        int i = start + 1;
+        while ( i < length && !isNameEnd( content.charAt( i ) ) )
+        {
+            i++;
+        }
+        if ( i == start + 1 )
+        {
+            throw error( "Missing element name", start );
+        }
+        PomElement element = new PomElement( this, content.substring( start + 1, i ), start );
+
+        while ( true )
+        {
+            int attributesEnd = i;
+            while ( i < length && Character.isWhitespace( content.charAt( i ) ) )
+            {
+                i++;
+            }
+            if ( i >= length )
+            {
+                throw error( "Unterminated start tag", start );
+            }
+            char c = content.charAt( i );
+            if ( c == '>' )
+            {
+                element.setStartTagEnd( attributesEnd, i + 1, false );
+                return element;
+            }
+            if ( c == '/' )
+            {
+                if ( i + 1 >= length || content.charAt( i + 1 ) != '>' )
+                {
+                    throw error( "Malformed empty element", start );
+                }
+                element.setStartTagEnd( attributesEnd, i + 2, true );
+                return element;
+            }
+
+            int nameStart = i;
+            while ( i < length && content.charAt( i ) != '=' && !Character.isWhitespace( content.charAt( i ) ) )
+            {
+                i++;
+            }
+            String name = content.substring( nameStart, i );
+            while ( i < length && Character.isWhitespace( content.charAt( i ) ) )
+            {
+                i++;
+            }
+            if ( i >= length || content.charAt( i ) != '=' )
+            {
+                throw error( "Missing value of attribute " + name, nameStart );
+            }
+            i++;
+            while ( i < length && Character.isWhitespace( content.charAt( i ) ) )
+            {
+                i++;
+            }
+            if ( i >= length || ( content.charAt( i ) != '"' && content.charAt( i ) != '\'' ) )
+            {
+                throw error( "Unquoted value of attribute " + name, nameStart );
+            }
+            int valueEnd = content.indexOf( content.charAt( i ), i + 1 );
+            if ( valueEnd < 0 )
+            {
+                throw error( "Unterminated value of attribute " + name, nameStart );
+            }
+            element.addParsedAttribute( name, i + 1, valueEnd );
+            i = valueEnd + 1;
+        }
+    }
+
+    private static boolean isNameEnd( char c )
+    {
+        return c == '>' || c == '/' || Character.isWhitespace( c );
+    }
+
+    private int skipPast( String terminator, int from, String what )
+        throws IOException
+    {
+        int end = content.indexOf( terminator, from );
+        if ( end < 0 )
+        {
+            throw error( "Unterminated " + what, from );
+        }
+        return end + terminator.length();
+    }
+
+    /**
+     * Skip a document type declaration, with its quoted strings and internal subset.
+     */
+    private int skipDeclaration( int start )
+        throws IOException
+    {
+        int depth = 0;
+        int length = content.length();
+        for ( int i = start + 2; i < length; i++ )
+        {
+            char c = content.charAt( i );
+            if ( c == '"' || c == '\'' )
+            {
+                i = content.indexOf( c, i + 1 );
+                if ( i < 0 )
+                {
+                    break;
+                }
+            }
+            else if ( c == '<' && content.startsWith( "<!--", i ) )
+            {
+                i = skipPast( "-->", i + 4, "comment" ) - 1;
+            }
+            else if ( c == '[' )
+            {
+                depth++;
+            }
+            else if ( c == ']' )
+            {
+                depth--;
+            }
+            else if ( c == '>' && depth <= 0 )
+            {
+                return i + 1;
+            }
+        }
+        throw error( "Unterminated declaration", start );
+    }
+
+    private IOException error( String message, int offset )
+    {
+        int line = 1;
+        for ( int i = content.indexOf( '\n' ); i >= 0 && i < offset; i = content.indexOf( '\n', i + 1 ) )
+        {
+            line++;
+        }
+        return new IOException( message + " at line " + line );
+    }
+
+    // ----------------------------------------------------------------------
+    // Escaping
+    // ----------------------------------------------------------------------
+
+    static String escape( String value, boolean attribute )
+    {
+        StringBuffer buffer = null;
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+            String entity;
+            switch ( c )
+            {
+                case '&':
+                    entity = "&amp;";
+                    break;
+                case '<':
+                    entity = "&lt;";
+                    break;
+                case '>':
+                    entity = "&gt;";
+                    break;
+                case '"':
+                    entity = attribute ? "&quot;" : null;
+                    break;
+                default:
+                    entity = null;
+            }
+            if ( entity != null && buffer == null )
+            {
+                buffer = new StringBuffer( value.length() + 16 );
+                buffer.append( value, 0, i );
+            }
+            if ( buffer != null )
+            {
+                if ( entity != null )
+                {
+                    buffer.append( entity );
+                }
+                else
+                {
+                    buffer.append( c );
+                }
+            }
+        }
+        return buffer != null ? buffer.toString() : value;
+    }
+
+    /**
+     * Resolve the predefined entities and character references of some text. Other entities are left as they are.
+     */
+    static String unescape( String text )
+    {
+        int amp = text.indexOf( '&' );
+        if ( amp < 0 )
+        {
+            return text;
+        }
+
+        StringBuffer buffer = new StringBuffer( text.length() );
+        int position = 0;
+        while ( amp >= 0 )
+        {
+            int semicolon = text.indexOf( ';', amp );
+            if ( semicolon < 0 )
+            {
+                break;
+            }
+            String name = text.substring( amp + 1, semicolon );
+            String value = null;
+            if ( "lt".equals( name ) )
+            {
+                value = "<";
+            }
+            else if ( "gt".equals( name ) )
+            {
+                value = ">";
+            }
+            else if ( "amp".equals( name ) )
+            {
+                value = "&";
+            }
+            else if ( "quot".equals( name ) )
+            {
+                value = "\"";
+            }
+            else if ( "apos".equals( name ) )
+            {
+                value = "'";
+            }
+            else if ( name.startsWith( "#" ) )
+            {
+                try
+                {
+                    int code = name.startsWith( "#x" ) ? Integer.parseInt( name.substring( 2 ), 16 )
+                                    : Integer.parseInt( name.substring( 1 ) );
+                    value = new String( Character.toChars( code ) );
+                }
+                catch ( IllegalArgumentException e )
+                {
+                    // not a character reference after all
+                }
+            }
+            if ( value != null )
+            {
+                buffer.append( text, position, amp ).append( value );
+                position = semicolon + 1;
+            }
+            amp = text.indexOf( '&', semicolon );
+        }
+        buffer.append( text, position, text.length() );
+        return buffer.toString();
+    }
+
+    /**
+     * A replacement of a range of the original text.
+     */
+    final class Edit
+    {
+        private final int start;
+
+        private final int end;
+
+        private final String prefix;
+
+        private final List<Object> added;
+
+        private final String suffix;
+
+        /**
+         * The text of the element after the edit, for edits that set the text of an element.
+         */
+        private String text;
+
+        Edit( int start, int end, String prefix, List<Object> added, String suffix )
+        {
+            this.start = start;
+            this.end = end;
+            this.prefix = prefix;
+            this.added = added;
+            this.suffix = suffix;
+        }
+
+        int getStart()
+        {
+            return start;
+        }
+
+        int getEnd()
+        {
+            return end;
+        }
+
+        String getText()
+        {
+            return text;
+        }
+
+        void setText( String text )
+        {
+            this.text = text;
+        }
+
+        void render( StringBuffer buffer )
+        {
+            if ( prefix != null )
+            {
+                buffer.append( prefix );
+            }
+            if ( added != null )
+            {
+                PomDocument.this.render( added, buffer );
+            }
+            if ( suffix != null )
+            {
+                buffer.append( suffix );
+            }
+        }
+    }
+}
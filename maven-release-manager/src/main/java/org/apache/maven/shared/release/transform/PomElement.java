@@ -0,0 +1,639 @@
+package org.apache.maven.shared.release.transform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An element of a {@link PomDocument}, or a new element to add to one. Elements read from the document change the
+ * text of the document only where they are edited.
+ */
+public class PomElement
+{
+    private final PomDocument document;
+
+    private final String name;
+
+    private PomElement parent;
+
+    private final List<PomElement> children = new ArrayList<PomElement>();
+
+    private final Map<String, int[]> attributeRanges = new LinkedHashMap<String, int[]>();
+
+    /**
+     * The offsets of an element read from the document: the start of its start tag, the end of its attributes, the
+     * start and end of its content and the end of its end tag.
+     */
+    private int start = -1, attributesEnd, contentStart, contentEnd, end;
+
+    private boolean empty;
+
+    /**
+     * The content of a new element, or the content added to the end of an element read from the document.
+     */
+    private List<Object> addedContent;
+
+    private PomDocument.Edit contentEdit;
+
+    private PomDocument.Edit textEdit;
+
+    private Map<String, String> newAttributes;
+
+    private Map<String, PomDocument.Edit> attributeEdits;
+
+    /**
+     * Create a new element, to be added to a document.
+     *
+     * @param name the name of the element
+     */
+    public PomElement( String name )
+    {
+        this.document = null;
+        this.name = name;
+        this.addedContent = new ArrayList<Object>();
+    }
+
+    PomElement( PomDocument document, String name, int start )
+    {
+        this.document = document;
+        this.name = name;
+        this.start = start;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public PomElement getParent()
+    {
+        return parent;
+    }
+
+    /**
+     * @return whether this element was read from the document, as opposed to being added to it
+     */
+    public boolean isParsed()
+    {
+        return start >= 0;
+    }
+
+    /**
+     * Get the first child element with the given name.
+     *
+     * @param name the name of the element, the namespace prefix of the child is ignored
+     * @return the element, or <code>null</code> if there is none
+     */
+    public PomElement getChild( String name )
+    {
+        for ( PomElement child : children )
+        {
+            if ( child.hasName( name ) )
+            {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the child elements with the given name.
+     *
+     * @param name the name of the elements, the namespace prefix of the children is ignored
+     * @return the elements, never <code>null</code>
+     */
+    public List<PomElement> getChildren( String name )
+    {
+        List<PomElement> result = null;
+        for ( PomElement child : children )
+        {
+            if ( child.hasName( name ) )
+            {
+                if ( result == null )
+                {
+                    result = new ArrayList<PomElement>();
+                }
+                result.add( child );
+            }
+        }
+        return result != null ? result : Collections.<PomElement>emptyList();
+    }
+
+    public List<PomElement> getChildren()
+    {
+        return Collections.unmodifiableList( children );
+    }
+
+    private boolean hasName( String name )
+    {
+        int colon = this.name.indexOf( ':' );
+        return colon < 0 ? this.name.equals( name ) : this.name.substring( colon + 1 ).equals( name );
+    }
+
+    /**
+     * @return the text of this element, with the text of its CDATA sections, without comments and child elements
+     */
+    public String getText()
+    {
+        StringBuffer text = new StringBuffer();
+        if ( !isParsed() )
+        {
+            for ( Object item : addedContent )
+            {
+                if ( item instanceof String )
+                {
+                    text.append( (String) item );
+                }
+            }
+        }
+        else if ( textEdit != null )
+        {
+            text.append( textEdit.getText() );
+        }
+        else
+        {
+            for ( Segment segment : getSegments() )
+            {
+                if ( segment.isText() )
+                {
+                    text.append( segment.getText() );
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    public String getTextTrim()
+    {
+        return getText().trim();
+    }
+
+    /**
+     * Set the text of this element. For an element read from the document, only the first run of text and CDATA
+     * sections that is not just whitespace is replaced, keeping the whitespace around it, as well as any comments
+     * and other content. If there is no such text, the value is added to the end of the content.
+     *
+     * @param value the text
+     */
+    public void setText( String value )
+    {
+        if ( !isParsed() )
+        {
+            addedContent.clear();
+            addedContent.add( value );
+            return;
+        }
+
+        if ( textEdit != null )
+        {
+            document.removeEdit( textEdit );
+        }
+
+        List<Segment> segments = empty ? Collections.<Segment>emptyList() : getSegments();
+        int first = -1;
+        for ( int i = 0; i < segments.size() && first < 0; i++ )
+        {
+            if ( segments.get( i ).isText() && segments.get( i ).getText().trim().length() > 0 )
+            {
+                first = i;
+            }
+        }
+
+        if ( first < 0 )
+        {
+            String text = PomDocument.escape( value, false );
+            if ( empty )
+            {
+                textEdit = document.addEdit( end - 2, end, ">" + text + "</" + name + ">", null, null );
+            }
+            else
+            {
+                textEdit = document.addEdit( contentEnd, contentEnd, text, null, null );
+            }
+            textEdit.setText( value );
+            return;
+        }
+
+        StringBuffer text = new StringBuffer();
+        int last = first;
+        for ( int i = first; i < segments.size() && segments.get( i ).isText(); i++ )
+        {
+            text.append( segments.get( i ).getText() );
+            last = i;
+        }
+
+        String chars = text.toString();
+        String trimmed = chars.trim();
+        int index = chars.indexOf( trimmed );
+        String newText = chars.substring( 0, index ) + value + chars.substring( index + trimmed.length() );
+        if ( newText.equals( chars ) )
+        {
+            textEdit = null;
+            return;
+        }
+
+        Segment firstSegment = segments.get( first );
+        String markup = firstSegment.isCData() ? "<![CDATA[" + newText + "]]>" : PomDocument.escape( newText, false );
+        textEdit = document.addEdit( firstSegment.start, segments.get( last ).end, markup, null, null );
+        textEdit.setText( newText );
+    }
+
+    /**
+     * Add text to the end of the content of this element. Line breaks are written with the line separator of the
+     * document.
+     *
+     * @param text the text
+     * @return this element
+     */
+    public PomElement addContent( String text )
+    {
+        getAddedContent().add( text );
+        return this;
+    }
+
+    /**
+     * Add a new element to the end of the content of this element.
+     *
+     * @param child the new element
+     * @return this element
+     */
+    public PomElement addContent( PomElement child )
+    {
+        adopt( child );
+        getAddedContent().add( child );
+        children.add( child );
+        return this;
+    }
+
+    /**
+     * Insert text and a new element right after a child element.
+     *
+     * @param sibling the child element to insert after
+     * @param text    the text to insert before the new element, typically a line break and indentation
+     * @param child   the new element
+     */
+    public void addContentAfter( PomElement sibling, String text, PomElement child )
+    {
+        int index = children.indexOf( sibling );
+        if ( index < 0 )
+        {
+            throw new IllegalArgumentException( "<" + sibling.getName() + "> is not a child of <" + name + ">" );
+        }
+        adopt( child );
+        children.add( index + 1, child );
+
+        if ( isParsed() && sibling.isParsed() )
+        {
+            List<Object> inserted = new ArrayList<Object>();
+            inserted.add( text );
+            inserted.add( child );
+            document.addEdit( sibling.end, sibling.end, null, inserted, null );
+        }
+        else
+        {
+            List<Object> content = getAddedContent();
+            int position = content.indexOf( sibling ) + 1;
+            content.add( position, text );
+            content.add( position + 1, child );
+        }
+    }
+
+    /**
+     * Remove this element from its parent, together with the whitespace in front of it.
+     */
+    public void detach()
+    {
+        if ( parent == null )
+        {
+            return;
+        }
+
+        if ( isParsed() )
+        {
+            String content = document.getContent();
+            int from = start;
+            while ( from > 0 && Character.isWhitespace( content.charAt( from - 1 ) ) )
+            {
+                from--;
+            }
+            document.addEdit( from, end, null, null, null );
+        }
+        else
+        {
+            List<Object> content = parent.getAddedContent();
+            int index = content.indexOf( this );
+            content.remove( index );
+            for ( int i = index - 1; i >= 0 && content.get( i ) instanceof String; i-- )
+            {
+                content.remove( i );
+            }
+        }
+
+        parent.children.remove( this );
+        parent = null;
+    }
+
+    /**
+     * @param name the qualified name of the attribute
+     * @return the value of the attribute, or <code>null</code> if there is none
+     */
+    public String getAttribute( String name )
+    {
+        if ( newAttributes != null && newAttributes.containsKey( name ) )
+        {
+            return newAttributes.get( name );
+        }
+        int[] range = attributeRanges.get( name );
+        return range != null ? PomDocument.unescape( document.getContent().substring( range[0], range[1] ) ) : null;
+    }
+
+    /**
+     * Set an attribute. The value of an existing attribute is replaced in place, and a new attribute is added after
+     * the last one.
+     *
+     * @param name  the qualified name of the attribute
+     * @param value the value
+     */
+    public void setAttribute( String name, String value )
+    {
+        if ( value.equals( getAttribute( name ) ) )
+        {
+            return;
+        }
+
+        if ( newAttributes == null )
+        {
+            newAttributes = new LinkedHashMap<String, String>();
+        }
+        newAttributes.put( name, value );
+
+        if ( isParsed() )
+        {
+            if ( attributeEdits == null )
+            {
+                attributeEdits = new HashMap<String, PomDocument.Edit>();
+            }
+            else if ( attributeEdits.containsKey( name ) )
+            {
+                document.removeEdit( attributeEdits.get( name ) );
+            }
+
+            int[] range = attributeRanges.get( name );
+            if ( range != null )
+            {
+                attributeEdits.put( name, document.addEdit( range[0], range[1], PomDocument.escape( value, true ),
+                                                            null, null ) );
+            }
+            else
+            {
+                attributeEdits.put( name, document.addEdit( attributesEnd, attributesEnd, " " + name + "=\""
+                    + PomDocument.escape( value, true ) + "\"", null, null ) );
+            }
+        }
+    }
+
+    private List<Object> getAddedContent()
+    {
+        if ( addedContent == null )
+        {
+            addedContent = new ArrayList<Object>();
+            if ( empty )
+            {
+                contentEdit = document.addEdit( end - 2, end, ">", addedContent, "</" + name + ">" );
+            }
+            else
+            {
+                contentEdit = document.addEdit( contentEnd, contentEnd, null, addedContent, null );
+            }
+        }
+        return addedContent;
+    }
+
+    private void adopt( PomElement child )
+    {
+        if ( child.isParsed() || child.parent != null )
+        {
+            throw new IllegalArgumentException( "<" + child.getName() + "> is already part of a document" );
+        }
+        child.parent = this;
+    }
+
+    /**
+     * Write a new element.
+     */
+    void render( PomDocument document, StringBuffer buffer )
+    {
+        buffer.append( '<' ).append( name );
+        if ( newAttributes != null )
+        {
+            for ( Map.Entry<String, String> attribute : newAttributes.entrySet() )
+            {
+                buffer.append( ' ' ).append( attribute.getKey() ).append( "=\"" );
+                buffer.append( PomDocument.escape( attribute.getValue(), true ) ).append( '"' );
+            }
+        }
+        if ( addedContent.isEmpty() )
+        {
+            buffer.append( " />" );
+        }
+        else
+        {
+            buffer.append( '>' );
+            document.render( addedContent, buffer );
+            buffer.append( "</" ).append( name ).append( '>' );
+        }
+    }
+
+    // ----------------------------------------------------------------------
+    // Parsing
+    // ----------------------------------------------------------------------
+
+    void setStartTagEnd( int attributesEnd, int contentStart, boolean empty )
+    {
+        this.attributesEnd = attributesEnd;
+        this.contentStart = contentStart;
+        this.empty = empty;
+        if ( empty )
+        {
+            this.contentEnd = contentStart;
+            this.end = contentStart;
+        }
+    }
+
+    void setEnd( int contentEnd, int end )
+    {
+        this.contentEnd = contentEnd;
+        this.end = end;
+    }
+
+    void addParsedChild( PomElement child )
+    {
+        child.parent = this;
+        children.add( child );
+    }
+
+    void addParsedAttribute( String name, int valueStart, int valueEnd )
+    {
+        attributeRanges.put( name, new int[] { valueStart, valueEnd } );
+    }
+
+    /**
+     * Copy this element and its children as they were parsed, without their edits.
+     */
+    PomElement copy( PomDocument document )
+    {
+        PomElement copy = new PomElement( document, name, start );
+        copy.attributeRanges.putAll( attributeRanges );
+        copy.attributesEnd = attributesEnd;
+        copy.contentStart = contentStart;
+        copy.contentEnd = contentEnd;
+        copy.end = end;
+        copy.empty = empty;
+        for ( PomElement child : children )
+        {
+            if ( child.isParsed() )
+            {
+                copy.addParsedChild( child.copy( document ) );
+            }
+        }
+        return copy;
+    }
+
+    int getStart()
+    {
+        return start;
+    }
+
+    int getContentStart()
+    {
+        return contentStart;
+    }
+
+    boolean isEmpty()
+    {
+        return empty;
+    }
+
+    /**
+     * Split the original content of this element into text, CDATA sections and other markup.
+     */
+    private List<Segment> getSegments()
+    {
+        String content = document.getContent();
+        List<Segment> segments = new ArrayList<Segment>();
+
+        int childIndex = 0;
+        int i = contentStart;
+        while ( i < contentEnd )
+        {
+            PomElement child = null;
+            while ( childIndex < children.size() && !children.get( childIndex ).isParsed() )
+            {
+                childIndex++;
+            }
+            if ( childIndex < children.size() )
+            {
+                child = children.get( childIndex );
+            }
+
+            if ( child != null && child.start == i )
+            {
+                segments.add( new Segment( Segment.MARKUP, i, child.end ) );
+                i = child.end;
+                childIndex++;
+            }
+            else if ( content.startsWith( "<![CDATA[", i ) )
+            {
+                int close = content.indexOf( "]]>", i ) + 3;
+                segments.add( new Segment( Segment.CDATA, i, close ) );
+                i = close;
+            }
+            else if ( content.startsWith( "<!--", i ) )
+            {
+                int close = content.indexOf( "-->", i + 4 ) + 3;
+                segments.add( new Segment( Segment.MARKUP, i, close ) );
+                i = close;
+            }
+            else if ( content.startsWith( "<?", i ) )
+            {
+                int close = content.indexOf( "?>", i + 2 ) + 2;
+                segments.add( new Segment( Segment.MARKUP, i, close ) );
+                i = close;
+            }
+            else
+            {
+                int next = content.indexOf( '<', i );
+                if ( next < 0 || next > contentEnd )
+                {
+                    next = contentEnd;
+                }
+                segments.add( new Segment( Segment.TEXT, i, next ) );
+                i = next;
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * A part of the original content of an element.
+     */
+    private final class Segment
+    {
+        static final int TEXT = 0, CDATA = 1, MARKUP = 2;
+
+        private final int type;
+
+        private final int start;
+
+        private final int end;
+
+        Segment( int type, int start, int end )
+        {
+            this.type = type;
+            this.start = start;
+            this.end = end;
+        }
+
+        boolean isText()
+        {
+            return type != MARKUP;
+        }
+
+        boolean isCData()
+        {
+            return type == CDATA;
+        }
+
+        String getText()
+        {
+            String content = document.getContent();
+            if ( type == CDATA )
+            {
+                return content.substring( start + 9, end - 3 );
+            }
+            return PomDocument.unescape( content.substring( start, end ) );
+        }
+    }
+}
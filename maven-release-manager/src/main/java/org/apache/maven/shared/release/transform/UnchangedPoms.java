@@ -0,0 +1,54 @@
+package org.apache.maven.shared.release.transform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+/**
+ * The POMs the last POM rewriting phase of a release left unchanged, so that the commit phases don't check them in.
+ * It only lasts for one run of a release goal: it is not stored with the release configuration, and the release
+ * manager clears it at the start of every release goal. A POM that was not recorded, for example because the release
+ * was resumed after its POMs were rewritten, is taken to be changed.
+ */
+public interface UnchangedPoms
+{
+    /**
+     * The Plexus role.
+     */
+    String ROLE = UnchangedPoms.class.getName();
+
+    /**
+     * Forget which POMs were left unchanged, at the start of a POM rewriting phase or of a release goal.
+     */
+    void clear();
+
+    /**
+     * Record that the POM rewriting phase left a POM unchanged.
+     *
+     * @param pomFile the POM file
+     */
+    void add( File pomFile );
+
+    /**
+     * @param pomFile the POM file
+     * @return <code>true</code> if the last POM rewriting phase is known to have left the POM unchanged
+     */
+    boolean contains( File pomFile );
+}
@@ -0,0 +1,285 @@
+package org.apache.maven.shared.release.transform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders the edits of a {@link PomDocument} as a unified diff. As the edits already say which ranges of the text
+ * changed, there is nothing to compare: the lines an edit touches are the changed lines, and only those lines are
+ * rendered with the edits applied.
+ */
+final class UnifiedDiff
+{
+    /**
+     * The number of unchanged lines shown around a change.
+     */
+    private static final int CONTEXT = 3;
+
+    private final String content;
+
+    private final int[] lineStarts;
+
+    private UnifiedDiff( String content )
+    {
+        this.content = content;
+
+        List<Integer> starts = new ArrayList<Integer>();
+        starts.add( Integer.valueOf( 0 ) );
+        for ( int i = content.indexOf( '\n' ); i >= 0 && i + 1 < content.length(); i = content.indexOf( '\n', i + 1 ) )
+        {
+            starts.add( Integer.valueOf( i + 1 ) );
+        }
+        lineStarts = new int[starts.size()];
+        for ( int i = 0; i < lineStarts.length; i++ )
+        {
+            lineStarts[i] = starts.get( i ).intValue();
+        }
+    }
+
+    /**
+     * Render a diff.
+     *
+     * @param content the original text
+     * @param edits   the edits of the text, sorted and not overlapping
+     * @param path    the path of the file, used in the header of the diff
+     * @return the diff, or an empty string if the edits don't change anything
+     */
+    static String diff( String content, List<PomDocument.Edit> edits, String path )
+    {
+        return new UnifiedDiff( content ).render( edits, path );
+    }
+
+    private String render( List<PomDocument.Edit> edits, String path )
+    {
+        List<Change> changes = getChanges( edits );
+        if ( changes.isEmpty() )
+        {
+            return "";
+        }
+
+        StringBuffer buffer = new StringBuffer();
+        buffer.append( "--- a/" ).append( path ).append( '\n' );
+        buffer.append( "+++ b/" ).append( path ).append( '\n' );
+
+        int delta = 0;
+        int i = 0;
+        while ( i < changes.size() )
+        {
+            int first = i;
+            while ( i + 1 < changes.size() && changes.get( i + 1 ).oldStart - changes.get( i ).oldEnd <= 2 * CONTEXT )
+            {
+                i++;
+            }
+            int last = i++;
+
+            int hunkStart = Math.max( 0, changes.get( first ).oldStart - CONTEXT );
+            int hunkEnd = Math.min( lineStarts.length, changes.get( last ).oldEnd + CONTEXT );
+
+            StringBuffer lines = new StringBuffer();
+            int position = hunkStart;
+            int hunkDelta = 0;
+            for ( int j = first; j <= last; j++ )
+            {
+                Change change = changes.get( j );
+                appendContext( lines, position, change.oldStart );
+                for ( String line : change.oldLines )
+                {
+                    appendLine( lines, '-', line );
+                }
+                for ( String line : change.newLines )
+                {
+                    appendLine( lines, '+', line );
+                }
+                hunkDelta += change.newLines.size() - change.oldLines.size();
+                position = change.oldEnd;
+            }
+            appendContext( lines, position, hunkEnd );
+
+            int oldCount = hunkEnd - hunkStart;
+            buffer.append( "@@ -" ).append( range( hunkStart, oldCount ) );
+            buffer.append( " +" ).append( range( hunkStart + delta, oldCount + hunkDelta ) ).append( " @@\n" );
+            buffer.append( lines );
+
+            delta += hunkDelta;
+        }
+
+        return buffer.toString();
+    }
+
+    /**
+     * Work out the changed lines. Edits that touch the same line are one change, and lines that an edit touches
+     * without changing them are left out.
+     */
+    private List<Change> getChanges( List<PomDocument.Edit> edits )
+    {
+        List<Change> changes = new ArrayList<Change>();
+
+        int i = 0;
+        while ( i < edits.size() )
+        {
+            int first = i;
+            int firstLine = getLine( edits.get( i ).getStart() );
+            int lastLine = getLastLine( edits.get( i ) );
+            while ( i + 1 < edits.size() && getLine( edits.get( i + 1 ).getStart() ) <= lastLine )
+            {
+                i++;
+                lastLine = Math.max( lastLine, getLastLine( edits.get( i ) ) );
+            }
+            int last = i++;
+
+            int from = lineStarts[firstLine];
+            int to = getLineEnd( lastLine );
+
+            StringBuffer text = new StringBuffer();
+            int position = from;
+            for ( int j = first; j <= last; j++ )
+            {
+                PomDocument.Edit edit = edits.get( j );
+                text.append( content, position, edit.getStart() );
+                edit.render( text );
+                position = edit.getEnd();
+            }
+            text.append( content, position, to );
+
+            List<String> oldLines = split( content.substring( from, to ) );
+            List<String> newLines = split( text.toString() );
+
+            int oldStart = firstLine;
+            while ( !oldLines.isEmpty() && !newLines.isEmpty() && oldLines.get( 0 ).equals( newLines.get( 0 ) ) )
+            {
+                oldLines.remove( 0 );
+                newLines.remove( 0 );
+                oldStart++;
+            }
+            while ( !oldLines.isEmpty() && !newLines.isEmpty()
+                && oldLines.get( oldLines.size() - 1 ).equals( newLines.get( newLines.size() - 1 ) ) )
+            {
+                oldLines.remove( oldLines.size() - 1 );
+                newLines.remove( newLines.size() - 1 );
+            }
+
+            if ( !oldLines.isEmpty() || !newLines.isEmpty() )
+            {
+                changes.add( new Change( oldStart, oldLines, newLines ) );
+            }
+        }
+
+        return changes;
+    }
+
+    private int getLine( int offset )
+    {
+        int low = 0;
+        int high = lineStarts.length - 1;
+        while ( low < high )
+        {
+            int middle = ( low + high + 1 ) >>> 1;
+            if ( lineStarts[middle] <= offset )
+            {
+                low = middle;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private int getLastLine( PomDocument.Edit edit )
+    {
+        return getLine( Math.max( edit.getStart(), edit.getEnd() - 1 ) );
+    }
+
+    private int getLineEnd( int line )
+    {
+        return line + 1 < lineStarts.length ? lineStarts[line + 1] : content.length();
+    }
+
+    private void appendContext( StringBuffer buffer, int fromLine, int toLine )
+    {
+        for ( int line = fromLine; line < toLine; line++ )
+        {
+            appendLine( buffer, ' ', content.substring( lineStarts[line], getLineEnd( line ) ) );
+        }
+    }
+
+    private static void appendLine( StringBuffer buffer, char marker, String line )
+    {
+        buffer.append( marker ).append( line );
+        if ( !line.endsWith( "\n" ) )
+        {
+            buffer.append( "\n\\ No newline at end of file\n" );
+        }
+    }
+
+    private static String range( int start, int count )
+    {
+        if ( count == 0 )
+        {
+            // an empty range is given by the line before it
+            return start + ",0";
+        }
+        return count == 1 ? String.valueOf( start + 1 ) : ( start + 1 ) + "," + count;
+    }
+
+    /**
+     * Split text into lines, each with its line break. A carriage return is kept as part of the line.
+     */
+    private static List<String> split( String text )
+    {
+        List<String> lines = new ArrayList<String>();
+        int start = 0;
+        for ( int i = text.indexOf( '\n' ); i >= 0; i = text.indexOf( '\n', start ) )
+        {
+            lines.add( text.substring( start, i + 1 ) );
+            start = i + 1;
+        }
+        if ( start < text.length() )
+        {
+            lines.add( text.substring( start ) );
+        }
+        return lines;
+    }
+
+    /**
+     * Consecutive lines of the original text and what they are replaced with.
+     */
+    private static final class Change
+    {
+        private final int oldStart;
+
+        private final int oldEnd;
+
+        private final List<String> oldLines;
+
+        private final List<String> newLines;
+
+        Change( int oldStart, List<String> oldLines, List<String> newLines )
+        {
+            this.oldStart = oldStart;
+            this.oldEnd = oldStart + oldLines.size();
+            this.oldLines = oldLines;
+            this.newLines = newLines;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.apache.maven.shared.release.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates named daemon threads, so that work left behind by a failed release never keeps the build alive.
+ */
+public class DaemonThreadFactory
+    implements ThreadFactory
+{
+    private final String namePrefix;
+
+    private final AtomicInteger threadNumber = new AtomicInteger( 1 );
+
+    /**
+     * @param name the name of the threads, to which a sequence number is appended
+     */
+    public DaemonThreadFactory( String name )
+    {
+        this.namePrefix = name + "-";
+    }
+
+    public Thread newThread( Runnable runnable )
+    {
+        Thread thread = new Thread( runnable, namePrefix + threadNumber.getAndIncrement() );
+        thread.setDaemon( true );
+        return thread;
+    }
+}
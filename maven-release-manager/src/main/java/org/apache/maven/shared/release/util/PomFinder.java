@@ -21,14 +21,12 @@ package org.apache.maven.shared.release.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
 
 import org.apache.maven.model.Model;
 import org.apache.maven.model.Parent;
 import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.codehaus.plexus.logging.Logger;
-import org.codehaus.plexus.util.IOUtil;
-import org.codehaus.plexus.util.ReaderFactory;
-import org.codehaus.plexus.util.xml.XmlStreamReader;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 
 /**
@@ -189,20 +187,7 @@ public class PomFinder
         PomInfo pomInfo = null;
 
         MavenXpp3Reader reader = new MavenXpp3Reader();
-        XmlStreamReader xmlReader = null;
-        Model model = null;
-        try
-        {
-            xmlReader = ReaderFactory.newXmlReader( pomFile );
-            model = reader.read( xmlReader );
-        }
-        finally
-        {
-            if ( xmlReader != null )
-            {
-                IOUtil.close( xmlReader );
-            }
-        }
+        Model model = reader.read( new StringReader( XmlFileReader.read( pomFile, "\n" ) ) );
         if ( model != null )
         {
             pomInfo = new PomInfo();
@@ -21,7 +21,6 @@ package org.apache.maven.shared.release.util;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.Reader;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -31,8 +30,6 @@ import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.release.ReleaseExecutionException;
 import org.apache.maven.shared.release.config.ReleaseDescriptor;
 import org.codehaus.plexus.util.FileUtils;
-import org.codehaus.plexus.util.IOUtil;
-import org.codehaus.plexus.util.ReaderFactory;
 
 /**
  * @author <a href="mailto:evenisse@apache.org">Emmanuel Venisse</a>
@@ -130,16 +127,7 @@ public class ReleaseUtil
     public static String readXmlFile( File file, String ls )
         throws IOException
     {
-        Reader reader = null;
-        try
-        {
-            reader = ReaderFactory.newXmlReader( file );
-            return normalizeLineEndings( IOUtil.toString( reader ), ls );
-        }
-        finally
-        {
-            IOUtil.close( reader );
-        }
+        return XmlFileReader.read( file, ls );
     }
 
     /**
@@ -156,7 +144,7 @@ public class ReleaseUtil
         String norm = text;
         if ( text != null )
         {
-            norm = text.replaceAll( "(\r\n)|(\n)|(\r)", separator );
+            norm = XmlFileReader.normalizeLineEndings( text, separator );
         }
         return norm;
     }
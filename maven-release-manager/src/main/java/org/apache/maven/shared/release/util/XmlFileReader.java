@@ -0,0 +1,454 @@
+package org.apache.maven.shared.release.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Locale;
+
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.ReaderFactory;
+
+/**
+ * Reads XML files into strings in a single pass. The file is read with one channel read, the encoding is detected
+ * once from the byte order mark or the XML declaration, and the line separators are normalized while the bytes are
+ * decoded. Files whose encoding can't be detected that way, such as UTF-32 or EBCDIC, are read with
+ * {@link ReaderFactory#newXmlReader(java.io.InputStream)}.
+ */
+public final class XmlFileReader
+{
+    private static final Charset UTF_8 = Charset.forName( "UTF-8" );
+
+    private static final Charset UTF_16BE = Charset.forName( "UTF-16BE" );
+
+    private static final Charset UTF_16LE = Charset.forName( "UTF-16LE" );
+
+    /**
+     * How far into the file the end of the XML declaration is looked for.
+     */
+    private static final int DECLARATION_LIMIT = 1024;
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final char[] separator;
+
+    private char[] out;
+
+    private int length;
+
+    private boolean afterCarriageReturn;
+
+    private XmlFileReader( String ls, int capacity )
+    {
+        this.separator = ls.toCharArray();
+        this.out = new char[capacity];
+    }
+
+    /**
+     * Read an XML file.
+     *
+     * @param file the file
+     * @param ls   the line separator to normalize the line breaks to
+     * @return the content of the file
+     * @throws IOException if the file can't be read or its encoding is not supported
+     */
+    public static String read( File file, String ls )
+        throws IOException
+    {
+        return decode( readBytes( file ), ls );
+    }
+
+    /**
+     * Decode the content of an XML file.
+     *
+     * @param bytes the content of the file
+     * @param ls    the line separator to normalize the line breaks to
+     * @return the decoded content
+     * @throws IOException if the encoding of the content is not supported
+     */
+    public static String decode( byte[] bytes, String ls )
+        throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.wrap( bytes );
+        Charset charset = detectCharset( buffer );
+        if ( charset == null )
+        {
+            Reader reader = ReaderFactory.newXmlReader( new ByteArrayInputStream( bytes ) );
+            try
+            {
+                return normalizeLineEndings( IOUtil.toString( reader ), ls );
+            }
+            finally
+            {
+                IOUtil.close( reader );
+            }
+        }
+
+        CharsetDecoder decoder = charset.newDecoder();
+        decoder.onMalformedInput( CodingErrorAction.REPLACE );
+        decoder.onUnmappableCharacter( CodingErrorAction.REPLACE );
+
+        XmlFileReader normalizer =
+            new XmlFileReader( ls, (int) ( buffer.remaining() * decoder.averageCharsPerByte() ) + 16 );
+        CharBuffer chunk = CharBuffer.allocate( Math.min( CHUNK_SIZE, buffer.remaining() + 16 ) );
+        try
+        {
+            CoderResult result;
+            do
+            {
+                result = decoder.decode( buffer, chunk, true );
+                if ( result.isError() )
+                {
+                    result.throwException();
+                }
+                normalizer.append( chunk );
+            }
+            while ( result.isOverflow() );
+
+            do
+            {
+                result = decoder.flush( chunk );
+                normalizer.append( chunk );
+            }
+            while ( result.isOverflow() );
+        }
+        catch ( CharacterCodingException e )
+        {
+            IOException exception = new IOException( "Unable to decode XML as " + charset + ": " + e.getMessage() );
+            exception.initCause( e );
+            throw exception;
+        }
+
+        return normalizer.toString();
+    }
+
+    /**
+     * Normalize the line separators of some text: <code>\r\n</code>, <code>\n</code> and <code>\r</code> are all
+     * replaced by the given separator.
+     *
+     * @param text the text
+     * @param ls   the line separator to use
+     * @return the text with its line separators normalized
+     */
+    public static String normalizeLineEndings( String text, String ls )
+    {
+        int i = 0;
+        int length = text.length();
+        while ( i < length && text.charAt( i ) != '\r' && text.charAt( i ) != '\n' )
+        {
+            i++;
+        }
+        if ( i == length || ( "\n".equals( ls ) && text.indexOf( '\r', i ) < 0 )
+            || ( "\r\n".equals( ls ) && !hasBareLineBreak( text, i ) ) )
+        {
+            // nothing to replace, which is usual for a file read on the platform it was written on
+            return text;
+        }
+
+        XmlFileReader normalizer = new XmlFileReader( ls, length + 16 );
+        char[] chars = text.toCharArray();
+        normalizer.append( chars, 0, chars.length );
+        return normalizer.toString();
+    }
+
+    /**
+     * Read a whole file with a single channel read.
+     *
+     * @param file the file
+     * @return the content of the file
+     * @throws IOException if the file can't be read
+     */
+    public static byte[] readBytes( File file )
+        throws IOException
+    {
+        FileInputStream in = new FileInputStream( file );
+        try
+        {
+            FileChannel channel = in.getChannel();
+            long size = channel.size();
+            if ( size > Integer.MAX_VALUE )
+            {
+                throw new IOException( "File too large: " + file );
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate( (int) size );
+            while ( buffer.hasRemaining() )
+            {
+                if ( channel.read( buffer ) < 0 )
+                {
+                    throw new EOFException( "File truncated while reading: " + file );
+                }
+            }
+            return buffer.array();
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+    }
+
+    private static boolean hasBareLineBreak( String text, int from )
+    {
+        int length = text.length();
+        for ( int i = from; i < length; i++ )
+        {
+            char c = text.charAt( i );
+            if ( c == '\r' )
+            {
+                if ( i + 1 == length || text.charAt( i + 1 ) != '\n' )
+                {
+                    return true;
+                }
+                i++;
+            }
+            else if ( c == '\n' )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Detect the encoding of an XML document as described in appendix F of the XML specification, and skip the byte
+     * order mark if there is one.
+     *
+     * @return the encoding, or <code>null</code> if it can't be detected without a full XML reader
+     */
+    private static Charset detectCharset( ByteBuffer buffer )
+    {
+        byte[] bytes = buffer.array();
+        int length = buffer.remaining();
+
+        if ( startsWith( bytes, length, 0xEF, 0xBB, 0xBF ) )
+        {
+            buffer.position( 3 );
+            return UTF_8.equals( getDeclaredCharset( bytes, 3, length, UTF_8 ) ) ? UTF_8 : null;
+        }
+        if ( startsWith( bytes, length, 0xFE, 0xFF ) && !startsWith( bytes, length, 0xFE, 0xFF, 0x00, 0x00 ) )
+        {
+            buffer.position( 2 );
+            return UTF_16BE;
+        }
+        if ( startsWith( bytes, length, 0xFF, 0xFE ) && !startsWith( bytes, length, 0xFF, 0xFE, 0x00, 0x00 ) )
+        {
+            buffer.position( 2 );
+            return UTF_16LE;
+        }
+        if ( startsWith( bytes, length, 0x00, 0x3C, 0x00, 0x3F ) )
+        {
+            return UTF_16BE;
+        }
+        if ( startsWith( bytes, length, 0x3C, 0x00, 0x3F, 0x00 ) )
+        {
+            return UTF_16LE;
+        }
+        if ( startsWith( bytes, length, 0x00 ) || startsWith( bytes, length, 0x4C, 0x6F, 0xA7, 0x94 ) )
+        {
+            // UTF-32 or EBCDIC
+            return null;
+        }
+        return getDeclaredCharset( bytes, 0, length, UTF_8 );
+    }
+
+    /**
+     * Get the encoding named in the XML declaration of an ASCII compatible document.
+     *
+     * @return the declared encoding, the default if there is no declaration or it doesn't name an encoding, or
+     *         <code>null</code> if the declaration can't be read or names an unsupported encoding
+     */
+    private static Charset getDeclaredCharset( byte[] bytes, int offset, int length, Charset defaultCharset )
+    {
+        if ( !startsWith( bytes, length, offset, "<?xml" ) )
+        {
+            return defaultCharset;
+        }
+
+        int limit = Math.min( length, offset + DECLARATION_LIMIT );
+        int end = -1;
+        for ( int i = offset + 5; i + 1 < limit; i++ )
+        {
+            if ( bytes[i] == '?' && bytes[i + 1] == '>' )
+            {
+                end = i;
+                break;
+            }
+        }
+        if ( end < 0 )
+        {
+            return null;
+        }
+
+        // the declaration is ASCII
+        char[] chars = new char[end - offset];
+        for ( int i = 0; i < chars.length; i++ )
+        {
+            chars[i] = (char) ( bytes[offset + i] & 0xFF );
+        }
+        String declaration = new String( chars );
+        int index = declaration.indexOf( "encoding" );
+        if ( index < 0 )
+        {
+            return defaultCharset;
+        }
+        index = declaration.indexOf( '=', index );
+        if ( index < 0 )
+        {
+            return null;
+        }
+        index++;
+        while ( index < declaration.length() && Character.isWhitespace( declaration.charAt( index ) ) )
+        {
+            index++;
+        }
+        if ( index >= declaration.length() )
+        {
+            return null;
+        }
+        char quote = declaration.charAt( index );
+        int close = declaration.indexOf( quote, index + 1 );
+        if ( ( quote != '"' && quote != '\'' ) || close < 0 )
+        {
+            return null;
+        }
+
+        String name = declaration.substring( index + 1, close ).trim();
+        if ( name.toUpperCase( Locale.ENGLISH ).startsWith( "UTF-16" )
+            || name.toUpperCase( Locale.ENGLISH ).startsWith( "UTF-32" ) )
+        {
+            // a declaration in an ASCII compatible encoding that names another encoding contradicts itself
+            return null;
+        }
+        try
+        {
+            return Charset.forName( name );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            // illegal or unsupported encoding, let the full reader report it
+            return null;
+        }
+    }
+
+    private static boolean startsWith( byte[] bytes, int length, int... prefix )
+    {
+        if ( length < prefix.length )
+        {
+            return false;
+        }
+        for ( int i = 0; i < prefix.length; i++ )
+        {
+            if ( ( bytes[i] & 0xFF ) != prefix[i] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith( byte[] bytes, int length, int offset, String prefix )
+    {
+        if ( length < offset + prefix.length() )
+        {
+            return false;
+        }
+        for ( int i = 0; i < prefix.length(); i++ )
+        {
+            if ( bytes[offset + i] != prefix.charAt( i ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Append the text the decoder has put in a chunk, and clear the chunk for the next one.
+     */
+    private void append( CharBuffer chunk )
+    {
+        chunk.flip();
+        append( chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.arrayOffset() + chunk.limit() );
+        chunk.clear();
+    }
+
+    /**
+     * Append text with its line separators normalized. A carriage return at the end of the text is remembered, so
+     * that a line feed at the start of the next text appended is recognized as part of the same line break.
+     */
+    private void append( char[] chars, int from, int to )
+    {
+        int required = length + ( to - from ) * Math.max( 1, separator.length );
+        if ( required > out.length )
+        {
+            char[] grown = new char[Math.max( required, out.length * 2 )];
+            System.arraycopy( out, 0, grown, 0, length );
+            out = grown;
+        }
+
+        for ( int i = from; i < to; i++ )
+        {
+            char c = chars[i];
+            if ( c == '\r' )
+            {
+                appendSeparator();
+                afterCarriageReturn = true;
+            }
+            else if ( c == '\n' )
+            {
+                if ( !afterCarriageReturn )
+                {
+                    appendSeparator();
+                }
+                afterCarriageReturn = false;
+            }
+            else
+            {
+                out[length++] = c;
+                afterCarriageReturn = false;
+            }
+        }
+    }
+
+    private void appendSeparator()
+    {
+        for ( int i = 0; i < separator.length; i++ )
+        {
+            out[length++] = separator[i];
+        }
+    }
+
+    public String toString()
+    {
+        return new String( out, 0, length );
+    }
+}
@@ -25,9 +25,11 @@ import org.codehaus.plexus.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
-import java.util.regex.Matcher;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -53,6 +55,10 @@ import java.util.regex.Pattern;
  * <p/>
  * Leading zeros are significant when performing comparisons.
  * <p/>
+ * The version string is parsed in a single pass, which splits it exactly as {@link #STANDARD_PATTERN} and
+ * {@link #ALTERNATE_PATTERN} would. Instances are immutable, so {@link #valueOf(String)} shares them between the
+ * callers parsing the same version string.
+ * <p/>
  * TODO: this parser is better than DefaultArtifactVersion - replace it with this (but align naming) and then remove this from here.
  */
 public class DefaultVersionInfo
@@ -74,23 +80,26 @@ public class DefaultVersionInfo
 
     private final String buildSeparator;
 
-    private static final int DIGITS_INDEX = 1;
-
-    private static final int ANNOTATION_SEPARATOR_INDEX = 2;
-
-    private static final int ANNOTATION_INDEX = 3;
+    /**
+     * The version as compared by {@link #compareTo(VersionInfo)}, created when first needed.
+     */
+    private volatile DefaultArtifactVersion artifactVersion;
 
-    private static final int ANNOTATION_REV_SEPARATOR_INDEX = 4;
+    private static final String SNAPSHOT_IDENTIFIER = "SNAPSHOT";
 
-    private static final int ANNOTATION_REVISION_INDEX = 5;
+    private static final String DIGIT_SEPARATOR_STRING = ".";
 
-    private static final int BUILD_SEPARATOR_INDEX = 6;
+    /**
+     * The number of versions kept by {@link #valueOf(String)}, which starts over once they are all taken.
+     */
+    private static final int CACHE_SIZE = 1024;
 
-    private static final int BUILD_SPECIFIER_INDEX = 7;
+    private static final Map<String, DefaultVersionInfo> CACHE = new ConcurrentHashMap<String, DefaultVersionInfo>();
 
-    private static final String SNAPSHOT_IDENTIFIER = "SNAPSHOT";
-
-    private static final String DIGIT_SEPARATOR_STRING = ".";
+    /**
+     * The length of the <code>-yyyyMMdd.HHmmss-</code> part of a timestamped snapshot.
+     */
+    private static final int TIMESTAMP_LENGTH = 17;
 
     public static final Pattern STANDARD_PATTERN = Pattern.compile(
         "^((?:\\d+\\.)*\\d+)"      // digit(s) and '.' repeated - followed by digit (version digits 1.22.0, etc)
@@ -123,9 +132,8 @@ public class DefaultVersionInfo
         strVersion = version;
 
         // FIX for non-digit release numbers, e.g. trunk-SNAPSHOT or just SNAPSHOT
-        Matcher matcher = ALTERNATE_PATTERN.matcher( strVersion );
         // TODO: hack because it didn't support "SNAPSHOT"
-        if ( matcher.matches() )
+        if ( isAlternateVersion( version ) )
         {
             annotation = null;
             digits = null;
@@ -134,44 +142,101 @@ public class DefaultVersionInfo
             return;
         }
 
-        Matcher m = STANDARD_PATTERN.matcher( strVersion );
-        if ( m.matches() )
+        // each part of STANDARD_PATTERN is taken in turn, as the longest run of the characters it allows
+        int length = version.length();
+        int digitsEnd = getDigitsEnd( version );
+        if ( digitsEnd < 0 || hasLineTerminator( version, digitsEnd, length ) )
         {
-            digits = parseDigits( m.group( DIGITS_INDEX ) );
-            if ( !SNAPSHOT_IDENTIFIER.equals( m.group( ANNOTATION_INDEX ) ) )
+            throw new VersionParseException( "Unable to parse the version string: \"" + version + "\"" );
+        }
+
+        int pos = digitsEnd;
+        String separator = getSeparator( version, pos );
+        if ( separator != null )
+        {
+            pos++;
+        }
+
+        int annotationStart = pos;
+        while ( pos < length && isLetter( version.charAt( pos ) ) )
+        {
+            pos++;
+        }
+        String annotationGroup = version.substring( annotationStart, pos );
+
+        String revisionSeparator = getSeparator( version, pos );
+        if ( revisionSeparator != null )
+        {
+            pos++;
+        }
+
+        int revisionStart = pos;
+        while ( pos < length && isDigit( version.charAt( pos ) ) )
+        {
+            pos++;
+        }
+        String revisionGroup = version.substring( revisionStart, pos );
+
+        String lastSeparator = getSeparator( version, pos );
+        if ( lastSeparator != null )
+        {
+            pos++;
+        }
+        String rest = version.substring( pos );
+
+        digits = parseDigits( version, digitsEnd );
+        if ( !SNAPSHOT_IDENTIFIER.equals( annotationGroup ) )
+        {
+            annotationSeparator = separator;
+            annotation = nullIfEmpty( annotationGroup );
+
+            if ( revisionSeparator != null && revisionGroup.length() == 0 )
             {
-                annotationSeparator = m.group( ANNOTATION_SEPARATOR_INDEX );
-                annotation = nullIfEmpty( m.group( ANNOTATION_INDEX ) );
-
-                if ( StringUtils.isNotEmpty( m.group( ANNOTATION_REV_SEPARATOR_INDEX ) )
-                    && StringUtils.isEmpty( m.group( ANNOTATION_REVISION_INDEX ) ) )
-                {
-                    // The build separator was picked up as the annotation revision separator
-                    buildSeparator = m.group( ANNOTATION_REV_SEPARATOR_INDEX );
-                    buildSpecifier = nullIfEmpty( m.group( BUILD_SPECIFIER_INDEX ) );
-                }
-                else
-                {
-                    annotationRevSeparator = m.group( ANNOTATION_REV_SEPARATOR_INDEX );
-                    annotationRevision = nullIfEmpty( m.group( ANNOTATION_REVISION_INDEX ) );
-
-                    buildSeparator = m.group( BUILD_SEPARATOR_INDEX );
-                    buildSpecifier = nullIfEmpty( m.group( BUILD_SPECIFIER_INDEX ) );
-                }
+                // The build separator was picked up as the annotation revision separator
+                buildSeparator = revisionSeparator;
+                buildSpecifier = nullIfEmpty( rest );
             }
             else
             {
-                // Annotation was "SNAPSHOT" so populate the build specifier with that data
-                buildSeparator = m.group( ANNOTATION_SEPARATOR_INDEX );
-                buildSpecifier = nullIfEmpty( m.group( ANNOTATION_INDEX ) );
+                annotationRevSeparator = revisionSeparator;
+                annotationRevision = nullIfEmpty( revisionGroup );
+
+                buildSeparator = lastSeparator;
+                buildSpecifier = nullIfEmpty( rest );
             }
         }
         else
         {
-            throw new VersionParseException( "Unable to parse the version string: \"" + version + "\"" );
+            // Annotation was "SNAPSHOT" so populate the build specifier with that data
+            buildSeparator = separator;
+            buildSpecifier = annotationGroup;
         }
     }
 
+    /**
+     * Get the information of a version, shared with the other callers parsing the same version string.
+     *
+     * @param version the version string
+     * @return the version information
+     * @throws VersionParseException if the version string can't be parsed
+     */
+    public static DefaultVersionInfo valueOf( String version )
+        throws VersionParseException
+    {
+        DefaultVersionInfo versionInfo = CACHE.get( version );
+        if ( versionInfo == null )
+        {
+            versionInfo = new DefaultVersionInfo( version );
+
+            if ( CACHE.size() >= CACHE_SIZE )
+            {
+                CACHE.clear();
+            }
+            CACHE.put( version, versionInfo );
+        }
+        return versionInfo;
+    }
+
     public DefaultVersionInfo( List<String> digits, String annotation, String annotationRevision, String buildSpecifier,
                                String annotationSeparator, String annotationRevSeparator, String buildSeparator )
     {
@@ -188,8 +253,7 @@ public class DefaultVersionInfo
     public boolean isSnapshot()
     {
         // TODO: ripped from Artifact. Should be in ArtifactVersion -> move.
-        Matcher m = Artifact.VERSION_FILE_PATTERN.matcher( strVersion );
-        if ( m.matches() )
+        if ( getTimestampedBaseLength( strVersion ) >= 0 )
         {
             return true;
         }
@@ -246,15 +310,25 @@ public class DefaultVersionInfo
             result = -1;
         }
         else
+        {
+            result = getArtifactVersion().compareTo( that.getArtifactVersion() );
+        }
+        return result;
+    }
+
+    private DefaultArtifactVersion getArtifactVersion()
+    {
+        DefaultArtifactVersion artifactVersion = this.artifactVersion;
+        if ( artifactVersion == null )
         {
             // TODO: this is a workaround for a bug in DefaultArtifactVersion - fix there - it should not consider case in comparing the qualifier
             // NOTE: The combination of upper-casing and lower-casing is an approximation of String.equalsIgnoreCase()
-            String thisVersion = strVersion.toUpperCase( Locale.ENGLISH ).toLowerCase( Locale.ENGLISH );
-            String thatVersion = that.strVersion.toUpperCase( Locale.ENGLISH ).toLowerCase( Locale.ENGLISH );
+            String version = strVersion.toUpperCase( Locale.ENGLISH ).toLowerCase( Locale.ENGLISH );
 
-            result = new DefaultArtifactVersion( thisVersion ).compareTo( new DefaultArtifactVersion( thatVersion ) );
+            artifactVersion = new DefaultArtifactVersion( version );
+            this.artifactVersion = artifactVersion;
         }
-        return result;
+        return artifactVersion;
     }
 
     public boolean equals( Object obj )
@@ -306,10 +380,10 @@ public class DefaultVersionInfo
     {
         String baseVersion = strVersion;
 
-        Matcher m = Artifact.VERSION_FILE_PATTERN.matcher( baseVersion );
-        if ( m.matches() )
+        int baseLength = getTimestampedBaseLength( baseVersion );
+        if ( baseLength >= 0 )
         {
-            baseVersion = m.group( 1 );
+            baseVersion = baseVersion.substring( 0, baseLength );
         }
         else if ( baseVersion.endsWith( "-" + Artifact.SNAPSHOT_VERSION ) )
         {
@@ -375,14 +449,179 @@ public class DefaultVersionInfo
     }
 
     /**
-     * Splits the string on "." and returns a list
+     * Splits the start of the version on "." and returns a list
      * containing each digit.
      *
-     * @param strDigits
+     * @param version
+     * @param end the end of the digits
+     */
+    private static List<String> parseDigits( String version, int end )
+    {
+        int count = 1;
+        for ( int i = version.indexOf( '.' ); i >= 0 && i < end; i = version.indexOf( '.', i + 1 ) )
+        {
+            count++;
+        }
+
+        String[] digits = new String[count];
+        int start = 0;
+        for ( int i = 0; i < count - 1; i++ )
+        {
+            int dot = version.indexOf( '.', start );
+            digits[i] = version.substring( start, dot );
+            start = dot + 1;
+        }
+        digits[count - 1] = version.substring( start, end );
+
+        // shared by all the users of an instance from valueOf()
+        return Collections.unmodifiableList( Arrays.asList( digits ) );
+    }
+
+    /**
+     * Find the end of the digits at the start of the version, as matched by <code>(?:\d+\.)*\d+</code>.
+     *
+     * @return the end of the digits, or <code>-1</code> if the version doesn't start with a digit
+     */
+    private static int getDigitsEnd( String version )
+    {
+        int length = version.length();
+        int end = -1;
+        int pos = 0;
+        while ( pos < length && isDigit( version.charAt( pos ) ) )
+        {
+            while ( pos < length && isDigit( version.charAt( pos ) ) )
+            {
+                pos++;
+            }
+            end = pos;
+
+            if ( pos + 1 < length && version.charAt( pos ) == '.' && isDigit( version.charAt( pos + 1 ) ) )
+            {
+                pos++;
+            }
+            else
+            {
+                break;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * @return whether the version is matched by {@link #ALTERNATE_PATTERN}
+     */
+    private static boolean isAlternateVersion( String version )
+    {
+        if ( SNAPSHOT_IDENTIFIER.equals( version ) )
+        {
+            return true;
+        }
+
+        int nameEnd = version.length() - SNAPSHOT_IDENTIFIER.length() - 1;
+        if ( nameEnd <= 0 || !version.endsWith( SNAPSHOT_IDENTIFIER ) || getSeparator( version, nameEnd ) == null )
+        {
+            return false;
+        }
+        for ( int i = 0; i < nameEnd; i++ )
+        {
+            if ( !isLetter( version.charAt( i ) ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Work out the base of a timestamped snapshot, as matched by {@link Artifact#VERSION_FILE_PATTERN}.
+     *
+     * @return the length of the base version, or <code>-1</code> if the version isn't a timestamped snapshot
      */
-    private List<String> parseDigits( String strDigits )
+    private static int getTimestampedBaseLength( String version )
     {
-        return Arrays.asList( StringUtils.split( strDigits, DIGIT_SEPARATOR_STRING ) );
+        int length = version.length();
+        int buildNumberStart = length;
+        while ( buildNumberStart > 0 && isDigit( version.charAt( buildNumberStart - 1 ) ) )
+        {
+            buildNumberStart--;
+        }
+        if ( buildNumberStart == length || buildNumberStart < TIMESTAMP_LENGTH )
+        {
+            return -1;
+        }
+
+        // -yyyyMMdd.HHmmss-
+        int baseLength = buildNumberStart - TIMESTAMP_LENGTH;
+        for ( int i = 0; i < TIMESTAMP_LENGTH; i++ )
+        {
+            char c = version.charAt( baseLength + i );
+            boolean valid;
+            if ( i == 0 || i == TIMESTAMP_LENGTH - 1 )
+            {
+                valid = c == '-';
+            }
+            else if ( i == 9 )
+            {
+                valid = !isLineTerminator( c );
+            }
+            else
+            {
+                valid = isDigit( c );
+            }
+
+            if ( !valid )
+            {
+                return -1;
+            }
+        }
+        return hasLineTerminator( version, 0, baseLength ) ? -1 : baseLength;
+    }
+
+    private static String getSeparator( String version, int pos )
+    {
+        if ( pos < version.length() )
+        {
+            char c = version.charAt( pos );
+            if ( c == '-' )
+            {
+                return "-";
+            }
+            else if ( c == '_' )
+            {
+                return "_";
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasLineTerminator( String version, int start, int end )
+    {
+        for ( int i = start; i < end; i++ )
+        {
+            if ( isLineTerminator( version.charAt( i ) ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return whether the character is not matched by <code>.</code> in a regular expression
+     */
+    private static boolean isLineTerminator( char c )
+    {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean isDigit( char c )
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter( char c )
+    {
+        return ( c >= 'a' && c <= 'z' ) || ( c >= 'A' && c <= 'Z' );
     }
 
     //--------------------------------------------------
@@ -394,9 +633,12 @@ public class DefaultVersionInfo
         return StringUtils.isEmpty( s ) ? null : s;
     }
 
+    /**
+     * @return a copy of the digits, as the instances from {@link #valueOf(String)} are shared
+     */
     public List<String> getDigits()
     {
-        return digits;
+        return digits != null ? new ArrayList<String>( digits ) : null;
     }
 
     public String getAnnotation()
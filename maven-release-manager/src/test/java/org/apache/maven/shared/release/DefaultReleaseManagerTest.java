@@ -21,9 +21,13 @@ package org.apache.maven.shared.release;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.scm.ScmException;
@@ -46,6 +50,7 @@ import org.apache.maven.shared.release.exec.MavenExecutor;
 import org.apache.maven.shared.release.phase.IsScmFileSetEquals;
 import org.apache.maven.shared.release.phase.ReleasePhase;
 import org.apache.maven.shared.release.phase.ReleasePhaseStub;
+import org.apache.maven.shared.release.phase.ResourceAwareReleasePhaseStub;
 import org.apache.maven.shared.release.phase.RunPerformGoalsPhase;
 import org.apache.maven.shared.release.scm.DefaultScmRepositoryConfigurator;
 import org.apache.maven.shared.release.scm.ReleaseScmCommandException;
@@ -315,6 +320,149 @@ public class DefaultReleaseManagerTest
         }
     }
 
+    public void testPrepareConcurrentPhases()
+        throws Exception
+    {
+        ReleaseManager releaseManager = (ReleaseManager) lookup( ReleaseManager.ROLE, "parallel" );
+
+        ReleaseDescriptor releaseDescriptor = configStore.getReleaseConfiguration();
+        releaseDescriptor.setCompletedPhase( null );
+
+        releaseManager.prepare( new ReleaseDescriptor(), new DefaultReleaseEnvironment(), null );
+
+        assertEquals( "step1", configStore.getReleaseConfiguration().getCompletedPhase() );
+
+        @SuppressWarnings("unchecked")
+        Map<String,ReleasePhase> phases = container.lookupMap( ReleasePhase.ROLE );
+
+        ResourceAwareReleasePhaseStub check1 = (ResourceAwareReleasePhaseStub) phases.get( "check1" );
+        ResourceAwareReleasePhaseStub check2 = (ResourceAwareReleasePhaseStub) phases.get( "check2" );
+        ResourceAwareReleasePhaseStub check3 = (ResourceAwareReleasePhaseStub) phases.get( "check3" );
+        assertTrue( "check1 executed", check1.isExecuted() );
+        assertTrue( "check2 executed", check2.isExecuted() );
+        assertTrue( "check3 executed", check3.isExecuted() );
+        assertTrue( "step1 executed", ( (ReleasePhaseStub) phases.get( "step1" ) ).isExecuted() );
+        assertTrue( "check3 starts after check1", check3.getStartTime() > check1.getEndTime() );
+    }
+
+    public void testPrepareConcurrentPhasesFailure()
+        throws Exception
+    {
+        ReleaseManager releaseManager = (ReleaseManager) lookup( ReleaseManager.ROLE, "parallel-failure" );
+
+        ReleaseDescriptor releaseDescriptor = configStore.getReleaseConfiguration();
+        releaseDescriptor.setCompletedPhase( null );
+
+        try
+        {
+            releaseManager.prepare( new ReleaseDescriptor(), new DefaultReleaseEnvironment(), null );
+            fail( "Should have failed in the failing phase" );
+        }
+        catch ( ReleaseFailureException e )
+        {
+            assertEquals( "Phase failed", e.getMessage() );
+        }
+
+        assertEquals( "check1", configStore.getReleaseConfiguration().getCompletedPhase() );
+    }
+
+    public void testPrepareConcurrentPhasesFailureReported()
+        throws Exception
+    {
+        ReleaseManager releaseManager = (ReleaseManager) lookup( ReleaseManager.ROLE, "parallel-failure" );
+
+        ReleaseDescriptor releaseDescriptor = configStore.getReleaseConfiguration();
+        releaseDescriptor.setCompletedPhase( null );
+
+        final List<String> events = new ArrayList<String>();
+        ReleaseManagerListener listener = new ReleaseManagerListener()
+        {
+            public void goalStart( String goal, List<String> phases )
+            {
+                events.add( "goal " + goal );
+            }
+
+            public void phaseStart( String name )
+            {
+                events.add( "start " + name );
+            }
+
+            public void phaseEnd()
+            {
+                events.add( "end" );
+            }
+
+            public void phaseSkip( String name )
+            {
+                events.add( "skip " + name );
+            }
+
+            public void goalEnd()
+            {
+                events.add( "goal end" );
+            }
+
+            public void error( String reason )
+            {
+                events.add( "error " + reason );
+            }
+        };
+
+        ReleaseResult result = releaseManager.prepareWithResult( new ReleaseDescriptor(),
+                                                                 new DefaultReleaseEnvironment(), null, false,
+                                                                 false, listener );
+
+        assertEquals( ReleaseResult.ERROR, result.getResultCode() );
+
+        // both phases are started as they are submitted, before either has finished
+        assertEquals( Arrays.asList( new String[] { "goal prepare", "start check1", "start failing-check" } ),
+                      events.subList( 0, 3 ) );
+
+        // as when the phases run one after the other, the failing phase is not ended, and the error is reported once,
+        // last
+        assertEquals( 1, Collections.frequency( events, "error Phase failed" ) );
+        assertEquals( "error Phase failed", events.get( events.size() - 1 ) );
+        assertEquals( Collections.frequency( events, "start check1" ) + Collections.frequency( events, "start check3" ),
+                      Collections.frequency( events, "end" ) );
+        assertEquals( "check1", configStore.getReleaseConfiguration().getCompletedPhase() );
+    }
+
+    public void testPrepareConcurrentPhasesDescriptorWrittenAfterWriters()
+        throws Exception
+    {
+        ReleaseManager releaseManager = (ReleaseManager) lookup( ReleaseManager.ROLE, "parallel-descriptor" );
+
+        ReleaseDescriptor releaseDescriptor = configStore.getReleaseConfiguration();
+        releaseDescriptor.setCompletedPhase( null );
+
+        releaseManager.prepare( new ReleaseDescriptor(), new DefaultReleaseEnvironment(), null );
+
+        // check1 completes first, but is not written while resolve-snapshots may still change the descriptor
+        ReleasePhase check1 = (ReleasePhase) lookup( ReleasePhase.ROLE, "check1" );
+        ReleasePhase resolveSnapshots = (ReleasePhase) lookup( ReleasePhase.ROLE, "resolve-snapshots" );
+        assertTrue( ( (ResourceAwareReleasePhaseStub) check1 ).getEndTime()
+            < ( (ResourceAwareReleasePhaseStub) resolveSnapshots ).getEndTime() );
+        assertEquals( Collections.singletonList( "resolve-snapshots" ),
+                      configStore.getWrittenPhases() );
+    }
+
+    public void testPhaseDependencies()
+        throws Exception
+    {
+        @SuppressWarnings("unchecked")
+        Map<String,ReleasePhase> phases = container.lookupMap( ReleasePhase.ROLE );
+
+        List<Set<Integer>> dependencies = DefaultReleaseManager.getPhaseDependencies(
+            Arrays.asList( new ReleasePhase[] { phases.get( "check1" ), phases.get( "check2" ),
+                phases.get( "check3" ), phases.get( "step1" ) } ) );
+
+        assertEquals( Collections.emptySet(), dependencies.get( 0 ) );
+        assertEquals( Collections.emptySet(), dependencies.get( 1 ) );
+        assertEquals( Collections.singleton( Integer.valueOf( 0 ) ), dependencies.get( 2 ) );
+        assertEquals( new HashSet<Integer>( Arrays.asList( new Integer[] { Integer.valueOf( 0 ),
+            Integer.valueOf( 1 ), Integer.valueOf( 2 ) } ) ), dependencies.get( 3 ) );
+    }
+
     public void testReleaseConfigurationStoreReadFailure()
         throws Exception
     {
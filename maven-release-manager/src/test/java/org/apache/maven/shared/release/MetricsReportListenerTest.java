@@ -0,0 +1,167 @@
+package org.apache.maven.shared.release;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.apache.maven.scm.ScmFileSet;
+import org.apache.maven.scm.provider.ScmProvider;
+import org.apache.maven.scm.provider.ScmProviderStub;
+import org.apache.maven.scm.repository.ScmRepository;
+import org.codehaus.plexus.PlexusTestCase;
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Test the release metrics and their report.
+ */
+public class MetricsReportListenerTest
+    extends PlexusTestCase
+{
+    private final Logger logger = new ConsoleLogger( Logger.LEVEL_INFO, "test" );
+
+    public void testReportWrittenAfterEachPhase()
+        throws Exception
+    {
+        File reportFile = getTestFile( "target/output/metrics/release-metrics.json" );
+        reportFile.delete();
+
+        MetricsReportListener listener = new MetricsReportListener( reportFile, null, logger );
+        listener.goalStart( "prepare", Arrays.asList( new String[] { "step1", "step2", "step3" } ) );
+        listener.phaseSkip( "step1" );
+        listener.phaseStart( "step2" );
+
+        ReleaseMetrics metrics = new ReleaseMetrics();
+        metrics.addTime( 20, 10 );
+        metrics.addModules( 3 );
+        metrics.addScmCommand( 5 );
+        metrics.addPomBytesWritten( 1024 );
+        metrics.addCacheHits( 2 );
+        metrics.addCacheMisses( 1 );
+        listener.phaseMetrics( "step2", metrics );
+        listener.phaseEnd();
+
+        String report = FileUtils.fileRead( reportFile, "UTF-8" );
+        assertTrue( report, report.indexOf( "\"status\": \"running\"" ) >= 0 );
+        assertTrue( report, report.indexOf( "{ \"name\": \"step1\", \"status\": \"skipped\" }" ) >= 0 );
+        assertTrue( report, report.indexOf( "{ \"name\": \"step2\", \"status\": \"completed\", \"metrics\": "
+            + "{ \"wallTime\": 20, \"callingThreadCpuTime\": 10, \"modules\": 3, \"scmCommands\": 1, \"scmTime\": 5, "
+            + "\"forkedBuilds\": 0, \"forkedBuildTime\": 0, \"pomBytesRead\": 0, \"pomBytesWritten\": 1024, "
+            + "\"cacheHits\": 2, \"cacheMisses\": 1 } }" ) >= 0 );
+
+        listener.phaseStart( "step3" );
+        listener.error( "Failed: \"step3\"" );
+
+        report = FileUtils.fileRead( reportFile, "UTF-8" );
+        assertTrue( report, report.indexOf( "\"status\": \"error\"" ) >= 0 );
+        assertTrue( report, report.indexOf( "\"error\": \"Failed: \\\"step3\\\"\"" ) >= 0 );
+        assertTrue( report, report.indexOf( "{ \"name\": \"step3\", \"status\": \"failed\"" ) >= 0 );
+        assertTrue( report, report.indexOf( "\"totals\": { \"wallTime\": 20" ) >= 0 );
+    }
+
+    public void testEventsPassedOn()
+        throws Exception
+    {
+        final StringBuffer events = new StringBuffer();
+        ReleaseMetricsListener delegate = new ReleaseMetricsListener()
+        {
+            public void goalStart( String goal, java.util.List<String> phases )
+            {
+                events.append( "goalStart:" ).append( goal ).append( ';' );
+            }
+
+            public void phaseStart( String name )
+            {
+                events.append( "phaseStart:" ).append( name ).append( ';' );
+            }
+
+            public void phaseMetrics( String name, ReleaseMetrics metrics )
+            {
+                events.append( "phaseMetrics:" ).append( name ).append( ';' );
+            }
+
+            public void phaseEnd()
+            {
+                events.append( "phaseEnd;" );
+            }
+
+            public void phaseSkip( String name )
+            {
+                events.append( "phaseSkip:" ).append( name ).append( ';' );
+            }
+
+            public void goalEnd()
+            {
+                events.append( "goalEnd;" );
+            }
+
+            public void error( String reason )
+            {
+                events.append( "error:" ).append( reason ).append( ';' );
+            }
+        };
+
+        File reportFile = getTestFile( "target/output/metrics/release-metrics-delegate.json" );
+        MetricsReportListener listener = new MetricsReportListener( reportFile, delegate, logger );
+        listener.goalStart( "perform", Arrays.asList( new String[] { "step1" } ) );
+        listener.phaseStart( "step1" );
+        listener.phaseMetrics( "step1", new ReleaseMetrics() );
+        listener.phaseEnd();
+        listener.goalEnd();
+
+        assertEquals( "goalStart:perform;phaseStart:step1;phaseMetrics:step1;phaseEnd;goalEnd;", events.toString() );
+        assertTrue( FileUtils.fileRead( reportFile, "UTF-8" ).indexOf( "\"status\": \"success\"" ) >= 0 );
+    }
+
+    public void testQuote()
+    {
+        assertEquals( "null", MetricsReportListener.quote( null ) );
+        assertEquals( "\"a\\\\b\\nc\\u0001\"", MetricsReportListener.quote( "a\\b\nc\u0001" ) );
+    }
+
+    public void testMeteredScmProvider()
+        throws Exception
+    {
+        ReleaseMetrics metrics = new ReleaseMetrics();
+        ScmProvider provider = metrics.meter( new ScmProviderStub() );
+
+        provider.status( (ScmRepository) null, (ScmFileSet) null );
+        provider.getScmType();
+
+        assertEquals( 1, metrics.getScmCommands() );
+    }
+
+    public void testAddMetrics()
+    {
+        ReleaseMetrics metrics = new ReleaseMetrics();
+        metrics.addForkedBuild( 100 );
+
+        ReleaseMetrics other = new ReleaseMetrics();
+        other.addForkedBuild( 50 );
+        other.addPomBytesRead( 10 );
+        metrics.add( other );
+
+        assertEquals( 2, metrics.getForkedBuilds() );
+        assertEquals( 150, metrics.getForkedBuildTime() );
+        assertEquals( 10, metrics.getPomBytesRead() );
+    }
+}
@@ -0,0 +1,82 @@
+package org.apache.maven.shared.release;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.StringWriter;
+
+import org.codehaus.plexus.PlexusTestCase;
+
+/**
+ * Test the release result output handling.
+ */
+public class ReleaseResultTest
+    extends PlexusTestCase
+{
+    public void testUnlimitedOutput()
+    {
+        ReleaseResult result = new ReleaseResult();
+        result.appendOutput( "foo" );
+        result.appendOutput( "bar" );
+
+        assertEquals( "foobar", result.getOutput() );
+        assertNull( result.getOutputFile() );
+    }
+
+    public void testOutputWrittenToFile()
+        throws Exception
+    {
+        File file = getTestFile( "target/output/release-result-test.log" );
+
+        ReleaseResult result = new ReleaseResult();
+        result.appendOutput( "0123" );
+        result.setOutputLimit( 4, file );
+
+        StringBuffer expected = new StringBuffer( "0123" );
+        for ( int i = 0; i < 10; i++ )
+        {
+            result.appendOutput( "abc" + i );
+            expected.append( "abc" ).append( i );
+        }
+
+        assertEquals( file, result.getOutputFile() );
+        assertTrue( result.getOutputBuffer().length() <= 8 );
+        assertTrue( result.getOutput().endsWith( result.getOutputBuffer().toString() ) );
+        assertTrue( result.getOutput().indexOf( file.toString() ) >= 0 );
+
+        StringWriter writer = new StringWriter();
+        result.writeOutput( writer );
+        assertEquals( expected.toString(), writer.toString() );
+    }
+
+    public void testAppendOutputFromResultWrittenToFile()
+        throws Exception
+    {
+        ReleaseResult phaseResult = new ReleaseResult();
+        phaseResult.setOutputLimit( 2, getTestFile( "target/output/release-result-phase.log" ) );
+        phaseResult.appendOutput( "0123456789" );
+
+        ReleaseResult result = new ReleaseResult();
+        result.appendOutput( "start:" );
+        result.appendOutput( phaseResult );
+
+        assertEquals( "start:0123456789", result.getOutput() );
+    }
+}
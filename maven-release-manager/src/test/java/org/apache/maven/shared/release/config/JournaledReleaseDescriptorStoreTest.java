@@ -0,0 +1,161 @@
+package org.apache.maven.shared.release.config;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.shared.release.phase.AbstractReleaseTestCase;
+import org.codehaus.plexus.PlexusTestCase;
+import org.codehaus.plexus.util.FileUtils;
+
+import java.io.File;
+import java.io.FileWriter;
+
+/**
+ * Test the journaled store.
+ */
+public class JournaledReleaseDescriptorStoreTest
+    extends PlexusTestCase
+{
+    private JournaledReleaseDescriptorStore store;
+
+    private File file;
+
+    private File journal;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+        store = (JournaledReleaseDescriptorStore) lookup( ReleaseDescriptorStore.ROLE, "journaled" );
+
+        file = getTestFile( "target/test-classes/journal/release.properties" );
+        journal = JournaledReleaseDescriptorStore.getJournalFile( file );
+        file.getParentFile().mkdirs();
+        file.delete();
+        journal.delete();
+    }
+
+    public void testWriteAppendsChanges()
+        throws Exception
+    {
+        ReleaseDescriptor config = createReleaseDescriptor();
+        config.setCompletedPhase( "step1" );
+        store.write( config );
+
+        assertFalse( "Check properties not written", file.exists() );
+        long length = journal.length();
+        assertTrue( "Check journal written", length > 0 );
+
+        config.setCompletedPhase( "step2" );
+        config.mapReleaseVersion( "groupId:artifactId2", "3.0" );
+        store.write( config );
+
+        String appended = FileUtils.fileRead( journal ).substring( (int) length );
+        assertTrue( "Check changed phase", appended.indexOf( "set.completedPhase=step2" ) >= 0 );
+        assertTrue( "Check added version", appended.indexOf( "set.project.rel.groupId\\:artifactId2=3.0" ) >= 0 );
+        assertEquals( "Check unchanged version", -1, appended.indexOf( "artifactId1" ) );
+
+        length = journal.length();
+        store.write( config );
+        assertEquals( "Check nothing appended without changes", length, journal.length() );
+
+        assertEquals( "Check replay", config, read() );
+    }
+
+    public void testWriteRemovesProperties()
+        throws Exception
+    {
+        ReleaseDescriptor config = createReleaseDescriptor();
+        config.setCompletedPhase( "step1" );
+        config.setScmUsername( "username" );
+        store.write( config );
+
+        config.setCompletedPhase( "step2" );
+        config.setScmUsername( null );
+        store.write( config );
+
+        assertNull( "Check username removed", read().getScmUsername() );
+    }
+
+    public void testCompaction()
+        throws Exception
+    {
+        ReleaseDescriptor config = createReleaseDescriptor();
+        config.setCompletedPhase( "step1" );
+        store.write( config );
+
+        config.setCompletedPhase( "end-release" );
+        store.write( config );
+
+        assertTrue( "Check properties written", file.exists() );
+        assertFalse( "Check journal removed", journal.exists() );
+
+        PropertiesReleaseDescriptorStore properties =
+            (PropertiesReleaseDescriptorStore) lookup( ReleaseDescriptorStore.ROLE, "properties" );
+        ReleaseDescriptor compacted = properties.read( file );
+        compacted.setWorkingDirectory( config.getWorkingDirectory() );
+        assertEquals( "Check compacted configuration", config, compacted );
+    }
+
+    public void testReplayIgnoresIncompleteBlock()
+        throws Exception
+    {
+        ReleaseDescriptor config = createReleaseDescriptor();
+        config.setCompletedPhase( "step1" );
+        store.write( config );
+
+        FileWriter writer = new FileWriter( journal, true );
+        writer.write( "set.completedPhase=step2\n" );
+        writer.close();
+
+        assertEquals( "Check last complete phase", "step1", read().getCompletedPhase() );
+    }
+
+    public void testDelete()
+        throws Exception
+    {
+        ReleaseDescriptor config = createReleaseDescriptor();
+        config.setCompletedPhase( "step1" );
+        store.write( config );
+
+        store.delete( config );
+
+        assertFalse( "Check journal removed", journal.exists() );
+        assertNull( "Check nothing stored", read().getCompletedPhase() );
+    }
+
+    private ReleaseDescriptor read()
+        throws Exception
+    {
+        ReleaseDescriptor descriptor = store.read( file );
+        descriptor.setWorkingDirectory( AbstractReleaseTestCase.getPath( file.getParentFile() ) );
+        return descriptor;
+    }
+
+    private ReleaseDescriptor createReleaseDescriptor()
+        throws Exception
+    {
+        ReleaseDescriptor config = new ReleaseDescriptor();
+        config.setScmSourceUrl( "scm-url" );
+        config.setWorkingDirectory( AbstractReleaseTestCase.getPath( file.getParentFile() ) );
+        config.mapReleaseVersion( "groupId:artifactId1", "2.0" );
+        config.mapDevelopmentVersion( "groupId:artifactId1", "2.1-SNAPSHOT" );
+        return config;
+    }
+}
@@ -19,6 +19,9 @@ package org.apache.maven.shared.release.config;
  * under the License.
  */
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Test stub for the release configuration store that holds a single configuration in memory.
  *
@@ -32,6 +35,11 @@ public class ReleaseDescriptorStoreStub
      */
     private ReleaseDescriptor releaseDescriptor = new ReleaseDescriptor();
 
+    /**
+     * The completed phase of each configuration written.
+     */
+    private List<String> writtenPhases = new ArrayList<String>();
+
     public ReleaseDescriptor read( ReleaseDescriptor mergeDescriptor )
     {
         ReleaseUtils.merge( releaseDescriptor, mergeDescriptor );
@@ -41,6 +49,7 @@ public class ReleaseDescriptorStoreStub
     public void write( ReleaseDescriptor config )
     {
         this.releaseDescriptor = config;
+        writtenPhases.add( config.getCompletedPhase() );
     }
 
     public void delete( ReleaseDescriptor config )
@@ -51,4 +60,9 @@ public class ReleaseDescriptorStoreStub
     {
         return releaseDescriptor;
     }
+
+    public List<String> getWrittenPhases()
+    {
+        return writtenPhases;
+    }
 }
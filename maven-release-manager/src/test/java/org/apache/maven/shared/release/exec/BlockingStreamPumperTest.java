@@ -0,0 +1,59 @@
+package org.apache.maven.shared.release.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test the stream pumper that copies a stream with blocking reads.
+ */
+public class BlockingStreamPumperTest
+    extends TestCase
+{
+    public void testCopyUntilEndOfInput()
+        throws Exception
+    {
+        byte[] content = new byte[100000];
+        for ( int i = 0; i < content.length; i++ )
+        {
+            content[i] = (byte) ( i % 64 + ' ' );
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        BlockingStreamPumper pumper = new BlockingStreamPumper( new ByteArrayInputStream( content ), out );
+        new Thread( pumper ).start();
+
+        assertTrue( "Check finished", pumper.waitFor( 10, TimeUnit.SECONDS ) );
+        assertEquals( "Check content", new String( content ), out.toString() );
+    }
+
+    public void testWaitForUnfinished()
+        throws Exception
+    {
+        BlockingStreamPumper pumper =
+            new BlockingStreamPumper( new ByteArrayInputStream( new byte[0] ), new ByteArrayOutputStream() );
+
+        assertFalse( "Check not finished", pumper.waitFor( 10, TimeUnit.MILLISECONDS ) );
+    }
+}
@@ -0,0 +1,63 @@
+package org.apache.maven.shared.release.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URLDecoder;
+
+/**
+ * Stands in for {@link MavenServer}, echoing the requests instead of running Maven. A request for the goal
+ * <code>fail</code> fails, and one for the goal <code>exit</code> makes the server exit.
+ */
+public class EchoMavenServer
+{
+    public static void main( String[] args )
+        throws Exception
+    {
+        BufferedReader reader = new BufferedReader( new InputStreamReader( System.in, "UTF-8" ) );
+        int requests = 0;
+        for ( String line = reader.readLine(); line != null; line = reader.readLine() )
+        {
+            String[] fields = line.split( " " );
+            int exitCode = 0;
+
+            System.out.println( "request " + ( ++requests ) );
+            for ( int i = 1; i < fields.length; i++ )
+            {
+                String field = URLDecoder.decode( fields[i], "UTF-8" );
+                if ( "fail".equals( field ) )
+                {
+                    exitCode = 1;
+                }
+                else if ( "exit".equals( field ) )
+                {
+                    System.exit( 0 );
+                }
+                System.out.println( field );
+            }
+
+            // an unfinished line, which the token has to be found after
+            System.out.print( "done" );
+            System.out.println( URLDecoder.decode( fields[0], "UTF-8" ) + " " + exitCode );
+            System.out.flush();
+        }
+    }
+}
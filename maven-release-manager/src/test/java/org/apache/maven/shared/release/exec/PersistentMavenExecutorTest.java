@@ -0,0 +1,124 @@
+package org.apache.maven.shared.release.exec;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+import org.apache.maven.shared.release.ReleaseResult;
+import org.apache.maven.shared.release.env.DefaultReleaseEnvironment;
+import org.apache.maven.shared.release.env.ReleaseEnvironment;
+import org.codehaus.plexus.PlexusTestCase;
+
+/**
+ * Test the persistent Maven executor against a server that echoes the requests.
+ */
+public class PersistentMavenExecutorTest
+    extends PlexusTestCase
+{
+    private PersistentMavenExecutor executor;
+
+    private ReleaseEnvironment releaseEnvironment;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        executor = (PersistentMavenExecutor) lookup( MavenExecutor.ROLE, "persistent" );
+        executor.setServerClass( EchoMavenServer.class );
+
+        releaseEnvironment = new DefaultReleaseEnvironment().setMavenHome( getTestFile( "target/maven-home" ) );
+    }
+
+    protected void tearDown()
+        throws Exception
+    {
+        executor.dispose();
+
+        super.tearDown();
+    }
+
+    public void testServerReused()
+        throws Exception
+    {
+        File workingDirectory = getTestFile( "target/working-directory" );
+        workingDirectory.mkdirs();
+
+        ReleaseResult result = new ReleaseResult();
+        executor.executeGoals( workingDirectory, "clean integration-test", releaseEnvironment, false,
+                               "-DperformRelease=true -Dname=\"a b\"", "my-pom.xml", result );
+
+        String output = result.getOutput();
+        assertTrue( output, output.indexOf( "request 1" ) >= 0 );
+        assertTrue( output, output.indexOf( workingDirectory.getAbsolutePath() ) >= 0 );
+        assertTrue( output, output.indexOf( "-f\nmy-pom.xml\nclean\nintegration-test\n--batch-mode\n"
+            + "-DperformRelease=true\n-Dname=a b\ndone" ) >= 0 );
+        assertTrue( output, output.indexOf( "maven-server-" ) < 0 );
+
+        result = new ReleaseResult();
+        executor.executeGoals( workingDirectory, "deploy", releaseEnvironment, false, null, result );
+
+        assertTrue( result.getOutput(), result.getOutput().indexOf( "request 2" ) >= 0 );
+    }
+
+    public void testFailure()
+        throws Exception
+    {
+        File workingDirectory = getTestFile( "target/working-directory" );
+        workingDirectory.mkdirs();
+
+        ReleaseResult result = new ReleaseResult();
+        try
+        {
+            executor.executeGoals( workingDirectory, "fail", releaseEnvironment, false, null, result );
+
+            fail( "Should have thrown an exception" );
+        }
+        catch ( MavenExecutorException e )
+        {
+            assertEquals( 1, e.getExitCode() );
+        }
+
+        assertTrue( result.getOutput(), result.getOutput().indexOf( "fail" ) >= 0 );
+    }
+
+    public void testServerRestartedAfterExit()
+        throws Exception
+    {
+        File workingDirectory = getTestFile( "target/working-directory" );
+        workingDirectory.mkdirs();
+
+        try
+        {
+            executor.executeGoals( workingDirectory, "exit", releaseEnvironment, false, null, new ReleaseResult() );
+
+            fail( "Should have thrown an exception" );
+        }
+        catch ( MavenExecutorException e )
+        {
+            assertTrue( e.getCause() instanceof java.io.IOException );
+        }
+
+        ReleaseResult result = new ReleaseResult();
+        executor.executeGoals( workingDirectory, "install", releaseEnvironment, false, null, result );
+
+        assertTrue( result.getOutput(), result.getOutput().indexOf( "request 1" ) >= 0 );
+    }
+}
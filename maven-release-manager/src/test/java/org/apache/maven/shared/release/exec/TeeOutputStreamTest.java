@@ -59,4 +59,41 @@ public class TeeOutputStreamTest
 
         assertEquals( "Check toString", "the first line" + LS + "line2" + LS + "3" + LS, stream.toString() );
     }
+
+    public void testConsumeLinesAcrossWrites()
+        throws Exception
+    {
+        stream.write( "line1\r\nli".getBytes() );
+        stream.write( "ne2\r".getBytes() );
+        stream.write( '\n' );
+        stream.write( "3\r4".getBytes() );
+
+        assertEquals( "Check output", "xxx line1\r\nxxx line2\r\nxxx 3\rxxx 4", out.toString() );
+
+        assertEquals( "Check content", "line1\r\nline2\r\n3\r4", stream.getContent() );
+    }
+
+    public void testKeepTail()
+        throws Exception
+    {
+        stream = new TeeOutputStream( new PrintStream( out ), "", 8 );
+
+        stream.write( "0123".getBytes() );
+        stream.write( "4567".getBytes() );
+        assertEquals( "Check content", "01234567", stream.getContent() );
+        assertEquals( "Check discarded", 0, stream.getDiscarded() );
+
+        stream.write( "89a".getBytes() );
+        assertEquals( "Check content", "3456789a", stream.getContent() );
+        assertEquals( "Check discarded", 3, stream.getDiscarded() );
+
+        stream.write( 'b' );
+        assertEquals( "Check content", "456789ab", stream.getContent() );
+
+        stream.write( "cdefghijklmn".getBytes(), 2, 9 );
+        assertEquals( "Check content", "fghijklm", stream.getContent() );
+        assertEquals( "Check discarded", 13, stream.getDiscarded() );
+
+        assertEquals( "Check output", "0123456789abefghijklm", out.toString() );
+    }
 }
@@ -21,10 +21,12 @@ package org.apache.maven.shared.release.phase;
 
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.scm.ScmException;
+import org.apache.maven.scm.ScmFileSet;
 import org.apache.maven.scm.command.edit.EditScmResult;
 import org.apache.maven.scm.manager.ScmManagerStub;
 import org.apache.maven.scm.provider.ScmProvider;
 import org.apache.maven.scm.provider.ScmProviderStub;
+import org.apache.maven.scm.repository.ScmRepository;
 import org.apache.maven.shared.release.ReleaseExecutionException;
 import org.apache.maven.shared.release.ReleaseFailureException;
 import org.apache.maven.shared.release.config.ReleaseDescriptor;
@@ -32,10 +34,16 @@ import org.apache.maven.shared.release.env.DefaultReleaseEnvironment;
 import org.apache.maven.shared.release.scm.DefaultScmRepositoryConfigurator;
 import org.apache.maven.shared.release.scm.ReleaseScmCommandException;
 import org.apache.maven.shared.release.scm.ScmRepositoryConfigurator;
+import org.apache.maven.shared.release.transform.UnchangedPoms;
+import org.apache.maven.shared.release.util.ReleaseUtil;
 import org.jmock.Mock;
 import org.jmock.core.matcher.InvokeAtLeastOnceMatcher;
+import org.jmock.core.matcher.InvokeOnceMatcher;
+import org.jmock.core.stub.ReturnStub;
 import org.jmock.core.stub.ThrowStub;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -117,6 +125,84 @@ public abstract class AbstractEditModeRewritingReleasePhaseTestCase
         }
     }
 
+    public void testUnchangedPomIsNeitherEditedNorWritten()
+        throws Exception
+    {
+        List<MavenProject> reactorProjects = createReactorProjects( "pom-with-released-parent" );
+        ReleaseDescriptor config = createDescriptorFromProjects( reactorProjects );
+        config.setScmUseEditMode( true );
+
+        mapAlternateNextVersion( config, "groupId:subproject1" );
+        config.mapReleaseVersion( "groupId:artifactId", "1" );
+        config.mapDevelopmentVersion( "groupId:artifactId", "1" );
+
+        Mock scmProviderMock = new Mock( ScmProvider.class );
+        scmProviderMock.expects( new InvokeOnceMatcher() ).method( "edit" ).will(
+            new ReturnStub( new EditScmResult( "", "", "", true ) ) );
+
+        ScmManagerStub scmManager = new ScmManagerStub();
+        DefaultScmRepositoryConfigurator configurator =
+            (DefaultScmRepositoryConfigurator) lookup( ScmRepositoryConfigurator.ROLE );
+        configurator.setScmManager( scmManager );
+        scmManager.setScmProvider( (ScmProvider) scmProviderMock.proxy() );
+
+        File rootPom = ReleaseUtil.getStandardPom( ReleaseUtil.getRootProject( reactorProjects ) );
+        long lastModified = rootPom.lastModified() - 60000;
+        rootPom.setLastModified( lastModified );
+
+        phase.execute( config, new DefaultReleaseEnvironment(), reactorProjects );
+
+        assertTrue( comparePomFiles( reactorProjects ) );
+        assertEquals( "Check the unchanged POM is not written", lastModified, rootPom.lastModified() );
+        UnchangedPoms unchangedPoms = (UnchangedPoms) lookup( UnchangedPoms.ROLE );
+        assertTrue( unchangedPoms.contains( rootPom ) );
+        assertFalse( unchangedPoms.contains( new File( rootPom.getParentFile(), "subproject1/pom.xml" ) ) );
+
+        scmProviderMock.verify();
+    }
+
+    public void testChangedPomsAreEditedAtOnce()
+        throws Exception
+    {
+        List<MavenProject> reactorProjects = createReactorProjects( "pom-with-parent" );
+        ReleaseDescriptor config = createConfigurationForPomWithParentAlternateNextVersion( reactorProjects );
+        config.setScmUseEditMode( true );
+
+        RecordingScmProvider provider = new RecordingScmProvider( false );
+        ScmManagerStub scmManager = new ScmManagerStub();
+        DefaultScmRepositoryConfigurator configurator =
+            (DefaultScmRepositoryConfigurator) lookup( ScmRepositoryConfigurator.ROLE );
+        configurator.setScmManager( scmManager );
+        scmManager.setScmProvider( provider );
+
+        phase.execute( config, new DefaultReleaseEnvironment(), reactorProjects );
+
+        assertEquals( "Check a single edit", 1, provider.fileSets.size() );
+        assertEquals( "Check all POMs are edited", 2, provider.fileSets.get( 0 ).getFileList().size() );
+    }
+
+    public void testEditModeFallsBackToEditingPomsOneAtATime()
+        throws Exception
+    {
+        List<MavenProject> reactorProjects = createReactorProjects( "pom-with-parent" );
+        ReleaseDescriptor config = createConfigurationForPomWithParentAlternateNextVersion( reactorProjects );
+        config.setScmUseEditMode( true );
+
+        RecordingScmProvider provider = new RecordingScmProvider( true );
+        ScmManagerStub scmManager = new ScmManagerStub();
+        DefaultScmRepositoryConfigurator configurator =
+            (DefaultScmRepositoryConfigurator) lookup( ScmRepositoryConfigurator.ROLE );
+        configurator.setScmManager( scmManager );
+        scmManager.setScmProvider( provider );
+
+        phase.execute( config, new DefaultReleaseEnvironment(), reactorProjects );
+
+        assertEquals( "Check the edit of all POMs and then of each POM", 3, provider.fileSets.size() );
+        assertEquals( 2, provider.fileSets.get( 0 ).getFileList().size() );
+        assertEquals( 1, provider.fileSets.get( 1 ).getFileList().size() );
+        assertEquals( 1, provider.fileSets.get( 2 ).getFileList().size() );
+    }
+
     public void testRewritePomPluginDependencies()
         throws Exception
     {
@@ -175,4 +261,26 @@ public abstract class AbstractEditModeRewritingReleasePhaseTestCase
         }
     }
 
+
+    /**
+     * Records the files opened for editing, and optionally refuses to open more than one file at once.
+     */
+    private static class RecordingScmProvider
+        extends ScmProviderStub
+    {
+        private final boolean failBatches;
+
+        private final List<ScmFileSet> fileSets = new ArrayList<ScmFileSet>();
+
+        RecordingScmProvider( boolean failBatches )
+        {
+            this.failBatches = failBatches;
+        }
+
+        public EditScmResult edit( ScmRepository repository, ScmFileSet fileSet )
+        {
+            fileSets.add( fileSet );
+            return new EditScmResult( "", "", "", !failBatches || fileSet.getFileList().size() == 1 );
+        }
+    }
 }
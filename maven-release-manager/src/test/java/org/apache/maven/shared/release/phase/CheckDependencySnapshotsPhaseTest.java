@@ -22,12 +22,16 @@ package org.apache.maven.shared.release.phase;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.release.ReleaseExecutionException;
 import org.apache.maven.shared.release.ReleaseFailureException;
+import org.apache.maven.shared.release.ReleaseResult;
 import org.apache.maven.shared.release.config.ReleaseDescriptor;
 import org.apache.maven.shared.release.env.DefaultReleaseEnvironment;
+import org.apache.maven.shared.release.util.ReleaseUtil;
 import org.codehaus.plexus.components.interactivity.Prompter;
 import org.codehaus.plexus.components.interactivity.PrompterException;
+import org.codehaus.plexus.util.FileUtils;
 import static org.mockito.Mockito.*;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -73,6 +77,79 @@ public class CheckDependencySnapshotsPhaseTest
         assertTrue( true );
     }
 
+    public void testUnchangedModulesAreNotCheckedAgain()
+        throws Exception
+    {
+        ReleaseDescriptor releaseDescriptor = new ReleaseDescriptor();
+        List<MavenProject> reactorProjects = createDescriptorFromProjects( "no-snapshot-dependencies" );
+
+        File cacheFile = new File( ReleaseUtil.getRootProject( reactorProjects ).getBasedir(),
+                                   "target/release-snapshot-check.properties" );
+        phase.clean( reactorProjects );
+        assertFalse( cacheFile.exists() );
+
+        ReleaseResult result = phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+        assertEquals( 0, result.getMetrics().getCacheHits() );
+        assertEquals( reactorProjects.size(), result.getMetrics().getCacheMisses() );
+        assertTrue( cacheFile.exists() );
+
+        result = phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+        assertEquals( reactorProjects.size(), result.getMetrics().getCacheHits() );
+        assertEquals( 0, result.getMetrics().getCacheMisses() );
+
+        phase.clean( reactorProjects );
+        assertFalse( cacheFile.exists() );
+    }
+
+    public void testSimulateDoesNotRecordCheck()
+        throws Exception
+    {
+        ReleaseDescriptor releaseDescriptor = new ReleaseDescriptor();
+        List<MavenProject> reactorProjects = createDescriptorFromProjects( "no-snapshot-dependencies" );
+
+        File cacheFile = new File( ReleaseUtil.getRootProject( reactorProjects ).getBasedir(),
+                                   "target/release-snapshot-check.properties" );
+        phase.clean( reactorProjects );
+
+        ReleaseResult result = phase.simulate( releaseDescriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+        assertEquals( reactorProjects.size(), result.getMetrics().getCacheMisses() );
+        assertFalse( cacheFile.exists() );
+
+        phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), reactorProjects );
+        result = phase.simulate( releaseDescriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+        assertEquals( reactorProjects.size(), result.getMetrics().getCacheHits() );
+
+        phase.clean( reactorProjects );
+        assertFalse( cacheFile.exists() );
+    }
+
+    public void testModulesWithSnapshotsAreCheckedAgain()
+        throws Exception
+    {
+        ReleaseDescriptor releaseDescriptor = new ReleaseDescriptor();
+        List<MavenProject> reactorProjects = createDescriptorFromProjects( "external-snapshot-dependencies" );
+
+        releaseDescriptor.setInteractive( false );
+
+        for ( int i = 0; i < 2; i++ )
+        {
+            try
+            {
+                phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+                fail( "Should have failed execution" );
+            }
+            catch ( ReleaseFailureException e )
+            {
+                assertTrue( true );
+            }
+        }
+    }
+
     public void testNoSnapshotRangeDependencies()
         throws Exception
     {
@@ -423,6 +500,72 @@ public class CheckDependencySnapshotsPhaseTest
         }
     }
 
+    public void testSnapshotDependenciesResolvedFromLocalRepository()
+        throws Exception
+    {
+        File localRepository = getTestFile( "target/local-repository/snapshots-downloaded" );
+        FileUtils.deleteDirectory( localRepository );
+        File directory = new File( localRepository, "external/artifactId/1.0-SNAPSHOT" );
+        writeSnapshotMetadata( new File( directory, "maven-metadata-central.xml" ), "20101017.120000", 3 );
+        writeSnapshotMetadata( new File( directory, "maven-metadata-snapshots.xml" ), "20101001.080000", 1 );
+        writeSnapshotMetadata( new File( directory, "maven-metadata-local.xml" ), null, 0 );
+
+        ReleaseDescriptor releaseDescriptor = new ReleaseDescriptor();
+        List<MavenProject> reactorProjects = createDescriptorFromProjects( "external-snapshot-dependencies" );
+
+        releaseDescriptor.setInteractive( false );
+        releaseDescriptor.setAutoResolveSnapshots( true );
+
+        phase.execute( releaseDescriptor, new DefaultReleaseEnvironment().setLocalRepositoryDirectory(
+            localRepository ), reactorProjects );
+
+        @SuppressWarnings("rawtypes")
+        Map versionsMap = (Map) releaseDescriptor.getResolvedSnapshotDependencies().get( "external:artifactId" );
+
+        assertNotNull( versionsMap );
+        assertEquals( "1.0-20101017.120000-3", versionsMap.get( ReleaseDescriptor.RELEASE_KEY ) );
+        assertEquals( "1.0-SNAPSHOT", versionsMap.get( ReleaseDescriptor.DEVELOPMENT_KEY ) );
+    }
+
+    public void testSnapshotDependenciesNotDownloadedAreNotResolved()
+        throws Exception
+    {
+        File localRepository = getTestFile( "target/local-repository/snapshots-installed" );
+        FileUtils.deleteDirectory( localRepository );
+        writeSnapshotMetadata( new File( localRepository, "external/artifactId/1.0-SNAPSHOT/maven-metadata-local.xml" ),
+                               null, 0 );
+
+        ReleaseDescriptor releaseDescriptor = new ReleaseDescriptor();
+        List<MavenProject> reactorProjects = createDescriptorFromProjects( "external-snapshot-dependencies" );
+
+        releaseDescriptor.setInteractive( false );
+        releaseDescriptor.setAutoResolveSnapshots( true );
+
+        try
+        {
+            phase.execute( releaseDescriptor, new DefaultReleaseEnvironment().setLocalRepositoryDirectory(
+                localRepository ), reactorProjects );
+
+            fail( "Should have failed execution" );
+        }
+        catch ( ReleaseFailureException e )
+        {
+            assertTrue( releaseDescriptor.getResolvedSnapshotDependencies().isEmpty() );
+        }
+    }
+
+    private static void writeSnapshotMetadata( File file, String timestamp, int buildNumber )
+        throws Exception
+    {
+        String snapshot = timestamp != null ? "<timestamp>" + timestamp + "</timestamp><buildNumber>" + buildNumber
+            + "</buildNumber>" : "<localCopy>true</localCopy>";
+
+        file.getParentFile().mkdirs();
+        FileUtils.fileWrite( file.getAbsolutePath(), "<metadata><groupId>external</groupId>"
+            + "<artifactId>artifactId</artifactId><version>1.0-SNAPSHOT</version><versioning><snapshot>" + snapshot
+            + "</snapshot><lastUpdated>20101017120000</lastUpdated></versioning></metadata>" );
+    }
+
     public void testRangeSnapshotDependenciesOutsideProjectOnlyNonInteractive()
         throws Exception
     {
@@ -667,6 +810,34 @@ public class CheckDependencySnapshotsPhaseTest
         assertEquals( "1.0", versionsMap.get( ReleaseDescriptor.RELEASE_KEY ) );
     }
 
+    public void testSnapshotDependenciesOfAllProjectsReportedAtOnce()
+        throws Exception
+    {
+        CheckDependencySnapshotsPhase phase =
+            (CheckDependencySnapshotsPhase) lookup( ReleasePhase.ROLE, "check-dependency-snapshots" );
+        phase.setCheckThreads( 4 );
+
+        ReleaseDescriptor releaseDescriptor = new ReleaseDescriptor();
+        List<MavenProject> reactorProjects = createDescriptorFromProjects( "multimodule-external-snapshot-dependencies" );
+
+        releaseDescriptor.setInteractive( false );
+
+        try
+        {
+            phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+            fail( "Should have failed execution" );
+        }
+        catch ( ReleaseFailureException e )
+        {
+            String message = e.getMessage();
+            assertTrue( message, message.indexOf( "external:artifactId:jar:1.0-SNAPSHOT" ) > 0 );
+            assertTrue( message, message.indexOf( "external:artifactId2:jar:1.0-SNAPSHOT" ) > 0 );
+            assertTrue( message, message.indexOf( "(groupId:subproject1:jar:1.0-SNAPSHOT)" ) > 0 );
+            assertTrue( message, message.indexOf( "(groupId:subproject2:jar:1.0-SNAPSHOT)" ) > 0 );
+        }
+    }
+
     public void testSnapshotDependenciesInsideAndOutsideProject()
         throws Exception
     {
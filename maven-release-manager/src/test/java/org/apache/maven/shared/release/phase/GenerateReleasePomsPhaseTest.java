@@ -88,6 +88,18 @@ public class GenerateReleasePomsPhaseTest
         comparePomFiles( reactorProjects );
     }
 
+    public void testGenerateReleasePomsConcurrently()
+        throws Exception
+    {
+        List<MavenProject> reactorProjects = createReactorProjects( "pom-with-parent" );
+        ReleaseDescriptor config = createConfigurationForPomWithParentAlternateNextVersion( reactorProjects );
+
+        ( (GenerateReleasePomsPhase) phase ).setGenerateThreads( 4 );
+        phase.execute( config, new DefaultReleaseEnvironment(), reactorProjects );
+
+        comparePomFiles( reactorProjects );
+    }
+
     /*
      * @see org.apache.maven.shared.release.phase.AbstractRewritingReleasePhaseTestCase#createDescriptorFromProjects(java.util.List)
      */
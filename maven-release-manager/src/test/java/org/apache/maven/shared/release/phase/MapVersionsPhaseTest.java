@@ -19,8 +19,12 @@ package org.apache.maven.shared.release.phase;
  * under the License.
  */
 
+import java.io.File;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.maven.model.Model;
 import org.apache.maven.project.MavenProject;
@@ -31,6 +35,7 @@ import org.apache.maven.shared.release.versions.VersionParseException;
 import org.codehaus.plexus.PlexusTestCase;
 import org.codehaus.plexus.components.interactivity.Prompter;
 import org.codehaus.plexus.components.interactivity.PrompterException;
+import org.codehaus.plexus.util.FileUtils;
 import org.jmock.Mock;
 import org.jmock.core.constraint.IsAnything;
 import org.jmock.core.constraint.IsEqual;
@@ -397,6 +402,76 @@ public class MapVersionsPhaseTest
         }
     }
 
+    public void testMapReleaseVersionsGroupedInteractive()
+        throws Exception
+    {
+        MapVersionsPhase phase = (MapVersionsPhase) lookup( ReleasePhase.ROLE, "test-map-release-versions" );
+
+        Mock mockPrompter = new Mock( Prompter.class );
+        mockPrompter.expects( new InvokeOnceMatcher() ).method( "prompt" ).with(
+            new IsEqual( "What is the release version for the 2 projects at version 1.0-SNAPSHOT? "
+                + "(groupId:artifactId1, groupId:artifactId2)" ), new IsEqual( "1.0" ) ).will( new ReturnStub( "1.1" ) );
+        mockPrompter.expects( new InvokeOnceMatcher() ).method( "prompt" ).with( new IsAnything(),
+                                                                                 new IsEqual( "2.0" ) ).will(
+            new ReturnStub( "2.0" ) );
+        phase.setPrompter( (Prompter) mockPrompter.proxy() );
+
+        List<MavenProject> reactorProjects = Arrays.asList( new MavenProject[] {
+            createProject( "artifactId1", "1.0-SNAPSHOT" ), createProject( "artifactId2", "1.0-SNAPSHOT" ),
+            createProject( "artifactId3", "2.0-SNAPSHOT" ), createProject( "artifactId4", "1.0" ) } );
+
+        ReleaseDescriptor releaseDescriptor = new ReleaseDescriptor();
+        releaseDescriptor.setGroupVersionMapping( true );
+
+        phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+        Map<String, String> expected = new HashMap<String, String>();
+        expected.put( "groupId:artifactId1", "1.1" );
+        expected.put( "groupId:artifactId2", "1.1" );
+        expected.put( "groupId:artifactId3", "2.0" );
+        expected.put( "groupId:artifactId4", "1.0" );
+        assertEquals( "Check mapped versions", expected, releaseDescriptor.getReleaseVersions() );
+        mockPrompter.verify();
+    }
+
+    public void testMapVersionsFromRules()
+        throws Exception
+    {
+        File rules = getTestFile( "target/version-rules/version-rules.properties" );
+        rules.getParentFile().mkdirs();
+        FileUtils.fileWrite( rules.getAbsolutePath(), "rel.1.0-SNAPSHOT=1.0.1\ndev.1.0.1=1.1-SNAPSHOT\n" );
+
+        Mock mockPrompter = new Mock( Prompter.class );
+        mockPrompter.expects( new TestFailureMatcher( "prompter should not be called" ) ).method( "prompt" );
+
+        List<MavenProject> reactorProjects = Arrays.asList( new MavenProject[] {
+            createProject( "artifactId1", "1.0-SNAPSHOT" ), createProject( "artifactId2", "1.0-SNAPSHOT" ) } );
+
+        ReleaseDescriptor releaseDescriptor = new ReleaseDescriptor();
+        releaseDescriptor.setGroupVersionMapping( true );
+        releaseDescriptor.setVersionRulesFile( rules.getAbsolutePath() );
+
+        MapVersionsPhase phase = (MapVersionsPhase) lookup( ReleasePhase.ROLE, "test-map-release-versions" );
+        phase.setPrompter( (Prompter) mockPrompter.proxy() );
+
+        phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+        Map<String, String> expected = new HashMap<String, String>();
+        expected.put( "groupId:artifactId1", "1.0.1" );
+        expected.put( "groupId:artifactId2", "1.0.1" );
+        assertEquals( "Check mapped versions", expected, releaseDescriptor.getReleaseVersions() );
+
+        reactorProjects = Collections.singletonList( createProject( "artifactId", "1.0.1" ) );
+
+        phase = (MapVersionsPhase) lookup( ReleasePhase.ROLE, "test-map-development-versions" );
+        phase.setPrompter( (Prompter) mockPrompter.proxy() );
+
+        phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+        assertEquals( "Check mapped versions", Collections.singletonMap( "groupId:artifactId", "1.1-SNAPSHOT" ),
+                      releaseDescriptor.getDevelopmentVersions() );
+    }
+
     private static MavenProject createProject( String artifactId, String version )
     {
         Model model = new Model();
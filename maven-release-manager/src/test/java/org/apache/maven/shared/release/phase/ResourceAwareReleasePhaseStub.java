@@ -0,0 +1,187 @@
+package org.apache.maven.shared.release.phase;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.settings.Settings;
+import org.apache.maven.shared.release.ReleaseFailureException;
+import org.apache.maven.shared.release.ReleaseResult;
+import org.apache.maven.shared.release.config.ReleaseDescriptor;
+import org.apache.maven.shared.release.env.ReleaseEnvironment;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test stub for a phase that declares its resources, recording when it started and finished.
+ */
+public class ResourceAwareReleasePhaseStub
+    implements ResourceAwareReleasePhase
+{
+    /**
+     * Shared clock used to order the start and end of the phases.
+     */
+    private static final AtomicInteger CLOCK = new AtomicInteger();
+
+    /**
+     * The resources read by the phase.
+     */
+    private List<String> reads = new ArrayList<String>();
+
+    /**
+     * The resources written by the phase.
+     */
+    private List<String> writes = new ArrayList<String>();
+
+    /**
+     * Whether the phase should fail.
+     */
+    private boolean failure;
+
+    /**
+     * How long the phase takes, in milliseconds.
+     */
+    private int delay;
+
+    /**
+     * Whether the phase was executed.
+     */
+    private boolean executed;
+
+    /**
+     * Whether the phase was simulated.
+     */
+    private boolean simulated;
+
+    private int startTime = -1;
+
+    private int endTime = -1;
+
+    public ReleaseResult execute( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
+                                  List<MavenProject> reactorProjects )
+        throws ReleaseFailureException
+    {
+        startTime = CLOCK.incrementAndGet();
+        try
+        {
+            if ( delay > 0 )
+            {
+                try
+                {
+                    Thread.sleep( delay );
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if ( failure )
+            {
+                throw new ReleaseFailureException( "Phase failed" );
+            }
+            executed = true;
+
+            ReleaseResult result = new ReleaseResult();
+            result.setResultCode( ReleaseResult.SUCCESS );
+            return result;
+        }
+        finally
+        {
+            endTime = CLOCK.incrementAndGet();
+        }
+    }
+
+    public ReleaseResult simulate( ReleaseDescriptor releaseDescriptor, ReleaseEnvironment releaseEnvironment,
+                                   List<MavenProject> reactorProjects )
+        throws ReleaseFailureException
+    {
+        startTime = CLOCK.incrementAndGet();
+        try
+        {
+            if ( failure )
+            {
+                throw new ReleaseFailureException( "Phase failed" );
+            }
+            simulated = true;
+
+            ReleaseResult result = new ReleaseResult();
+            result.setResultCode( ReleaseResult.SUCCESS );
+            return result;
+        }
+        finally
+        {
+            endTime = CLOCK.incrementAndGet();
+        }
+    }
+
+    public ReleaseResult execute( ReleaseDescriptor releaseDescriptor, Settings settings,
+                                  List<MavenProject> reactorProjects )
+        throws ReleaseFailureException
+    {
+        return execute( releaseDescriptor, (ReleaseEnvironment) null, reactorProjects );
+    }
+
+    public ReleaseResult simulate( ReleaseDescriptor releaseDescriptor, Settings settings,
+                                   List<MavenProject> reactorProjects )
+        throws ReleaseFailureException
+    {
+        return simulate( releaseDescriptor, (ReleaseEnvironment) null, reactorProjects );
+    }
+
+    public ReleaseResult clean( List<MavenProject> reactorProjects )
+    {
+        ReleaseResult result = new ReleaseResult();
+        result.setResultCode( ReleaseResult.SUCCESS );
+        return result;
+    }
+
+    public Set<String> getReadResources()
+    {
+        return new HashSet<String>( reads );
+    }
+
+    public Set<String> getWriteResources()
+    {
+        return new HashSet<String>( writes );
+    }
+
+    public boolean isExecuted()
+    {
+        return executed;
+    }
+
+    public boolean isSimulated()
+    {
+        return simulated;
+    }
+
+    public int getStartTime()
+    {
+        return startTime;
+    }
+
+    public int getEndTime()
+    {
+        return endTime;
+    }
+}
@@ -25,6 +25,7 @@ import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.release.ReleaseExecutionException;
 import org.apache.maven.shared.release.config.ReleaseDescriptor;
 import org.apache.maven.shared.release.env.DefaultReleaseEnvironment;
+import org.apache.maven.shared.release.transform.PomCache;
 import org.apache.maven.shared.release.util.ReleaseUtil;
 
 import java.io.File;
@@ -77,6 +78,26 @@ public class RewritePomsForDevelopmentPhaseTest
         assertEquals( "Check the transformed POM", expected, actual );
     }
 
+    public void testRewriteAfterReleaseParsesPomsOnce()
+        throws Exception
+    {
+        List<MavenProject> reactorProjects = createReactorProjects( "pom-with-parent" );
+        ReleaseDescriptor config = createDescriptorFromProjects( reactorProjects );
+        mapNextVersion( config, "groupId:artifactId" );
+        mapAlternateNextVersion( config, "groupId:subproject1" );
+
+        PomCache pomCache = (PomCache) lookup( PomCache.ROLE );
+        pomCache.clear();
+
+        ReleasePhase releasePhase = (ReleasePhase) lookup( ReleasePhase.ROLE, "rewrite-poms-for-release" );
+        releasePhase.execute( config, new DefaultReleaseEnvironment(), reactorProjects );
+        phase.execute( config, new DefaultReleaseEnvironment(), reactorProjects );
+
+        // the POMs written for the release are edited for development without reading them again
+        assertEquals( reactorProjects.size(), pomCache.getCacheMisses() );
+        assertEquals( reactorProjects.size(), pomCache.getCacheHits() );
+    }
+
     private List<MavenProject> createReactorProjectsWhenSimulated( String name )
         throws Exception
     {
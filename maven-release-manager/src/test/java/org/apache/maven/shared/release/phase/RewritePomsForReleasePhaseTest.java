@@ -25,9 +25,11 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.release.ReleaseResult;
 import org.apache.maven.shared.release.config.ReleaseDescriptor;
 import org.apache.maven.shared.release.env.DefaultReleaseEnvironment;
 import org.apache.maven.shared.release.util.ReleaseUtil;
+import org.codehaus.plexus.util.FileUtils;
 
 /**
  * Test the SCM modification check phase.
@@ -99,6 +101,44 @@ public class RewritePomsForReleasePhaseTest
         assertEquals( "Check the transformed POM", expected, actual );
     }
 
+    public void testSimulateRewriteAsDiff()
+        throws Exception
+    {
+        List<MavenProject> reactorProjects = createReactorProjects( "multimodule-with-deep-subprojects" );
+        ReleaseDescriptor config = createDescriptorFromProjects( reactorProjects );
+        config.mapReleaseVersion( "groupId:artifactId", NEXT_VERSION );
+        config.mapReleaseVersion( "groupId:subproject1", ALTERNATIVE_NEXT_VERSION );
+        config.mapReleaseVersion( "groupId:subproject2", ALTERNATIVE_NEXT_VERSION );
+        config.setDryRunDiff( true );
+
+        File basedir = ReleaseUtil.getRootProject( reactorProjects ).getBasedir();
+        File reportFile = new File( basedir, "target/release-poms-tag.diff" );
+        reportFile.delete();
+
+        RewritePomsForReleasePhase phase = (RewritePomsForReleasePhase) this.phase;
+        phase.setTransformThreads( 4 );
+        phase.simulate( config, new DefaultReleaseEnvironment(), reactorProjects );
+
+        String diff = FileUtils.fileRead( reportFile, "UTF-8" );
+        int previous = -1;
+        for ( MavenProject project : reactorProjects )
+        {
+            File pomFile = ReleaseUtil.getStandardPom( project );
+            assertFalse( "Check no transformed POM is written",
+                         new File( pomFile.getParentFile(), "pom.xml.tag" ).exists() );
+
+            String path = pomFile.getAbsolutePath().substring( basedir.getAbsolutePath().length() + 1 );
+            int index = diff.indexOf( "--- a/" + path.replace( File.separatorChar, '/' ) + "\n" );
+            assertTrue( "Check the changes are reported in reactor order", index > previous );
+            previous = index;
+        }
+        assertTrue( diff, diff.indexOf( "-  <version>1.0-SNAPSHOT</version>\n+  <version>1.0</version>\n" ) > 0 );
+
+        phase.clean( reactorProjects );
+
+        assertFalse( reportFile.exists() );
+    }
+
     public void testClean()
         throws Exception
     {
@@ -369,6 +409,32 @@ public class RewritePomsForReleasePhaseTest
         assertTrue( comparePomFiles( reactorProjects ) );
     }
 
+    public void testRewritePomWithDeepSubprojectsConcurrently()
+        throws Exception
+    {
+        List<MavenProject> reactorProjects = createReactorProjects( "multimodule-with-deep-subprojects" );
+
+        ReleaseDescriptor config = createDescriptorFromProjects( reactorProjects );
+        config.mapReleaseVersion( "groupId:artifactId", NEXT_VERSION );
+        config.mapReleaseVersion( "groupId:subproject1", ALTERNATIVE_NEXT_VERSION );
+        config.mapReleaseVersion( "groupId:subproject2", ALTERNATIVE_NEXT_VERSION );
+
+        RewritePomsForReleasePhase phase = (RewritePomsForReleasePhase) this.phase;
+        phase.setTransformThreads( 4 );
+        ReleaseResult result = phase.execute( config, new DefaultReleaseEnvironment(), reactorProjects );
+
+        assertTrue( comparePomFiles( reactorProjects ) );
+
+        String output = result.getOutput();
+        int previous = -1;
+        for ( MavenProject project : reactorProjects )
+        {
+            int index = output.indexOf( "Transforming '" + project.getName() + "'..." );
+            assertTrue( "output in reactor order", index > previous );
+            previous = index;
+        }
+    }
+
     public void testRewritePomForFlatMultiModule()
         throws Exception
     {
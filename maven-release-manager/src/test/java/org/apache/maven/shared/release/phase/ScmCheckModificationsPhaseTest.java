@@ -20,14 +20,19 @@ package org.apache.maven.shared.release.phase;
  */
 
 import org.apache.maven.scm.ScmException;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
 import org.apache.maven.scm.ScmFile;
+import org.apache.maven.scm.ScmFileSet;
 import org.apache.maven.scm.ScmFileStatus;
 import org.apache.maven.scm.command.status.StatusScmResult;
 import org.apache.maven.scm.manager.NoSuchScmProviderException;
 import org.apache.maven.scm.manager.ScmManager;
 import org.apache.maven.scm.manager.ScmManagerStub;
 import org.apache.maven.scm.provider.ScmProvider;
+import org.apache.maven.scm.provider.ScmProviderRepositoryStub;
 import org.apache.maven.scm.provider.ScmProviderStub;
+import org.apache.maven.scm.repository.ScmRepository;
 import org.apache.maven.scm.repository.ScmRepositoryException;
 import org.apache.maven.shared.release.ReleaseExecutionException;
 import org.apache.maven.shared.release.ReleaseFailureException;
@@ -43,11 +48,14 @@ import org.jmock.core.constraint.IsEqual;
 import org.jmock.core.matcher.InvokeAtLeastOnceMatcher;
 import org.jmock.core.stub.ThrowStub;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Test the SCM modification check phase.
@@ -247,6 +255,23 @@ public class ScmCheckModificationsPhaseTest
         assertTrue( true );
     }
 
+    public void testUnversionedReleaseJournal()
+        throws Exception
+    {
+        ReleaseDescriptor releaseDescriptor = createReleaseDescriptor();
+
+        ScmManager scmManager = (ScmManager) lookup( ScmManager.ROLE );
+        ScmProviderStub providerStub =
+            (ScmProviderStub) scmManager.getProviderByUrl( releaseDescriptor.getScmSourceUrl() );
+        providerStub.setStatusScmResult( new StatusScmResult( "", Collections.singletonList(
+            new ScmFile( "release.properties.journal", ScmFileStatus.UNKNOWN ) ) ) );
+
+        phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), null );
+
+        // successful execution is verification enough
+        assertTrue( true );
+    }
+
     public void testModificationsToPoms()
         throws Exception
     {
@@ -338,6 +363,170 @@ public class ScmCheckModificationsPhaseTest
         }
     }
 
+    public void testModificationsToExcludedGlobsOnly()
+        throws Exception
+    {
+        ReleaseDescriptor releaseDescriptor = createReleaseDescriptor();
+        releaseDescriptor.setCheckModificationExcludes( Arrays.asList( new String[] { "*.log", "docs/**" } ) );
+
+        setChangedFiles( releaseDescriptor, Arrays.asList( new String[] { "build.log", "module/build.log",
+            "docs/site/index.apt", "module/release.properties" } ) );
+
+        phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), null );
+
+        // successful execution is verification enough
+        assertTrue( true );
+    }
+
+    public void testModificationsOutsideIncludesOnly()
+        throws Exception
+    {
+        ReleaseDescriptor releaseDescriptor = createReleaseDescriptor();
+        releaseDescriptor.setCheckModificationIncludes( Arrays.asList( new String[] { "**/src/**", "pom.xml" } ) );
+
+        setChangedFiles( releaseDescriptor, Arrays.asList( new String[] { "notes.txt", "module/notes.txt" } ) );
+
+        phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), null );
+
+        setChangedFiles( releaseDescriptor, Arrays.asList( new String[] { "notes.txt", "module/src/Foo.java" } ) );
+
+        try
+        {
+            phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), null );
+
+            fail( "Status check should have failed" );
+        }
+        catch ( ReleaseFailureException e )
+        {
+            assertTrue( e.getMessage().indexOf( "module/src/Foo.java" ) >= 0 );
+            assertTrue( e.getMessage().indexOf( "notes.txt" ) < 0 );
+        }
+    }
+
+    public void testModificationsInModuleDirectories()
+        throws Exception
+    {
+        ReleaseDescriptor releaseDescriptor = createReleaseDescriptor();
+        releaseDescriptor.setCheckModificationsInModules( true );
+        releaseDescriptor.setCheckModificationExcludes( Collections.singletonList( "module-b/src/**" ) );
+
+        File workingDirectory = new File( releaseDescriptor.getWorkingDirectory() );
+        File moduleA = new File( workingDirectory, "module-a" );
+        File moduleB = new File( workingDirectory, "module-b" );
+        List<MavenProject> reactorProjects = new ArrayList<MavenProject>();
+        reactorProjects.add( createProject( moduleA ) );
+        reactorProjects.add( createProject( new File( moduleA, "sub" ) ) );
+        reactorProjects.add( createProject( moduleB ) );
+
+        // only module-b has changes, relative to its own directory
+        Map<File, String[]> changedFiles = new HashMap<File, String[]>();
+        changedFiles.put( moduleB, new String[] { "src/Changed.java" } );
+        changedFiles.put( workingDirectory, new String[] { "notes.txt" } );
+        StatusRecordingScmProvider provider = setStatusRecordingScmProvider( "stub", changedFiles );
+
+        phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+        assertEquals( Arrays.asList( new File[] { moduleA, moduleB } ), provider.directories );
+
+        releaseDescriptor.setCheckModificationExcludes( Collections.<String>emptyList() );
+        try
+        {
+            phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+            fail( "Status check should have failed" );
+        }
+        catch ( ReleaseFailureException e )
+        {
+            assertTrue( e.getMessage().indexOf( "src/Changed.java" ) >= 0 );
+            assertTrue( e.getMessage().indexOf( "notes.txt" ) < 0 );
+        }
+    }
+
+    public void testModificationsInModuleDirectoriesWithRootProject()
+        throws Exception
+    {
+        ReleaseDescriptor releaseDescriptor = createReleaseDescriptor();
+        releaseDescriptor.setCheckModificationsInModules( true );
+
+        File workingDirectory = new File( releaseDescriptor.getWorkingDirectory() );
+        List<MavenProject> reactorProjects = new ArrayList<MavenProject>();
+        reactorProjects.add( createProject( workingDirectory, new String[] { "module-a", "module-b/pom.xml" } ) );
+        reactorProjects.add( createProject( new File( workingDirectory, "module-a" ) ) );
+
+        // module-b is left out of the reactor
+        Map<File, String[]> changedFiles = new HashMap<File, String[]>();
+        changedFiles.put( workingDirectory, new String[] { "module-b/src/Changed.java", "module-b/pom.xml" } );
+        StatusRecordingScmProvider provider = setStatusRecordingScmProvider( "stub", changedFiles );
+
+        phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+        assertEquals( Collections.singletonList( workingDirectory ), provider.directories );
+
+        changedFiles.put( workingDirectory, new String[] { "module-b/src/Changed.java", "src/site/site.xml",
+            "module-a/pom.xml" } );
+        try
+        {
+            phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+            fail( "Status check should have failed" );
+        }
+        catch ( ReleaseFailureException e )
+        {
+            assertTrue( e.getMessage().indexOf( "src/site/site.xml" ) >= 0 );
+            assertTrue( e.getMessage().indexOf( "module-a/pom.xml" ) >= 0 );
+            assertTrue( e.getMessage().indexOf( "Changed.java" ) < 0 );
+        }
+    }
+
+    public void testModificationsInModuleDirectoriesWithUnscopedStatus()
+        throws Exception
+    {
+        ReleaseDescriptor releaseDescriptor = createReleaseDescriptor();
+        releaseDescriptor.setCheckModificationsInModules( true );
+        releaseDescriptor.setCheckModificationExcludes( Collections.singletonList( "module-b/src/**" ) );
+
+        File workingDirectory = new File( releaseDescriptor.getWorkingDirectory() );
+        List<MavenProject> reactorProjects = new ArrayList<MavenProject>();
+        reactorProjects.add( createProject( new File( workingDirectory, "module-a" ) ) );
+        reactorProjects.add( createProject( new File( workingDirectory, "module-b" ) ) );
+
+        // git scans the whole repository, and gives the paths relative to it
+        Map<File, String[]> changedFiles = new HashMap<File, String[]>();
+        changedFiles.put( workingDirectory, new String[] { "module-b/src/Changed.java", "notes.txt" } );
+        StatusRecordingScmProvider provider = setStatusRecordingScmProvider( "git", changedFiles );
+
+        phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+        assertEquals( Collections.singletonList( workingDirectory ), provider.directories );
+
+        releaseDescriptor.setCheckModificationExcludes( Collections.<String>emptyList() );
+        try
+        {
+            phase.execute( releaseDescriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+            fail( "Status check should have failed" );
+        }
+        catch ( ReleaseFailureException e )
+        {
+            assertTrue( e.getMessage().indexOf( "module-b/src/Changed.java" ) >= 0 );
+            assertTrue( e.getMessage().indexOf( "notes.txt" ) < 0 );
+        }
+    }
+
+    private StatusRecordingScmProvider setStatusRecordingScmProvider( String providerType,
+                                                                      Map<File, String[]> changedFiles )
+        throws Exception
+    {
+        StatusRecordingScmProvider provider = new StatusRecordingScmProvider( changedFiles );
+        ScmManagerStub scmManager = new ScmManagerStub();
+        scmManager.setScmRepository( new ScmRepository( providerType, new ScmProviderRepositoryStub() ) );
+        scmManager.setScmProvider( provider );
+        DefaultScmRepositoryConfigurator configurator =
+            (DefaultScmRepositoryConfigurator) lookup( ScmRepositoryConfigurator.ROLE );
+        configurator.setScmManager( scmManager );
+        return provider;
+    }
+
     private void setChangedFiles( ReleaseDescriptor releaseDescriptor, List<String> changedFiles )
         throws Exception
     {
@@ -366,4 +555,43 @@ public class ScmCheckModificationsPhaseTest
         releaseDescriptor.setWorkingDirectory( getTestFile( "target/test/checkout" ).getAbsolutePath() );
         return releaseDescriptor;
     }
+
+    private static MavenProject createProject( File basedir )
+    {
+        return createProject( basedir, new String[0] );
+    }
+
+    private static MavenProject createProject( File basedir, String[] modules )
+    {
+        Model model = new Model();
+        model.setGroupId( "groupId" );
+        model.setArtifactId( basedir.getName() );
+        model.setVersion( "1.0-SNAPSHOT" );
+        model.setModules( Arrays.asList( modules ) );
+        MavenProject project = new MavenProject( model );
+        project.setFile( new File( basedir, "pom.xml" ) );
+        return project;
+    }
+
+    private static class StatusRecordingScmProvider
+        extends ScmProviderStub
+    {
+        private final List<File> directories = new ArrayList<File>();
+
+        private final Map<File, String[]> changedFiles;
+
+        private StatusRecordingScmProvider( Map<File, String[]> changedFiles )
+        {
+            this.changedFiles = changedFiles;
+        }
+
+        public StatusScmResult status( ScmRepository repository, ScmFileSet fileSet )
+        {
+            directories.add( fileSet.getBasedir() );
+
+            String[] files = changedFiles.get( fileSet.getBasedir() );
+            return new StatusScmResult( "", createScmFiles( files != null ? Arrays.asList( files )
+                            : Collections.<String>emptyList() ) );
+        }
+    }
 }
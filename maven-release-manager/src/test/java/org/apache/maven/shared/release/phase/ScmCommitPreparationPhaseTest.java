@@ -40,6 +40,7 @@ import org.apache.maven.shared.release.scm.DefaultScmRepositoryConfigurator;
 import org.apache.maven.shared.release.scm.ReleaseScmCommandException;
 import org.apache.maven.shared.release.scm.ReleaseScmRepositoryException;
 import org.apache.maven.shared.release.scm.ScmRepositoryConfigurator;
+import org.apache.maven.shared.release.transform.UnchangedPoms;
 import org.apache.maven.shared.release.util.ReleaseUtil;
 import org.jmock.Mock;
 import org.jmock.core.Constraint;
@@ -129,6 +130,7 @@ public class ScmCommitPreparationPhaseTest
         MavenProject rootProject = ReleaseUtil.getRootProject( reactorProjects );
         descriptor.setWorkingDirectory( rootProject.getFile().getParentFile().getAbsolutePath() );
 
+        UnchangedPoms unchangedPoms = (UnchangedPoms) lookup( UnchangedPoms.ROLE );
         List<File> poms = new ArrayList<File>();
         for ( Iterator<MavenProject> i = reactorProjects.iterator(); i.hasNext(); )
         {
@@ -157,6 +159,108 @@ public class ScmCommitPreparationPhaseTest
         assertTrue( true );
     }
 
+    public void testCommitMultiModuleLeavesOutUnchangedPoms()
+        throws Exception
+    {
+        ReleaseDescriptor descriptor = new ReleaseDescriptor();
+        List<MavenProject> reactorProjects = createReactorProjects( "scm-commit/", "multiple-poms" );
+        descriptor.setScmSourceUrl( "scm-url" );
+        MavenProject rootProject = ReleaseUtil.getRootProject( reactorProjects );
+        descriptor.setWorkingDirectory( rootProject.getFile().getParentFile().getAbsolutePath() );
+
+        UnchangedPoms unchangedPoms = (UnchangedPoms) lookup( UnchangedPoms.ROLE );
+        List<File> poms = new ArrayList<File>();
+        for ( Iterator<MavenProject> i = reactorProjects.iterator(); i.hasNext(); )
+        {
+            MavenProject project = i.next();
+            if ( project == rootProject )
+            {
+                unchangedPoms.add( project.getFile() );
+            }
+            else
+            {
+                poms.add( project.getFile() );
+            }
+            String projectKey = ArtifactUtils.versionlessKey(project.getGroupId(), project.getArtifactId());
+            descriptor.mapScmReleaseLabel( projectKey, "release-label" );
+        }
+        ScmFileSet fileSet = new ScmFileSet( rootProject.getFile().getParentFile(), poms);
+
+        Mock scmProviderMock = new Mock( ScmProvider.class );
+        Constraint[] arguments = new Constraint[]{new IsAnything(), new IsScmFileSetEquals( fileSet ), new IsNull(),
+            new IsEqual( PREFIX + "release-label" )};
+        scmProviderMock
+            .expects( new InvokeOnceMatcher() )
+            .method( "checkIn" )
+            .with( arguments )
+            .will( new ReturnStub( new CheckInScmResult( "...", Collections.singletonList( new ScmFile( rootProject
+                       .getFile().getPath(), ScmFileStatus.CHECKED_IN ) ) ) ) );
+
+        ScmManagerStub stub = (ScmManagerStub) lookup( ScmManager.ROLE );
+        stub.setScmProvider( (ScmProvider) scmProviderMock.proxy() );
+
+        phase.execute( descriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+        scmProviderMock.verify();
+    }
+
+    public void testCommitWithoutChangedPoms()
+        throws Exception
+    {
+        List<MavenProject> reactorProjects = createReactorProjects();
+        ReleaseDescriptor descriptor = new ReleaseDescriptor();
+        descriptor.setScmSourceUrl( "scm-url" );
+        MavenProject rootProject = ReleaseUtil.getRootProject( reactorProjects );
+        descriptor.setWorkingDirectory( rootProject.getFile().getParentFile().getAbsolutePath() );
+        ( (UnchangedPoms) lookup( UnchangedPoms.ROLE ) ).add( rootProject.getFile() );
+
+        String projectKey = ArtifactUtils.versionlessKey(rootProject.getGroupId(), rootProject.getArtifactId());
+        descriptor.mapScmReleaseLabel( projectKey, "release-label" );
+
+        Mock scmProviderMock = new Mock( ScmProvider.class );
+        scmProviderMock.expects( new TestFailureMatcher( "Shouldn't have called checkIn" ) ).method( "checkIn" );
+
+        ScmManagerStub stub = (ScmManagerStub) lookup( ScmManager.ROLE );
+        stub.setScmProvider( (ScmProvider) scmProviderMock.proxy() );
+
+        phase.execute( descriptor, new DefaultReleaseEnvironment(), reactorProjects );
+    }
+
+    public void testCommitWithoutChangedPomsForRemoteTagging()
+        throws Exception
+    {
+        List<MavenProject> reactorProjects = createReactorProjects();
+        ReleaseDescriptor descriptor = new ReleaseDescriptor();
+        descriptor.setScmSourceUrl( "scm-url" );
+        descriptor.setRemoteTagging( true );
+        MavenProject rootProject = ReleaseUtil.getRootProject( reactorProjects );
+        descriptor.setWorkingDirectory( rootProject.getFile().getParentFile().getAbsolutePath() );
+        ( (UnchangedPoms) lookup( UnchangedPoms.ROLE ) ).add( rootProject.getFile() );
+
+        String projectKey = ArtifactUtils.versionlessKey(rootProject.getGroupId(), rootProject.getArtifactId());
+        descriptor.mapScmReleaseLabel( projectKey, "release-label" );
+
+        // the tag is made from the revision of the checkin, so the POMs are checked in all the same
+        ScmFileSet fileSet = new ScmFileSet( rootProject.getFile().getParentFile(), rootProject.getFile() );
+
+        Mock scmProviderMock = new Mock( ScmProvider.class );
+        Constraint[] arguments = new Constraint[]{new IsAnything(), new IsScmFileSetEquals( fileSet ), new IsNull(),
+            new IsEqual( PREFIX + "release-label" )};
+        scmProviderMock
+            .expects( new InvokeOnceMatcher() )
+            .method( "checkIn" )
+            .with( arguments )
+            .will( new ReturnStub( new CheckInScmResult( "...", Collections.<ScmFile>emptyList(), "1234" ) ) );
+
+        ScmManagerStub stub = (ScmManagerStub) lookup( ScmManager.ROLE );
+        stub.setScmProvider( (ScmProvider) scmProviderMock.proxy() );
+
+        phase.execute( descriptor, new DefaultReleaseEnvironment(), reactorProjects );
+
+        scmProviderMock.verify();
+        assertEquals( "1234", descriptor.getScmReleasedPomRevision() );
+    }
+
     public void testCommitDevelopment()
         throws Exception
     {
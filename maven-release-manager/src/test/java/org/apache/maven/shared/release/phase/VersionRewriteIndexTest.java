@@ -0,0 +1,61 @@
+package org.apache.maven.shared.release.phase;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+/**
+ * Test the index of versions used by the rewrite phases.
+ */
+public class VersionRewriteIndexTest
+    extends TestCase
+{
+    private static final String[] VERSIONS = { "1.0", "1.0-SNAPSHOT", "${", "${}", "${a}", "${a}b}", "x${a}",
+        "${a}x", "${a\nb}", "${a }", "${version}", "${project}", "${project.}", "${projectX}",
+        "${project.version}", "${pom}", "${pom.version}", "${pomX}", "${parent.version}", "$a}" };
+
+    public void testIsExpressionMatchesRegularExpression()
+    {
+        for ( int i = 0; i < VERSIONS.length; i++ )
+        {
+            String version = VERSIONS[i];
+            assertEquals( version, version.matches( "\\$\\{.+\\}" ), VersionRewriteIndex.isExpression( version ) );
+        }
+    }
+
+    public void testMappedToProjectExpressionMatchesRegularExpressions()
+    {
+        for ( int i = 0; i < VERSIONS.length; i++ )
+        {
+            String version = VERSIONS[i];
+            boolean expected = version.matches( "\\$\\{project.+\\}" ) || version.matches( "\\$\\{pom.+\\}" )
+                || "${version}".equals( version );
+            VersionRewriteIndex.Entry entry = new VersionRewriteIndex.Entry( version, null, null );
+            assertEquals( version, expected, entry.isMappedToProjectExpression() );
+        }
+    }
+
+    public void testMappedToSnapshot()
+    {
+        assertTrue( new VersionRewriteIndex.Entry( "1.1-SNAPSHOT", "1.0", null ).isMappedToSnapshot() );
+        assertFalse( new VersionRewriteIndex.Entry( "1.0", "1.0-SNAPSHOT", null ).isMappedToSnapshot() );
+        assertFalse( new VersionRewriteIndex.Entry( null, null, "1.0-SNAPSHOT" ).isMappedToSnapshot() );
+    }
+}
@@ -202,6 +202,33 @@ public class DefaultScmRepositoryConfiguratorTest
         assertEquals( "Check SCM provider", "cvs", provider.getScmType() );
     }
 
+    public void testGetConfiguredRepositoryCached()
+        throws ScmRepositoryException, NoSuchScmProviderException
+    {
+        CachingScmRepositoryConfigurator configurator = (CachingScmRepositoryConfigurator) scmRepositoryConfigurator;
+
+        ScmRepository repository = configurator.getConfiguredRepository( createReleaseDescriptor(), null );
+
+        assertSame( repository, configurator.getConfiguredRepository( createReleaseDescriptor(), null ) );
+        assertEquals( 1, configurator.getCacheHits() );
+        assertEquals( 1, configurator.getCacheMisses() );
+
+        ScmRepository other =
+            configurator.getConfiguredRepository( createReleaseDescriptor( "username", "password" ), null );
+        assertNotSame( repository, other );
+        assertEquals( "username", other.getProviderRepository().getUser() );
+        assertEquals( 2, configurator.getCacheMisses() );
+
+        assertNotSame( repository, configurator.getConfiguredRepository( createReleaseDescriptor(), new Settings() ) );
+        assertEquals( 3, configurator.getCacheMisses() );
+
+        configurator.clearCache();
+
+        assertNotSame( repository, configurator.getConfiguredRepository( createReleaseDescriptor(), null ) );
+        assertEquals( 0, configurator.getCacheHits() );
+        assertEquals( 1, configurator.getCacheMisses() );
+    }
+
     private static ReleaseDescriptor createReleaseDescriptor()
     {
         ReleaseDescriptor releaseDescriptor = new ReleaseDescriptor();
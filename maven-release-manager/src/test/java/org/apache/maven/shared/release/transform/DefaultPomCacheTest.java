@@ -0,0 +1,186 @@
+package org.apache.maven.shared.release.transform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+
+import org.codehaus.plexus.PlexusTestCase;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Test the cache of parsed POMs.
+ */
+public class DefaultPomCacheTest
+    extends PlexusTestCase
+{
+    private DefaultPomCache cache;
+
+    private File directory;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        cache = (DefaultPomCache) lookup( PomCache.ROLE );
+        cache.clear();
+
+        directory = getTestFile( "target/pom-cache" );
+        FileUtils.deleteDirectory( directory );
+        directory.mkdirs();
+    }
+
+    public void testUnchangedPomIsParsedOnce()
+        throws Exception
+    {
+        File pom = writePom( "a", "1.0-SNAPSHOT", true );
+
+        PomDocument first = cache.getDocument( pom, "\n" );
+        first.getRootElement().getChild( "version" ).setText( "1.0" );
+        PomDocument second = cache.getDocument( pom, "\n" );
+
+        assertNotSame( first, second );
+        assertFalse( "Edits of one copy must not leak into the next", second.isModified() );
+        assertEquals( "1.0-SNAPSHOT", second.getRootElement().getChild( "version" ).getText() );
+        assertEquals( 1, cache.getCacheHits() );
+        assertEquals( 1, cache.getCacheMisses() );
+    }
+
+    public void testChangedPomIsParsedAgain()
+        throws Exception
+    {
+        File pom = writePom( "a", "1.0-SNAPSHOT", true );
+        cache.getDocument( pom, "\n" );
+
+        writePom( "a", "1.0", true );
+        PomDocument document = cache.getDocument( pom, "\n" );
+
+        assertEquals( "1.0", document.getRootElement().getChild( "version" ).getText() );
+        assertEquals( 0, cache.getCacheHits() );
+        assertEquals( 2, cache.getCacheMisses() );
+    }
+
+    public void testRecentlyModifiedPomIsCheckedByContent()
+        throws Exception
+    {
+        File pom = writePom( "a", "1.0", false );
+        long lastModified = pom.lastModified();
+        cache.getDocument( pom, "\n" );
+
+        // same size and modification time, different content
+        writePom( "a", "2.0", false );
+        pom.setLastModified( lastModified );
+        PomDocument document = cache.getDocument( pom, "\n" );
+
+        assertEquals( "2.0", document.getRootElement().getChild( "version" ).getText() );
+        assertEquals( 2, cache.getCacheMisses() );
+
+        cache.getDocument( pom, "\n" );
+        assertEquals( 1, cache.getCacheHits() );
+    }
+
+    public void testWrittenPomIsNotReadAgain()
+        throws Exception
+    {
+        File pom = writePom( "a", "1.0", false );
+        cache.put( pom, FileUtils.fileRead( pom, "UTF-8" ), "\n" );
+
+        PomDocument document = cache.getDocument( pom, "\n" );
+
+        assertEquals( "1.0", document.getRootElement().getChild( "version" ).getText() );
+        assertEquals( 1, cache.getCacheHits() );
+        assertEquals( 0, cache.getCacheMisses() );
+
+        // same size and modification time, different content
+        long lastModified = pom.lastModified();
+        writePom( "a", "2.0", false );
+        pom.setLastModified( lastModified );
+        document = cache.getDocument( pom, "\n" );
+
+        assertEquals( "2.0", document.getRootElement().getChild( "version" ).getText() );
+        assertEquals( 1, cache.getCacheMisses() );
+    }
+
+    public void testInvalidate()
+        throws Exception
+    {
+        File pom = writePom( "a", "1.0", true );
+        cache.getDocument( pom, "\n" );
+
+        cache.invalidate( pom );
+        cache.getDocument( pom, "\n" );
+
+        assertEquals( 0, cache.getCacheHits() );
+        assertEquals( 2, cache.getCacheMisses() );
+    }
+
+    public void testLineSeparatorIsPartOfTheKey()
+        throws Exception
+    {
+        File pom = writePom( "a", "1.0", true );
+
+        assertTrue( cache.getDocument( pom, "\r\n" ).toString().indexOf( "\r\n" ) > 0 );
+        assertTrue( cache.getDocument( pom, "\n" ).toString().indexOf( "\r\n" ) < 0 );
+        assertEquals( 2, cache.getCacheMisses() );
+    }
+
+    public void testLeastRecentlyUsedPomIsEvicted()
+        throws Exception
+    {
+        cache.setMaxEntries( 2 );
+        try
+        {
+            File a = writePom( "a", "1.0", true );
+            File b = writePom( "b", "1.0", true );
+            File c = writePom( "c", "1.0", true );
+
+            cache.getDocument( a, "\n" );
+            cache.getDocument( b, "\n" );
+            cache.getDocument( a, "\n" );
+            cache.getDocument( c, "\n" );
+            assertEquals( 1, cache.getCacheHits() );
+
+            cache.getDocument( a, "\n" );
+            assertEquals( 2, cache.getCacheHits() );
+
+            cache.getDocument( b, "\n" );
+            assertEquals( 2, cache.getCacheHits() );
+            assertEquals( 4, cache.getCacheMisses() );
+        }
+        finally
+        {
+            cache.setMaxEntries( 1000 );
+        }
+    }
+
+    private File writePom( String artifactId, String version, boolean settled )
+        throws Exception
+    {
+        File pom = new File( directory, artifactId + ".xml" );
+        FileUtils.fileWrite( pom.getAbsolutePath(), "UTF-8", "<project>\n  <artifactId>" + artifactId
+            + "</artifactId>\n  <version>" + version + "</version>\n</project>\n" );
+        if ( settled )
+        {
+            // old enough for its modification time to be trusted
+            pom.setLastModified( System.currentTimeMillis() - 60000 - version.length() * 1000 );
+        }
+        return pom;
+    }
+}
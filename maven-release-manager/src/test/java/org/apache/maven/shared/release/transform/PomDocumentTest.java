@@ -0,0 +1,211 @@
+package org.apache.maven.shared.release.transform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+
+/**
+ * Test the lossless POM editor.
+ */
+public class PomDocumentTest
+    extends TestCase
+{
+    private static final String POM = "<?xml version=\"1.0\"?>\n" + "<!DOCTYPE project [<!ENTITY foo \"bar\">]>\n"
+        + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\"\n" + "         a='1'>\n"
+        + "  <!-- <version>comment</version> -->\n" + "  <artifactId>a</artifactId>\n"
+        + "  <version>  1.0-SNAPSHOT  </version>\n" + "  <name>&lt;&#x00DF;&gt;</name>\n"
+        + "  <url/>\n" + "  <description><![CDATA[x]]></description>\n" + "</project>\n";
+
+    public void testRoundTripIsVerbatim()
+        throws Exception
+    {
+        PomDocument document = new PomDocument( POM, "\n" );
+
+        assertFalse( document.isModified() );
+        assertEquals( POM, document.toString() );
+    }
+
+    public void testNavigation()
+        throws Exception
+    {
+        PomElement project = new PomDocument( POM, "\n" ).getRootElement();
+
+        assertEquals( "project", project.getName() );
+        assertEquals( "1", project.getAttribute( "a" ) );
+        assertEquals( 5, project.getChildren().size() );
+        assertEquals( "1.0-SNAPSHOT", project.getChild( "version" ).getTextTrim() );
+        assertEquals( "<ß>", project.getChild( "name" ).getText() );
+        assertEquals( "x", project.getChild( "description" ).getText() );
+        assertEquals( "", project.getChild( "url" ).getText() );
+        assertNull( project.getChild( "scm" ) );
+    }
+
+    public void testSetTextKeepsSurroundingWhitespace()
+        throws Exception
+    {
+        PomDocument document = new PomDocument( POM, "\n" );
+        document.getRootElement().getChild( "version" ).setText( "1.0" );
+
+        assertTrue( document.isModified() );
+        assertEquals( POM.replace( "  1.0-SNAPSHOT  ", "  1.0  " ), document.toString() );
+    }
+
+    public void testSetTextEscapesAndKeepsCdata()
+        throws Exception
+    {
+        PomDocument document = new PomDocument( POM, "\n" );
+        document.getRootElement().getChild( "name" ).setText( "a&b" );
+        document.getRootElement().getChild( "description" ).setText( "y" );
+        document.getRootElement().getChild( "url" ).setText( "http://x" );
+
+        String expected = POM.replace( "&lt;&#x00DF;&gt;", "a&amp;b" ).replace( "CDATA[x]", "CDATA[y]" );
+        expected = expected.replace( "<url/>", "<url>http://x</url>" );
+        assertEquals( expected, document.toString() );
+    }
+
+    public void testSetTextToSameValueIsNotAModification()
+        throws Exception
+    {
+        PomDocument document = new PomDocument( POM, "\n" );
+        document.getRootElement().getChild( "artifactId" ).setText( "a" );
+        document.getRootElement().setAttribute( "a", "1" );
+
+        assertFalse( document.isModified() );
+        assertEquals( POM, document.toString() );
+    }
+
+    public void testAddContentUsesLineSeparator()
+        throws Exception
+    {
+        PomDocument document = new PomDocument( POM.replace( "\n", "\r\n" ), "\r\n" );
+        PomElement scm = new PomElement( "scm" );
+        scm.addContent( "\n    " ).addContent( new PomElement( "url" ) ).addContent( "\n  " );
+        scm.getChild( "url" ).setText( "http://scm" );
+        document.getRootElement().addContent( "  " ).addContent( scm ).addContent( "\n" );
+
+        String expected = POM.replace( "</project>", "  <scm>\n    <url>http://scm</url>\n  </scm>\n</project>" );
+        assertEquals( expected.replace( "\n", "\r\n" ), document.toString() );
+    }
+
+    public void testAddContentAfter()
+        throws Exception
+    {
+        PomDocument document = new PomDocument( POM, "\n" );
+        PomElement project = document.getRootElement();
+        PomElement groupId = new PomElement( "groupId" );
+        groupId.setText( "g" );
+        project.addContentAfter( project.getChild( "artifactId" ), "\n  ", groupId );
+
+        String expected =
+            POM.replace( "<artifactId>a</artifactId>", "<artifactId>a</artifactId>\n  <groupId>g</groupId>" );
+        assertEquals( expected, document.toString() );
+    }
+
+    public void testDetach()
+        throws Exception
+    {
+        PomDocument document = new PomDocument( POM, "\n" );
+        document.getRootElement().getChild( "url" ).detach();
+
+        assertEquals( POM.replace( "\n  <url/>", "" ), document.toString() );
+    }
+
+    public void testSetNewAttribute()
+        throws Exception
+    {
+        PomDocument document = new PomDocument( POM, "\n" );
+        document.getRootElement().setAttribute( "b", "x\"y" );
+
+        assertEquals( POM.replace( "a='1'", "a='1' b=\"x&quot;y\"" ), document.toString() );
+    }
+
+    public void testUnifiedDiff()
+        throws Exception
+    {
+        PomDocument document = new PomDocument( POM, "\n" );
+        assertEquals( "", document.toUnifiedDiff( "pom.xml" ) );
+
+        document.getRootElement().getChild( "version" ).setText( "1.0" );
+
+        assertEquals( "--- a/pom.xml\n+++ b/pom.xml\n@@ -4,7 +4,7 @@\n          a='1'>\n"
+            + "   <!-- <version>comment</version> -->\n   <artifactId>a</artifactId>\n"
+            + "-  <version>  1.0-SNAPSHOT  </version>\n+  <version>  1.0  </version>\n"
+            + "   <name>&lt;&#x00DF;&gt;</name>\n   <url/>\n   <description><![CDATA[x]]></description>\n",
+                      document.toUnifiedDiff( "pom.xml" ) );
+    }
+
+    public void testUnifiedDiffLeavesOutUnchangedLines()
+        throws Exception
+    {
+        PomDocument document = new PomDocument( POM, "\n" );
+        document.getRootElement().getChild( "url" ).detach();
+
+        assertEquals( "--- a/pom.xml\n+++ b/pom.xml\n@@ -6,6 +6,5 @@\n   <artifactId>a</artifactId>\n"
+            + "   <version>  1.0-SNAPSHOT  </version>\n   <name>&lt;&#x00DF;&gt;</name>\n-  <url/>\n"
+            + "   <description><![CDATA[x]]></description>\n </project>\n", document.toUnifiedDiff( "pom.xml" ) );
+    }
+
+    public void testUnifiedDiffOfDistantChanges()
+        throws Exception
+    {
+        StringBuffer pom = new StringBuffer( "<project>\n" );
+        for ( int i = 0; i < 15; i++ )
+        {
+            pom.append( "  <a" ).append( i ).append( ">" ).append( i ).append( "</a" ).append( i ).append( ">\n" );
+        }
+        pom.append( "</project>\n" );
+
+        PomDocument document = new PomDocument( pom.toString(), "\n" );
+        document.getRootElement().getChild( "a13" ).setText( "x" );
+        document.getRootElement().getChild( "a1" ).setText( "x" );
+        String diff = document.toUnifiedDiff( "sub/pom.xml" );
+
+        assertTrue( diff, diff.startsWith( "--- a/sub/pom.xml\n+++ b/sub/pom.xml\n@@ -1,6 +1,6 @@\n <project>\n" ) );
+        assertTrue( diff, diff.indexOf( "-  <a1>1</a1>\n+  <a1>x</a1>\n" ) > 0 );
+        assertTrue( diff, diff.indexOf( "\n@@ -12,6 +12,6 @@\n" ) > 0 );
+        assertTrue( diff, diff.endsWith( "-  <a13>13</a13>\n+  <a13>x</a13>\n   <a14>14</a14>\n </project>\n" ) );
+    }
+
+    public void testUnifiedDiffWithoutNewlineAtEndOfFile()
+        throws Exception
+    {
+        PomDocument document = new PomDocument( "<project><v>1</v></project>", "\n" );
+        document.getRootElement().getChild( "v" ).setText( "2" );
+
+        assertEquals( "--- a/pom.xml\n+++ b/pom.xml\n@@ -1 +1 @@\n-<project><v>1</v></project>\n"
+            + "\\ No newline at end of file\n+<project><v>2</v></project>\n\\ No newline at end of file\n",
+                      document.toUnifiedDiff( "pom.xml" ) );
+    }
+
+    public void testMalformedDocument()
+    {
+        try
+        {
+            new PomDocument( "<project>\n  <version>1.0</project>", "\n" );
+            fail( "Should have failed to parse" );
+        }
+        catch ( IOException e )
+        {
+            assertTrue( e.getMessage(), e.getMessage().indexOf( "line 2" ) >= 0 );
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.apache.maven.shared.release.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.codehaus.plexus.PlexusTestCase;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.ReaderFactory;
+
+/**
+ * Test the single pass XML file reader against the XML stream reader and regular expression it replaces.
+ */
+public class XmlFileReaderTest
+    extends TestCase
+{
+    private static final String POM = "<project>\r\n  <name>\u00e9t\u00e9 \u20ac</name>\r  <version>1.0</version>\n"
+        + "</project>";
+
+    public void testNormalizeLineEndingsMatchesRegularExpression()
+    {
+        Random random = new Random( 42 );
+        char[] alphabet = { 'a', '\r', '\n', ' ' };
+        String[] separators = { "\n", "\r\n", "" };
+        for ( int i = 0; i < 1000; i++ )
+        {
+            char[] chars = new char[random.nextInt( 12 )];
+            for ( int j = 0; j < chars.length; j++ )
+            {
+                chars[j] = alphabet[random.nextInt( alphabet.length )];
+            }
+            String text = new String( chars );
+            for ( int j = 0; j < separators.length; j++ )
+            {
+                assertEquals( text.replaceAll( "(\r\n)|(\n)|(\r)", separators[j] ),
+                              XmlFileReader.normalizeLineEndings( text, separators[j] ) );
+            }
+        }
+    }
+
+    public void testDecodeMatchesXmlStreamReader()
+        throws Exception
+    {
+        assertDecoded( POM.getBytes( "UTF-8" ) );
+        assertDecoded( ( "<?xml version=\"1.0\"?>\n" + POM ).getBytes( "UTF-8" ) );
+        assertDecoded( ( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + POM ).getBytes( "UTF-8" ) );
+        assertDecoded( ( "<?xml version='1.0' encoding = 'ISO-8859-15'?>\n" + POM ).getBytes( "ISO-8859-15" ) );
+        assertDecoded( ( "\uFEFF<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + POM ).getBytes( "UTF-8" ) );
+        assertDecoded( ( "\uFEFF" + POM ).getBytes( "UTF-16BE" ) );
+        assertDecoded( ( "\uFEFF" + POM ).getBytes( "UTF-16LE" ) );
+        assertDecoded( ( "<?xml version=\"1.0\" encoding=\"UTF-16\"?>\n" + POM ).getBytes( "UTF-16LE" ) );
+    }
+
+    public void testLineBreakAcrossChunks()
+        throws Exception
+    {
+        StringBuffer text = new StringBuffer( "<project>" );
+        while ( text.length() < 8191 )
+        {
+            text.append( 'x' );
+        }
+        text.append( "\r\n</project>\r\n" );
+
+        String decoded = XmlFileReader.decode( text.toString().getBytes( "UTF-8" ), "\n" );
+
+        assertEquals( text.toString().replaceAll( "\r\n", "\n" ), decoded );
+    }
+
+    public void testRead()
+        throws Exception
+    {
+        File file = PlexusTestCase.getTestFile( "target/xml-file-reader/pom.xml" );
+        file.getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream( file );
+        try
+        {
+            out.write( POM.getBytes( "UTF-8" ) );
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+
+        assertEquals( POM.replaceAll( "(\r\n)|(\n)|(\r)", "\r\n" ), XmlFileReader.read( file, "\r\n" ) );
+        assertEquals( POM.replaceAll( "(\r\n)|(\n)|(\r)", "\n" ), ReleaseUtil.readXmlFile( file, "\n" ) );
+    }
+
+    private static void assertDecoded( byte[] bytes )
+        throws Exception
+    {
+        String expected = IOUtil.toString( ReaderFactory.newXmlReader( new ByteArrayInputStream( bytes ) ) );
+        expected = expected.replaceAll( "(\r\n)|(\n)|(\r)", "\n" );
+
+        assertEquals( expected, XmlFileReader.decode( bytes, "\n" ) );
+    }
+}
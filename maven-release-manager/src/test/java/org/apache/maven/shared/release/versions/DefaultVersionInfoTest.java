@@ -19,7 +19,14 @@ package org.apache.maven.shared.release.versions;
  * under the License.
  */
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+
+import org.apache.maven.artifact.Artifact;
 import org.codehaus.plexus.PlexusTestCase;
+import org.codehaus.plexus.util.StringUtils;
 
 public class DefaultVersionInfoTest
     extends PlexusTestCase
@@ -242,6 +249,130 @@ public class DefaultVersionInfoTest
         assertFalse( new DefaultVersionInfo( "1.01-beta-04_20051112.134500-1" ).isSnapshot() );
     }
 
+    public void testParseMatchesRegularExpressions()
+        throws Exception
+    {
+        Random random = new Random( 42 );
+        String[] parts = { "1", "09", "12", ".", "-", "_", "beta", "RC", "SNAPSHOT", "20051013", "134500", "x", "\n" };
+        for ( int i = 0; i < 5000; i++ )
+        {
+            StringBuffer version = new StringBuffer();
+            int count = random.nextInt( 8 );
+            for ( int j = 0; j < count; j++ )
+            {
+                version.append( parts[random.nextInt( parts.length )] );
+            }
+            checkParsingMatchesRegularExpressions( version.toString() );
+        }
+
+        String[] versions = { "SNAPSHOT", "trunk-SNAPSHOT", "a_SNAPSHOT", "-SNAPSHOT", "1.0-SNAPSHOT-x", "1.", "1..2",
+            "1.0-beta--x", "1.0--1", "1.0-20051013.134500-2", "1.0-20051013x134500-2", "1.0-20051013.134500-",
+            "x-20051013.134500-2", "-20051013.134500-2", "1.0-20051013\n134500-2" };
+        for ( int i = 0; i < versions.length; i++ )
+        {
+            checkParsingMatchesRegularExpressions( versions[i] );
+        }
+    }
+
+    public void testValueOfSharesInstances()
+        throws Exception
+    {
+        DefaultVersionInfo v = DefaultVersionInfo.valueOf( "1.0-beta-4-SNAPSHOT" );
+
+        assertSame( v, DefaultVersionInfo.valueOf( "1.0-beta-4-SNAPSHOT" ) );
+        assertEquals( "1.0-beta-5-SNAPSHOT", v.getNextVersion().toString() );
+        assertEquals( Arrays.asList( new String[] { "1", "0" } ), v.getDigits() );
+
+        // the digits are copied, so changing them leaves the shared instance as it was
+        v.getDigits().set( 1, "1" );
+        assertEquals( Arrays.asList( new String[] { "1", "0" } ), v.getDigits() );
+
+        try
+        {
+            DefaultVersionInfo.valueOf( "foo" );
+            fail( "version is incorrect, must fail." );
+        }
+        catch ( VersionParseException e )
+        {
+        }
+    }
+
+    private static void checkParsingMatchesRegularExpressions( String strVersion )
+        throws Exception
+    {
+        DefaultVersionInfo expected = null;
+        if ( DefaultVersionInfo.ALTERNATE_PATTERN.matcher( strVersion ).matches() )
+        {
+            expected = new DefaultVersionInfo( null, null, null, strVersion, null, null, null );
+        }
+        else
+        {
+            Matcher m = DefaultVersionInfo.STANDARD_PATTERN.matcher( strVersion );
+            if ( m.matches() )
+            {
+                List<String> digits = Arrays.asList( StringUtils.split( m.group( 1 ), "." ) );
+                if ( "SNAPSHOT".equals( m.group( 3 ) ) )
+                {
+                    expected = new DefaultVersionInfo( digits, null, null, m.group( 3 ), null, null, m.group( 2 ) );
+                }
+                else if ( StringUtils.isNotEmpty( m.group( 4 ) ) && StringUtils.isEmpty( m.group( 5 ) ) )
+                {
+                    expected = new DefaultVersionInfo( digits, emptyToNull( m.group( 3 ) ), null,
+                                                       emptyToNull( m.group( 7 ) ), m.group( 2 ), null, m.group( 4 ) );
+                }
+                else
+                {
+                    expected = new DefaultVersionInfo( digits, emptyToNull( m.group( 3 ) ),
+                                                       emptyToNull( m.group( 5 ) ), emptyToNull( m.group( 7 ) ),
+                                                       m.group( 2 ), m.group( 4 ), m.group( 6 ) );
+                }
+            }
+        }
+
+        DefaultVersionInfo v;
+        try
+        {
+            v = new DefaultVersionInfo( strVersion );
+        }
+        catch ( VersionParseException e )
+        {
+            assertNull( strVersion, expected );
+            return;
+        }
+        assertNotNull( strVersion, expected );
+
+        assertEquals( strVersion, expected.getDigits(), v.getDigits() );
+        assertEquals( strVersion, expected.getAnnotation(), v.getAnnotation() );
+        assertEquals( strVersion, expected.getAnnotationRevision(), v.getAnnotationRevision() );
+        assertEquals( strVersion, expected.getBuildSpecifier(), v.getBuildSpecifier() );
+        assertEquals( strVersion, getNextVersion( expected ), getNextVersion( v ) );
+
+        Matcher m = Artifact.VERSION_FILE_PATTERN.matcher( strVersion );
+        assertEquals( strVersion, m.matches() || strVersion.endsWith( "SNAPSHOT" ), v.isSnapshot() );
+        if ( m.matches() )
+        {
+            assertEquals( strVersion, m.group( 1 ), v.getReleaseVersionString() );
+        }
+    }
+
+    private static String getNextVersion( VersionInfo v )
+    {
+        try
+        {
+            return String.valueOf( v.getNextVersion() );
+        }
+        catch ( NumberFormatException e )
+        {
+            // digits too long to increment
+            return e.getClass().getName();
+        }
+    }
+
+    private static String emptyToNull( String s )
+    {
+        return StringUtils.isEmpty( s ) ? null : s;
+    }
+
     private static void checkGetReleaseVersion( String strVersion, String expected )
         throws Exception
     {
@@ -180,7 +180,9 @@ public abstract class AbstractReleaseMojo
     protected File localRepoDirectory;
 
     /**
-     * Role hint of the {@link org.apache.maven.shared.release.exec.MavenExecutor} implementation to use.
+     * Role hint of the {@link org.apache.maven.shared.release.exec.MavenExecutor} implementation to use. Use
+     * <code>invoker</code> or <code>forked-path</code> to start a new Maven for every set of goals, or
+     * <code>persistent</code> to run all the goals of the release in one long-lived Maven 3 process.
      *
      * @parameter expression="${mavenExecutorId}" default-value="invoker"
      * @since 2.0-beta-8
@@ -19,6 +19,7 @@ package org.apache.maven.plugins.release;
  * under the License.
  */
 
+import java.io.File;
 import java.util.Arrays;
 
 import org.apache.maven.plugin.MojoExecutionException;
@@ -135,6 +136,33 @@ public class BranchReleaseMojo
      */
     private boolean dryRun;
 
+    /**
+     * With <code>dryRun</code>, report the modifications to the POMs as one unified diff per phase in
+     * <code>target/release-poms-*.diff</code> instead of writing a modified copy alongside every POM.
+     *
+     * @parameter expression="${dryRunDiff}" default-value="false"
+     * @since 2.2.2
+     */
+    private boolean dryRunDiff;
+
+    /**
+     * Ask for the new version of the projects at the same version once, rather than once for each project.
+     *
+     * @parameter expression="${groupVersionMapping}" default-value="false"
+     * @since 2.2.2
+     */
+    private boolean groupVersionMapping;
+
+    /**
+     * A properties file giving the new version of the projects at a version, so that they are not asked for. The
+     * release or branch version of the projects at <code>1.0-SNAPSHOT</code> is given by the key
+     * <code>rel.1.0-SNAPSHOT</code>, and their development version by the key <code>dev.1.0-SNAPSHOT</code>.
+     *
+     * @parameter expression="${versionRules}"
+     * @since 2.2.2
+     */
+    private File versionRules;
+
     /**
      * Whether to add a schema to the POM if it was previously missing on release.
      *
@@ -174,6 +202,32 @@ public class BranchReleaseMojo
      */
     private String checkModificationExcludeList;
 
+    /**
+     * Only check the files matching these glob patterns for modifications on the working copy. A pattern without
+     * <code>/</code> matches a file name in any directory, and <code>**</code> matches any number of directories.
+     *
+     * @parameter
+     * @since 2.2.2
+     */
+    private String[] checkModificationIncludes;
+
+    /**
+     * Command-line version of checkModificationIncludes
+     *
+     * @parameter expression="${checkModificationIncludeList}"
+     * @since 2.2.2
+     */
+    private String checkModificationIncludeList;
+
+    /**
+     * Only check the files of the projects being released for modifications, rather than the whole working copy.
+     * The files of modules left out of the reactor are then ignored.
+     *
+     * @parameter expression="${checkModificationsInModules}" default-value="false"
+     * @since 2.2.2
+     */
+    private boolean checkModificationsInModules;
+
     /**
      * Default version to use when preparing a release or a branch.
      *
@@ -213,6 +267,12 @@ public class BranchReleaseMojo
         config.setDefaultReleaseVersion( releaseVersion );
         config.setDefaultDevelopmentVersion( developmentVersion );
         config.setSuppressCommitBeforeTagOrBranch( suppressCommitBeforeBranch );
+        config.setDryRunDiff( dryRunDiff );
+        config.setGroupVersionMapping( groupVersionMapping );
+        if ( versionRules != null )
+        {
+            config.setVersionRulesFile( versionRules.getAbsolutePath() );
+        }
 
         // Create a config containing values from the session properties (ie command line properties with cli).
         ReleaseDescriptor sysPropertiesConfig
@@ -229,6 +289,17 @@ public class BranchReleaseMojo
             config.setCheckModificationExcludes( Arrays.asList( checkModificationExcludes ) );
         }
 
+        if ( checkModificationIncludeList != null )
+        {
+            checkModificationIncludes = checkModificationIncludeList.replaceAll( "\\s", "" ).split( "," );
+        }
+
+        if ( checkModificationIncludes != null )
+        {
+            config.setCheckModificationIncludes( Arrays.asList( checkModificationIncludes ) );
+        }
+        config.setCheckModificationsInModules( checkModificationsInModules );
+
         try
         {
             releaseManager.branch( config, getReleaseEnvironment(), reactorProjects, dryRun );
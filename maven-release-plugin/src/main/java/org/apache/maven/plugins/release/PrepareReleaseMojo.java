@@ -27,6 +27,7 @@ import org.apache.maven.shared.release.ReleaseFailureException;
 import org.apache.maven.shared.release.config.ReleaseDescriptor;
 import org.apache.maven.shared.release.config.ReleaseUtils;
 
+import java.io.File;
 import java.util.Arrays;
 
 /**
@@ -96,6 +97,43 @@ public class PrepareReleaseMojo
      */
     private boolean dryRun;
 
+    /**
+     * With <code>dryRun</code>, report the modifications to the POMs as one unified diff per phase in
+     * <code>target/release-poms-*.diff</code> instead of writing a modified copy alongside every POM.
+     *
+     * @parameter expression="${dryRunDiff}" default-value="false"
+     * @since 2.2.2
+     */
+    private boolean dryRunDiff;
+
+    /**
+     * Resolve the SNAPSHOT dependencies external to the project without prompting, to the timestamped version last
+     * downloaded to the local repository. The <code>maven-metadata-*.xml</code> files of the local repository are
+     * read, so the remote repositories are not accessed. Snapshots that were never downloaded are left unresolved.
+     *
+     * @parameter expression="${autoResolveSnapshots}" default-value="false"
+     * @since 2.2.2
+     */
+    private boolean autoResolveSnapshots;
+
+    /**
+     * Ask for the new version of the projects at the same version once, rather than once for each project.
+     *
+     * @parameter expression="${groupVersionMapping}" default-value="false"
+     * @since 2.2.2
+     */
+    private boolean groupVersionMapping;
+
+    /**
+     * A properties file giving the new version of the projects at a version, so that they are not asked for. The
+     * release or branch version of the projects at <code>1.0-SNAPSHOT</code> is given by the key
+     * <code>rel.1.0-SNAPSHOT</code>, and their development version by the key <code>dev.1.0-SNAPSHOT</code>.
+     *
+     * @parameter expression="${versionRules}"
+     * @since 2.2.2
+     */
+    private File versionRules;
+
     /**
      * Whether to add a schema to the POM if it was previously missing on release.
      *
@@ -166,6 +204,32 @@ public class PrepareReleaseMojo
      */
     private String checkModificationExcludeList;
 
+    /**
+     * Only check the files matching these glob patterns for modifications on the working copy. A pattern without
+     * <code>/</code> matches a file name in any directory, and <code>**</code> matches any number of directories.
+     *
+     * @parameter
+     * @since 2.2.2
+     */
+    private String[] checkModificationIncludes;
+
+    /**
+     * Command-line version of checkModificationIncludes
+     *
+     * @parameter expression="${checkModificationIncludeList}"
+     * @since 2.2.2
+     */
+    private String checkModificationIncludeList;
+
+    /**
+     * Only check the files of the projects being released for modifications, rather than the whole working copy.
+     * The files of modules left out of the reactor are then ignored.
+     *
+     * @parameter expression="${checkModificationsInModules}" default-value="false"
+     * @since 2.2.2
+     */
+    private boolean checkModificationsInModules;
+
     /**
      * Default version to use when preparing a release or a branch.
      *
@@ -281,6 +345,13 @@ public class PrepareReleaseMojo
         config.setUpdateWorkingCopyVersions( updateWorkingCopyVersions );
         config.setSuppressCommitBeforeTagOrBranch( suppressCommitBeforeTag );
         config.setWaitBeforeTagging( waitBeforeTagging );
+        config.setDryRunDiff( dryRunDiff );
+        config.setAutoResolveSnapshots( autoResolveSnapshots );
+        config.setGroupVersionMapping( groupVersionMapping );
+        if ( versionRules != null )
+        {
+            config.setVersionRulesFile( versionRules.getAbsolutePath() );
+        }
 
         if ( checkModificationExcludeList != null )
         {
@@ -292,6 +363,17 @@ public class PrepareReleaseMojo
             config.setCheckModificationExcludes( Arrays.asList( checkModificationExcludes ) );
         }
 
+        if ( checkModificationIncludeList != null )
+        {
+            checkModificationIncludes = checkModificationIncludeList.replaceAll( "\\s", "" ).split( "," );
+        }
+
+        if ( checkModificationIncludes != null )
+        {
+            config.setCheckModificationIncludes( Arrays.asList( checkModificationIncludes ) );
+        }
+        config.setCheckModificationsInModules( checkModificationsInModules );
+
         // Create a config containing values from the session properties (ie command line properties with cli).
         ReleaseDescriptor sysPropertiesConfig
                 = ReleaseUtils.copyPropertiesToReleaseDescriptor( session.getExecutionProperties() );
@@ -19,6 +19,7 @@ package org.apache.maven.plugins.release;
  * under the License.
  */
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -71,6 +72,24 @@ public class UpdateVersionsMojo
      */
     private String developmentVersion;
 
+    /**
+     * Ask for the new version of the projects at the same version once, rather than once for each project.
+     *
+     * @parameter expression="${groupVersionMapping}" default-value="false"
+     * @since 2.2.2
+     */
+    private boolean groupVersionMapping;
+
+    /**
+     * A properties file giving the new version of the projects at a version, so that they are not asked for. The
+     * release or branch version of the projects at <code>1.0-SNAPSHOT</code> is given by the key
+     * <code>rel.1.0-SNAPSHOT</code>, and their development version by the key <code>dev.1.0-SNAPSHOT</code>.
+     *
+     * @parameter expression="${versionRules}"
+     * @since 2.2.2
+     */
+    private File versionRules;
+
     /**
      * @parameter expression="${session}"
      * @readonly
@@ -91,6 +110,11 @@ public class UpdateVersionsMojo
         config.setAddSchema( addSchema );
         config.setAutoVersionSubmodules( autoVersionSubmodules );
         config.setDefaultDevelopmentVersion( developmentVersion );
+        config.setGroupVersionMapping( groupVersionMapping );
+        if ( versionRules != null )
+        {
+            config.setVersionRulesFile( versionRules.getAbsolutePath() );
+        }
 
         Map originalScmInfo = new HashMap();
         originalScmInfo.put( ArtifactUtils.versionlessKey( project.getGroupId(), project.getArtifactId() ), project.getScm() );